@@ -0,0 +1,59 @@
+package com.itproject.rcpt.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.pricing.PricingService;
+
+/**
+ * Full cost-total computation (cost matrix build plus summary) against a fixed rate card.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int lines;
+
+    private PricingService pricing;
+    private RateCard rates;
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        // price(project, rates) never reads the live rate card, so no RateCardService is needed
+        pricing = new PricingService(null, new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD");
+        rates = SyntheticProjects.rateCard();
+        project = SyntheticProjects.project(lines);
+    }
+
+    @Benchmark
+    public PriceSummary price() {
+        return pricing.price(project, rates);
+    }
+
+    /** Also stores each line's contribution, as every save does. */
+    @Benchmark
+    public Project applyTo() {
+        return pricing.applyTo(project, rates);
+    }
+}
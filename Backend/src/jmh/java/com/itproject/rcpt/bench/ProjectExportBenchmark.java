@@ -0,0 +1,96 @@
+package com.itproject.rcpt.bench;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.ApprovalHistoryRepository;
+import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.service.ApprovalHistoryService;
+import com.itproject.rcpt.service.ProjectCache;
+import com.itproject.rcpt.service.ProjectExportService;
+
+/**
+ * PDF export of a priced project. The repository is an in-memory stub and the project stays in
+ * the project cache, so only document generation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectExportBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int lines;
+
+    private ProjectExportService export;
+    private String projectId;
+
+    @Setup
+    public void setUp() {
+        RateCard rates = SyntheticProjects.rateCard();
+        PricingService pricing = new PricingService(null, new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD");
+        Project project = pricing.applyTo(SyntheticProjects.project(lines), rates);
+        projectId = project.getId();
+        ProjectRepository projects = repositoryOf(project);
+        RateCardService rateCards = SyntheticProjects.rateCardService(rates);
+        ProjectCache cache = new ProjectCache(projects, new PricingCache(pricing, rateCards, 16), rateCards,
+                new ProjectMapperImpl(), new ObjectMapper(), 16);
+        export = new ProjectExportService(cache, new ApprovalHistoryService(projects, emptyHistory(), cache, 50, false));
+    }
+
+    @Benchmark
+    public byte[] exportProjectToPdf() {
+        return export.exportProjectToPdf(projectId);
+    }
+
+    /** Answers findById and findApprovals for the one project; any other call is a benchmark bug. */
+    private static ProjectRepository repositoryOf(Project project) {
+        return (ProjectRepository) Proxy.newProxyInstance(
+                ProjectRepository.class.getClassLoader(),
+                new Class<?>[] { ProjectRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById") && project.getId().equals(args[0])) {
+                        return Optional.of(project);
+                    }
+                    if (method.getName().equals("findApprovals") && project.getId().equals(args[0])) {
+                        return Optional.of(project.getApprovals());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** A project with no approval history yet. */
+    private static ApprovalHistoryRepository emptyHistory() {
+        return (ApprovalHistoryRepository) Proxy.newProxyInstance(
+                ApprovalHistoryRepository.class.getClassLoader(),
+                new Class<?>[] { ApprovalHistoryRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByProjectIdOrderByBucketAsc")) return List.of();
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
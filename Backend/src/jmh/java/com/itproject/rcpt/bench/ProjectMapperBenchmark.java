@@ -0,0 +1,58 @@
+package com.itproject.rcpt.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.project.ProjectCreateRequest;
+import com.itproject.rcpt.dto.project.ProjectResponse;
+import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+
+/**
+ * Entity to response and create-request to entity mapping, i.e. the per-request cost of every
+ * project endpoint outside the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectMapperBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int lines;
+
+    private ProjectMapper mapper;
+    private Project project;
+    private ProjectCreateRequest request;
+
+    @Setup
+    public void setUp() {
+        mapper = new ProjectMapperImpl();
+        project = SyntheticProjects.project(lines);
+        request = SyntheticProjects.createRequest(lines);
+    }
+
+    @Benchmark
+    public ProjectResponse toResponse() {
+        return mapper.toResponse(project);
+    }
+
+    @Benchmark
+    public Project toEntity() {
+        return mapper.toEntity(request);
+    }
+}
@@ -0,0 +1,202 @@
+package com.itproject.rcpt.bench;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.dto.common.MoneyDto;
+import com.itproject.rcpt.dto.common.YearAllocationDto;
+import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostRequest;
+import com.itproject.rcpt.dto.project.ProjectCreateRequest;
+import com.itproject.rcpt.dto.project.ProjectDetailsDto;
+import com.itproject.rcpt.dto.staff.StaffCostRequest;
+import com.itproject.rcpt.enums.EmploymentType;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.entities.EBA;
+import com.itproject.rcpt.jpa.entities.PayrollTax;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.entities.StaffBenefits;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+
+/**
+ * Deterministic benchmark fixtures: a five-year project with {@code lines} cost lines, a quarter
+ * of them salaried staff, and a rate card that prices every one of them.
+ */
+final class SyntheticProjects {
+
+    static final int YEARS = 5;
+    static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private static final String[] LEVELS = { "A1", "B1", "C1", "D1", "E1" };
+
+    private SyntheticProjects() { }
+
+    static Project project(int lines) {
+        int staffLines = lines / 4;
+
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Benchmark project (" + lines + " lines)");
+        d.setFunder("ARC");
+        d.setDepartment("Computing and Information Systems");
+        d.setCurrency("AUD");
+        d.setReferenceCode("BENCH-" + lines);
+        d.setStartDate(START);
+        d.setEndDate(START.plusYears(YEARS).minusDays(1));
+
+        List<StaffCost> staff = new ArrayList<>(staffLines);
+        for (int i = 0; i < staffLines; i++) {
+            StaffCost s = new StaffCost();
+            s.setRole("Research Fellow " + i);
+            s.setEmploymentType(EmploymentType.CONTINUING);
+            s.setClassification(LEVELS[i % LEVELS.length]);
+            s.setTimeBasis("FTE");
+            s.setPerYearUnits(years(0.2 + (i % 8) * 0.1));
+            s.setNotes("Line " + i);
+            staff.add(s);
+        }
+
+        List<NonStaffCost> nonStaff = new ArrayList<>(lines - staffLines);
+        for (int i = staffLines; i < lines; i++) {
+            NonStaffCost n = new NonStaffCost();
+            n.setCategoryCode("TRAVEL");
+            n.setExpenseTypeCode("TRAVEL_DOMESTIC");
+            n.setDescription("Conference trip " + i);
+            n.setUnitCost(new Money(BigDecimal.valueOf(25_000 + i * 137L, 2), "AUD"));
+            n.setPerYearUnits(years(1 + i % 3));
+            n.setInKind(i % 10 == 0);
+            nonStaff.add(n);
+        }
+
+        Project p = new Project();
+        p.setId("bench-" + lines);
+        p.setOwnerUserId("bench-user");
+        p.setStatus(ProjectStatus.DRAFT);
+        p.setDetails(d);
+        p.setStaffCosts(staff);
+        p.setNonStaffCosts(nonStaff);
+        p.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        p.setUpdatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        p.setVersion(1L);
+        return p;
+    }
+
+    static ProjectCreateRequest createRequest(int lines) {
+        int staffLines = lines / 4;
+
+        ProjectDetailsDto d = new ProjectDetailsDto();
+        d.setTitle("Benchmark project (" + lines + " lines)");
+        d.setFunder("ARC");
+        d.setDepartment("Computing and Information Systems");
+        d.setCurrency("AUD");
+        d.setReferenceCode("BENCH-" + lines);
+        d.setStartDate(START);
+        d.setEndDate(START.plusYears(YEARS).minusDays(1));
+
+        List<StaffCostRequest> staff = new ArrayList<>(staffLines);
+        for (int i = 0; i < staffLines; i++) {
+            StaffCostRequest s = new StaffCostRequest();
+            s.setRoleName("Research Fellow " + i);
+            s.setEmploymentType(EmploymentType.CONTINUING);
+            s.setClassification(LEVELS[i % LEVELS.length]);
+            s.setTimeBasis("FTE");
+            s.setTime(yearDtos(0.2 + (i % 8) * 0.1));
+            staff.add(s);
+        }
+
+        List<NonStaffCostRequest> nonStaff = new ArrayList<>(lines - staffLines);
+        for (int i = staffLines; i < lines; i++) {
+            NonStaffCostRequest n = new NonStaffCostRequest();
+            n.setCategoryCode("TRAVEL");
+            n.setExpenseTypeCode("TRAVEL_DOMESTIC");
+            n.setDescription("Conference trip " + i);
+            MoneyDto unitCost = new MoneyDto();
+            unitCost.setAmount(BigDecimal.valueOf(25_000 + i * 137L, 2));
+            unitCost.setCurrency("AUD");
+            n.setUnitCost(unitCost);
+            n.setPerYearUnits(yearDtos(1 + i % 3));
+            n.setInKind(i % 10 == 0);
+            nonStaff.add(n);
+        }
+
+        ProjectCreateRequest req = new ProjectCreateRequest();
+        req.setDetails(d);
+        req.setStaff(staff);
+        req.setNonStaff(nonStaff);
+        return req;
+    }
+
+    static RateCard rateCard() {
+        List<SalaryRate> salaries = new ArrayList<>();
+        for (int i = 0; i < LEVELS.length; i++) {
+            SalaryRate r = new SalaryRate();
+            r.setCode(LEVELS[i]);
+            r.setFteRate(BigDecimal.valueOf(85_000 + i * 20_000L));
+            salaries.add(r);
+        }
+
+        StaffBenefits continuing = new StaffBenefits();
+        continuing.setStaffType("Continuing");
+        continuing.setSuperannuation(new BigDecimal("0.17"));
+        continuing.setLeaveLoading(new BigDecimal("0.0134"));
+        continuing.setWorkCover(new BigDecimal("0.005"));
+        continuing.setParentalLeave(new BigDecimal("0.01"));
+        continuing.setLongServiceLeave(new BigDecimal("0.005"));
+        continuing.setAnnualLeave(new BigDecimal("0.12"));
+
+        List<EBA> ebas = new ArrayList<>();
+        List<PayrollTax> taxes = new ArrayList<>();
+        for (int y = 0; y < YEARS; y++) {
+            EBA e = new EBA();
+            e.setYear(START.getYear() + y);
+            e.setEbaMultiplier(BigDecimal.ONE.add(BigDecimal.valueOf(3L * y, 2)));
+            ebas.add(e);
+            PayrollTax t = new PayrollTax();
+            t.setYear(START.getYear() + y);
+            t.setRate(new BigDecimal("0.0485"));
+            taxes.add(t);
+        }
+
+        return RateCard.empty(1)
+                .with(LookupTable.SALARY_RATE, salaries, 1)
+                .with(LookupTable.STAFF_BENEFITS, List.of(continuing), 1)
+                .with(LookupTable.EBA, ebas, 1)
+                .with(LookupTable.PAYROLL_TAX, taxes, 1);
+    }
+
+    /** A RateCardService that always answers with the given card and never touches a repository. */
+    static RateCardService rateCardService(RateCard card) {
+        return new RateCardService(null, null, null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public RateCard current() {
+                return card;
+            }
+        };
+    }
+
+    private static List<YearAllocation> years(double units) {
+        List<YearAllocation> out = new ArrayList<>(YEARS);
+        for (int y = 1; y <= YEARS; y++) out.add(new YearAllocation(y, units));
+        return out;
+    }
+
+    private static List<YearAllocationDto> yearDtos(double units) {
+        List<YearAllocationDto> out = new ArrayList<>(YEARS);
+        for (int y = 1; y <= YEARS; y++) {
+            YearAllocationDto ya = new YearAllocationDto();
+            ya.setYear(y);
+            ya.setValue(units);
+            out.add(ya);
+        }
+        return out;
+    }
+}
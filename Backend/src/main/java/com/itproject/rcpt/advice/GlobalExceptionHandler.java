@@ -8,6 +8,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,9 +22,10 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.context.request.ServletWebRequest;
 
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import com.itproject.rcpt.service.ConflictException;
 
 @RestControllerAdvice
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -97,7 +99,7 @@ public class GlobalExceptionHandler {
   }
 
   // ---- 409 Conflict: duplicate key, optimistic locking ----
-  @ExceptionHandler({ DuplicateKeyException.class, ObjectOptimisticLockingFailureException.class })
+  @ExceptionHandler({ DuplicateKeyException.class, OptimisticLockingFailureException.class })
   public ResponseEntity<ApiError> handleConflict(Exception ex, ServletWebRequest req) {
     String code = (ex instanceof DuplicateKeyException) ? "DUPLICATE_KEY" : "OPTIMISTIC_LOCK";
     String msg  = (ex instanceof DuplicateKeyException) ? "Duplicate key constraint violated" : "Concurrent update conflict";
@@ -105,6 +107,22 @@ public class GlobalExceptionHandler {
         .body(base(HttpStatus.CONFLICT, code, msg, req));
   }
 
+  // ---- 409 Conflict: action not allowed in the resource's current state ----
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<ApiError> handleInvalidState(ConflictException ex, ServletWebRequest req) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(base(HttpStatus.CONFLICT, "INVALID_STATE", ex.getMessage(), req));
+  }
+
+  // ---- Status chosen by the controller (otherwise caught by the 500 fallback below) ----
+  @ExceptionHandler(ResponseStatusException.class)
+  public ResponseEntity<ApiError> handleResponseStatus(ResponseStatusException ex, ServletWebRequest req) {
+    HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+    String msg = ex.getReason() != null ? ex.getReason() : status.getReasonPhrase();
+    return ResponseEntity.status(status)
+        .body(base(status, status.name(), msg, req));
+  }
+
   // ---- 403 Forbidden (when you add Spring Security) ----
   @ExceptionHandler(AccessDeniedException.class)
   public ResponseEntity<ApiError> handleAccessDenied(AccessDeniedException ex, ServletWebRequest req) {
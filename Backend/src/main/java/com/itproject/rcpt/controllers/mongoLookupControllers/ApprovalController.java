@@ -1,8 +1,11 @@
 package com.itproject.rcpt.controllers.mongoLookupControllers;
 
 import com.itproject.rcpt.domain.Project;
-import com.itproject.rcpt.dto.project.ProjectResponse;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.dto.project.ApprovalActionResponse;
+import com.itproject.rcpt.dto.project.ApprovalEntryResponse;
 import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.service.ApprovalHistoryService;
 import com.itproject.rcpt.service.ApprovalService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,6 +25,10 @@ import org.springframework.web.server.ResponseStatusException;
  * Accepts comment via:
  *  - Query : ?comment=...
  *  - Body  : {"comment":"..."}
+ *
+ * Responds with the new status and the recorded history entry, not the whole project.
+ * The history itself is paged from GET .../approvals/history.
+ * An action the current status does not allow (e.g. approving a DRAFT) returns 409.
  */
 
 @RestController
@@ -29,11 +36,13 @@ import org.springframework.web.server.ResponseStatusException;
 public class ApprovalController {
 
     private final ApprovalService service;
+    private final ApprovalHistoryService historyService;
     private final ProjectMapper mapper;
 
     @Autowired
-    public ApprovalController(ApprovalService service, ProjectMapper mapper) {
+    public ApprovalController(ApprovalService service, ApprovalHistoryService historyService, ProjectMapper mapper) {
         this.service = service;
+        this.historyService = historyService;
         this.mapper = mapper;
     }
 
@@ -46,7 +55,7 @@ public class ApprovalController {
 
     // ---------- Submit ----------
     @PostMapping("/submit")
-    public ResponseEntity<ProjectResponse> submit(
+    public ResponseEntity<ApprovalActionResponse> submit(
             @PathVariable String projectId,
             @RequestHeader(name = "X-User-Id", required = false) String actorHeader,
             @RequestParam(name = "actorUserId", required = false) String actorParam,
@@ -61,12 +70,12 @@ public class ApprovalController {
         String comment = resolveComment(commentParam, body != null ? body.comment : null);
 
         Project project = service.submit(projectId, actor, comment);
-        return ResponseEntity.ok(mapper.toResponse(project));
+        return ResponseEntity.ok(mapper.toApprovalActionResponse(project));
     }
 
     // ---------- Approve ----------
     @PostMapping("/approve")
-    public ResponseEntity<ProjectResponse> approve(
+    public ResponseEntity<ApprovalActionResponse> approve(
             @PathVariable String projectId,
             @RequestHeader(name = "X-User-Id", required = false) String actorHeader,
             @RequestParam(name = "actorUserId", required = false) String actorParam,
@@ -81,12 +90,12 @@ public class ApprovalController {
         String comment = resolveComment(commentParam, body != null ? body.comment : null);
 
         Project project = service.approve(projectId, actor, comment);
-        return ResponseEntity.ok(mapper.toResponse(project));
+        return ResponseEntity.ok(mapper.toApprovalActionResponse(project));
     }
 
     // ---------- Reject ----------
     @PostMapping("/reject")
-    public ResponseEntity<ProjectResponse> reject(
+    public ResponseEntity<ApprovalActionResponse> reject(
             @PathVariable String projectId,
             @RequestHeader(name = "X-User-Id", required = false) String actorHeader,
             @RequestParam(name = "actorUserId", required = false) String actorParam,
@@ -101,12 +110,12 @@ public class ApprovalController {
         String comment = resolveComment(commentParam, body != null ? body.comment : null);
 
         Project project = service.reject(projectId, actor, comment);
-        return ResponseEntity.ok(mapper.toResponse(project));
+        return ResponseEntity.ok(mapper.toApprovalActionResponse(project));
     }
 
     // ---------- Comment ----------
     @PostMapping("/comment")
-    public ResponseEntity<ProjectResponse> comment(
+    public ResponseEntity<ApprovalActionResponse> comment(
             @PathVariable String projectId,
             @RequestHeader(name = "X-User-Id", required = false) String actorHeader,
             @RequestParam(name = "actorUserId", required = false) String actorParam,
@@ -121,7 +130,20 @@ public class ApprovalController {
         String comment = resolveComment(commentParam, body != null ? body.comment : null);
 
         Project project = service.comment(projectId, actor, comment);
-        return ResponseEntity.ok(mapper.toResponse(project));
+        return ResponseEntity.ok(mapper.toApprovalActionResponse(project));
+    }
+
+    // ---------- History ----------
+
+    /**
+     * Approval history, newest first; pass nextCursor back as cursor for older entries.
+     * Example: /api/v1/projects/{projectId}/approvals/history?size=20
+     */
+    @GetMapping("/history")
+    public CursorPage<ApprovalEntryResponse> history(@PathVariable String projectId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        return historyService.page(projectId, cursor, size).map(mapper::toApprovalEntryResponse);
     }
 
     // ---------- helpers ----------
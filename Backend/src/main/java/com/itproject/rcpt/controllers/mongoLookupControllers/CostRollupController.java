@@ -0,0 +1,67 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.domain.CostRollup;
+import com.itproject.rcpt.dto.rollup.RollupReconcileReport;
+import com.itproject.rcpt.service.CostRollupService;
+
+/**
+ * Live project totals per department, school and faculty. Levels are department, school or
+ * faculty; departments are keyed by name, schools and faculties by code.
+ */
+@RestController
+@RequestMapping("/api/v1/rollups")
+public class CostRollupController {
+
+  private final CostRollupService rollups;
+
+  public CostRollupController(CostRollupService rollups) {
+    this.rollups = rollups;
+  }
+
+  /** Every department, school or faculty with its totals. */
+  @GetMapping("/{level}")
+  public List<CostRollup> list(@PathVariable String level) {
+    return rollups.list(level(level));
+  }
+
+  @GetMapping("/{level}/{key}")
+  public CostRollup get(@PathVariable String level, @PathVariable String key) {
+    return rollups.get(level(level), key)
+        .orElseThrow(() -> new NoSuchElementException("No rollup for " + level + " " + key));
+  }
+
+  /** The schools of a faculty or the departments of a school. */
+  @GetMapping("/{level}/{key}/children")
+  public List<CostRollup> children(@PathVariable String level, @PathVariable String key) {
+    return rollups.children(level(level), key);
+  }
+
+  /** Outcome of the current or most recent check against a full recount. */
+  @GetMapping("/reconcile")
+  public RollupReconcileReport reconcileStatus() {
+    return rollups.reconcileStatus();
+  }
+
+  /** Check every rollup against a full recount now (queued behind pending updates). */
+  @PostMapping("/reconcile")
+  public ResponseEntity<RollupReconcileReport> reconcile() {
+    rollups.reconcileNow();
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(rollups.reconcileStatus());
+  }
+
+  private static CostRollup.Level level(String level) {
+    try {
+      return CostRollup.Level.valueOf(level.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown level: " + level + " (department, school or faculty)");
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package com.itproject.rcpt.controllers.mongoLookupControllers;
 
 import com.itproject.rcpt.jpa.entities.NonStaffCosts;
-import com.itproject.rcpt.jpa.repositories.NonStaffCostsRepository;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,11 +24,11 @@ public class ExpenseCatalogController {
   }
 
   @Autowired
-  private NonStaffCostsRepository nonStaffCostsRepository;
+  private RateCardService rateCards;
 
   @GetMapping("/expense-catalog")
   public List<ExpenseTypeItem> expenseCatalog() {
-    List<NonStaffCosts> all = nonStaffCostsRepository.findAll();
+    List<NonStaffCosts> all = rateCards.current().nonStaffCosts();
     return all.stream()
         .map(n -> new ExpenseTypeItem(
             n.getCostSubcategory(),
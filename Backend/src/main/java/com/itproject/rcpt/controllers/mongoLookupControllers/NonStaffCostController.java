@@ -35,10 +35,17 @@ public class NonStaffCostController {
   /** Append one non-staff cost line (returns the new line). */
   @PostMapping("append")
   public NonStaffCostResponse append(@PathVariable String projectId,
-                                     @RequestBody NonStaffCostRequest item) {
+                                        @RequestBody NonStaffCostRequest item) {
     return service.append(projectId, item);
   }
 
+  /** Replace a non-staff cost by list index (returns the new line). */
+  @PutMapping("{index}")
+  public NonStaffCostResponse replaceAt(@PathVariable String projectId, @PathVariable int index,
+                                        @RequestBody NonStaffCostRequest item) {
+    return service.replaceAt(projectId, index, item);
+  }
+
   /** Delete a non-staff cost by list index. */
   @DeleteMapping("{index}")
   public ResponseEntity<Void> deleteAt(@PathVariable String projectId, @PathVariable int index) {
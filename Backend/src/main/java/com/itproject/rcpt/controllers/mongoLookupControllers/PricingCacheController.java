@@ -0,0 +1,31 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.dto.price.PricingCacheStats;
+import com.itproject.rcpt.pricing.PricingCache;
+
+@RestController
+@RequestMapping("/api/v1/pricing/cache")
+public class PricingCacheController {
+
+  private final PricingCache cache;
+
+  public PricingCacheController(PricingCache cache) {
+    this.cache = cache;
+  }
+
+  /** Size, hits, misses and evictions of the pricing result cache. */
+  @GetMapping
+  public PricingCacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Drop every cached summary; counters are kept. */
+  @DeleteMapping
+  public ResponseEntity<Void> clear() {
+    cache.clear();
+    return ResponseEntity.noContent().build();
+  }
+}
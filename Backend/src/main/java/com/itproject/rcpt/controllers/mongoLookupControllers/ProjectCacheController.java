@@ -0,0 +1,31 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.dto.project.ProjectCacheStats;
+import com.itproject.rcpt.service.ProjectCache;
+
+@RestController
+@RequestMapping("/api/v1/projects/cache")
+public class ProjectCacheController {
+
+  private final ProjectCache cache;
+
+  public ProjectCacheController(ProjectCache cache) {
+    this.cache = cache;
+  }
+
+  /** Size, hit rate, evictions and invalidations of the project read cache. */
+  @GetMapping
+  public ProjectCacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Drop every cached project; counters are kept. */
+  @DeleteMapping
+  public ResponseEntity<Void> clear() {
+    cache.clear();
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -1,23 +1,38 @@
 package com.itproject.rcpt.controllers.mongoLookupControllers;
 
 import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.common.CursorPage;
 import com.itproject.rcpt.dto.project.ProjectCreateRequest;
+import com.itproject.rcpt.dto.project.ProjectFields;
+import com.itproject.rcpt.dto.project.ProjectImportReport;
+import com.itproject.rcpt.dto.project.ProjectListFilter;
 import com.itproject.rcpt.dto.project.ProjectResponse;
+import com.itproject.rcpt.dto.project.ProjectSummaryResponse;
 import com.itproject.rcpt.dto.project.ProjectUpdateRequest;
-import com.itproject.rcpt.enums.ProjectStatus;
 import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.service.CurrencyConversionService;
+import com.itproject.rcpt.service.ProjectCache;
 import com.itproject.rcpt.service.ProjectExportService;
+import com.itproject.rcpt.service.ProjectImportService;
+import com.itproject.rcpt.service.ProjectPatchService;
 import com.itproject.rcpt.service.ProjectService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,6 +42,14 @@ import java.util.Optional;
  * Create requires an owner user id via:
  *  - Header: X-User-Id
  *  - Query : ?ownerUserId=...
+ *
+ * Project responses carry a strong ETag that changes with the project version (and with the rate
+ * card the price summary is served at). GET honours If-None-Match with 304; PUT, PATCH and DELETE
+ * honour If-Match with 412. Both are checked without loading the project.
+ *
+ * GET and the full list modes take ?fields= and ?expand= to return only some response members
+ * (see ProjectFields); only those are read from MongoDB and mapped.
+ * Example: /api/v1/projects/{id}?fields=details,status or ?expand= for the overview members.
  */
 
 @RestController
@@ -36,12 +59,24 @@ public class ProjectController {
     private final ProjectService service;
     private final ProjectMapper mapper;
     private final ProjectExportService projectExportService;
+    private final CurrencyConversionService currencyConversionService;
+    private final ProjectImportService importService;
+    private final ProjectPatchService patchService;
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final String JSON_PATCH = "application/json-patch+json";
+    private static final String MERGE_PATCH = "application/merge-patch+json";
 
     @Autowired
-    public ProjectController(ProjectService service, ProjectMapper mapper, ProjectExportService projectExportService) {
+    public ProjectController(ProjectService service, ProjectMapper mapper, ProjectExportService projectExportService,
+                             CurrencyConversionService currencyConversionService, ProjectImportService importService,
+                             ProjectPatchService patchService) {
         this.service = service;
         this.mapper = mapper;
         this.projectExportService = projectExportService;
+        this.currencyConversionService = currencyConversionService;
+        this.importService = importService;
+        this.patchService = patchService;
     }
 
     /**
@@ -54,10 +89,9 @@ public class ProjectController {
             @RequestHeader(name = "X-User-Id", required = false) String ownerHeader,
             @RequestParam(name = "ownerUserId", required = false) String ownerParam
     ) {
-        String ownerUserId = !isBlank(ownerHeader) ? ownerHeader.trim() :
-                             (!isBlank(ownerParam) ? ownerParam.trim() : null);
+        String ownerUserId = owner(ownerHeader, ownerParam);
 
-        if (isBlank(ownerUserId)) {
+        if (ownerUserId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "ownerUserId missing (send X-User-Id header or ownerUserId query param)");
         }
@@ -74,61 +108,228 @@ public class ProjectController {
     }
 
     /**
-     * Get a project by its ID.
+     * Bulk import of projects and cost lines, as NDJSON (Content-Type application/x-ndjson, one
+     * record per line) or CSV (text/csv, header row first). The body is read as a stream.
+     * New projects are owned by the X-User-Id header or ownerUserId param, as for create; cost lines
+     * name a project created above them by ref, or a stored one by projectId.
+     * Records that fail validation are skipped and listed by line in the report.
+     * See ProjectImportService for the record and column formats.
+     */
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", "text/csv" })
+    public ProjectImportReport importProjects(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(name = "X-User-Id", required = false) String ownerHeader,
+            @RequestParam(name = "ownerUserId", required = false) String ownerParam
+    ) {
+        ProjectImportService.Format format = TEXT_CSV.isCompatibleWith(contentType)
+                ? ProjectImportService.Format.CSV : ProjectImportService.Format.NDJSON;
+        return importService.importRecords(body, format, owner(ownerHeader, ownerParam));
+    }
+
+    /**
+     * Get a project by its ID. The body is the ProjectResponse JSON, cached per project version.
+     * With If-None-Match naming the current ETag the answer is 304 with no body, decided from the
+     * cache or the stored version alone. With fields/expand, just those members; each selection
+     * has its own ETag.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectResponse> get(@PathVariable String id) {
-        Optional<Project> project = service.get(id);
-        return project
-                .map(p -> ResponseEntity.ok(mapper.toResponse(p)))
+    public ResponseEntity<?> get(@PathVariable String id,
+                                 @RequestParam(required = false) String fields,
+                                 @RequestParam(required = false) String expand,
+                                 @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProjectFields selected = ProjectFields.parse(fields, expand);
+        if (ifNoneMatch != null) {
+            Optional<ProjectCache.Tag> current = service.etag(id);
+            if (current.isEmpty()) return ResponseEntity.notFound().build();
+            String tag = selected.tag(current.get().value());
+            if (matches(ifNoneMatch, tag, false)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+            }
+        }
+        if (!selected.isAll()) {
+            return service.get(id, selected)
+                    .map(p -> ResponseEntity.ok().eTag(selected.tag(service.etag(p).value()))
+                            .body(mapper.toResponse(p, selected)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return service.getResponseJson(id)
+                .map(r -> ResponseEntity.ok().eTag(r.etag().value()).contentType(MediaType.APPLICATION_JSON).body(r.json()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * List projects with optional filter by owner and status.
+     * Get a project with every amount converted to one currency (not saved).
+     * Example: /api/v1/projects/{id}/converted?currency=AUD&date=2026-01-01 (date defaults to today)
+     */
+    @GetMapping("/{id}/converted")
+    public ResponseEntity<ProjectResponse> getConverted(@PathVariable String id,
+                                                        @RequestParam(defaultValue = "AUD") String currency,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate on = date != null ? date : LocalDate.now();
+        return service.load(id)
+                .map(p -> ResponseEntity.ok(mapper.toResponse(currencyConversionService.convert(p, currency, on))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * List projects. Optional filters, which combine: ownerUserId, status, department, funder,
+     * createdFrom/createdTo (ISO dates, inclusive). Sorted by order=CREATED|UPDATED and
+     * direction=DESC|ASC, newest created first by default. fields/expand as for GET.
      * Example: /api/v1/projects?page=0&size=10&ownerUserId=dev-user-001&status=DRAFT
      */
     @GetMapping
     public Page<ProjectResponse> list(@RequestParam(defaultValue = "0") int page,
                                       @RequestParam(defaultValue = "10") int size,
-                                      @RequestParam(required = false) String ownerUserId,
-                                      @RequestParam(required = false) ProjectStatus status) {
-        return service.list(page, size, ownerUserId, status)
-                .map(mapper::toResponse);
+                                      @RequestParam(required = false) String fields,
+                                      @RequestParam(required = false) String expand,
+                                      ProjectListFilter filter) {
+        ProjectFields selected = ProjectFields.parse(fields, expand);
+        return service.list(filter, page, size, selected)
+                .map(p -> mapper.toResponse(p, selected));
+    }
+
+    /**
+     * Summary listing mode: one small row per project (title, status, owner, dates, totals), without
+     * cost lines or approval history. Same filters and sort as the full list.
+     * Example: /api/v1/projects?view=summary&ownerUserId=dev-user-001&status=DRAFT
+     */
+    @GetMapping(params = { "view=summary", "!cursor" })
+    public Page<ProjectSummaryResponse> listSummaries(@RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "10") int size,
+                                                     ProjectListFilter filter) {
+        return service.listSummaries(filter, page, size)
+                .map(mapper::toSummaryResponse);
+    }
+
+    /**
+     * Cursor listing mode, newest first by creation (default) or last update. Send an empty cursor for
+     * the first page and each response's nextCursor for the one after; count=true adds the total.
+     * Same filters as the full list; view=summary returns summary rows instead of full projects,
+     * otherwise fields/expand apply as for GET.
+     * Example: /api/v1/projects?cursor=&size=20&ownerUserId=dev-user-001&status=DRAFT&order=CREATED
+     */
+    @GetMapping(params = "cursor")
+    public CursorPage<?> listAfter(@RequestParam String cursor,
+                                   @RequestParam(defaultValue = "10") int size,
+                                   @RequestParam(defaultValue = "false") boolean count,
+                                   @RequestParam(required = false) String view,
+                                   @RequestParam(required = false) String fields,
+                                   @RequestParam(required = false) String expand,
+                                   ProjectListFilter filter) {
+        boolean summary = "summary".equals(view);
+        ProjectFields selected = ProjectFields.parse(fields, expand);
+        CursorPage<Project> page = service.listAfter(filter, cursor, size, count, summary, selected);
+        return summary ? page.map(mapper::toSummaryResponse) : page.map(p -> mapper.toResponse(p, selected));
+    }
+
+    /**
+     * Search projects by words in title, funder, reference code or department, best match first.
+     * Returns summary rows; pass nextCursor back as cursor for the next page.
+     * Example: /api/v1/projects/search?q=climate%20ARC&size=20
+     */
+    @GetMapping("/search")
+    public CursorPage<ProjectSummaryResponse> search(@RequestParam String q,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "10") int size) {
+        return service.search(q, cursor, size).map(mapper::toSummaryResponse);
     }
 
     /**
      * Update an existing project (full replace semantics).
+     * With If-Match, only while the project is still at that ETag (412 otherwise, or 409 if it
+     * changes between that check and the write).
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProjectResponse> update(@PathVariable String id,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                   @RequestBody ProjectUpdateRequest request) {
-        Project updated = service.update(id, request);
-        return ResponseEntity.ok(mapper.toResponse(updated));
+        Long expectedVersion = checkIfMatch(id, ifMatch);
+        Project updated = service.update(id, request, expectedVersion);
+        return ResponseEntity.ok().eTag(service.etag(updated).value()).body(mapper.toResponse(updated));
+    }
+
+    /**
+     * Partial update, as a JSON Patch (application/json-patch+json) or merge patch
+     * (application/merge-patch+json) over the same fields as PUT. Only the changed fields are
+     * written; guard against concurrent edits with a test of /version (JSON Patch) or a version
+     * member (merge patch), or with If-Match, whose version then also guards the write.
+     * See ProjectPatchService for what can be patched.
+     */
+    @PatchMapping(value = "/{id}", consumes = { JSON_PATCH, MERGE_PATCH })
+    public ResponseEntity<ProjectResponse> patch(@PathVariable String id,
+                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestBody JsonNode patch) {
+        Long expectedVersion = checkIfMatch(id, ifMatch);
+        ProjectPatchService.Format format = MediaType.parseMediaType(JSON_PATCH).isCompatibleWith(contentType)
+                ? ProjectPatchService.Format.JSON_PATCH : ProjectPatchService.Format.MERGE_PATCH;
+        Project patched = patchService.patch(id, patch, format, expectedVersion);
+        return ResponseEntity.ok().eTag(service.etag(patched).value()).body(mapper.toResponse(patched));
     }
 
     /**
      * Delete a project by ID.
+     * With If-Match, only while the project is still at that ETag (412 otherwise); the delete
+     * itself matches on the version, so a write after the check also gives 412.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable String id) {
-        service.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable String id,
+                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = checkIfMatch(id, ifMatch);
+        if (!service.delete(id, expectedVersion)) throw changed(id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Fail fast with 412 unless If-Match names the project's current ETag (or is * and the project
+     * exists). Returns the version it matched; null without If-Match or for *.
+     */
+    private Long checkIfMatch(String id, String ifMatch) {
+        if (ifMatch == null) return null;
+        Optional<ProjectCache.Tag> current = service.etag(id);
+        if (current.isPresent() && matches(ifMatch, current.get().value(), true)) {
+            return ETag.parse(ifMatch).stream().anyMatch(ETag::isWildcard) ? null : current.get().version();
+        }
+        throw changed(id);
+    }
+
+    private static ResponseStatusException changed(String id) {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "Project " + id + " has changed; fetch it again for its current ETag");
+    }
+
+    /** Whether the header lists the tag or *; If-Match compares strongly, If-None-Match weakly. */
+    private static boolean matches(String header, String tag, boolean strong) {
+        ETag current = ETag.create(tag);
+        List<ETag> listed = ETag.parse(header);
+        return listed.stream().anyMatch(e -> e.isWildcard() || e.compare(current, strong));
+    }
+
+    /** Owner from the X-User-Id header, else the ownerUserId param; null when neither is given. */
+    private static String owner(String header, String param) {
+        return !isBlank(header) ? header.trim() : (!isBlank(param) ? param.trim() : null);
+    }
+
     private static boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
 
+    /**
+     * Export a project as PDF, streamed to the client as it is rendered, so the document is never
+     * held in memory. A missing project is a 404 before anything is written.
+     */
     @GetMapping("/{id}/export")
-    public ResponseEntity<byte[]> exportProjectToPdf(@PathVariable String id) {
-        byte[] pdfBytes = projectExportService.exportProjectToPdf(id);
+    public ResponseEntity<StreamingResponseBody> exportProjectToPdf(@PathVariable String id) {
+        Project project = projectExportService.load(id);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "project_" + id + ".pdf");
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        StreamingResponseBody body = out -> projectExportService.writePdf(project, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
 }
\ No newline at end of file
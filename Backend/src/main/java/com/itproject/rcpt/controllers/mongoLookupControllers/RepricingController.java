@@ -0,0 +1,32 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.dto.price.RepricingJobStatus;
+import com.itproject.rcpt.pricing.RepricingJobService;
+
+@RestController
+@RequestMapping("/api/v1/pricing/reprice")
+public class RepricingController {
+
+  private final RepricingJobService jobs;
+
+  public RepricingController(RepricingJobService jobs) {
+    this.jobs = jobs;
+  }
+
+  /** Progress and throughput of the current or most recent repricing run. */
+  @GetMapping
+  public RepricingJobStatus status() {
+    return jobs.status();
+  }
+
+  /** Reprice all open projects now (queued behind a running job). */
+  @PostMapping
+  public ResponseEntity<RepricingJobStatus> start() {
+    jobs.start("MANUAL");
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobs.status());
+  }
+}
@@ -0,0 +1,27 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.dto.price.ScenarioRequest;
+import com.itproject.rcpt.dto.price.ScenarioResponse;
+import com.itproject.rcpt.service.ScenarioService;
+
+@RestController
+@RequestMapping("/api/v1/projects/{projectId}/scenarios")
+public class ScenarioController {
+
+  private final ScenarioService service;
+
+  public ScenarioController(ScenarioService service) {
+    this.service = service;
+  }
+
+  /** Price the project under each what-if override set (nothing is saved). */
+  @PostMapping
+  public List<ScenarioResponse> evaluate(@PathVariable String projectId,
+                                         @RequestBody List<ScenarioRequest> scenarios) {
+    return service.evaluate(projectId, scenarios);
+  }
+}
@@ -35,10 +35,17 @@ public class StaffCostController {
   /** Append one staff cost line (returns the new line). */
   @PostMapping("append")
   public StaffCostResponse append(@PathVariable String projectId,
-                                  @RequestBody StaffCostRequest item) {
+                                     @RequestBody StaffCostRequest item) {
     return service.append(projectId, item);
   }
 
+  /** Replace a staff cost by list index (returns the new line). */
+  @PutMapping("{index}")
+  public StaffCostResponse replaceAt(@PathVariable String projectId, @PathVariable int index,
+                                     @RequestBody StaffCostRequest item) {
+    return service.replaceAt(projectId, index, item);
+  }
+
   /** Delete a staff cost by list index. */
   @DeleteMapping("{index}")
   public ResponseEntity<Void> deleteAt(@PathVariable String projectId, @PathVariable int index) {
@@ -0,0 +1,24 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import org.springframework.web.bind.annotation.*;
+
+import com.itproject.rcpt.dto.project.ProjectStats;
+import com.itproject.rcpt.service.ProjectService;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+public class StatsController {
+
+    private final ProjectService projects;
+
+    public StatsController(ProjectService projects) {
+        this.projects = projects;
+    }
+
+    /** Projects per status, department and funder and their summed totals, for one owner and/or department. */
+    @GetMapping
+    public ProjectStats stats(@RequestParam(required = false) String ownerUserId,
+                              @RequestParam(required = false) String department) {
+        return projects.stats(ownerUserId, department);
+    }
+}
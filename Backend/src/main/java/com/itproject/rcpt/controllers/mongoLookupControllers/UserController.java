@@ -14,6 +14,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import com.itproject.rcpt.domain.User;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.repository.KeysetCursor;
 import com.itproject.rcpt.repository.UserRepository;
 
 @RestController
@@ -64,6 +66,14 @@ public class UserController {
     return users.findAll(PageRequest.of(page, size));
   }
 
+  /** Cursor mode: ?cursor= for the first page, then each nextCursor; count=true adds the total. */
+  @GetMapping(params = "cursor")
+  public CursorPage<User> listAfter(@RequestParam String cursor,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(defaultValue = "false") boolean count) {
+    return users.findPage(KeysetCursor.decode(cursor), size, count);
+  }
+
   @GetMapping("by-email")
   public ResponseEntity<User> byEmail(@RequestParam @Email String email) {
     Optional<User> u = users.findByEmail(email);
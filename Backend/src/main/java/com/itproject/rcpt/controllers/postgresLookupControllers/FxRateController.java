@@ -0,0 +1,56 @@
+package com.itproject.rcpt.controllers.postgresLookupControllers;
+
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.jpa.entities.FxRate;
+import com.itproject.rcpt.jpa.services.FxRateService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/fx-rates")
+public class FxRateController {
+
+    private final FxRateService service;
+
+    public FxRateController(FxRateService service) {
+        this.service = service;
+    }
+
+    // GET all
+    @GetMapping
+    public List<FxRate> getAll() {
+        return service.getAll();
+    }
+
+    // GET rate history for one currency
+    @GetMapping("/{currency}")
+    public List<FxRate> getByCurrency(@PathVariable String currency) {
+        return service.getByCurrency(currency);
+    }
+
+    // GET convert an amount, e.g. /api/fx-rates/convert?amount=100&from=USD&to=AUD&date=2026-01-01
+    @GetMapping("/convert")
+    public Money convert(@RequestParam BigDecimal amount,
+                         @RequestParam String from,
+                         @RequestParam(defaultValue = "AUD") String to,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return service.convert(new Money(amount, from), to, date != null ? date : LocalDate.now());
+    }
+
+    // POST
+    @PostMapping
+    public FxRate createOrUpdate(@RequestBody FxRate rate) {
+        return service.save(rate);
+    }
+
+    // DELETE
+    @DeleteMapping("/{currency}/{effectiveFrom}")
+    public void delete(@PathVariable String currency,
+                       @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveFrom) {
+        service.delete(currency, effectiveFrom);
+    }
+}
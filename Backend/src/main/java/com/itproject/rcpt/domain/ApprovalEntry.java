@@ -17,6 +17,12 @@ public class ApprovalEntry {
   /** When it happened (server time) */
   private Instant at;
 
+  /**
+   * Position in the project's history: 1 for the first entry recorded in approval_history, counting
+   * up. Entries migrated from the old embedded history are numbered up to 0.
+   */
+  private Long seq;
+
   public ApprovalEntry() { }
 
   public ApprovalEntry(String action, String actorUserId, String comment, Instant at) {
@@ -37,4 +43,7 @@ public class ApprovalEntry {
 
   public Instant getAt() { return at; }
   public void setAt(Instant at) { this.at = at; }
+
+  public Long getSeq() { return seq; }
+  public void setSeq(Long seq) { this.seq = seq; }
 }
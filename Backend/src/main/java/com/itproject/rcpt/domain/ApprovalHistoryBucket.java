@@ -0,0 +1,63 @@
+package com.itproject.rcpt.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A run of consecutive approval entries of one project (bucket pattern). Entry n goes to bucket
+ * floor((n - 1) / size), so bucket numbers increase with time and every bucket but the newest is
+ * full. The id is "projectId:bucket", which makes appends a plain upsert by id.
+ */
+@Document("approval_history")
+@CompoundIndex(name = "project_bucket_idx", def = "{ 'projectId': 1, 'bucket': -1 }")
+public class ApprovalHistoryBucket {
+
+  @Id
+  private String id;
+
+  private String projectId;
+
+  /** Position of this bucket in the project's history; negative for migrated embedded history. */
+  private long bucket;
+
+  /** Entries in seq order. */
+  private List<ApprovalEntry> entries = new ArrayList<>();
+
+  private int count;
+
+  /** Time of the earliest and latest entry. */
+  private Instant first;
+  private Instant last;
+
+  public ApprovalHistoryBucket() { }
+
+  public static String idOf(String projectId, long bucket) {
+    return projectId + ":" + bucket;
+  }
+
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+
+  public String getProjectId() { return projectId; }
+  public void setProjectId(String projectId) { this.projectId = projectId; }
+
+  public long getBucket() { return bucket; }
+  public void setBucket(long bucket) { this.bucket = bucket; }
+
+  public List<ApprovalEntry> getEntries() { return entries; }
+  public void setEntries(List<ApprovalEntry> entries) { this.entries = entries == null ? new ArrayList<>() : entries; }
+
+  public int getCount() { return count; }
+  public void setCount(int count) { this.count = count; }
+
+  public Instant getFirst() { return first; }
+  public void setFirst(Instant first) { this.first = first; }
+
+  public Instant getLast() { return last; }
+  public void setLast(Instant last) { this.last = last; }
+}
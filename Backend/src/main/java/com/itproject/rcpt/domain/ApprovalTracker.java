@@ -1,17 +1,43 @@
 package com.itproject.rcpt.domain;
 
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Tracks approval decisions and comments for a project.
- * Each entry captures the action (e.g. SUBMIT, APPROVE),
- * who performed it, an optional comment, and a timestamp.
+ * Approval state kept on the project: the most recent action and how many have been recorded.
+ * The full history (each action, who performed it, an optional comment and a timestamp) lives in
+ * the approval_history collection, in {@link ApprovalHistoryBucket}s, so the project document stays
+ * the same size however long its review goes on.
  */
 public class ApprovalTracker {
 
-    private List<ApprovalEntry> history = new ArrayList<>();
+    /** Most recent entry, or null if no action has been taken yet. */
+    private ApprovalEntry latest;
+
+    /** Entries recorded in approval_history; the next entry's seq is count + 1. */
+    private long count;
+
+    /**
+     * History embedded in the project before it moved to approval_history. Moved out and cleared
+     * the first time the history is read, or by the startup migration; kept mapped so a full save
+     * before then does not drop it.
+     */
+    private List<ApprovalEntry> history;
+
+    public ApprovalEntry getLatest() {
+        return latest;
+    }
+
+    public void setLatest(ApprovalEntry latest) {
+        this.latest = latest;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
 
     public List<ApprovalEntry> getHistory() {
         return history;
@@ -21,8 +47,8 @@ public class ApprovalTracker {
         this.history = history;
     }
 
-    /** Add a new approval event to the history. */
-    public void addEntry(String action, String actorUserId, String comment) {
-        this.history.add(new ApprovalEntry(action, actorUserId, comment, Instant.now()));
+    /** True while there is embedded history still to move to approval_history. */
+    public boolean hasLegacyHistory() {
+        return history != null && !history.isEmpty();
     }
 }
@@ -0,0 +1,90 @@
+package com.itproject.rcpt.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Materialized totals of every project in one department, school or faculty of the
+ * department_and_faculty hierarchy, kept up to date by CostRollupService. The id is "LEVEL:key"
+ * (department name, school code or faculty code), so reading one node is a lookup by _id.
+ */
+@Document("cost_rollups")
+public class CostRollup {
+
+  public enum Level { DEPARTMENT, SCHOOL, FACULTY }
+
+  @Id
+  private String id;
+
+  private Level level;
+  private String key;          // department name, school code or faculty code
+  private String name;
+
+  @Indexed(name = "parent_idx")
+  private String parentId;     // school of a department, faculty of a school; null at the top
+
+  private long projects;
+  private Map<String, Long> statuses = new LinkedHashMap<>();   // project count per status
+  private Map<String, Amounts> totals = new LinkedHashMap<>();  // summed price summaries per currency
+  private Instant updatedAt;
+
+  public CostRollup() { }
+
+  public static String idOf(Level level, String key) {
+    return level.name() + ":" + key;
+  }
+
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+  public Level getLevel() { return level; }
+  public void setLevel(Level level) { this.level = level; }
+  public String getKey() { return key; }
+  public void setKey(String key) { this.key = key; }
+  public String getName() { return name; }
+  public void setName(String name) { this.name = name; }
+  public String getParentId() { return parentId; }
+  public void setParentId(String parentId) { this.parentId = parentId; }
+  public long getProjects() { return projects; }
+  public void setProjects(long projects) { this.projects = projects; }
+  public Map<String, Long> getStatuses() { return statuses; }
+  public void setStatuses(Map<String, Long> statuses) { this.statuses = statuses; }
+  public Map<String, Amounts> getTotals() { return totals; }
+  public void setTotals(Map<String, Amounts> totals) { this.totals = totals; }
+  public Instant getUpdatedAt() { return updatedAt; }
+  public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+  /** The price summary amounts, summed. */
+  public static class Amounts {
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal directStaffCost;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal directNonStaffCost;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal indirectCost;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal totalCost;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal sponsorPrice;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal gst;
+    @Field(targetType = FieldType.DECIMAL128) private BigDecimal totalPriceInclGst;
+
+    public Amounts() { }
+    public BigDecimal getDirectStaffCost() { return directStaffCost; }
+    public void setDirectStaffCost(BigDecimal v) { this.directStaffCost = v; }
+    public BigDecimal getDirectNonStaffCost() { return directNonStaffCost; }
+    public void setDirectNonStaffCost(BigDecimal v) { this.directNonStaffCost = v; }
+    public BigDecimal getIndirectCost() { return indirectCost; }
+    public void setIndirectCost(BigDecimal v) { this.indirectCost = v; }
+    public BigDecimal getTotalCost() { return totalCost; }
+    public void setTotalCost(BigDecimal v) { this.totalCost = v; }
+    public BigDecimal getSponsorPrice() { return sponsorPrice; }
+    public void setSponsorPrice(BigDecimal v) { this.sponsorPrice = v; }
+    public BigDecimal getGst() { return gst; }
+    public void setGst(BigDecimal v) { this.gst = v; }
+    public BigDecimal getTotalPriceInclGst() { return totalPriceInclGst; }
+    public void setTotalPriceInclGst(BigDecimal v) { this.totalPriceInclGst = v; }
+  }
+}
@@ -2,6 +2,7 @@ package com.itproject.rcpt.domain;
 
 import java.util.List;
 
+import com.itproject.rcpt.domain.value.LineContribution;
 import com.itproject.rcpt.domain.value.Money;
 import com.itproject.rcpt.domain.value.YearAllocation;
 
@@ -37,6 +38,9 @@ public class NonStaffCost {
     /** Additional notes */
     private String notes;
 
+    /** This line's share of the project's price summary; maintained by PricingService */
+    private LineContribution contribution;
+
     public NonStaffCost() {}
 
     public String getCategoryCode() { return categoryCode; }
@@ -62,4 +66,7 @@ public class NonStaffCost {
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+
+    public LineContribution getContribution() { return contribution; }
+    public void setContribution(LineContribution contribution) { this.contribution = contribution; }
 }
@@ -11,6 +11,7 @@ public class PriceSummary {
   private Money sponsorPrice;        // excludes in-kind
   private Money gst;                 // if applicable
   private Money totalPriceInclGst;
+  private Long rateCardVersion;      // lookup snapshot the summary was priced against
 
   public PriceSummary() { }
 
@@ -34,4 +35,7 @@ public class PriceSummary {
 
   public Money getTotalPriceInclGst() { return totalPriceInclGst; }
   public void setTotalPriceInclGst(Money totalPriceInclGst) { this.totalPriceInclGst = totalPriceInclGst; }
+
+  public Long getRateCardVersion() { return rateCardVersion; }
+  public void setRateCardVersion(Long rateCardVersion) { this.rateCardVersion = rateCardVersion; }
 }
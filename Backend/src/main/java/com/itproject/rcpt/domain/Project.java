@@ -14,6 +14,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -23,7 +24,20 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * Lifecycle is tracked via ProjectStatus only (DRAFT, SUBMITTED, APPROVED, ARCHIVED).
  */
 @Document("projects")
-@CompoundIndex(name = "owner_status_idx", def = "{ 'ownerUserId': 1, 'status': 1 }")
+@CompoundIndexes({
+    @CompoundIndex(name = "owner_status_idx", def = "{ 'ownerUserId': 1, 'status': 1 }"),
+    // List filters (see ProjectQuery): equality fields, then the createdAt sort/range, then _id as
+    // the tie-breaker, so the whole sort comes from the index
+    @CompoundIndex(name = "owner_status_created_idx", def = "{ 'ownerUserId': 1, 'status': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(name = "dept_status_created_idx", def = "{ 'details.department': 1, 'status': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(name = "funder_status_created_idx", def = "{ 'details.funder': 1, 'status': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(name = "status_created_idx", def = "{ 'status': 1, 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(name = "created_desc_idx", def = "{ 'createdAt': -1, '_id': -1 }"),
+    @CompoundIndex(name = "updated_desc_idx", def = "{ 'updatedAt': -1, '_id': -1 }"),
+    // Project search; the searchable fields are all under details
+    @CompoundIndex(name = "projects_text_idx",
+        def = "{ 'details.title': 'text', 'details.funder': 'text', 'details.referenceCode': 'text', 'details.department': 'text' }")
+})
 public class Project {
 
   @Id
@@ -2,8 +2,11 @@ package com.itproject.rcpt.domain;
 
 import java.util.List;
 
+import com.itproject.rcpt.domain.value.LineContribution;
 import com.itproject.rcpt.domain.value.Money;
 import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.enums.EmploymentType;
+import com.itproject.rcpt.enums.StaffCategory;
 
 /**
  * Domain model for a staff cost line item.
@@ -14,6 +17,18 @@ public class StaffCost {
     /** Staff role  */
     private String role;
 
+    /** Employment type; selects the on-cost (staff benefits) row */
+    private EmploymentType employmentType;
+
+    /** Academic or professional staff */
+    private StaffCategory category;
+
+    /** "FTE", "Daily", "Hourly" or "Stipend"; selects the salary rate multiplier */
+    private String timeBasis;
+
+    /** Salary rate code (e.g. "FortnightAcademicLevel B.1") */
+    private String classification;
+
     /** Cost per unit (e.g., per FTE or per hour) */
     private Money unitCost;
 
@@ -29,11 +44,26 @@ public class StaffCost {
     /** Additional notes */
     private String notes;
 
+    /** This line's share of the project's price summary; maintained by PricingService */
+    private LineContribution contribution;
+
     public StaffCost() {}
 
     public String getRole() { return role; }
     public void setRole(String role) { this.role = role; }
 
+    public EmploymentType getEmploymentType() { return employmentType; }
+    public void setEmploymentType(EmploymentType employmentType) { this.employmentType = employmentType; }
+
+    public StaffCategory getCategory() { return category; }
+    public void setCategory(StaffCategory category) { this.category = category; }
+
+    public String getTimeBasis() { return timeBasis; }
+    public void setTimeBasis(String timeBasis) { this.timeBasis = timeBasis; }
+
+    public String getClassification() { return classification; }
+    public void setClassification(String classification) { this.classification = classification; }
+
     public Money getUnitCost() { return unitCost; }
     public void setUnitCost(Money unitCost) { this.unitCost = unitCost; }
 
@@ -48,4 +78,7 @@ public class StaffCost {
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+
+    public LineContribution getContribution() { return contribution; }
+    public void setContribution(LineContribution contribution) { this.contribution = contribution; }
 }
@@ -0,0 +1,138 @@
+package com.itproject.rcpt.domain.value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Immutable money amount held as a long count of cents (minor units with 2 decimals) plus a currency.
+ *
+ * Meant for arithmetic-heavy code (pricing, aggregation); {@link Money} stays the persisted and API
+ * form. Every operation is exact or rounds HALF_EVEN (banker's rounding) to the cent, and any
+ * result outside the long range throws {@link ArithmeticException} instead of wrapping.
+ * Operations on two amounts require the same currency.
+ */
+public final class FixedMoney implements Comparable<FixedMoney> {
+
+  /** Fixed-point scale of rates passed to {@link #times(long)}: 1_000_000 = 1.0. */
+  public static final long RATE_SCALE = 1_000_000L;
+
+  private final long cents;
+  private final String currency;
+
+  private FixedMoney(long cents, String currency) {
+    this.cents = cents;
+    this.currency = Objects.requireNonNull(currency, "currency");
+  }
+
+  public static FixedMoney ofCents(long cents, String currency) {
+    return new FixedMoney(cents, currency);
+  }
+
+  public static FixedMoney zero(String currency) {
+    return new FixedMoney(0, currency);
+  }
+
+  /** Rounds HALF_EVEN to the cent; throws ArithmeticException if the amount does not fit. */
+  public static FixedMoney of(BigDecimal amount, String currency) {
+    return new FixedMoney(toCents(amount), currency);
+  }
+
+  /** From the persisted form; a null amount is zero. */
+  public static FixedMoney of(Money money) {
+    BigDecimal amount = money.getAmount() == null ? BigDecimal.ZERO : money.getAmount();
+    return of(amount, money.getCurrency());
+  }
+
+  public long cents() { return cents; }
+  public String currency() { return currency; }
+  public boolean isZero() { return cents == 0; }
+
+  public FixedMoney plus(FixedMoney other) {
+    return new FixedMoney(Math.addExact(cents, sameCurrency(other).cents), currency);
+  }
+
+  public FixedMoney minus(FixedMoney other) {
+    return new FixedMoney(Math.subtractExact(cents, sameCurrency(other).cents), currency);
+  }
+
+  public FixedMoney negate() {
+    return new FixedMoney(Math.negateExact(cents), currency);
+  }
+
+  /** This amount times a rate in millionths (e.g. 300_000 = 30%), rounded HALF_EVEN to the cent. */
+  public FixedMoney times(long rateMicros) {
+    return new FixedMoney(mulDiv(cents, rateMicros, RATE_SCALE), currency);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  public Money toMoney() {
+    return new Money(toBigDecimal(), currency);
+  }
+
+  // ---------- Fixed-point helpers ----------
+
+  /** Amount to whole cents, HALF_EVEN. */
+  public static long toCents(BigDecimal amount) {
+    return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+  }
+
+  /**
+   * a x b / divisor rounded HALF_EVEN, without allocating unless a x b overflows 64 bits.
+   * The divisor must be positive.
+   */
+  public static long mulDiv(long a, long b, long divisor) {
+    long hi = Math.multiplyHigh(a, b);
+    long lo = a * b;
+    if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) {
+      return divHalfEven(lo, divisor);
+    }
+    return BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+        .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN)
+        .longValueExact();
+  }
+
+  /** n / d rounded HALF_EVEN; d must be positive. */
+  public static long divHalfEven(long n, long d) {
+    long q = n / d;
+    long r = n % d;
+    if (r == 0) return q;
+    long twice = Math.abs(r) * 2;
+    if (twice > d || twice < 0 || (twice == d && (q & 1) != 0)) {
+      q += n < 0 ? -1 : 1;
+    }
+    return q;
+  }
+
+  private FixedMoney sameCurrency(FixedMoney other) {
+    if (!currency.equals(other.currency)) {
+      throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+    }
+    return other;
+  }
+
+  @Override
+  public int compareTo(FixedMoney other) {
+    return Long.compare(cents, sameCurrency(other).cents);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof FixedMoney m)) return false;
+    return cents == m.cents && currency.equals(m.currency);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents) * 31 + currency.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString() + " " + currency;
+  }
+}
@@ -0,0 +1,23 @@
+package com.itproject.rcpt.domain.value;
+
+/**
+ * What one cost line adds to the project's PriceSummary, stored on the line so that a single-line
+ * edit can adjust the summary by a delta. Sponsor price is direct + indirect unless the line is in-kind.
+ */
+public class LineContribution {
+  private Money directCost;
+  private Money indirectCost;
+  private Money gst;
+
+  public LineContribution() { }
+  public LineContribution(Money directCost, Money indirectCost, Money gst) {
+    this.directCost = directCost; this.indirectCost = indirectCost; this.gst = gst;
+  }
+
+  public Money getDirectCost() { return directCost; }
+  public Money getIndirectCost() { return indirectCost; }
+  public Money getGst() { return gst; }
+  public void setDirectCost(Money directCost) { this.directCost = directCost; }
+  public void setIndirectCost(Money indirectCost) { this.indirectCost = indirectCost; }
+  public void setGst(Money gst) { this.gst = gst; }
+}
@@ -0,0 +1,30 @@
+package com.itproject.rcpt.dto.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing. nextCursor is null on the last page; pass it back as ?cursor= to
+ * get the next one. total is only filled in when the caller asked for a count.
+ */
+public class CursorPage<T> {
+  private List<T> items;
+  private String nextCursor;
+  private Long total;
+  public CursorPage() { }
+  public CursorPage(List<T> items, String nextCursor, Long total) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+    this.total = total;
+  }
+  public List<T> getItems() { return items; }
+  public void setItems(List<T> items) { this.items = items; }
+  public String getNextCursor() { return nextCursor; }
+  public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+  public Long getTotal() { return total; }
+  public void setTotal(Long total) { this.total = total; }
+
+  public <R> CursorPage<R> map(Function<? super T, ? extends R> f) {
+    return new CursorPage<>(items.stream().<R>map(f).toList(), nextCursor, total);
+  }
+}
@@ -0,0 +1,28 @@
+package com.itproject.rcpt.dto.price;
+
+/** Size and hit/miss counters of the pricing result cache since startup (or the last clear). */
+public class PricingCacheStats {
+  private int size;
+  private int maxEntries;
+  private long hits;
+  private long misses;
+  private long evictions;          // dropped to stay within maxEntries
+  private double hitRate;          // hits / (hits + misses), 0 when unused
+  private Long rateCardVersion;    // version current entries were priced against
+
+  public PricingCacheStats() { }
+  public int getSize() { return size; }
+  public void setSize(int v) { this.size = v; }
+  public int getMaxEntries() { return maxEntries; }
+  public void setMaxEntries(int v) { this.maxEntries = v; }
+  public long getHits() { return hits; }
+  public void setHits(long v) { this.hits = v; }
+  public long getMisses() { return misses; }
+  public void setMisses(long v) { this.misses = v; }
+  public long getEvictions() { return evictions; }
+  public void setEvictions(long v) { this.evictions = v; }
+  public double getHitRate() { return hitRate; }
+  public void setHitRate(double v) { this.hitRate = v; }
+  public Long getRateCardVersion() { return rateCardVersion; }
+  public void setRateCardVersion(Long v) { this.rateCardVersion = v; }
+}
@@ -0,0 +1,45 @@
+package com.itproject.rcpt.dto.price;
+
+import java.time.Instant;
+
+/** Progress of the most recent bulk repricing run. */
+public class RepricingJobStatus {
+  private String state;            // IDLE, RUNNING, COMPLETED, FAILED
+  private String trigger;          // lookup table that changed, or MANUAL
+  private Long rateCardVersion;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private long scanned;            // projects read from the cursor
+  private long repriced;           // projects written
+  private long conflicts;          // edited concurrently; skipped, the edit already repriced them
+  private long failed;
+  private double projectsPerSecond;
+  private boolean rerunPending;    // another change arrived while running
+  private String error;
+
+  public RepricingJobStatus() { }
+  public String getState() { return state; }
+  public void setState(String v) { this.state = v; }
+  public String getTrigger() { return trigger; }
+  public void setTrigger(String v) { this.trigger = v; }
+  public Long getRateCardVersion() { return rateCardVersion; }
+  public void setRateCardVersion(Long v) { this.rateCardVersion = v; }
+  public Instant getStartedAt() { return startedAt; }
+  public void setStartedAt(Instant v) { this.startedAt = v; }
+  public Instant getFinishedAt() { return finishedAt; }
+  public void setFinishedAt(Instant v) { this.finishedAt = v; }
+  public long getScanned() { return scanned; }
+  public void setScanned(long v) { this.scanned = v; }
+  public long getRepriced() { return repriced; }
+  public void setRepriced(long v) { this.repriced = v; }
+  public long getConflicts() { return conflicts; }
+  public void setConflicts(long v) { this.conflicts = v; }
+  public long getFailed() { return failed; }
+  public void setFailed(long v) { this.failed = v; }
+  public double getProjectsPerSecond() { return projectsPerSecond; }
+  public void setProjectsPerSecond(double v) { this.projectsPerSecond = v; }
+  public boolean isRerunPending() { return rerunPending; }
+  public void setRerunPending(boolean v) { this.rerunPending = v; }
+  public String getError() { return error; }
+  public void setError(String v) { this.error = v; }
+}
@@ -0,0 +1,22 @@
+package com.itproject.rcpt.dto.price;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** One what-if override set; omitted fields keep the current rate card values. */
+public class ScenarioRequest {
+  private String name;
+  private BigDecimal ebaMultiplier;        // replaces the EBA multiplier in every year
+  private BigDecimal payrollTaxRate;       // replaces the payroll tax rate in every year
+  private Map<Integer, String> staffTypes; // staff line index -> staff benefits type, e.g. {0: "Casual"}
+
+  public ScenarioRequest() { }
+  public String getName() { return name; }
+  public void setName(String v) { this.name = v; }
+  public BigDecimal getEbaMultiplier() { return ebaMultiplier; }
+  public void setEbaMultiplier(BigDecimal v) { this.ebaMultiplier = v; }
+  public BigDecimal getPayrollTaxRate() { return payrollTaxRate; }
+  public void setPayrollTaxRate(BigDecimal v) { this.payrollTaxRate = v; }
+  public Map<Integer, String> getStaffTypes() { return staffTypes; }
+  public void setStaffTypes(Map<Integer, String> v) { this.staffTypes = v; }
+}
@@ -0,0 +1,15 @@
+package com.itproject.rcpt.dto.price;
+
+public class ScenarioResponse {
+  private String name;
+  private PriceSummaryResponse priceSummary;
+
+  public ScenarioResponse() { }
+  public ScenarioResponse(String name, PriceSummaryResponse priceSummary) {
+    this.name = name; this.priceSummary = priceSummary;
+  }
+  public String getName() { return name; }
+  public void setName(String v) { this.name = v; }
+  public PriceSummaryResponse getPriceSummary() { return priceSummary; }
+  public void setPriceSummary(PriceSummaryResponse v) { this.priceSummary = v; }
+}
@@ -0,0 +1,25 @@
+package com.itproject.rcpt.dto.project;
+
+import java.time.Instant;
+
+import com.itproject.rcpt.enums.ProjectStatus;
+
+/** Outcome of an approval action: the project's new status and the history entry recorded. */
+public class ApprovalActionResponse {
+  private String projectId;
+  private ProjectStatus status;
+  private Long version;
+  private Instant updatedAt;
+  private ApprovalEntryResponse entry;
+  public ApprovalActionResponse() { }
+  public String getProjectId() { return projectId; }
+  public void setProjectId(String projectId) { this.projectId = projectId; }
+  public ProjectStatus getStatus() { return status; }
+  public void setStatus(ProjectStatus status) { this.status = status; }
+  public Long getVersion() { return version; }
+  public void setVersion(Long version) { this.version = version; }
+  public Instant getUpdatedAt() { return updatedAt; }
+  public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+  public ApprovalEntryResponse getEntry() { return entry; }
+  public void setEntry(ApprovalEntryResponse entry) { this.entry = entry; }
+}
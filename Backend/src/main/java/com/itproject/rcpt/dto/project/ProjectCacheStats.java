@@ -0,0 +1,37 @@
+package com.itproject.rcpt.dto.project;
+
+/** Size and hit/miss counters of the project read cache since startup. */
+public class ProjectCacheStats {
+  private int size;
+  private int maxEntries;
+  private long hits;               // reads answered without MongoDB
+  private long misses;             // reads that loaded the project
+  private double hitRate;          // hits / (hits + misses), 0 when unused
+  private long responseHits;       // GETs answered with already serialized JSON
+  private long responseMisses;     // GETs that serialized the cached project
+  private long evictions;          // dropped to stay within maxEntries
+  private long invalidations;      // dropped because the project was written
+  private long versionReads;       // ETag checks of uncached projects, read as just the version
+
+  public ProjectCacheStats() { }
+  public int getSize() { return size; }
+  public void setSize(int v) { this.size = v; }
+  public int getMaxEntries() { return maxEntries; }
+  public void setMaxEntries(int v) { this.maxEntries = v; }
+  public long getHits() { return hits; }
+  public void setHits(long v) { this.hits = v; }
+  public long getMisses() { return misses; }
+  public void setMisses(long v) { this.misses = v; }
+  public double getHitRate() { return hitRate; }
+  public void setHitRate(double v) { this.hitRate = v; }
+  public long getResponseHits() { return responseHits; }
+  public void setResponseHits(long v) { this.responseHits = v; }
+  public long getResponseMisses() { return responseMisses; }
+  public void setResponseMisses(long v) { this.responseMisses = v; }
+  public long getEvictions() { return evictions; }
+  public void setEvictions(long v) { this.evictions = v; }
+  public long getInvalidations() { return invalidations; }
+  public void setInvalidations(long v) { this.invalidations = v; }
+  public long getVersionReads() { return versionReads; }
+  public void setVersionReads(long v) { this.versionReads = v; }
+}
@@ -0,0 +1,106 @@
+package com.itproject.rcpt.dto.project;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Which members of a ProjectResponse a caller asked for, from the ?fields= and ?expand= params of
+ * the project GET and list endpoints, and the stored paths that takes. Members that are not asked
+ * for are neither read from MongoDB nor mapped, and are left out of the JSON.
+ *
+ * <ul>
+ *   <li>Neither param: every member, as before.</li>
+ *   <li>fields=a,b: just those members (plus id), and any listed in expand.</li>
+ *   <li>expand=a,b alone: the light members (details, status, owner, timestamps, version) plus
+ *   those; an empty expand gives just the light ones, e.g. for an overview.</li>
+ * </ul>
+ */
+public final class ProjectFields {
+
+  public enum Member {
+    DETAILS("details", false, "details"),
+    STAFF("staff", true, "staffCosts"),
+    NON_STAFF("nonStaff", true, "nonStaffCosts"),
+    PRICE_SUMMARY("priceSummary", true, "priceSummary"),
+    LATEST_APPROVAL("latestApproval", true, "approvals"),
+    STATUS("status", false, "status"),
+    OWNER_USER_ID("ownerUserId", false, "ownerUserId"),
+    CREATED_AT("createdAt", false, "createdAt"),
+    UPDATED_AT("updatedAt", false, "updatedAt"),
+    VERSION("version", false, "version");
+
+    private final String param;
+    private final boolean heavy;   // left out unless expanded once expand is used
+    private final String path;
+
+    Member(String param, boolean heavy, String path) {
+      this.param = param;
+      this.heavy = heavy;
+      this.path = path;
+    }
+
+    public String param() { return param; }
+
+    public String path() { return path; }
+  }
+
+  public static final ProjectFields ALL = new ProjectFields(EnumSet.allOf(Member.class));
+
+  private final Set<Member> members;
+
+  private ProjectFields(Set<Member> members) {
+    this.members = members;
+  }
+
+  /** From the raw params; null for a param means it was not sent. Unknown names are rejected. */
+  public static ProjectFields parse(String fields, String expand) {
+    if (fields == null && expand == null) return ALL;
+    EnumSet<Member> members = EnumSet.noneOf(Member.class);
+    if (fields != null) {
+      members.addAll(names(fields));
+    } else {
+      for (Member m : Member.values()) if (!m.heavy) members.add(m);
+    }
+    if (expand != null) members.addAll(names(expand));
+    return members.equals(ALL.members) ? ALL : new ProjectFields(members);
+  }
+
+  public boolean isAll() { return this == ALL; }
+
+  public boolean has(Member member) { return members.contains(member); }
+
+  /**
+   * Stored paths to read. The version is always read, as the response's ETag is derived from it,
+   * and the status with the price summary, as it decides whether a stale summary is repriced.
+   */
+  public String[] paths() {
+    Set<String> paths = new LinkedHashSet<>();
+    for (Member m : members) paths.add(m.path);
+    if (has(Member.PRICE_SUMMARY)) paths.add(Member.STATUS.path);
+    paths.add(Member.VERSION.path);
+    return paths.toArray(String[]::new);
+  }
+
+  /** The ETag of this representation, given the ETag of the full response. */
+  public String tag(String fullTag) {
+    if (isAll()) return fullTag;
+    return fullTag + ";" + members.stream().map(Member::param).collect(Collectors.joining("+"));
+  }
+
+  private static Set<Member> names(String list) {
+    EnumSet<Member> out = EnumSet.noneOf(Member.class);
+    for (String raw : list.split(",")) {
+      String name = raw.trim();
+      if (name.isEmpty() || name.equals("id")) continue;
+      out.add(Arrays.stream(Member.values())
+          .filter(m -> m.param.equalsIgnoreCase(name))
+          .findFirst()
+          .orElseThrow(() -> new IllegalArgumentException("Unknown project field '" + name + "'; expected any of "
+              + Arrays.stream(Member.values()).map(Member::param).collect(Collectors.joining(", ")))));
+    }
+    return out;
+  }
+}
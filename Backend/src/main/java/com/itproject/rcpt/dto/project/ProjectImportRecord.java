@@ -0,0 +1,33 @@
+package com.itproject.rcpt.dto.project;
+
+import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostRequest;
+import com.itproject.rcpt.dto.staff.StaffCostRequest;
+
+/**
+ * One record of a bulk import: a new project, or a cost line for a project created earlier in the
+ * same upload (by ref) or already stored (by projectId).
+ */
+public class ProjectImportRecord {
+  public enum Type { PROJECT, STAFF, NON_STAFF }
+
+  private Type type;
+  private String ref;                  // upload-local key of a PROJECT record; lines use it to attach
+  private String projectId;            // existing project for a cost line
+  private ProjectDetailsDto details;   // PROJECT
+  private StaffCostRequest staff;      // STAFF
+  private NonStaffCostRequest nonStaff; // NON_STAFF
+
+  public ProjectImportRecord() { }
+  public Type getType() { return type; }
+  public void setType(Type type) { this.type = type; }
+  public String getRef() { return ref; }
+  public void setRef(String ref) { this.ref = ref; }
+  public String getProjectId() { return projectId; }
+  public void setProjectId(String projectId) { this.projectId = projectId; }
+  public ProjectDetailsDto getDetails() { return details; }
+  public void setDetails(ProjectDetailsDto details) { this.details = details; }
+  public StaffCostRequest getStaff() { return staff; }
+  public void setStaff(StaffCostRequest staff) { this.staff = staff; }
+  public NonStaffCostRequest getNonStaff() { return nonStaff; }
+  public void setNonStaff(NonStaffCostRequest nonStaff) { this.nonStaff = nonStaff; }
+}
@@ -0,0 +1,56 @@
+package com.itproject.rcpt.dto.project;
+
+import java.util.List;
+
+/** Outcome of a bulk import: what was written, which records were skipped and why, and how fast. */
+public class ProjectImportReport {
+  private long records;                // records read, including failed ones
+  private long projectsCreated;
+  private long staffLinesImported;
+  private long nonStaffLinesImported;
+  private long failed;                 // records not imported
+  private List<RecordError> errors;    // first rcpt.import.max-errors failures, in upload order
+  private boolean errorsTruncated;
+  private long elapsedMillis;
+  private double recordsPerSecond;
+
+  public ProjectImportReport() { }
+  public long getRecords() { return records; }
+  public void setRecords(long v) { this.records = v; }
+  public long getProjectsCreated() { return projectsCreated; }
+  public void setProjectsCreated(long v) { this.projectsCreated = v; }
+  public long getStaffLinesImported() { return staffLinesImported; }
+  public void setStaffLinesImported(long v) { this.staffLinesImported = v; }
+  public long getNonStaffLinesImported() { return nonStaffLinesImported; }
+  public void setNonStaffLinesImported(long v) { this.nonStaffLinesImported = v; }
+  public long getFailed() { return failed; }
+  public void setFailed(long v) { this.failed = v; }
+  public List<RecordError> getErrors() { return errors; }
+  public void setErrors(List<RecordError> v) { this.errors = v; }
+  public boolean isErrorsTruncated() { return errorsTruncated; }
+  public void setErrorsTruncated(boolean v) { this.errorsTruncated = v; }
+  public long getElapsedMillis() { return elapsedMillis; }
+  public void setElapsedMillis(long v) { this.elapsedMillis = v; }
+  public double getRecordsPerSecond() { return recordsPerSecond; }
+  public void setRecordsPerSecond(double v) { this.recordsPerSecond = v; }
+
+  /** A record that was not imported; line is where it starts in the upload (1-based). */
+  public static class RecordError {
+    private long line;
+    private String ref;
+    private String message;
+
+    public RecordError() { }
+    public RecordError(long line, String ref, String message) {
+      this.line = line;
+      this.ref = ref;
+      this.message = message;
+    }
+    public long getLine() { return line; }
+    public void setLine(long v) { this.line = v; }
+    public String getRef() { return ref; }
+    public void setRef(String v) { this.ref = v; }
+    public String getMessage() { return message; }
+    public void setMessage(String v) { this.message = v; }
+  }
+}
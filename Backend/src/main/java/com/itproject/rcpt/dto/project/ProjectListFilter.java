@@ -0,0 +1,43 @@
+package com.itproject.rcpt.dto.project;
+
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.Recency;
+
+/**
+ * Query parameters shared by the project list endpoints. Every filter is optional and they
+ * combine; createdFrom and createdTo are inclusive days (UTC). Newest created first by default.
+ */
+public class ProjectListFilter {
+  private String ownerUserId;
+  private ProjectStatus status;
+  private String department;
+  private String funder;
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate createdFrom;
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate createdTo;
+  private Recency order = Recency.CREATED;
+  private Sort.Direction direction = Sort.Direction.DESC;
+  public ProjectListFilter() { }
+  public String getOwnerUserId() { return ownerUserId; }
+  public void setOwnerUserId(String ownerUserId) { this.ownerUserId = ownerUserId; }
+  public ProjectStatus getStatus() { return status; }
+  public void setStatus(ProjectStatus status) { this.status = status; }
+  public String getDepartment() { return department; }
+  public void setDepartment(String department) { this.department = department; }
+  public String getFunder() { return funder; }
+  public void setFunder(String funder) { this.funder = funder; }
+  public LocalDate getCreatedFrom() { return createdFrom; }
+  public void setCreatedFrom(LocalDate createdFrom) { this.createdFrom = createdFrom; }
+  public LocalDate getCreatedTo() { return createdTo; }
+  public void setCreatedTo(LocalDate createdTo) { this.createdTo = createdTo; }
+  public Recency getOrder() { return order; }
+  public void setOrder(Recency order) { this.order = order; }
+  public Sort.Direction getDirection() { return direction; }
+  public void setDirection(Sort.Direction direction) { this.direction = direction; }
+}
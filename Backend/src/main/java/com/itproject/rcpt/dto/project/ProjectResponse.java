@@ -2,18 +2,22 @@ package com.itproject.rcpt.dto.project;
 
 import java.time.Instant;
 import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostResponse;
 import com.itproject.rcpt.dto.price.PriceSummaryResponse;
 import com.itproject.rcpt.dto.staff.StaffCostResponse;
 import com.itproject.rcpt.enums.ProjectStatus;
 
+/** A project as returned by the API. Members left out by ?fields= / ?expand= are null and not serialized. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProjectResponse {
   private String id;
   private ProjectDetailsDto details;
   private List<StaffCostResponse> staff;
   private List<NonStaffCostResponse> nonStaff;
   private PriceSummaryResponse priceSummary;
-  private List<ApprovalEntryResponse> approvalsHistory;
+  /** Full history: GET /api/v1/projects/{id}/approvals/history */
+  private ApprovalEntryResponse latestApproval;
   private ProjectStatus status;
   private String ownerUserId;
   private Instant createdAt;
@@ -37,8 +41,8 @@ public class ProjectResponse {
   public PriceSummaryResponse getPriceSummary() { return priceSummary; }
   public void setPriceSummary(PriceSummaryResponse priceSummary) { this.priceSummary = priceSummary; }
 
-  public List<ApprovalEntryResponse> getApprovalsHistory() { return approvalsHistory; }
-  public void setApprovalsHistory(List<ApprovalEntryResponse> approvalsHistory) { this.approvalsHistory = approvalsHistory; }
+  public ApprovalEntryResponse getLatestApproval() { return latestApproval; }
+  public void setLatestApproval(ApprovalEntryResponse latestApproval) { this.latestApproval = latestApproval; }
 
   public ProjectStatus getStatus() { return status; }
   public void setStatus(ProjectStatus status) { this.status = status; }
@@ -0,0 +1,75 @@
+package com.itproject.rcpt.dto.project;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Dashboard counts over the projects matching a filter: how many there are per status,
+ * department and funder, and the sum of their stored price summaries. Totals are per currency;
+ * projects that have not been priced yet are counted but not summed.
+ */
+public class ProjectStats {
+  private long projects;
+  private List<Count> byStatus;      // most projects first
+  private List<Count> byDepartment;
+  private List<Count> byFunder;
+  private List<Totals> totals;       // one per currency, by currency
+
+  public ProjectStats() { }
+  public long getProjects() { return projects; }
+  public void setProjects(long v) { this.projects = v; }
+  public List<Count> getByStatus() { return byStatus; }
+  public void setByStatus(List<Count> v) { this.byStatus = v; }
+  public List<Count> getByDepartment() { return byDepartment; }
+  public void setByDepartment(List<Count> v) { this.byDepartment = v; }
+  public List<Count> getByFunder() { return byFunder; }
+  public void setByFunder(List<Count> v) { this.byFunder = v; }
+  public List<Totals> getTotals() { return totals; }
+  public void setTotals(List<Totals> v) { this.totals = v; }
+
+  /** Projects with one status, department or funder; key is null for those without one. */
+  public static class Count {
+    private String key;
+    private long count;
+
+    public Count() { }
+    public Count(String key, long count) { this.key = key; this.count = count; }
+    public String getKey() { return key; }
+    public void setKey(String v) { this.key = v; }
+    public long getCount() { return count; }
+    public void setCount(long v) { this.count = v; }
+  }
+
+  /** Stored price summary amounts summed over the priced projects in one currency. */
+  public static class Totals {
+    private String currency;
+    private long projects;
+    private BigDecimal directStaffCost;
+    private BigDecimal directNonStaffCost;
+    private BigDecimal indirectCost;
+    private BigDecimal totalCost;
+    private BigDecimal sponsorPrice;
+    private BigDecimal gst;
+    private BigDecimal totalPriceInclGst;
+
+    public Totals() { }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String v) { this.currency = v; }
+    public long getProjects() { return projects; }
+    public void setProjects(long v) { this.projects = v; }
+    public BigDecimal getDirectStaffCost() { return directStaffCost; }
+    public void setDirectStaffCost(BigDecimal v) { this.directStaffCost = v; }
+    public BigDecimal getDirectNonStaffCost() { return directNonStaffCost; }
+    public void setDirectNonStaffCost(BigDecimal v) { this.directNonStaffCost = v; }
+    public BigDecimal getIndirectCost() { return indirectCost; }
+    public void setIndirectCost(BigDecimal v) { this.indirectCost = v; }
+    public BigDecimal getTotalCost() { return totalCost; }
+    public void setTotalCost(BigDecimal v) { this.totalCost = v; }
+    public BigDecimal getSponsorPrice() { return sponsorPrice; }
+    public void setSponsorPrice(BigDecimal v) { this.sponsorPrice = v; }
+    public BigDecimal getGst() { return gst; }
+    public void setGst(BigDecimal v) { this.gst = v; }
+    public BigDecimal getTotalPriceInclGst() { return totalPriceInclGst; }
+    public void setTotalPriceInclGst(BigDecimal v) { this.totalPriceInclGst = v; }
+  }
+}
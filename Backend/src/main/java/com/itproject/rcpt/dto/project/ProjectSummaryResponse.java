@@ -0,0 +1,41 @@
+package com.itproject.rcpt.dto.project;
+
+import java.time.Instant;
+
+import com.itproject.rcpt.dto.common.MoneyDto;
+import com.itproject.rcpt.enums.ProjectStatus;
+
+/** One row of the lightweight project list: what a dashboard card shows, no cost lines or history. */
+public class ProjectSummaryResponse {
+  private String id;
+  private String title;
+  private String referenceCode;
+  private String department;
+  private ProjectStatus status;
+  private String ownerUserId;
+  private Instant createdAt;
+  private Instant updatedAt;
+  private MoneyDto totalCost;
+  private MoneyDto totalPriceInclGst;
+  public ProjectSummaryResponse() { }
+  public String getId() { return id; }
+  public void setId(String id) { this.id = id; }
+  public String getTitle() { return title; }
+  public void setTitle(String title) { this.title = title; }
+  public String getReferenceCode() { return referenceCode; }
+  public void setReferenceCode(String referenceCode) { this.referenceCode = referenceCode; }
+  public String getDepartment() { return department; }
+  public void setDepartment(String department) { this.department = department; }
+  public ProjectStatus getStatus() { return status; }
+  public void setStatus(ProjectStatus status) { this.status = status; }
+  public String getOwnerUserId() { return ownerUserId; }
+  public void setOwnerUserId(String ownerUserId) { this.ownerUserId = ownerUserId; }
+  public Instant getCreatedAt() { return createdAt; }
+  public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+  public Instant getUpdatedAt() { return updatedAt; }
+  public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+  public MoneyDto getTotalCost() { return totalCost; }
+  public void setTotalCost(MoneyDto totalCost) { this.totalCost = totalCost; }
+  public MoneyDto getTotalPriceInclGst() { return totalPriceInclGst; }
+  public void setTotalPriceInclGst(MoneyDto totalPriceInclGst) { this.totalPriceInclGst = totalPriceInclGst; }
+}
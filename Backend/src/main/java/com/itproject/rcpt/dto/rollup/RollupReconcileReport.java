@@ -0,0 +1,37 @@
+package com.itproject.rcpt.dto.rollup;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Outcome of the most recent check of the cost rollups against a full recount. */
+public class RollupReconcileReport {
+  private String state;               // IDLE, RUNNING, COMPLETED, FAILED
+  private Instant startedAt;
+  private Instant finishedAt;
+  private long projectsResynced;      // projects whose counted state was behind the project
+  private long contributionsRewritten; // in departments whose contributions disagreed with the projects
+  private long bucketsChecked;
+  private long bucketsRepaired;       // rollups that differed from the recount and were rewritten
+  private List<String> repairedIds;   // at most the first 100
+  private String error;
+
+  public RollupReconcileReport() { }
+  public String getState() { return state; }
+  public void setState(String v) { this.state = v; }
+  public Instant getStartedAt() { return startedAt; }
+  public void setStartedAt(Instant v) { this.startedAt = v; }
+  public Instant getFinishedAt() { return finishedAt; }
+  public void setFinishedAt(Instant v) { this.finishedAt = v; }
+  public long getProjectsResynced() { return projectsResynced; }
+  public void setProjectsResynced(long v) { this.projectsResynced = v; }
+  public long getContributionsRewritten() { return contributionsRewritten; }
+  public void setContributionsRewritten(long v) { this.contributionsRewritten = v; }
+  public long getBucketsChecked() { return bucketsChecked; }
+  public void setBucketsChecked(long v) { this.bucketsChecked = v; }
+  public long getBucketsRepaired() { return bucketsRepaired; }
+  public void setBucketsRepaired(long v) { this.bucketsRepaired = v; }
+  public List<String> getRepairedIds() { return repairedIds; }
+  public void setRepairedIds(List<String> v) { this.repairedIds = v; }
+  public String getError() { return error; }
+  public void setError(String v) { this.error = v; }
+}
@@ -10,6 +10,7 @@ public class StaffCostRequest {
   private EmploymentType employmentType;
   private StaffCategory category;
   private String timeBasis;
+  private String classification;
   private List<YearAllocationDto> time;
   private Boolean inKind;
   private String notes;
@@ -22,6 +23,8 @@ public class StaffCostRequest {
   public void setCategory(StaffCategory category) { this.category = category; }
   public String getTimeBasis() { return timeBasis; }
   public void setTimeBasis(String timeBasis) { this.timeBasis = timeBasis; }
+  public String getClassification() { return classification; }
+  public void setClassification(String classification) { this.classification = classification; }
   public List<YearAllocationDto> getTime() { return time; }
   public void setTime(List<YearAllocationDto> time) { this.time = time; }
   public Boolean getInKind() { return inKind; }
@@ -0,0 +1,30 @@
+package com.itproject.rcpt.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Approval state machine: each action is allowed from a set of statuses and moves the project to
+ * a target status (COMMENT keeps the current one). The name is what approval history records.
+ */
+public enum ApprovalAction {
+  SUBMIT(ProjectStatus.SUBMITTED, EnumSet.of(ProjectStatus.DRAFT)),
+  APPROVE(ProjectStatus.APPROVED, EnumSet.of(ProjectStatus.SUBMITTED)),
+  REJECT(ProjectStatus.DRAFT, EnumSet.of(ProjectStatus.SUBMITTED)),
+  COMMENT(null, EnumSet.allOf(ProjectStatus.class));
+
+  private final ProjectStatus target;
+  private final Set<ProjectStatus> allowedFrom;
+
+  ApprovalAction(ProjectStatus target, Set<ProjectStatus> allowedFrom) {
+    this.target = target;
+    this.allowedFrom = allowedFrom;
+  }
+
+  /** Status after the action, or null if the action does not change it. */
+  public ProjectStatus target() { return target; }
+
+  public Set<ProjectStatus> allowedFrom() { return allowedFrom; }
+
+  public boolean isAllowedFrom(ProjectStatus status) { return allowedFrom.contains(status); }
+}
@@ -0,0 +1,50 @@
+package com.itproject.rcpt.jpa.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Value of one unit of a currency in AUD, effective from a date until the next row for that currency.
+ */
+@Entity
+@Table(name = "fx_rate")
+@IdClass(FxRateId.class)
+public class FxRate {
+
+    @Id
+    @Column(name = "currency", length = 3, nullable = false)
+    private String currency;
+
+    @Id
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    @Column(name = "aud_per_unit", nullable = false, precision = 18, scale = 8)
+    private BigDecimal audPerUnit;
+
+    // --- Getters and Setters ---
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public void setEffectiveFrom(LocalDate effectiveFrom) {
+        this.effectiveFrom = effectiveFrom;
+    }
+
+    public BigDecimal getAudPerUnit() {
+        return audPerUnit;
+    }
+
+    public void setAudPerUnit(BigDecimal audPerUnit) {
+        this.audPerUnit = audPerUnit;
+    }
+}
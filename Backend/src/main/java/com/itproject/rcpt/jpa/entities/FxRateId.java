@@ -0,0 +1,32 @@
+package com.itproject.rcpt.jpa.entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/** Composite key of {@link FxRate}: one row per currency per effective date. */
+public class FxRateId implements Serializable {
+
+    private String currency;
+    private LocalDate effectiveFrom;
+
+    public FxRateId() {
+    }
+
+    public FxRateId(String currency, LocalDate effectiveFrom) {
+        this.currency = currency;
+        this.effectiveFrom = effectiveFrom;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FxRateId other)) return false;
+        return Objects.equals(currency, other.currency) && Objects.equals(effectiveFrom, other.effectiveFrom);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, effectiveFrom);
+    }
+}
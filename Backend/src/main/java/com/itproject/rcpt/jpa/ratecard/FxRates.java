@@ -0,0 +1,105 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.itproject.rcpt.jpa.entities.FxRate;
+
+/**
+ * Effective-dated FX index: per currency, the AUD value of one unit sorted by effective date.
+ *
+ * Cross rates are memoised per pair of effective rows in a ConcurrentHashMap, so repeated conversions
+ * are a lock-free map hit. The memo lives as long as this index, i.e. until the fx_rate table changes.
+ */
+final class FxRates {
+
+    static final String BASE = "AUD";
+
+    /** Precision of derived cross rates. */
+    private static final MathContext CROSS = MathContext.DECIMAL64;
+
+    private static final int BASE_ROW = -1;
+    private static final int MISSING = -2;
+
+    private final List<FxRate> rows;
+    private final Map<String, Series> byCurrency;
+    private final ConcurrentHashMap<Pair, BigDecimal> crossRates = new ConcurrentHashMap<>();
+
+    private FxRates(List<FxRate> rows, Map<String, Series> byCurrency) {
+        this.rows = rows;
+        this.byCurrency = byCurrency;
+    }
+
+    static FxRates of(List<FxRate> rows) {
+        List<FxRate> copy = List.copyOf(rows);
+        Map<String, List<FxRate>> grouped = new LinkedHashMap<>();
+        for (FxRate r : copy) {
+            if (r.getCurrency() == null || r.getEffectiveFrom() == null || r.getAudPerUnit() == null) continue;
+            grouped.computeIfAbsent(r.getCurrency().toUpperCase(), k -> new ArrayList<>()).add(r);
+        }
+        Map<String, Series> index = new HashMap<>();
+        grouped.forEach((currency, list) -> {
+            list.sort(Comparator.comparing(FxRate::getEffectiveFrom));
+            long[] days = new long[list.size()];
+            BigDecimal[] rates = new BigDecimal[list.size()];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = list.get(i).getEffectiveFrom().toEpochDay();
+                rates[i] = list.get(i).getAudPerUnit();
+            }
+            index.put(currency, new Series(days, rates));
+        });
+        return new FxRates(copy, Collections.unmodifiableMap(index));
+    }
+
+    List<FxRate> rows() { return rows; }
+
+    /**
+     * Units of {@code to} per unit of {@code from} on a date, or null if either currency has no rate
+     * effective on that date.
+     */
+    BigDecimal rate(String from, String to, LocalDate on) {
+        String f = from.toUpperCase();
+        String t = to.toUpperCase();
+        if (f.equals(t)) return BigDecimal.ONE;
+        long day = on.toEpochDay();
+
+        int fi = indexOf(f, day);
+        int ti = indexOf(t, day);
+        if (fi == MISSING || ti == MISSING) return null;
+
+        Pair key = new Pair(f, fi, t, ti);
+        BigDecimal cached = crossRates.get(key);
+        if (cached != null) return cached;
+        BigDecimal rate = audPerUnit(f, fi).divide(audPerUnit(t, ti), CROSS);
+        crossRates.putIfAbsent(key, rate);
+        return rate;
+    }
+
+    /** Row effective on the day, BASE_ROW for AUD, MISSING if none. */
+    private int indexOf(String currency, long day) {
+        if (BASE.equals(currency)) return BASE_ROW;
+        Series s = byCurrency.get(currency);
+        if (s == null) return MISSING;
+        int i = Arrays.binarySearch(s.days, day);
+        if (i < 0) i = -i - 2;   // last row on or before the day
+        return i < 0 ? MISSING : i;
+    }
+
+    private BigDecimal audPerUnit(String currency, int row) {
+        return row == BASE_ROW ? BigDecimal.ONE : byCurrency.get(currency).rates[row];
+    }
+
+    private record Series(long[] days, BigDecimal[] rates) { }
+
+    private record Pair(String from, int fromRow, String to, int toRow) { }
+}
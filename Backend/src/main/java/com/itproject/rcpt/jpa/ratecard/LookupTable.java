@@ -0,0 +1,15 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+/** The Postgres lookup tables held in a {@link RateCard}. */
+public enum LookupTable {
+    DEPARTMENT_AND_FACULTY,
+    EBA,
+    FX_RATE,
+    NON_STAFF_COSTS,
+    PAYROLL_TAX,
+    REGION,
+    SALARY_RATE,
+    SALARY_RATE_MULTIPLIER,
+    STAFF_BENEFITS,
+    STIPEND
+}
@@ -0,0 +1,301 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.itproject.rcpt.jpa.entities.DepartmentAndFaculty;
+import com.itproject.rcpt.jpa.entities.EBA;
+import com.itproject.rcpt.jpa.entities.FxRate;
+import com.itproject.rcpt.jpa.entities.NonStaffCosts;
+import com.itproject.rcpt.jpa.entities.PayrollTax;
+import com.itproject.rcpt.jpa.entities.Region;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.entities.SalaryRateMultiplier;
+import com.itproject.rcpt.jpa.entities.StaffBenefits;
+import com.itproject.rcpt.jpa.entities.Stipend;
+
+/**
+ * Immutable snapshot of every lookup table, indexed for in-memory reads.
+ *
+ * Code-keyed tables are hash maps; year-keyed tables are arrays offset by their first year.
+ * A snapshot is never modified after construction: a change to one table produces a new
+ * snapshot (sharing the untouched indexes) with a new {@link #version()}, so callers can
+ * key caches on the version.
+ *
+ * The rows handed out are the entities loaded from Postgres and must be treated as read-only.
+ */
+public final class RateCard {
+
+    private final long version;
+
+    private final Keyed<DepartmentAndFaculty> departments;
+    private final Keyed<NonStaffCosts> nonStaffCosts;
+    private final Keyed<Region> regions;
+    private final Map<String, Region> regionsByCode;
+    private final Keyed<SalaryRate> salaryRates;
+    private final Keyed<SalaryRateMultiplier> multipliers;
+    private final Keyed<StaffBenefits> staffBenefits;
+    private final Map<String, BigDecimal> onCostRates;
+    private final YearTable<EBA> eba;
+    private final YearTable<PayrollTax> payrollTax;
+    private final YearTable<Stipend> stipends;
+    private final FxRates fxRates;
+
+    private RateCard(long version,
+                     Keyed<DepartmentAndFaculty> departments,
+                     Keyed<NonStaffCosts> nonStaffCosts,
+                     Keyed<Region> regions,
+                     Keyed<SalaryRate> salaryRates,
+                     Keyed<SalaryRateMultiplier> multipliers,
+                     Keyed<StaffBenefits> staffBenefits,
+                     YearTable<EBA> eba,
+                     YearTable<PayrollTax> payrollTax,
+                     YearTable<Stipend> stipends,
+                     FxRates fxRates) {
+        this.version = version;
+        this.departments = departments;
+        this.nonStaffCosts = nonStaffCosts;
+        this.regions = regions;
+        this.regionsByCode = index(regions.rows, Region::getRegionCode);
+        this.salaryRates = salaryRates;
+        this.multipliers = multipliers;
+        this.staffBenefits = staffBenefits;
+        this.onCostRates = onCosts(staffBenefits.rows);
+        this.eba = eba;
+        this.payrollTax = payrollTax;
+        this.stipends = stipends;
+        this.fxRates = fxRates;
+    }
+
+    /** An empty snapshot; every lookup misses. */
+    public static RateCard empty(long version) {
+        return new RateCard(version,
+                Keyed.of(List.of(), DepartmentAndFaculty::getDepartment),
+                Keyed.of(List.of(), NonStaffCosts::getCostSubcategory),
+                Keyed.of(List.of(), Region::getName),
+                Keyed.of(List.of(), SalaryRate::getCode),
+                Keyed.of(List.of(), SalaryRateMultiplier::getUnit),
+                Keyed.of(List.of(), StaffBenefits::getStaffType),
+                YearTable.of(List.of(), EBA::getYear),
+                YearTable.of(List.of(), PayrollTax::getYear),
+                YearTable.of(List.of(), Stipend::getYear),
+                FxRates.of(List.of()));
+    }
+
+    /**
+     * Copy of this snapshot with one table replaced by the given rows (in display order).
+     */
+    @SuppressWarnings("unchecked")
+    public RateCard with(LookupTable table, List<?> rows, long newVersion) {
+        return new RateCard(newVersion,
+                table == LookupTable.DEPARTMENT_AND_FACULTY
+                        ? Keyed.of((List<DepartmentAndFaculty>) rows, DepartmentAndFaculty::getDepartment) : departments,
+                table == LookupTable.NON_STAFF_COSTS
+                        ? Keyed.of((List<NonStaffCosts>) rows, NonStaffCosts::getCostSubcategory) : nonStaffCosts,
+                table == LookupTable.REGION
+                        ? Keyed.of((List<Region>) rows, Region::getName) : regions,
+                table == LookupTable.SALARY_RATE
+                        ? Keyed.of((List<SalaryRate>) rows, SalaryRate::getCode) : salaryRates,
+                table == LookupTable.SALARY_RATE_MULTIPLIER
+                        ? Keyed.of((List<SalaryRateMultiplier>) rows, SalaryRateMultiplier::getUnit) : multipliers,
+                table == LookupTable.STAFF_BENEFITS
+                        ? Keyed.of((List<StaffBenefits>) rows, StaffBenefits::getStaffType) : staffBenefits,
+                table == LookupTable.EBA
+                        ? YearTable.of((List<EBA>) rows, EBA::getYear) : eba,
+                table == LookupTable.PAYROLL_TAX
+                        ? YearTable.of((List<PayrollTax>) rows, PayrollTax::getYear) : payrollTax,
+                table == LookupTable.STIPEND
+                        ? YearTable.of((List<Stipend>) rows, Stipend::getYear) : stipends,
+                table == LookupTable.FX_RATE
+                        ? FxRates.of((List<FxRate>) rows) : fxRates);
+    }
+
+    public long version() { return version; }
+
+    // ---------- Row lookups (exact key) ----------
+
+    public List<DepartmentAndFaculty> departments() { return departments.rows; }
+    public DepartmentAndFaculty department(String department) { return departments.get(department); }
+
+    /** Department names in display order. */
+    public List<String> departmentNames() {
+        List<String> out = new ArrayList<>(departments.rows.size());
+        for (DepartmentAndFaculty d : departments.rows) out.add(d.getDepartment());
+        return Collections.unmodifiableList(out);
+    }
+
+    public List<NonStaffCosts> nonStaffCosts() { return nonStaffCosts.rows; }
+    public NonStaffCosts nonStaffCost(String subcategory) { return nonStaffCosts.get(subcategory); }
+
+    public List<Region> regions() { return regions.rows; }
+    public Region region(String name) { return regions.get(name); }
+    public Region regionByCode(String code) { return code == null ? null : regionsByCode.get(code); }
+
+    public List<SalaryRate> salaryRates() { return salaryRates.rows; }
+    public SalaryRate salaryRate(String code) { return salaryRates.get(code); }
+
+    public List<SalaryRateMultiplier> multipliers() { return multipliers.rows; }
+    public SalaryRateMultiplier multiplier(String unit) { return multipliers.get(unit); }
+
+    public List<StaffBenefits> staffBenefits() { return staffBenefits.rows; }
+    public StaffBenefits staffBenefits(String staffType) { return staffBenefits.get(staffType); }
+
+    public List<EBA> ebaRows() { return eba.rows; }
+    public EBA eba(Integer year) { return eba.exact(year); }
+
+    public List<PayrollTax> payrollTaxRows() { return payrollTax.rows; }
+    public PayrollTax payrollTax(Integer year) { return payrollTax.exact(year); }
+
+    public List<Stipend> stipendRows() { return stipends.rows; }
+    public Stipend stipend(Integer year) { return stipends.exact(year); }
+
+    public List<FxRate> fxRateRows() { return fxRates.rows(); }
+
+    // ---------- Pricing lookups ----------
+
+    /** Sum of all on-cost rates for a staff type; 0 when the type is unknown. */
+    public BigDecimal onCostRate(String staffType) {
+        BigDecimal r = staffType == null ? null : onCostRates.get(staffType);
+        return r == null ? BigDecimal.ZERO : r;
+    }
+
+    /** Cumulative EBA multiplier for a calendar year, carrying the last known year forward; 1 before the table starts. */
+    public BigDecimal ebaMultiplier(int year) {
+        EBA row = eba.floor(year);
+        return row == null || row.getEbaMultiplier() == null ? BigDecimal.ONE : row.getEbaMultiplier();
+    }
+
+    /** Payroll tax rate for a calendar year, carrying the last known year forward; 0 before the table starts. */
+    public BigDecimal payrollTaxRate(int year) {
+        PayrollTax row = payrollTax.floor(year);
+        return row == null || row.getRate() == null ? BigDecimal.ZERO : row.getRate();
+    }
+
+    /** Annual stipend for a calendar year, carrying the last known year forward; 0 before the table starts. */
+    public BigDecimal stipendRate(int year) {
+        Stipend row = stipends.floor(year);
+        return row == null || row.getRate() == null ? BigDecimal.ZERO : row.getRate();
+    }
+
+    /**
+     * Units of {@code to} per unit of {@code from} using the rates effective on the date; null when
+     * either currency has no rate on or before it. Rates are stored against AUD; other pairs are crossed.
+     */
+    public BigDecimal fxRate(String from, String to, LocalDate on) {
+        if (from == null || to == null || on == null) return null;
+        return fxRates.rate(from, to, on);
+    }
+
+    // ---------- Index structures ----------
+
+    private static Map<String, BigDecimal> onCosts(List<StaffBenefits> rows) {
+        Map<String, BigDecimal> out = new LinkedHashMap<>();
+        for (StaffBenefits b : rows) {
+            out.put(b.getStaffType(), zeroIfNull(b.getSuperannuation())
+                    .add(zeroIfNull(b.getLeaveLoading()))
+                    .add(zeroIfNull(b.getWorkCover()))
+                    .add(zeroIfNull(b.getParentalLeave()))
+                    .add(zeroIfNull(b.getLongServiceLeave()))
+                    .add(zeroIfNull(b.getAnnualLeave())));
+        }
+        return Collections.unmodifiableMap(out);
+    }
+
+    private static BigDecimal zeroIfNull(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+
+    private static <T> Map<String, T> index(List<T> rows, Function<T, String> key) {
+        Map<String, T> out = new LinkedHashMap<>();
+        for (T row : rows) {
+            String k = key.apply(row);
+            if (k != null) out.put(k, row);
+        }
+        return Collections.unmodifiableMap(out);
+    }
+
+    /** Rows in load order plus a hash index on their key. */
+    private static final class Keyed<T> {
+        final List<T> rows;
+        final Map<String, T> byKey;
+
+        private Keyed(List<T> rows, Map<String, T> byKey) {
+            this.rows = rows;
+            this.byKey = byKey;
+        }
+
+        static <T> Keyed<T> of(List<T> rows, Function<T, String> key) {
+            List<T> copy = List.copyOf(rows);
+            return new Keyed<>(copy, index(copy, key));
+        }
+
+        T get(String key) {
+            return key == null ? null : byKey.get(key);
+        }
+    }
+
+    /**
+     * Rows keyed by calendar year, stored in arrays indexed by (year - firstYear).
+     * {@code floor} has every gap filled with the closest earlier row.
+     */
+    private static final class YearTable<T> {
+        final List<T> rows;
+        final int firstYear;
+        final Object[] exact;
+        final Object[] floor;
+
+        private YearTable(List<T> rows, int firstYear, Object[] exact, Object[] floor) {
+            this.rows = rows;
+            this.firstYear = firstYear;
+            this.exact = exact;
+            this.floor = floor;
+        }
+
+        static <T> YearTable<T> of(List<T> rows, Function<T, Integer> year) {
+            List<T> copy = List.copyOf(rows);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (T row : copy) {
+                Integer y = year.apply(row);
+                if (y == null) continue;
+                min = Math.min(min, y);
+                max = Math.max(max, y);
+            }
+            if (min > max) return new YearTable<>(copy, 0, new Object[0], new Object[0]);
+
+            Object[] exact = new Object[max - min + 1];
+            for (T row : copy) {
+                Integer y = year.apply(row);
+                if (y != null) exact[y - min] = row;
+            }
+            Object[] floor = new Object[exact.length];
+            Object last = null;
+            for (int i = 0; i < exact.length; i++) {
+                if (exact[i] != null) last = exact[i];
+                floor[i] = last;
+            }
+            return new YearTable<>(copy, min, exact, floor);
+        }
+
+        @SuppressWarnings("unchecked")
+        T exact(Integer year) {
+            if (year == null) return null;
+            int i = year - firstYear;
+            return i < 0 || i >= exact.length ? null : (T) exact[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        T floor(int year) {
+            if (floor.length == 0) return null;
+            int i = year - firstYear;
+            if (i < 0) return null;
+            return (T) floor[Math.min(i, floor.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+/**
+ * Published after a new {@link RateCard} snapshot has been swapped in because one lookup table changed,
+ * or because a full reload (e.g. on startup) produced a different version.
+ */
+public class RateCardChangedEvent {
+
+    private final LookupTable table;
+    private final long version;
+
+    public RateCardChangedEvent(LookupTable table, long version) {
+        this.table = table;
+        this.version = version;
+    }
+
+    /** The table whose rows changed, or null after a full reload. */
+    public LookupTable getTable() { return table; }
+
+    /** Version of the snapshot that is now current. */
+    public long getVersion() { return version; }
+}
@@ -0,0 +1,204 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.jpa.repositories.DepartmentAndFacultyRepository;
+import com.itproject.rcpt.jpa.repositories.EBARepository;
+import com.itproject.rcpt.jpa.repositories.FxRateRepository;
+import com.itproject.rcpt.jpa.repositories.NonStaffCostsRepository;
+import com.itproject.rcpt.jpa.repositories.PayrollTaxRepository;
+import com.itproject.rcpt.jpa.repositories.RegionRepository;
+import com.itproject.rcpt.jpa.repositories.SalaryRateMultiplierRepository;
+import com.itproject.rcpt.jpa.repositories.SalaryRateRepository;
+import com.itproject.rcpt.jpa.repositories.StaffBenefitsRepository;
+import com.itproject.rcpt.jpa.repositories.StipendRepository;
+
+/**
+ * Holds the current {@link RateCard} snapshot.
+ *
+ * Reads are a single volatile load with no locking and no database I/O. The snapshot is loaded
+ * once the application is ready (or on first use, if that load failed) and replaced copy-on-write
+ * whenever a lookup service writes to a table: only that table is re-read, the new snapshot
+ * is swapped in atomically, and a {@link RateCardChangedEvent} is published.
+ *
+ * The version is a digest of the rows of every table, so it only changes when the data does and
+ * is the same across restarts; a full reload that lands on a different version (including the
+ * first one after startup) publishes an event for every table, which reprices stale projects.
+ */
+@Service
+public class RateCardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateCardService.class);
+
+    private final DepartmentAndFacultyRepository departments;
+    private final EBARepository eba;
+    private final FxRateRepository fxRates;
+    private final NonStaffCostsRepository nonStaffCosts;
+    private final PayrollTaxRepository payrollTax;
+    private final RegionRepository regions;
+    private final SalaryRateRepository salaryRates;
+    private final SalaryRateMultiplierRepository multipliers;
+    private final StaffBenefitsRepository staffBenefits;
+    private final StipendRepository stipends;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper json;
+
+    private final AtomicReference<RateCard> current = new AtomicReference<>();
+    /** Digest of each table's rows as last loaded; guarded by this. */
+    private final Map<LookupTable, byte[]> digests = new EnumMap<>(LookupTable.class);
+
+    public RateCardService(DepartmentAndFacultyRepository departments,
+                           EBARepository eba,
+                           FxRateRepository fxRates,
+                           NonStaffCostsRepository nonStaffCosts,
+                           PayrollTaxRepository payrollTax,
+                           RegionRepository regions,
+                           SalaryRateRepository salaryRates,
+                           SalaryRateMultiplierRepository multipliers,
+                           StaffBenefitsRepository staffBenefits,
+                           StipendRepository stipends,
+                           ApplicationEventPublisher events,
+                           ObjectMapper json) {
+        this.departments = departments;
+        this.eba = eba;
+        this.fxRates = fxRates;
+        this.nonStaffCosts = nonStaffCosts;
+        this.payrollTax = payrollTax;
+        this.regions = regions;
+        this.salaryRates = salaryRates;
+        this.multipliers = multipliers;
+        this.staffBenefits = staffBenefits;
+        this.stipends = stipends;
+        this.events = events;
+        this.json = json;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            RateCard card = reloadAll();
+            logger.info("Loaded rate card v{} ({} salary rates)", card.version(), card.salaryRates().size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not load rate card on startup; will retry on first use.", e);
+        }
+    }
+
+    /** The current snapshot. Never null. */
+    public RateCard current() {
+        RateCard card = current.get();
+        return card != null ? card : reloadAll();
+    }
+
+    /**
+     * Re-read every table and swap in a fresh snapshot. If its version differs from the one it
+     * replaces, a {@link RateCardChangedEvent} with no table is published.
+     */
+    public RateCard reloadAll() {
+        RateCard prev;
+        RateCard card;
+        synchronized (this) {
+            prev = current.get();
+            Map<LookupTable, List<?>> rows = new EnumMap<>(LookupTable.class);
+            for (LookupTable table : LookupTable.values()) {
+                rows.put(table, load(table));
+                digests.put(table, digest(rows.get(table)));
+            }
+            card = RateCard.empty(version());
+            for (Map.Entry<LookupTable, List<?>> e : rows.entrySet()) {
+                card = card.with(e.getKey(), e.getValue(), card.version());
+            }
+            current.set(card);
+        }
+        if (prev == null || prev.version() != card.version()) {
+            events.publishEvent(new RateCardChangedEvent(null, card.version()));
+        }
+        return card;
+    }
+
+    /**
+     * Re-read one table after it was written and swap in a new snapshot that shares every other index.
+     */
+    public RateCard refresh(LookupTable table) {
+        RateCard card;
+        synchronized (this) {
+            RateCard base = current.get();
+            if (base == null) {
+                card = null;
+            } else {
+                List<?> rows = load(table);
+                digests.put(table, digest(rows));
+                card = base.with(table, rows, version());
+                current.set(card);
+            }
+        }
+        if (card == null) return reloadAll();
+        events.publishEvent(new RateCardChangedEvent(table, card.version()));
+        return card;
+    }
+
+    /** First 63 bits of a SHA-256 over the table digests, in table order. */
+    private long version() {
+        MessageDigest md = sha256();
+        for (LookupTable table : LookupTable.values()) {
+            md.update(digests.get(table));
+        }
+        return ByteBuffer.wrap(md.digest()).getLong() & Long.MAX_VALUE;
+    }
+
+    /** SHA-256 of the rows' JSON, sorted so that the order Postgres returns them in does not matter. */
+    private byte[] digest(List<?> rows) {
+        List<String> lines = new ArrayList<>(rows.size());
+        try {
+            for (Object row : rows) lines.add(json.writeValueAsString(row));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise rate card rows", e);
+        }
+        lines.sort(null);
+        MessageDigest md = sha256();
+        for (String line : lines) {
+            md.update(line.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+        }
+        return md.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<?> load(LookupTable table) {
+        return switch (table) {
+            case DEPARTMENT_AND_FACULTY -> departments.findAll();
+            case EBA -> eba.findAll();
+            case FX_RATE -> fxRates.findAll();
+            case NON_STAFF_COSTS -> nonStaffCosts.findAll();
+            case PAYROLL_TAX -> payrollTax.findAll();
+            case REGION -> regions.findAll();
+            case SALARY_RATE -> salaryRates.findAll();
+            case SALARY_RATE_MULTIPLIER -> multipliers.findAll();
+            case STAFF_BENEFITS -> staffBenefits.findAll();
+            case STIPEND -> stipends.findAll();
+        };
+    }
+}
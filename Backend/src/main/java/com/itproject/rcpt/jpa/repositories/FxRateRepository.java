@@ -0,0 +1,10 @@
+package com.itproject.rcpt.jpa.repositories;
+
+import com.itproject.rcpt.jpa.entities.FxRate;
+import com.itproject.rcpt.jpa.entities.FxRateId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, FxRateId> {
+}
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.DepartmentAndFaculty;
 import com.itproject.rcpt.jpa.repositories.DepartmentAndFacultyRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,28 +12,33 @@ import java.util.List;
 public class DepartmentAndFacultyService {
 
     private final DepartmentAndFacultyRepository repository;
+    private final RateCardService rateCards;
 
-    public DepartmentAndFacultyService(DepartmentAndFacultyRepository repository) {
+    public DepartmentAndFacultyService(DepartmentAndFacultyRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<DepartmentAndFaculty> getAll() {
-        return repository.findAll();
+        return rateCards.current().departments();
     }
 
     public DepartmentAndFaculty getByDepartment(String department) {
-        return repository.findById(department).orElse(null);
+        return rateCards.current().department(department);
     }
 
     public List<String> getDepartments() {
-        return repository.findAllDepartments();
+        return rateCards.current().departmentNames();
     }
 
     public DepartmentAndFaculty create(DepartmentAndFaculty dept) {
-        return repository.save(dept);
+        DepartmentAndFaculty saved = repository.save(dept);
+        rateCards.refresh(LookupTable.DEPARTMENT_AND_FACULTY);
+        return saved;
     }
 
     public void delete(String department) {
         repository.deleteById(department);
+        rateCards.refresh(LookupTable.DEPARTMENT_AND_FACULTY);
     }
 }
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.EBA;
 import com.itproject.rcpt.jpa.repositories.EBARepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,25 +12,30 @@ import java.util.List;
 public class EBAService {
 
     private final EBARepository repository;
+    private final RateCardService rateCards;
 
-    public EBAService(EBARepository repository) {
+    public EBAService(EBARepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<EBA> getAll() {
-        return repository.findAll();
+        return rateCards.current().ebaRows();
     }
 
     public EBA getByYear(Integer year) {
-        return repository.findById(year).orElse(null);
+        return rateCards.current().eba(year);
     }
 
     public EBA save(EBA eba) {
-        return repository.save(eba);
+        EBA saved = repository.save(eba);
+        rateCards.refresh(LookupTable.EBA);
+        return saved;
     }
 
     public void delete(Integer year) {
         repository.deleteById(year);
+        rateCards.refresh(LookupTable.EBA);
     }
 
     public EBARepository getRepository() {
@@ -0,0 +1,79 @@
+package com.itproject.rcpt.jpa.services;
+
+import com.itproject.rcpt.domain.value.FixedMoney;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.jpa.entities.FxRate;
+import com.itproject.rcpt.jpa.entities.FxRateId;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.jpa.repositories.FxRateRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class FxRateService {
+
+    private final FxRateRepository repository;
+    private final RateCardService rateCards;
+
+    public FxRateService(FxRateRepository repository, RateCardService rateCards) {
+        this.repository = repository;
+        this.rateCards = rateCards;
+    }
+
+    public List<FxRate> getAll() {
+        return rateCards.current().fxRateRows();
+    }
+
+    // All rows for one currency, oldest first
+    public List<FxRate> getByCurrency(String currency) {
+        return rateCards.current().fxRateRows().stream()
+                .filter(r -> r.getCurrency().equalsIgnoreCase(currency))
+                .sorted((a, b) -> a.getEffectiveFrom().compareTo(b.getEffectiveFrom()))
+                .toList();
+    }
+
+    public FxRate save(FxRate rate) {
+        if (rate.getCurrency() != null) rate.setCurrency(rate.getCurrency().toUpperCase());
+        FxRate saved = repository.save(rate); // insert or update
+        rateCards.refresh(LookupTable.FX_RATE);
+        return saved;
+    }
+
+    public void delete(String currency, LocalDate effectiveFrom) {
+        repository.deleteById(new FxRateId(currency.toUpperCase(), effectiveFrom));
+        rateCards.refresh(LookupTable.FX_RATE);
+    }
+
+    // Units of "to" per unit of "from" on a date
+    public BigDecimal rate(String from, String to, LocalDate on) {
+        return rate(rateCards.current(), from, to, on);
+    }
+
+    public Money convert(Money money, String to, LocalDate on) {
+        return convert(rateCards.current(), money, to, on);
+    }
+
+    /**
+     * Rate from a given snapshot, so that a caller converting many amounts uses one consistent set.
+     * Throws IllegalArgumentException when no rate is effective on the date.
+     */
+    public static BigDecimal rate(RateCard card, String from, String to, LocalDate on) {
+        BigDecimal rate = card.fxRate(from, to, on);
+        if (rate == null) {
+            throw new IllegalArgumentException("No FX rate from " + from + " to " + to + " on " + on);
+        }
+        return rate;
+    }
+
+    /** Converted amount rounded HALF_EVEN to the cent; null stays null. */
+    public static Money convert(RateCard card, Money money, String to, LocalDate on) {
+        if (money == null || money.getAmount() == null) return money;
+        BigDecimal rate = rate(card, money.getCurrency(), to, on);
+        return FixedMoney.of(money.getAmount().multiply(rate), to).toMoney();
+    }
+}
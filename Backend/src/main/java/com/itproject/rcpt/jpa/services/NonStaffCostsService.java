@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.NonStaffCosts;
 import com.itproject.rcpt.jpa.repositories.NonStaffCostsRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,24 +12,29 @@ import java.util.List;
 public class NonStaffCostsService {
 
     private final NonStaffCostsRepository repository;
+    private final RateCardService rateCards;
 
-    public NonStaffCostsService(NonStaffCostsRepository repository) {
+    public NonStaffCostsService(NonStaffCostsRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<NonStaffCosts> getAll() {
-        return repository.findAll();
+        return rateCards.current().nonStaffCosts();
     }
 
     public NonStaffCosts getBySubcategory(String subcategory) {
-        return repository.findById(subcategory).orElse(null);
+        return rateCards.current().nonStaffCost(subcategory);
     }
 
     public NonStaffCosts save(NonStaffCosts cost) {
-        return repository.save(cost);
+        NonStaffCosts saved = repository.save(cost);
+        rateCards.refresh(LookupTable.NON_STAFF_COSTS);
+        return saved;
     }
 
     public void delete(String subcategory) {
         repository.deleteById(subcategory);
+        rateCards.refresh(LookupTable.NON_STAFF_COSTS);
     }
 }
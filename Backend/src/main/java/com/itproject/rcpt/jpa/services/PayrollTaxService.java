@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.PayrollTax;
 import com.itproject.rcpt.jpa.repositories.PayrollTaxRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,24 +12,29 @@ import java.util.List;
 public class PayrollTaxService {
 
     private final PayrollTaxRepository repository;
+    private final RateCardService rateCards;
 
-    public PayrollTaxService(PayrollTaxRepository repository) {
+    public PayrollTaxService(PayrollTaxRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<PayrollTax> getAll() {
-        return repository.findAll();
+        return rateCards.current().payrollTaxRows();
     }
 
     public PayrollTax getByYear(Integer year) {
-        return repository.findById(year).orElse(null);
+        return rateCards.current().payrollTax(year);
     }
 
     public PayrollTax save(PayrollTax payrollTax) {
-        return repository.save(payrollTax); // insert or update
+        PayrollTax saved = repository.save(payrollTax); // insert or update
+        rateCards.refresh(LookupTable.PAYROLL_TAX);
+        return saved;
     }
 
     public void delete(Integer year) {
         repository.deleteById(year);
+        rateCards.refresh(LookupTable.PAYROLL_TAX);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.Region;
 import com.itproject.rcpt.jpa.repositories.RegionRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,30 +12,35 @@ import java.util.List;
 public class RegionService {
 
     private final RegionRepository repository;
+    private final RateCardService rateCards;
 
-    public RegionService(RegionRepository repository) {
+    public RegionService(RegionRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     // Get all regions
     public List<Region> getAll() {
-        return repository.findAll();
+        return rateCards.current().regions();
     }
 
     // Get by Name
     public Region getByName(String name) {
-        return repository.getByName(name);
+        return rateCards.current().region(name);
     }
 
 
     // Create new region
     public Region create(Region region) {
-        return repository.save(region);
+        Region saved = repository.save(region);
+        rateCards.refresh(LookupTable.REGION);
+        return saved;
     }
 
 
     // Delete region
     public void delete(String name) {
         repository.deleteById(name);
+        rateCards.refresh(LookupTable.REGION);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.SalaryRateMultiplier;
 import com.itproject.rcpt.jpa.repositories.SalaryRateMultiplierRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,24 +12,29 @@ import java.util.List;
 public class SalaryRateMultiplierService {
 
     private final SalaryRateMultiplierRepository repository;
+    private final RateCardService rateCards;
 
-    public SalaryRateMultiplierService(SalaryRateMultiplierRepository repository) {
+    public SalaryRateMultiplierService(SalaryRateMultiplierRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<SalaryRateMultiplier> getAll() {
-        return repository.findAll();
+        return rateCards.current().multipliers();
     }
 
     public SalaryRateMultiplier getByUnit(String unit) {
-        return repository.findById(unit).orElse(null);
+        return rateCards.current().multiplier(unit);
     }
 
     public SalaryRateMultiplier save(SalaryRateMultiplier multiplier) {
-        return repository.save(multiplier); // insert or update
+        SalaryRateMultiplier saved = repository.save(multiplier); // insert or update
+        rateCards.refresh(LookupTable.SALARY_RATE_MULTIPLIER);
+        return saved;
     }
 
     public void delete(String unit) {
         repository.deleteById(unit);
+        rateCards.refresh(LookupTable.SALARY_RATE_MULTIPLIER);
     }
 }
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.SalaryRate;
 import com.itproject.rcpt.jpa.repositories.SalaryRateRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,24 +12,29 @@ import java.util.List;
 public class SalaryRateService {
 
     private final SalaryRateRepository repository;
+    private final RateCardService rateCards;
 
-    public SalaryRateService(SalaryRateRepository repository) {
+    public SalaryRateService(SalaryRateRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<SalaryRate> getAll() {
-        return repository.findAll();
+        return rateCards.current().salaryRates();
     }
 
     public SalaryRate getByCode(String code) {
-        return repository.findById(code).orElse(null);
+        return rateCards.current().salaryRate(code);
     }
 
     public SalaryRate save(SalaryRate salaryRate) {
-        return repository.save(salaryRate); // insert or update
+        SalaryRate saved = repository.save(salaryRate); // insert or update
+        rateCards.refresh(LookupTable.SALARY_RATE);
+        return saved;
     }
 
     public void delete(String code) {
         repository.deleteById(code);
+        rateCards.refresh(LookupTable.SALARY_RATE);
     }
 }
@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.StaffBenefits;
 import com.itproject.rcpt.jpa.repositories.StaffBenefitsRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,24 +12,29 @@ import java.util.List;
 public class StaffBenefitsService {
 
     private final StaffBenefitsRepository repository;
+    private final RateCardService rateCards;
 
-    public StaffBenefitsService(StaffBenefitsRepository repository) {
+    public StaffBenefitsService(StaffBenefitsRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     public List<StaffBenefits> getAll() {
-        return repository.findAll();
+        return rateCards.current().staffBenefits();
     }
 
     public StaffBenefits getByStaffType(String staffType) {
-        return repository.findById(staffType).orElse(null);
+        return rateCards.current().staffBenefits(staffType);
     }
 
     public StaffBenefits save(StaffBenefits staffBenefits) {
-        return repository.save(staffBenefits); // insert or update
+        StaffBenefits saved = repository.save(staffBenefits); // insert or update
+        rateCards.refresh(LookupTable.STAFF_BENEFITS);
+        return saved;
     }
 
     public void delete(String staffType) {
         repository.deleteById(staffType);
+        rateCards.refresh(LookupTable.STAFF_BENEFITS);
     }
 }
\ No newline at end of file
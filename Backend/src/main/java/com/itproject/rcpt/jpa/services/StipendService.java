@@ -2,6 +2,8 @@ package com.itproject.rcpt.jpa.services;
 
 import com.itproject.rcpt.jpa.entities.Stipend;
 import com.itproject.rcpt.jpa.repositories.StipendRepository;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,29 +12,34 @@ import java.util.List;
 public class StipendService {
 
     private final StipendRepository repository;
+    private final RateCardService rateCards;
 
-    public StipendService(StipendRepository repository) {
+    public StipendService(StipendRepository repository, RateCardService rateCards) {
         this.repository = repository;
+        this.rateCards = rateCards;
     }
 
     // Get all rows
     public List<Stipend> getAll() {
-        return repository.findAll();
+        return rateCards.current().stipendRows();
     }
 
     // Get by year
     public Stipend getByYear(Integer year) {
-        return repository.findById(year).orElse(null);
+        return rateCards.current().stipend(year);
     }
 
     // Create or update
     public Stipend save(Stipend stipend) {
-        return repository.save(stipend);
+        Stipend saved = repository.save(stipend);
+        rateCards.refresh(LookupTable.STIPEND);
+        return saved;
     }
 
     // Delete by year
     public void delete(Integer year) {
         repository.deleteById(year);
+        rateCards.refresh(LookupTable.STIPEND);
     }
 
     public StipendRepository getRepository() {
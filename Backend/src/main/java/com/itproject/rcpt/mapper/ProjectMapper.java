@@ -80,7 +80,15 @@ public interface ProjectMapper {
 
   // ---------- Staff Cost Mappers ----------
 
+  @Mapping(target = "role", source = "roleName")
+  @Mapping(target = "perYearUnits", source = "time")
+  @Mapping(target = "unitCost", ignore = true)
+  @Mapping(target = "units", ignore = true)
+  @Mapping(target = "contribution", ignore = true)
   StaffCost toStaffCost(StaffCostRequest req);
+
+  @Mapping(target = "roleName", source = "role")
+  @Mapping(target = "time", source = "perYearUnits")
   StaffCostResponse toStaffCostResponse(StaffCost s);
 
   default List<StaffCost> toStaffCostList(List<StaffCostRequest> src) {
@@ -167,11 +175,27 @@ public interface ProjectMapper {
     return dto;
   }
 
-  default List<ApprovalEntryResponse> toApprovalHistoryResponse(ApprovalTracker tracker) {
-    if (tracker == null || tracker.getHistory() == null) return new ArrayList<>();
-    List<ApprovalEntryResponse> out = new ArrayList<>();
-    for (var e : tracker.getHistory()) out.add(toApprovalEntryResponse(e));
-    return out;
+  /**
+   * The project's latest approval entry; for a project whose history has not moved to
+   * approval_history yet, the last embedded one.
+   */
+  default ApprovalEntryResponse toLatestApprovalResponse(ApprovalTracker tracker) {
+    if (tracker == null) return null;
+    if (tracker.getLatest() != null) return toApprovalEntryResponse(tracker.getLatest());
+    if (!tracker.hasLegacyHistory()) return null;
+    return toApprovalEntryResponse(tracker.getHistory().get(tracker.getHistory().size() - 1));
+  }
+
+  /** Result of an approval action: the project's new status and the entry it recorded (its latest). */
+  default ApprovalActionResponse toApprovalActionResponse(Project p) {
+    if (p == null) return null;
+    var dto = new ApprovalActionResponse();
+    dto.setProjectId(p.getId());
+    dto.setStatus(p.getStatus());
+    dto.setVersion(p.getVersion());
+    dto.setUpdatedAt(p.getUpdatedAt());
+    dto.setEntry(toLatestApprovalResponse(p.getApprovals()));
+    return dto;
   }
 
   // ---------- Project (Create) ----------
@@ -214,9 +238,54 @@ public interface ProjectMapper {
   @Mapping(target = "staff", expression = "java(toStaffCostResponseList(p.getStaffCosts()))")
   @Mapping(target = "nonStaff", expression = "java(toNonStaffResponseList(p.getNonStaffCosts()))")
   @Mapping(target = "priceSummary", expression = "java(toPriceSummaryResponse(p.getPriceSummary()))")
-  @Mapping(target = "approvalsHistory", expression = "java(toApprovalHistoryResponse(p.getApprovals()))")
+  @Mapping(target = "latestApproval", expression = "java(toLatestApprovalResponse(p.getApprovals()))")
   ProjectResponse toResponse(Project p);
 
+  /**
+   * Only the members in fields (and the id); the others are not mapped. Works on a project loaded
+   * with just {@link ProjectFields#paths()}.
+   */
+  default ProjectResponse toResponse(Project p, ProjectFields fields) {
+    if (p == null) return null;
+    if (fields.isAll()) return toResponse(p);
+    var dto = new ProjectResponse();
+    dto.setId(p.getId());
+    if (fields.has(ProjectFields.Member.DETAILS)) dto.setDetails(toDetailsDto(p.getDetails()));
+    if (fields.has(ProjectFields.Member.STAFF)) dto.setStaff(toStaffCostResponseList(p.getStaffCosts()));
+    if (fields.has(ProjectFields.Member.NON_STAFF)) dto.setNonStaff(toNonStaffResponseList(p.getNonStaffCosts()));
+    if (fields.has(ProjectFields.Member.PRICE_SUMMARY)) dto.setPriceSummary(toPriceSummaryResponse(p.getPriceSummary()));
+    if (fields.has(ProjectFields.Member.LATEST_APPROVAL)) dto.setLatestApproval(toLatestApprovalResponse(p.getApprovals()));
+    if (fields.has(ProjectFields.Member.STATUS)) dto.setStatus(p.getStatus());
+    if (fields.has(ProjectFields.Member.OWNER_USER_ID)) dto.setOwnerUserId(p.getOwnerUserId());
+    if (fields.has(ProjectFields.Member.CREATED_AT)) dto.setCreatedAt(p.getCreatedAt());
+    if (fields.has(ProjectFields.Member.UPDATED_AT)) dto.setUpdatedAt(p.getUpdatedAt());
+    if (fields.has(ProjectFields.Member.VERSION)) dto.setVersion(p.getVersion());
+    return dto;
+  }
+
+  // ---------- Project → Summary row ----------
+
+  /** List card fields only; works on a project loaded with just those fields. */
+  default ProjectSummaryResponse toSummaryResponse(Project p) {
+    if (p == null) return null;
+    var dto = new ProjectSummaryResponse();
+    dto.setId(p.getId());
+    if (p.getDetails() != null) {
+      dto.setTitle(p.getDetails().getTitle());
+      dto.setReferenceCode(p.getDetails().getReferenceCode());
+      dto.setDepartment(p.getDetails().getDepartment());
+    }
+    dto.setStatus(p.getStatus());
+    dto.setOwnerUserId(p.getOwnerUserId());
+    dto.setCreatedAt(p.getCreatedAt());
+    dto.setUpdatedAt(p.getUpdatedAt());
+    if (p.getPriceSummary() != null) {
+      dto.setTotalCost(toMoneyDto(p.getPriceSummary().getTotalCost()));
+      dto.setTotalPriceInclGst(toMoneyDto(p.getPriceSummary().getTotalPriceInclGst()));
+    }
+    return dto;
+  }
+
   // ---------- Price Summary ----------
 
   default PriceSummaryResponse toPriceSummaryResponse(PriceSummary s) {
@@ -0,0 +1,131 @@
+package com.itproject.rcpt.pricing;
+
+import java.util.Arrays;
+
+/**
+ * Dense primitive form of a project's cost lines, built once per pricing call.
+ *
+ * Lines {@code [0, staffLines)} are staff lines and the rest are non-staff lines, in project order.
+ * Each line has one slot per project year 1..{@value #YEARS}, stored row-major at
+ * {@code line * YEARS + (year - 1)}. Rates, quantities and factors are fixed-point micros
+ * (see {@link FixedPoint}). Rate x quantity is kept per slot as it is allocated, so re-evaluating
+ * a line with different factors (see {@link #directCents(int, long[], long, long[])}) costs three
+ * multiplications per year. Line totals come out in whole cents, and nothing is allocated per
+ * line or per year while they are computed.
+ *
+ * "Loaded" lines are salaried staff lines: their base cost is scaled by the calendar year's
+ * EBA multiplier, the line's on-cost factor and the year's payroll tax factor, in that order,
+ * rounding to micros after each step. Every line-year is rounded to cents before it is summed.
+ */
+final class CostMatrix {
+
+    /** Matches the {@code @Max(10)} bound on {@code YearAllocation.year}. */
+    static final int YEARS = 10;
+
+    private final int staffLines;
+    private final int lines;
+
+    private final long[] rate;        // [line * YEARS + y] unit rate, micros
+    private final long[] quantity;    // [line * YEARS + y] units, micros
+    private final long[] base;        // [line * YEARS + y] rate x quantity before factors, micros
+    private final boolean[] loaded;   // [line]
+    private final boolean[] inKind;   // [line]
+    private final long[] onCost;      // [line] 1 + on-cost rate, micros
+
+    private final long[] eba;         // [y] EBA multiplier for that project year, micros
+    private final long[] payroll;     // [y] 1 + payroll tax rate for that project year, micros
+
+    CostMatrix(int staffLines, int nonStaffLines) {
+        this.staffLines = staffLines;
+        this.lines = staffLines + nonStaffLines;
+        this.rate = new long[lines * YEARS];
+        this.quantity = new long[lines * YEARS];
+        this.base = new long[lines * YEARS];
+        this.loaded = new boolean[lines];
+        this.inKind = new boolean[lines];
+        this.onCost = new long[lines];
+        this.eba = new long[YEARS];
+        this.payroll = new long[YEARS];
+        Arrays.fill(eba, FixedPoint.SCALE);
+        Arrays.fill(payroll, FixedPoint.SCALE);
+    }
+
+    // ---------- Building ----------
+
+    void setYearFactors(int yearIndex, long ebaMicros, long payrollFactorMicros) {
+        eba[yearIndex] = ebaMicros;
+        payroll[yearIndex] = payrollFactorMicros;
+    }
+
+    void setLoaded(int line, long onCostFactorMicros) {
+        loaded[line] = true;
+        onCost[line] = onCostFactorMicros;
+    }
+
+    void setInKind(int line, boolean value) {
+        inKind[line] = value;
+    }
+
+    /**
+     * Add units for a project year (1-based). Repeated allocations for the same year accumulate.
+     */
+    void allocate(int line, int year, long rateMicros, long quantityMicros) {
+        if (year < 1 || year > YEARS) {
+            throw new IllegalArgumentException("Allocation year must be between 1 and " + YEARS + ": " + year);
+        }
+        int i = line * YEARS + year - 1;
+        rate[i] = rateMicros;
+        quantity[i] = Math.addExact(quantity[i], quantityMicros);
+        base[i] = FixedPoint.mul(rateMicros, quantity[i]);
+    }
+
+    // ---------- Reading ----------
+
+    int lines() { return lines; }
+    int staffLines() { return staffLines; }
+    boolean isStaff(int line) { return line < staffLines; }
+    boolean isInKind(int line) { return inKind[line]; }
+    boolean isLoaded(int line) { return loaded[line]; }
+    long onCostFactor(int line) { return onCost[line]; }
+
+    /** Per-year EBA factors; shared, do not modify. */
+    long[] ebaFactors() { return eba; }
+
+    /** Per-year payroll tax factors; shared, do not modify. */
+    long[] payrollFactors() { return payroll; }
+
+    /** Direct cost of one line across all years, in cents. */
+    long directCents(int line) {
+        return directCents(line, eba, onCost[line], payroll);
+    }
+
+    /**
+     * Direct cost of one line with the given year and line factors in place of the stored ones.
+     * Non-loaded lines ignore the factors.
+     */
+    long directCents(int line, long[] ebaByYear, long onCostFactor, long[] payrollByYear) {
+        int offset = line * YEARS;
+        boolean applyFactors = loaded[line];
+        long total = 0;
+        for (int y = 0; y < YEARS; y++) {
+            if (quantity[offset + y] == 0) continue;
+            long amount = base[offset + y];
+            if (applyFactors) {
+                amount = FixedPoint.mul(amount, ebaByYear[y]);
+                amount = FixedPoint.mul(amount, onCostFactor);
+                amount = FixedPoint.mul(amount, payrollByYear[y]);
+            }
+            total = Math.addExact(total, FixedPoint.toCents(amount));
+        }
+        return total;
+    }
+
+    /** Direct cost of every line, in cents. */
+    long[] directCents() {
+        long[] out = new long[lines];
+        for (int line = 0; line < lines; line++) {
+            out[line] = directCents(line);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package com.itproject.rcpt.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.itproject.rcpt.domain.value.FixedMoney;
+
+/**
+ * Fixed-point arithmetic on longs for the pricing hot path.
+ *
+ * Amounts, rates, factors and quantities are held in micros (millionths of a unit). Products are
+ * rescaled with HALF_EVEN rounding. A cent amount times a micros rate is again cents, which is
+ * what {@link FixedMoney#times(long)} does; the rounding helpers are shared with it.
+ */
+final class FixedPoint {
+
+    static final long SCALE = 1_000_000L;
+    static final long MICROS_PER_CENT = 10_000L;
+
+    private FixedPoint() { }
+
+    /** a x b / SCALE, rounded HALF_EVEN. */
+    static long mul(long a, long b) {
+        return FixedMoney.mulDiv(a, b, SCALE);
+    }
+
+    /** n / d rounded HALF_EVEN; d must be positive. */
+    static long divHalfEven(long n, long d) {
+        return FixedMoney.divHalfEven(n, d);
+    }
+
+    static long micros(BigDecimal v) {
+        if (v == null) return 0;
+        return v.movePointRight(6).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    static long micros(Double v) {
+        if (v == null) return 0;
+        return Math.round(v * SCALE);
+    }
+
+    /** Micros of a currency unit to whole cents. */
+    static long toCents(long micros) {
+        return divHalfEven(micros, MICROS_PER_CENT);
+    }
+}
@@ -0,0 +1,255 @@
+package com.itproject.rcpt.pricing;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.dto.price.PricingCacheStats;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardChangedEvent;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+
+/**
+ * Bounded LRU cache of price summaries for read paths (project GET and list, PDF export).
+ *
+ * Entries are content-addressed: the key is a SHA-256 of every field pricing reads (currency, start
+ * year, and each line's rate inputs and allocations) plus the rate card version, so two projects with
+ * identical lines share an entry and any edit or lookup change misses. The whole cache is dropped when
+ * a lookup table changes since no older entry can be hit again. Nothing is persisted; the cache
+ * starts empty after a restart.
+ *
+ * A summary already stored on the project is used as is when it was priced against the current rate
+ * card, or when the project is no longer open (approved and archived projects keep the price they
+ * were approved at). The cache only serves open projects whose stored summary is missing or stale,
+ * e.g. while the background repricing job catches up. Callers get their own copy of a cached summary.
+ */
+@Component
+public class PricingCache {
+
+    private final PricingService pricing;
+    private final RateCardService rateCards;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /** Access-ordered, so iteration order is least recently used first. Guarded by itself. */
+    private final LinkedHashMap<Key, PriceSummary> entries;
+
+    public PricingCache(PricingService pricing,
+                        RateCardService rateCards,
+                        @Value("${rcpt.pricing.cache.max-entries:10000}") int maxEntries) {
+        if (maxEntries < 1) throw new IllegalArgumentException("rcpt.pricing.cache.max-entries must be positive");
+        this.pricing = pricing;
+        this.rateCards = rateCards;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PriceSummary> eldest) {
+                if (size() <= PricingCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /** Set the project's summary to its price under the current rate card. Nothing is saved. */
+    public Project withCurrentPrice(Project project) {
+        project.setPriceSummary(summaryFor(project));
+        return project;
+    }
+
+    /**
+     * The project's price under the current rate card, from the project itself, the cache, or priced
+     * now; for a project that is no longer open, its stored price.
+     */
+    public PriceSummary summaryFor(Project project) {
+        RateCard rates = rateCards.current();
+        if (isCurrent(project, rates)) return project.getPriceSummary();
+
+        Key key = keyOf(project, rates.version());
+        PriceSummary cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+
+        misses.increment();
+        PriceSummary priced = pricing.price(project, rates);
+        synchronized (entries) {
+            entries.put(key, copy(priced));
+        }
+        return priced;
+    }
+
+    /** Whether {@link #summaryFor} would return the project's stored summary unchanged. */
+    public boolean isCurrent(Project project) {
+        return isCurrent(project, rateCards.current());
+    }
+
+    private static boolean isCurrent(Project project, RateCard rates) {
+        PriceSummary stored = project.getPriceSummary();
+        if (stored == null) return false;
+        ProjectStatus status = project.getStatus();
+        if (status != null && !RepricingJobService.OPEN.contains(status)) return true;
+        return stored.getRateCardVersion() != null && stored.getRateCardVersion() == rates.version();
+    }
+
+    /** Any lookup change gives a new rate card version, so every entry is now unreachable. */
+    @EventListener
+    public void onRateCardChanged(RateCardChangedEvent event) {
+        clear();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public PricingCacheStats stats() {
+        PricingCacheStats s = new PricingCacheStats();
+        synchronized (entries) {
+            s.setSize(entries.size());
+        }
+        long h = hits.sum();
+        long m = misses.sum();
+        s.setMaxEntries(maxEntries);
+        s.setHits(h);
+        s.setMisses(m);
+        s.setEvictions(evictions.sum());
+        s.setHitRate(h + m == 0 ? 0 : (double) h / (h + m));
+        s.setRateCardVersion(rateCards.current().version());
+        return s;
+    }
+
+    // ---------- Key ----------
+
+    /** Rate card version plus the SHA-256 of the pricing inputs, as four longs. */
+    record Key(long rateCardVersion, long h0, long h1, long h2, long h3) { }
+
+    /**
+     * Hash exactly what {@link PricingService} reads, in the order it reads it. Fields that do not
+     * affect the price (titles, notes, descriptions, stored contributions) are left out.
+     */
+    static Key keyOf(Project project, long rateCardVersion) {
+        Digest d = new Digest();
+        d.string(PricingService.currency(project.getDetails()));
+        d.number(PricingService.startYear(project.getDetails()));
+
+        List<StaffCost> staff = project.getStaffCosts() == null ? List.of() : project.getStaffCosts();
+        d.number(staff.size());
+        for (StaffCost s : staff) {
+            d.string(s.getTimeBasis());
+            d.string(s.getEmploymentType() == null ? null : s.getEmploymentType().name());
+            d.string(s.getClassification());
+            line(d, s.getUnitCost(), s.getUnits(), s.getPerYearUnits(), s.isInKind());
+        }
+
+        List<NonStaffCost> nonStaff = project.getNonStaffCosts() == null ? List.of() : project.getNonStaffCosts();
+        d.number(nonStaff.size());
+        for (NonStaffCost n : nonStaff) {
+            line(d, n.getUnitCost(), n.getUnits(), n.getPerYearUnits(), n.isInKind());
+        }
+
+        ByteBuffer hash = ByteBuffer.wrap(d.sha256.digest());
+        return new Key(rateCardVersion, hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private static void line(Digest d, Money unitCost, Double units, List<YearAllocation> perYear, boolean inKind) {
+        d.decimal(unitCost == null ? null : unitCost.getAmount());
+        d.real(units);
+        d.number(perYear == null ? -1 : perYear.size());
+        if (perYear != null) {
+            for (YearAllocation ya : perYear) {
+                d.number(ya == null ? -1 : ya.getYear());
+                d.real(ya == null ? null : ya.getValue());
+            }
+        }
+        d.number(inKind ? 1 : 0);
+    }
+
+    /** Length-prefixed field encoding, so adjacent fields cannot run into each other. */
+    private static final class Digest {
+        final MessageDigest sha256;
+        final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES + 1);
+
+        Digest() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        void number(long v) {
+            scratch.clear();
+            scratch.put((byte) 'n').putLong(v);
+            sha256.update(scratch.array(), 0, scratch.position());
+        }
+
+        void real(Double v) {
+            if (v == null) { nil(); return; }
+            scratch.clear();
+            scratch.put((byte) 'r').putLong(Double.doubleToLongBits(v));
+            sha256.update(scratch.array(), 0, scratch.position());
+        }
+
+        /** Scale-insensitive, so 12.5 and 12.50 hash the same. */
+        void decimal(BigDecimal v) {
+            if (v == null) { nil(); return; }
+            string(v.stripTrailingZeros().toPlainString());
+        }
+
+        void string(String v) {
+            if (v == null) { nil(); return; }
+            byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+            number(bytes.length);
+            sha256.update(bytes);
+        }
+
+        void nil() {
+            sha256.update((byte) 0);
+        }
+    }
+
+    // ---------- Copies ----------
+
+    private static PriceSummary copy(PriceSummary s) {
+        PriceSummary c = new PriceSummary();
+        c.setDirectStaffCost(copy(s.getDirectStaffCost()));
+        c.setDirectNonStaffCost(copy(s.getDirectNonStaffCost()));
+        c.setIndirectCost(copy(s.getIndirectCost()));
+        c.setTotalCost(copy(s.getTotalCost()));
+        c.setSponsorPrice(copy(s.getSponsorPrice()));
+        c.setGst(copy(s.getGst()));
+        c.setTotalPriceInclGst(copy(s.getTotalPriceInclGst()));
+        c.setRateCardVersion(s.getRateCardVersion());
+        return c;
+    }
+
+    private static Money copy(Money m) {
+        return m == null ? null : new Money(m.getAmount(), m.getCurrency());
+    }
+}
@@ -0,0 +1,30 @@
+package com.itproject.rcpt.pricing;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * One what-if scenario for {@link PricingService#priceScenarios}. Null fields keep the rate card value.
+ */
+public class PricingOverrides {
+
+    /** EBA multiplier applied in every project year instead of the eba table. */
+    private BigDecimal ebaMultiplier;
+
+    /** Payroll tax rate applied in every project year instead of the payroll_tax table. */
+    private BigDecimal payrollTaxRate;
+
+    /** staff_benefits staff type to use for a staff line, keyed by staff line index. */
+    private Map<Integer, String> staffTypes;
+
+    public PricingOverrides() { }
+
+    public BigDecimal getEbaMultiplier() { return ebaMultiplier; }
+    public void setEbaMultiplier(BigDecimal ebaMultiplier) { this.ebaMultiplier = ebaMultiplier; }
+
+    public BigDecimal getPayrollTaxRate() { return payrollTaxRate; }
+    public void setPayrollTaxRate(BigDecimal payrollTaxRate) { this.payrollTaxRate = payrollTaxRate; }
+
+    public Map<Integer, String> getStaffTypes() { return staffTypes; }
+    public void setStaffTypes(Map<Integer, String> staffTypes) { this.staffTypes = staffTypes; }
+}
@@ -0,0 +1,472 @@
+package com.itproject.rcpt.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.domain.value.FixedMoney;
+import com.itproject.rcpt.domain.value.LineContribution;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.enums.EmploymentType;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.entities.SalaryRateMultiplier;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+
+/**
+ * PricingService computes a project's PriceSummary from its cost lines and the current RateCard
+ * snapshot of the Postgres lookup tables.
+ *
+ * Staff line, per allocated year:
+ *   unit rate (SalaryRate by classification and time basis, SalaryRateMultiplier when the rate
+ *   has to be derived from the annual FTE rate) x allocation x EBA multiplier
+ *   x (1 + staff benefits on-costs) x (1 + payroll tax).
+ * Stipend lines use the Stipend rate for the year and carry no on-costs.
+ * Non-staff line, per allocated year: unit cost x quantity.
+ *
+ * Year n of an allocation is calendar year (start year + n - 1). Lines are priced over a
+ * {@link CostMatrix} in fixed-point; each line-year amount is rounded to cents (HALF_EVEN),
+ * indirect cost and GST are then applied per line, so the summary is the plain sum of its lines.
+ * Amounts only become Money when the summary is built, which also records the rate card
+ * version it was priced against.
+ */
+@Service
+public class PricingService {
+
+    static final String DEFAULT_CURRENCY = "AUD";
+
+    /** Cost lines allocate to project years 1..MAX_YEARS. */
+    public static final int MAX_YEARS = CostMatrix.YEARS;
+
+    private final RateCardService rateCards;
+
+    private final BigDecimal indirectCostRate;
+    private final BigDecimal gstRate;
+    private final String gstCurrency;
+
+    public PricingService(RateCardService rateCards,
+                          @Value("${rcpt.pricing.indirect-cost-rate:0.30}") BigDecimal indirectCostRate,
+                          @Value("${rcpt.pricing.gst-rate:0.10}") BigDecimal gstRate,
+                          @Value("${rcpt.pricing.gst-currency:AUD}") String gstCurrency) {
+        this.rateCards = rateCards;
+        this.indirectCostRate = indirectCostRate;
+        this.gstRate = gstRate;
+        this.gstCurrency = gstCurrency;
+    }
+
+    /**
+     * Recompute and store the project's price summary and every line's contribution. Call before
+     * every save that changes details or more than one cost line.
+     */
+    public Project applyTo(Project project) {
+        return applyTo(project, rateCards.current());
+    }
+
+    /**
+     * Same as {@link #applyTo(Project)} against a given rate card; safe to call from several threads
+     * on different projects.
+     */
+    public Project applyTo(Project project, RateCard rates) {
+        project.setPriceSummary(price(project, rates, true));
+        return project;
+    }
+
+    /**
+     * Price every line of the project against the current rate card.
+     */
+    public PriceSummary price(Project project) {
+        return price(project, rateCards.current());
+    }
+
+    /**
+     * Price every line of the project against the given rate card.
+     */
+    public PriceSummary price(Project project, RateCard rates) {
+        return price(project, rates, false);
+    }
+
+    private PriceSummary price(Project project, RateCard rates, boolean storeContributions) {
+        List<StaffCost> staff = nonNull(project.getStaffCosts());
+        List<NonStaffCost> nonStaff = nonNull(project.getNonStaffCosts());
+        String currency = currency(project.getDetails());
+        CostMatrix matrix = matrix(staff, nonStaff, startYear(project.getDetails()), rates);
+
+        Totals totals = new Totals(gstApplies(project.getDetails()));
+        for (int line = 0; line < matrix.lines(); line++) {
+            long direct = matrix.directCents(line);
+            totals.add(matrix.isStaff(line), matrix.isInKind(line), direct);
+            if (storeContributions) {
+                LineContribution c = totals.contribution(matrix.isInKind(line), direct, currency);
+                if (matrix.isStaff(line)) staff.get(line).setContribution(c);
+                else nonStaff.get(line - matrix.staffLines()).setContribution(c);
+            }
+        }
+        PriceSummary summary = totals.toSummary(currency);
+        summary.setRateCardVersion(rates.version());
+        return summary;
+    }
+
+    // ---------- Scenarios ----------
+
+    /**
+     * Price the project once per scenario, in parallel, against one rate card snapshot. The cost
+     * matrix, and the totals of every line no override can affect, are built once and shared.
+     * Results are in scenario order.
+     */
+    public List<PriceSummary> priceScenarios(Project project, List<PricingOverrides> scenarios) {
+        RateCard rates = rateCards.current();
+        List<StaffCost> staff = nonNull(project.getStaffCosts());
+        CostMatrix matrix = matrix(staff, nonNull(project.getNonStaffCosts()),
+                startYear(project.getDetails()), rates);
+        for (PricingOverrides o : scenarios) validate(o, staff.size(), rates);
+
+        long[] fixed = new long[matrix.lines()];
+        for (int line = 0; line < matrix.lines(); line++) {
+            if (!matrix.isLoaded(line)) fixed[line] = matrix.directCents(line);
+        }
+        boolean gstApplies = gstApplies(project.getDetails());
+        String currency = currency(project.getDetails());
+
+        return scenarios.parallelStream().map(o -> {
+            long[] eba = o.getEbaMultiplier() == null
+                    ? matrix.ebaFactors() : filled(FixedPoint.micros(o.getEbaMultiplier()));
+            long[] payroll = o.getPayrollTaxRate() == null
+                    ? matrix.payrollFactors() : filled(FixedPoint.micros(BigDecimal.ONE.add(o.getPayrollTaxRate())));
+
+            Totals totals = new Totals(gstApplies);
+            for (int line = 0; line < matrix.lines(); line++) {
+                long direct = matrix.isLoaded(line)
+                        ? matrix.directCents(line, eba, onCostFactor(o, line, matrix, rates), payroll)
+                        : fixed[line];
+                totals.add(matrix.isStaff(line), matrix.isInKind(line), direct);
+            }
+            PriceSummary summary = totals.toSummary(currency);
+            summary.setRateCardVersion(rates.version());
+            return summary;
+        }).toList();
+    }
+
+    private static void validate(PricingOverrides o, int staffLines, RateCard rates) {
+        if (o == null) throw new IllegalArgumentException("Scenario must not be null");
+        if (o.getStaffTypes() == null) return;
+        o.getStaffTypes().forEach((line, type) -> {
+            if (line == null || line < 0 || line >= staffLines) {
+                throw new IllegalArgumentException("Invalid staff index: " + line);
+            }
+            if (rates.staffBenefits(type) == null) {
+                throw new IllegalArgumentException("Unknown staff type: " + type);
+            }
+        });
+    }
+
+    private static long onCostFactor(PricingOverrides o, int line, CostMatrix matrix, RateCard rates) {
+        String type = o.getStaffTypes() == null ? null : o.getStaffTypes().get(line);
+        return type == null
+                ? matrix.onCostFactor(line)
+                : FixedPoint.micros(BigDecimal.ONE.add(rates.onCostRate(type)));
+    }
+
+    private static long[] filled(long value) {
+        long[] out = new long[CostMatrix.YEARS];
+        Arrays.fill(out, value);
+        return out;
+    }
+
+    // ---------- Incremental ----------
+
+    /**
+     * Adjust the stored summary after one staff line was added, removed or replaced, pricing only
+     * the added line. Pass null for the side that does not apply. The caller has already changed
+     * the project's list. Falls back to a full reprice when the stored summary cannot be trusted.
+     */
+    public Project applyStaffChange(Project project, StaffCost removed, StaffCost added) {
+        RateCard rates = rateCards.current();
+        if (!canApplyDelta(project, rates, removed == null ? null : removed.getContribution(), removed != null)) {
+            return applyTo(project, rates);
+        }
+        LineContribution addedContribution = null;
+        if (added != null) {
+            addedContribution = priceLine(project, List.of(added), List.of(), rates);
+            added.setContribution(addedContribution);
+        }
+        applyDelta(project, true,
+                removed == null ? null : removed.getContribution(), removed != null && removed.isInKind(),
+                addedContribution, added != null && added.isInKind());
+        return project;
+    }
+
+    /** Non-staff counterpart of {@link #applyStaffChange}. */
+    public Project applyNonStaffChange(Project project, NonStaffCost removed, NonStaffCost added) {
+        RateCard rates = rateCards.current();
+        if (!canApplyDelta(project, rates, removed == null ? null : removed.getContribution(), removed != null)) {
+            return applyTo(project, rates);
+        }
+        LineContribution addedContribution = null;
+        if (added != null) {
+            addedContribution = priceLine(project, List.of(), List.of(added), rates);
+            added.setContribution(addedContribution);
+        }
+        applyDelta(project, false,
+                removed == null ? null : removed.getContribution(), removed != null && removed.isInKind(),
+                addedContribution, added != null && added.isInKind());
+        return project;
+    }
+
+    /**
+     * Whether {@link #applyStaffChange} / {@link #applyNonStaffChange} would adjust the stored summary
+     * rather than reprice the whole project. Pass the removed line's contribution when removing one.
+     */
+    public boolean canApplyDelta(Project project, LineContribution removed, boolean removing) {
+        return canApplyDelta(project, rateCards.current(), removed, removing);
+    }
+
+    /**
+     * A delta is only valid against a complete summary priced with the same rate card and currency,
+     * and only if the removed line (if any) knows what it contributed.
+     */
+    private boolean canApplyDelta(Project project, RateCard rates, LineContribution removed, boolean removing) {
+        PriceSummary s = project.getPriceSummary();
+        if (s == null || s.getRateCardVersion() == null || s.getRateCardVersion() != rates.version()) return false;
+        if (removing && !isComplete(removed)) return false;
+        String currency = currency(project.getDetails());
+        return s.getDirectStaffCost() != null && currency.equals(s.getDirectStaffCost().getCurrency())
+                && s.getDirectNonStaffCost() != null && s.getIndirectCost() != null
+                && s.getSponsorPrice() != null && s.getGst() != null
+                && s.getTotalCost() != null && s.getTotalPriceInclGst() != null
+                && (removed == null || currency.equals(removed.getDirectCost().getCurrency()));
+    }
+
+    private static boolean isComplete(LineContribution c) {
+        return c != null && c.getDirectCost() != null && c.getIndirectCost() != null && c.getGst() != null;
+    }
+
+    private LineContribution priceLine(Project project, List<StaffCost> staff, List<NonStaffCost> nonStaff,
+                                       RateCard rates) {
+        CostMatrix m = matrix(staff, nonStaff, startYear(project.getDetails()), rates);
+        Totals t = new Totals(gstApplies(project.getDetails()));
+        return t.contribution(m.isInKind(0), m.directCents(0), currency(project.getDetails()));
+    }
+
+    private void applyDelta(Project project, boolean isStaff,
+                            LineContribution removed, boolean removedInKind,
+                            LineContribution added, boolean addedInKind) {
+        PriceSummary old = project.getPriceSummary();
+        Totals totals = new Totals(gstApplies(project.getDetails()));
+        totals.staff = cents(old.getDirectStaffCost());
+        totals.nonStaff = cents(old.getDirectNonStaffCost());
+        totals.indirect = cents(old.getIndirectCost());
+        totals.sponsor = cents(old.getSponsorPrice());
+        totals.gst = cents(old.getGst());
+        if (removed != null) totals.add(isStaff, removedInKind, removed, -1);
+        if (added != null) totals.add(isStaff, addedInKind, added, 1);
+
+        PriceSummary summary = totals.toSummary(currency(project.getDetails()));
+        summary.setRateCardVersion(old.getRateCardVersion());
+        project.setPriceSummary(summary);
+    }
+
+    // ---------- Lines ----------
+
+    /**
+     * Resolve every rate the lines need once and lay its lines out as a {@link CostMatrix}:
+     * staff lines first, then non-staff lines, each in list order.
+     */
+    CostMatrix matrix(List<StaffCost> staff, List<NonStaffCost> nonStaff, int startYear, RateCard rates) {
+
+        CostMatrix m = new CostMatrix(staff.size(), nonStaff.size());
+        for (int y = 0; y < CostMatrix.YEARS; y++) {
+            int year = startYear + y;
+            m.setYearFactors(y,
+                    FixedPoint.micros(rates.ebaMultiplier(year)),
+                    FixedPoint.micros(BigDecimal.ONE.add(rates.payrollTaxRate(year))));
+        }
+
+        int line = 0;
+        for (StaffCost s : staff) {
+            m.setInKind(line, s.isInKind());
+            TimeBasis basis = TimeBasis.of(s.getTimeBasis());
+            if (basis == TimeBasis.STIPEND) {
+                for (YearAllocation ya : allocations(s.getPerYearUnits(), s.getUnits())) {
+                    long rate = FixedPoint.micros(rates.stipendRate(startYear + ya.getYear() - 1));
+                    m.allocate(line, ya.getYear(), rate, FixedPoint.micros(ya.getValue()));
+                }
+            } else {
+                m.setLoaded(line, FixedPoint.micros(
+                        BigDecimal.ONE.add(rates.onCostRate(staffType(s.getEmploymentType())))));
+                long rate = FixedPoint.micros(unitRate(s, basis, rates));
+                for (YearAllocation ya : allocations(s.getPerYearUnits(), s.getUnits())) {
+                    m.allocate(line, ya.getYear(), rate, FixedPoint.micros(ya.getValue()));
+                }
+            }
+            line++;
+        }
+        for (NonStaffCost n : nonStaff) {
+            m.setInKind(line, n.isInKind());
+            long rate = FixedPoint.micros(n.getUnitCost() == null ? null : n.getUnitCost().getAmount());
+            for (YearAllocation ya : allocations(n.getPerYearUnits(), n.getUnits())) {
+                m.allocate(line, ya.getYear(), rate, FixedPoint.micros(ya.getValue()));
+            }
+            line++;
+        }
+        return m;
+    }
+
+    /**
+     * Rate for one unit of the line's time basis. A rate stored for that basis wins; otherwise it is
+     * derived from the annual FTE rate with the basis multiplier. Lines without a known classification
+     * fall back to their own unit cost.
+     */
+    private static BigDecimal unitRate(StaffCost s, TimeBasis basis, RateCard rates) {
+        SalaryRate rate = rates.salaryRate(s.getClassification());
+        if (rate != null) {
+            BigDecimal stored = switch (basis) {
+                case DAILY -> rate.getDailyRate();
+                case HOURLY -> rate.getHourlyRate();
+                default -> rate.getFteRate();
+            };
+            if (stored != null) return stored;
+            if (rate.getFteRate() != null) {
+                SalaryRateMultiplier m = rates.multiplier(basis.unit);
+                return rate.getFteRate().multiply(m == null ? BigDecimal.ONE : m.getMultiplier());
+            }
+        }
+        if (s.getUnitCost() != null && s.getUnitCost().getAmount() != null) {
+            return s.getUnitCost().getAmount();
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /** staff_benefits.staff_type key for an employment type. */
+    static String staffType(EmploymentType type) {
+        if (type == null) return null;
+        return switch (type) {
+            case CONTINUING -> "Continuing";
+            case FIXED_TERM -> "Fixed-Term";
+            case CASUAL -> "Casual";
+        };
+    }
+
+    // ---------- Helpers ----------
+
+    /** Per-year allocations, or a single year-1 allocation when only a total is given. */
+    private static List<YearAllocation> allocations(List<YearAllocation> perYear, Double units) {
+        if (perYear != null && !perYear.isEmpty()) return perYear;
+        if (units != null) return List.of(new YearAllocation(1, units));
+        return List.of();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    static int startYear(ProjectDetails d) {
+        LocalDate start = d == null ? null : d.getStartDate();
+        return (start != null ? start : LocalDate.now()).getYear();
+    }
+
+    static String currency(ProjectDetails d) {
+        return d == null || d.getCurrency() == null ? DEFAULT_CURRENCY : d.getCurrency();
+    }
+
+    private boolean gstApplies(ProjectDetails d) {
+        return gstCurrency.equalsIgnoreCase(currency(d));
+    }
+
+    /**
+     * Running totals across lines, in cents. Kept as bare longs rather than FixedMoney because every
+     * line has a single currency; overflow is still checked on every addition.
+     */
+    private final class Totals {
+        final boolean gstApplies;
+        final long indirectRate = FixedPoint.micros(indirectCostRate);
+        final long gstRateMicros = FixedPoint.micros(gstRate);
+        long staff;
+        long nonStaff;
+        long indirect;
+        long sponsor;
+        long gst;
+
+        Totals(boolean gstApplies) {
+            this.gstApplies = gstApplies;
+        }
+
+        void add(boolean isStaff, boolean inKind, long direct) {
+            long lineIndirect = indirectOf(direct);
+            add(isStaff, inKind, direct, lineIndirect, gstOf(inKind, direct, lineIndirect), 1);
+        }
+
+        /** Add (sign 1) or remove (sign -1) a stored contribution. */
+        void add(boolean isStaff, boolean inKind, LineContribution c, int sign) {
+            add(isStaff, inKind, cents(c.getDirectCost()), cents(c.getIndirectCost()), cents(c.getGst()), sign);
+        }
+
+        private void add(boolean isStaff, boolean inKind, long direct, long lineIndirect, long lineGst, int sign) {
+            if (isStaff) staff = Math.addExact(staff, sign * direct);
+            else nonStaff = Math.addExact(nonStaff, sign * direct);
+            indirect = Math.addExact(indirect, sign * lineIndirect);
+            if (!inKind) sponsor = Math.addExact(sponsor, sign * Math.addExact(direct, lineIndirect));
+            gst = Math.addExact(gst, sign * lineGst);
+        }
+
+        LineContribution contribution(boolean inKind, long direct, String currency) {
+            long lineIndirect = indirectOf(direct);
+            return new LineContribution(money(direct, currency), money(lineIndirect, currency),
+                    money(gstOf(inKind, direct, lineIndirect), currency));
+        }
+
+        private long indirectOf(long direct) {
+            return FixedPoint.mul(direct, indirectRate);
+        }
+
+        private long gstOf(boolean inKind, long direct, long lineIndirect) {
+            return inKind || !gstApplies ? 0 : FixedPoint.mul(Math.addExact(direct, lineIndirect), gstRateMicros);
+        }
+
+        PriceSummary toSummary(String currency) {
+            PriceSummary s = new PriceSummary();
+            s.setDirectStaffCost(money(staff, currency));
+            s.setDirectNonStaffCost(money(nonStaff, currency));
+            s.setIndirectCost(money(indirect, currency));
+            s.setTotalCost(money(Math.addExact(Math.addExact(staff, nonStaff), indirect), currency));
+            s.setSponsorPrice(money(sponsor, currency));
+            s.setGst(money(gst, currency));
+            s.setTotalPriceInclGst(money(Math.addExact(sponsor, gst), currency));
+            return s;
+        }
+    }
+
+    private static long cents(Money m) {
+        return m == null ? 0 : FixedMoney.of(m).cents();
+    }
+
+    private static Money money(long cents, String currency) {
+        return FixedMoney.ofCents(cents, currency).toMoney();
+    }
+
+    /** Time basis of a staff line; unit is the salary_rate_multiplier key. */
+    enum TimeBasis {
+        FTE("FTE"), DAILY("Daily"), HOURLY("Hourly"), STIPEND("Stipend");
+
+        final String unit;
+
+        TimeBasis(String unit) { this.unit = unit; }
+
+        static TimeBasis of(String raw) {
+            if (raw == null) return FTE;
+            for (TimeBasis b : values()) {
+                if (b.unit.equalsIgnoreCase(raw.trim()) || b.name().equalsIgnoreCase(raw.trim())) return b;
+            }
+            return FTE;
+        }
+    }
+}
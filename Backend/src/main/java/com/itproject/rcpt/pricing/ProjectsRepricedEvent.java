@@ -0,0 +1,20 @@
+package com.itproject.rcpt.pricing;
+
+import java.util.List;
+
+/**
+ * Published by {@link RepricingJobService} after each bulk write of repriced projects. The write
+ * goes around the repositories and raises no save events, so caches and rollups of the projects
+ * listen for this instead.
+ */
+public class ProjectsRepricedEvent {
+
+    private final List<String> projectIds;
+
+    public ProjectsRepricedEvent(List<String> projectIds) {
+        this.projectIds = List.copyOf(projectIds);
+    }
+
+    /** Every project of the batch, including those skipped because they changed meanwhile. */
+    public List<String> getProjectIds() { return projectIds; }
+}
@@ -0,0 +1,288 @@
+package com.itproject.rcpt.pricing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.price.RepricingJobStatus;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardChangedEvent;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Background job that reprices every open (DRAFT or SUBMITTED) project after a pricing lookup
+ * table changes.
+ *
+ * Projects whose summary was not priced against the current rate card are streamed from a Mongo
+ * cursor, so at most one batch is held in memory. Each batch is priced in parallel on a bounded
+ * fork-join pool and written with one unordered bulk write. Each update is guarded by the
+ * project's optimistic-lock version. A project edited while the job ran is skipped, because that
+ * edit has already repriced it. The bulk write raises no save events, so each one is followed by a
+ * {@link ProjectsRepricedEvent} for the project cache and the cost rollups.
+ *
+ * One run executes at a time. Changes that arrive during a run are coalesced into a single
+ * follow-up pass, which picks up whatever is still stale.
+ */
+@Service
+public class RepricingJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepricingJobService.class);
+
+    /** Tables that feed PricingService; the others do not affect any price. */
+    static final Set<LookupTable> PRICING_TABLES = EnumSet.of(
+            LookupTable.EBA, LookupTable.PAYROLL_TAX, LookupTable.STAFF_BENEFITS,
+            LookupTable.SALARY_RATE, LookupTable.SALARY_RATE_MULTIPLIER, LookupTable.STIPEND);
+
+    /** Statuses whose price follows the rate card; approved and archived projects keep theirs. */
+    static final Set<ProjectStatus> OPEN = EnumSet.of(ProjectStatus.DRAFT, ProjectStatus.SUBMITTED);
+
+    private final MongoTemplate mongo;
+    private final PricingService pricing;
+    private final RateCardService rateCards;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final boolean onRateChange;
+
+    private final ForkJoinPool pool;
+    private final ExecutorService runner;
+
+    private final Object lock = new Object();
+    private boolean running;
+    private String rerunTrigger;
+    private volatile Run last;
+
+    public RepricingJobService(MongoTemplate mongo,
+                               PricingService pricing,
+                               RateCardService rateCards,
+                               ApplicationEventPublisher events,
+                               @Value("${rcpt.pricing.reprice.parallelism:0}") int parallelism,
+                               @Value("${rcpt.pricing.reprice.batch-size:500}") int batchSize,
+                               @Value("${rcpt.pricing.reprice.on-rate-change:true}") boolean onRateChange) {
+        this.mongo = mongo;
+        this.pricing = pricing;
+        this.rateCards = rateCards;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.onRateChange = onRateChange;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "repricing-job");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * A full reload (no table) means the version may differ from the one open projects were
+     * stored with, e.g. after a restart against changed tables; the run only touches those that do.
+     */
+    @EventListener
+    public void onRateCardChanged(RateCardChangedEvent event) {
+        if (!onRateChange) return;
+        if (event.getTable() == null) {
+            start("RELOAD");
+        } else if (PRICING_TABLES.contains(event.getTable())) {
+            start(event.getTable().name());
+        }
+    }
+
+    /**
+     * Start a run in the background. If one is already running, a single follow-up run is queued instead.
+     *
+     * @return true if a new run was started
+     */
+    public boolean start(String trigger) {
+        synchronized (lock) {
+            if (running) {
+                rerunTrigger = trigger;
+                return false;
+            }
+            running = true;
+        }
+        runner.execute(() -> runUntilIdle(trigger));
+        return true;
+    }
+
+    /** Status of the current or most recent run. */
+    public RepricingJobStatus status() {
+        boolean pending;
+        synchronized (lock) {
+            pending = rerunTrigger != null;
+        }
+        Run r = last;
+        if (r == null) {
+            RepricingJobStatus idle = new RepricingJobStatus();
+            idle.setState(State.IDLE.name());
+            idle.setRerunPending(pending);
+            return idle;
+        }
+        return r.toStatus(pending);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // ---------- Job ----------
+
+    private void runUntilIdle(String trigger) {
+        String next = trigger;
+        while (next != null) {
+            try {
+                run(next);
+            } finally {
+                synchronized (lock) {
+                    next = rerunTrigger;
+                    rerunTrigger = null;
+                    if (next == null) running = false;
+                }
+            }
+        }
+    }
+
+    private void run(String trigger) {
+        RateCard rates = rateCards.current();
+        Run r = new Run(trigger, rates.version());
+        last = r;
+        logger.info("Repricing open projects against rate card v{} (trigger: {})", rates.version(), trigger);
+
+        Query stale = new Query(Criteria.where("status").in(OPEN)
+                .and("priceSummary.rateCardVersion").ne(rates.version()));
+        stale.fields().exclude("approvals");
+        stale.cursorBatchSize(batchSize);
+
+        try (Stream<Project> cursor = mongo.stream(stale, Project.class)) {
+            List<Project> batch = new ArrayList<>(batchSize);
+            Iterator<Project> it = cursor.iterator();
+            while (it.hasNext()) {
+                batch.add(it.next());
+                r.scanned.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    flush(batch, rates, r);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) flush(batch, rates, r);
+            r.finish(State.COMPLETED, null);
+            logger.info("Repricing finished: {} repriced, {} conflicts, {} failed, {} projects/s",
+                    r.repriced.get(), r.conflicts.get(), r.failed.get(), String.format("%.1f", r.throughput()));
+        } catch (RuntimeException e) {
+            r.finish(State.FAILED, e.getMessage());
+            logger.error("Repricing failed after {} projects", r.scanned.get(), e);
+        }
+    }
+
+    private void flush(List<Project> batch, RateCard rates, Run r) {
+        List<Project> priced = pool.submit(() -> batch.parallelStream()
+                .map(p -> price(p, rates, r))
+                .filter(Objects::nonNull)
+                .toList()).join();
+        if (priced.isEmpty()) return;
+
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class);
+        for (Project p : priced) {
+            Query sameVersion = new Query(Criteria.where("_id").is(p.getId()).and("version").is(p.getVersion()));
+            Update update = new Update()
+                    .set("priceSummary", p.getPriceSummary())
+                    .set("staffCosts", p.getStaffCosts())
+                    .set("nonStaffCosts", p.getNonStaffCosts())
+                    .inc("version", 1)
+                    .currentDate("updatedAt");
+            ops.updateOne(sameVersion, update);
+        }
+        BulkWriteResult result = ops.execute();
+        events.publishEvent(new ProjectsRepricedEvent(priced.stream().map(Project::getId).toList()));
+        r.repriced.addAndGet(result.getModifiedCount());
+        r.conflicts.addAndGet(priced.size() - result.getMatchedCount());
+    }
+
+    private Project price(Project p, RateCard rates, Run r) {
+        try {
+            return pricing.applyTo(p, rates);
+        } catch (RuntimeException e) {
+            r.failed.incrementAndGet();
+            logger.warn("Could not reprice project {}: {}", p.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    /** Counters for one run; written by the job thread and pool, read by status requests. */
+    private static final class Run {
+        final String trigger;
+        final long rateCardVersion;
+        final Instant startedAt = Instant.now();
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong repriced = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile State state = State.RUNNING;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Run(String trigger, long rateCardVersion) {
+            this.trigger = trigger;
+            this.rateCardVersion = rateCardVersion;
+        }
+
+        void finish(State state, String error) {
+            this.finishedAt = Instant.now();
+            this.error = error;
+            this.state = state;
+        }
+
+        double throughput() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+            return scanned.get() * 1000.0 / millis;
+        }
+
+        RepricingJobStatus toStatus(boolean rerunPending) {
+            RepricingJobStatus s = new RepricingJobStatus();
+            s.setState(state.name());
+            s.setTrigger(trigger);
+            s.setRateCardVersion(rateCardVersion);
+            s.setStartedAt(startedAt);
+            s.setFinishedAt(finishedAt);
+            s.setScanned(scanned.get());
+            s.setRepriced(repriced.get());
+            s.setConflicts(conflicts.get());
+            s.setFailed(failed.get());
+            s.setProjectsPerSecond(throughput());
+            s.setRerunPending(rerunPending);
+            s.setError(error);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.itproject.rcpt.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.itproject.rcpt.domain.ApprovalHistoryBucket;
+
+public interface ApprovalHistoryRepository
+    extends MongoRepository<ApprovalHistoryBucket, String>, ApprovalHistoryRepositoryCustom {
+
+  /** Newest buckets first, starting at bucket (inclusive). */
+  List<ApprovalHistoryBucket> findByProjectIdAndBucketLessThanEqualOrderByBucketDesc(String projectId, long bucket,
+                                                                                      Pageable pageable);
+
+  List<ApprovalHistoryBucket> findByProjectIdOrderByBucketAsc(String projectId);
+
+  void deleteByProjectId(String projectId);
+}
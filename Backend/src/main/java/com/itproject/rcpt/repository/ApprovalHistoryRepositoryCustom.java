@@ -0,0 +1,13 @@
+package com.itproject.rcpt.repository;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+
+public interface ApprovalHistoryRepositoryCustom {
+
+  /**
+   * Add entry to the given bucket of the project, creating the bucket if needed, as one upsert.
+   * Entries stay in seq order even when two appends to the same bucket arrive out of order, and an
+   * entry whose seq the bucket already holds is not added again, so an append can safely be repeated.
+   */
+  void append(String projectId, long bucket, ApprovalEntry entry);
+}
@@ -0,0 +1,43 @@
+package com.itproject.rcpt.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.ApprovalHistoryBucket;
+
+/**
+ * MongoTemplate implementation of {@link ApprovalHistoryRepositoryCustom}; picked up by Spring Data
+ * as a fragment of {@link ApprovalHistoryRepository}.
+ */
+public class ApprovalHistoryRepositoryImpl implements ApprovalHistoryRepositoryCustom {
+
+  private final MongoTemplate mongo;
+
+  public ApprovalHistoryRepositoryImpl(MongoTemplate mongo) {
+    this.mongo = mongo;
+  }
+
+  @Override
+  public void append(String projectId, long bucket, ApprovalEntry entry) {
+    Query q = Query.query(Criteria.where("_id").is(ApprovalHistoryBucket.idOf(projectId, bucket))
+        .and("entries.seq").ne(entry.getSeq()));
+    Update u = new Update()
+        .setOnInsert("projectId", projectId)
+        .setOnInsert("bucket", bucket)
+        .inc("count", 1);
+    u.push("entries").sort(Sort.by("seq")).each(mongo.getConverter().convertToMongoType(entry));
+    if (entry.getAt() != null) u.min("first", entry.getAt()).max("last", entry.getAt());
+    try {
+      mongo.upsert(q, u, ApprovalHistoryBucket.class);
+    } catch (DuplicateKeyException e) {
+      // The bucket exists: another append created it first, or it already holds this seq (then
+      // this matches nothing)
+      mongo.updateFirst(q, u, ApprovalHistoryBucket.class);
+    }
+  }
+}
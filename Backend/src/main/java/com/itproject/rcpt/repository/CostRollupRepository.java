@@ -0,0 +1,16 @@
+package com.itproject.rcpt.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.itproject.rcpt.domain.CostRollup;
+
+public interface CostRollupRepository extends MongoRepository<CostRollup, String> {
+
+  /** Departments of a school or schools of a faculty (parent_idx). */
+  List<CostRollup> findByParentIdOrderByNameAsc(String parentId);
+
+  /** Every node of one level; the collection holds one document per hierarchy node. */
+  List<CostRollup> findByLevelOrderByNameAsc(CostRollup.Level level);
+}
@@ -0,0 +1,34 @@
+package com.itproject.rcpt.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: its sort timestamp (null when paging by id only) and
+ * its id. Clients only ever see the opaque encoded form.
+ */
+public record KeysetCursor(Instant at, String id) {
+
+  public KeysetCursor {
+    if (id == null || id.isEmpty()) throw new IllegalArgumentException("Cursor needs an id");
+  }
+
+  public String encode() {
+    String raw = (at == null ? "" : Long.toString(at.toEpochMilli())) + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Null or blank means the first page. */
+  public static KeysetCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) return null;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int sep = raw.indexOf(':');
+      Instant at = sep == 0 ? null : Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep)));
+      return new KeysetCursor(at, raw.substring(sep + 1));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+}
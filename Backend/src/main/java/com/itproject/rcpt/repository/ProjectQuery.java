@@ -0,0 +1,104 @@
+package com.itproject.rcpt.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.Recency;
+
+/**
+ * Composable project list filter: any combination of owner, status, department, funder and a
+ * createdAt range (null = any), with an explicit sort. Filters combine with AND.
+ *
+ * The filter and sort are shaped for the compound indexes declared on {@code Project} (equality
+ * fields first, then the createdAt sort and range, then _id):
+ * <ul>
+ *   <li>owner, department or funder lead owner_status_created_idx, dept_status_created_idx and
+ *   funder_status_created_idx; any other filters are checked on the scanned entries.</li>
+ *   <li>status alone uses status_created_idx, nothing (or only a date range) created_desc_idx.</li>
+ *   <li>UPDATED order walks updated_desc_idx.</li>
+ * </ul>
+ * With owner, department or funder but no status, status is sent as $in every value, so Mongo
+ * merges the per-status index ranges in order instead of sorting in memory.
+ */
+public class ProjectQuery {
+
+  private String ownerUserId;
+  private ProjectStatus status;
+  private String department;
+  private String funder;
+  private Instant createdFrom;
+  private Instant createdTo;
+  private Recency order = Recency.CREATED;
+  private Sort.Direction direction = Sort.Direction.DESC;
+
+  private ProjectQuery() { }
+
+  /** Every project, newest first. */
+  public static ProjectQuery all() {
+    return new ProjectQuery();
+  }
+
+  public ProjectQuery owner(String ownerUserId) { this.ownerUserId = ownerUserId; return this; }
+
+  public ProjectQuery status(ProjectStatus status) { this.status = status; return this; }
+
+  public ProjectQuery department(String department) { this.department = department; return this; }
+
+  public ProjectQuery funder(String funder) { this.funder = funder; return this; }
+
+  /** Created at or after from (inclusive) and before to (exclusive). */
+  public ProjectQuery createdBetween(Instant from, Instant to) {
+    if (from != null && to != null && !from.isBefore(to)) {
+      throw new IllegalArgumentException("createdFrom must be before createdTo");
+    }
+    this.createdFrom = from;
+    this.createdTo = to;
+    return this;
+  }
+
+  public ProjectQuery orderBy(Recency order, Sort.Direction direction) {
+    this.order = order == null ? Recency.CREATED : order;
+    this.direction = direction == null ? Sort.Direction.DESC : direction;
+    return this;
+  }
+
+  public Recency order() { return order; }
+
+  public Sort.Direction direction() { return direction; }
+
+  public Criteria criteria() {
+    Criteria c = new Criteria();
+    if (ownerUserId != null) c.and("ownerUserId").is(ownerUserId);
+    if (department != null) c.and("details.department").is(department);
+    if (funder != null) c.and("details.funder").is(funder);
+    if (status != null) {
+      c.and("status").is(status);
+    } else if (ownerUserId != null || department != null || funder != null) {
+      c.and("status").in(anyStatus());
+    }
+    if (createdFrom != null || createdTo != null) {
+      Criteria range = c.and("createdAt");
+      if (createdFrom != null) range.gte(createdFrom);
+      if (createdTo != null) range.lt(createdTo);
+    }
+    return c;
+  }
+
+  /** The order, then _id so rows with the same timestamp keep a stable order across pages. */
+  public Sort sort() {
+    return Sort.by(direction, order.field(), "_id");
+  }
+
+  /** Every status, plus null for documents written before status was required. */
+  private static List<ProjectStatus> anyStatus() {
+    List<ProjectStatus> all = new ArrayList<>(Arrays.asList(ProjectStatus.values()));
+    all.add(null);
+    return all;
+  }
+}
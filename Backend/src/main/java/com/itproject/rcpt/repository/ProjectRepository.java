@@ -6,7 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ProjectRepository extends MongoRepository<Project, String> {
+public interface ProjectRepository extends MongoRepository<Project, String>, ProjectRepositoryCustom {
   Page<Project> findByOwnerUserId(String ownerUserId, Pageable pageable);
   Page<Project> findByStatus(ProjectStatus status, Pageable pageable);
 }
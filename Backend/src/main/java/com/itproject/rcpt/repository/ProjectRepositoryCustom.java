@@ -0,0 +1,162 @@
+package com.itproject.rcpt.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.ApprovalTracker;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.dto.project.ProjectFields;
+import com.itproject.rcpt.dto.project.ProjectStats;
+import com.itproject.rcpt.enums.ProjectStatus;
+
+/**
+ * Targeted writes, so a line edit or approval action does not rewrite the whole project.
+ *
+ * Each cost line write is one update that changes the line, adjusts every price summary amount by
+ * (after - before) with $inc and bumps the version. It only applies while the project is still at
+ * the version {@link #findForLineEdit} read, so neither the summary nor the details the delta was
+ * priced with (currency, start date) can have changed in between; delete/replace also check that
+ * the stored line at the index still equals the one the caller read. A line edit therefore costs
+ * two round trips, {@link #findForLineEdit} and the update. A false return means the guard did not
+ * match and nothing was written; callers then fall back to a full load, reprice and save on top of
+ * those.
+ */
+public interface ProjectRepositoryCustom {
+
+  /** The embedded cost line arrays of a project document. */
+  enum CostLines {
+    STAFF("staffCosts"),
+    NON_STAFF("nonStaffCosts");
+
+    private final String field;
+
+    CostLines(String field) { this.field = field; }
+
+    public String field() { return field; }
+  }
+
+  /** Newest-first orders for keyset listing; ties on the timestamp are broken by _id. */
+  enum Recency {
+    CREATED("createdAt", Project::getCreatedAt),
+    UPDATED("updatedAt", Project::getUpdatedAt);
+
+    private final String field;
+    private final Function<Project, Instant> value;
+
+    Recency(String field, Function<Project, Instant> value) {
+      this.field = field;
+      this.value = value;
+    }
+
+    public String field() { return field; }
+
+    public Instant of(Project p) { return value.apply(p); }
+  }
+
+  /**
+   * Details, price summary and version of a project without its cost lines. With an index, the
+   * given list holds just the line at that index (empty if there is none).
+   */
+  Optional<Project> findForLineEdit(String projectId, CostLines lines, Integer index);
+
+  boolean pushLine(String projectId, Long readVersion, CostLines lines, Object line,
+                   PriceSummary before, PriceSummary after);
+
+  boolean removeLineAt(String projectId, Long readVersion, CostLines lines, int index, Object expected,
+                       PriceSummary before, PriceSummary after);
+
+  boolean replaceLineAt(String projectId, Long readVersion, CostLines lines, int index, Object expected,
+                        Object line, PriceSummary before, PriceSummary after);
+
+  /**
+   * Apply an approval action as one findAndModify. Only matches while the status is one of
+   * {@code from}; sets the status to {@code to} (null keeps it), makes the entry the latest one,
+   * bumps approvals.count and the version. The entry itself is appended to approval_history by
+   * the caller, numbered with the returned count. Returns id, status, version, updatedAt and the
+   * approvals state, or empty if the project does not exist or is in another status.
+   */
+  Optional<Project> transition(String projectId, Set<ProjectStatus> from, ProjectStatus to, ApprovalEntry entry);
+
+  /**
+   * Apply a partial update as one findAndModify, only while the stored version is expectedVersion
+   * (null = any), bumping the version and updatedAt. Returns the project as written, or empty if it
+   * does not exist or is at another version.
+   */
+  Optional<Project> patch(String projectId, Long expectedVersion, Update update);
+
+  /** Delete the project only while it is at version; false if it is missing or at another. */
+  boolean deleteAtVersion(String projectId, long version);
+
+  /**
+   * Just the project's approvals state, including any history still embedded in the document;
+   * empty if the project does not exist.
+   */
+  Optional<ApprovalTracker> findApprovals(String projectId);
+
+  /**
+   * Drop the embedded history once it has been copied to approval_history. last becomes the
+   * latest entry unless an action recorded since has already set one.
+   */
+  void clearLegacyHistory(String projectId, ApprovalEntry last);
+
+  /** Ids of projects that still embed their approval history. Close the stream when done. */
+  Stream<String> streamIdsWithLegacyHistory();
+
+  /** Just the status, e.g. to explain why a transition did not match. */
+  Optional<ProjectStatus> findStatus(String projectId);
+
+  /** Just the version, e.g. to check an ETag without reading the document; empty if it does not exist. */
+  Optional<Long> findVersion(String projectId);
+
+  /** One offset page of the projects matching query, in its sort order. */
+  Page<Project> find(ProjectQuery query, Pageable pageable);
+
+  /** Like {@link #find} but reading only the stored paths of the given response fields. */
+  Page<Project> find(ProjectQuery query, Pageable pageable, ProjectFields fields);
+
+  /** One project reading only the stored paths of the given response fields; empty if it does not exist. */
+  Optional<Project> findWithFields(String projectId, ProjectFields fields);
+
+  /**
+   * Like {@link #find} but carrying only the fields a list card shows: title, reference code,
+   * department, status, owner, timestamps and the stored totals.
+   */
+  Page<Project> findSummaries(ProjectQuery query, Pageable pageable);
+
+  /**
+   * Keyset page of the projects matching query, newest first by its order, starting after
+   * {@code after} (null = first page). Each page is one index range scan of at most size + 1
+   * documents however deep it is. The total is only counted when asked for, since that is a full
+   * scan of the filter. With {@code summaryOnly} just the list card fields are read.
+   */
+  CursorPage<Project> findPage(ProjectQuery query, KeysetCursor after, int size, boolean withTotal,
+                               boolean summaryOnly);
+
+  /** Like {@link #findPage} for full rows, reading only the stored paths of the given response fields. */
+  CursorPage<Project> findPage(ProjectQuery query, KeysetCursor after, int size, boolean withTotal,
+                               ProjectFields fields);
+
+  /**
+   * Text search over title, funder, reference code and department (projects_text_idx), best match
+   * first, carrying the list card fields. Keyset paged on (textScore, _id), so a later page does
+   * not re-read the earlier ones; every page still scores all matches, as any $text query does.
+   */
+  CursorPage<Project> search(String text, SearchCursor after, int size);
+
+  /**
+   * Counts per status, department and funder and summed stored totals of the projects matching
+   * query, in one aggregation: a $match served by the query's index, then one $facet branch per
+   * breakdown over just the fields they group on.
+   */
+  ProjectStats stats(ProjectQuery query);
+}
@@ -0,0 +1,419 @@
+package com.itproject.rcpt.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.ApprovalTracker;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.dto.project.ProjectFields;
+import com.itproject.rcpt.dto.project.ProjectStats;
+import com.itproject.rcpt.enums.ProjectStatus;
+
+/**
+ * MongoTemplate implementation of {@link ProjectRepositoryCustom}; picked up by Spring Data as a
+ * fragment of {@link ProjectRepository}.
+ */
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+  /** Stored summary amounts, each adjusted by the same delta as the in-memory summary. */
+  private static final List<Map.Entry<String, Function<PriceSummary, Money>>> AMOUNTS = List.of(
+      Map.entry("priceSummary.directStaffCost.amount", PriceSummary::getDirectStaffCost),
+      Map.entry("priceSummary.directNonStaffCost.amount", PriceSummary::getDirectNonStaffCost),
+      Map.entry("priceSummary.indirectCost.amount", PriceSummary::getIndirectCost),
+      Map.entry("priceSummary.totalCost.amount", PriceSummary::getTotalCost),
+      Map.entry("priceSummary.sponsorPrice.amount", PriceSummary::getSponsorPrice),
+      Map.entry("priceSummary.gst.amount", PriceSummary::getGst),
+      Map.entry("priceSummary.totalPriceInclGst.amount", PriceSummary::getTotalPriceInclGst));
+
+  /** Everything a list card needs; cost lines and approval history stay in the database. */
+  private static final String[] SUMMARY_FIELDS = {
+      "details.title", "details.referenceCode", "details.department", "status", "ownerUserId",
+      "createdAt", "updatedAt", "priceSummary.totalCost", "priceSummary.totalPriceInclGst" };
+
+  private final MongoTemplate mongo;
+
+  public ProjectRepositoryImpl(MongoTemplate mongo) {
+    this.mongo = mongo;
+  }
+
+  @Override
+  public Optional<Project> findForLineEdit(String projectId, CostLines lines, Integer index) {
+    Query q = Query.query(Criteria.where("_id").is(projectId));
+    q.fields().include("details", "priceSummary", "version");
+    if (index != null) q.fields().slice(lines.field(), index, 1);
+    return Optional.ofNullable(mongo.findOne(q, Project.class));
+  }
+
+  @Override
+  public boolean pushLine(String projectId, Long readVersion, CostLines lines, Object line,
+                          PriceSummary before, PriceSummary after) {
+    Update u = new Update().push(lines.field(), toDocument(line));
+    incSummary(u, before, after);
+    u.inc("version", 1).currentDate("updatedAt");
+    return mongo.updateFirst(unchanged(projectId, readVersion, before), u, Project.class).getMatchedCount() == 1;
+  }
+
+  @Override
+  public boolean removeLineAt(String projectId, Long readVersion, CostLines lines, int index, Object expected,
+                              PriceSummary before, PriceSummary after) {
+    String f = lines.field();
+    // Keep every element whose position is not index; $pull would also drop equal duplicates
+    Document keep = new Document("$map", new Document()
+        .append("input", new Document("$filter", new Document()
+            .append("input", new Document("$range", List.of(0, new Document("$size", "$" + f))))
+            .append("cond", new Document("$ne", List.of("$$this", index)))))
+        .append("in", new Document("$arrayElemAt", List.of("$" + f, "$$this"))));
+
+    Document set = new Document(f, keep);
+    for (var amount : AMOUNTS) {
+      BigDecimal delta = delta(amount.getValue(), before, after);
+      if (delta.signum() != 0) {
+        set.append(amount.getKey(), new Document("$add", List.of("$" + amount.getKey(), new Decimal128(delta))));
+      }
+    }
+    set.append("version", new Document("$add", List.of("$version", 1)));
+    set.append("updatedAt", "$$NOW");
+
+    Query q = sameLine(unchanged(projectId, readVersion, before), f, index, expected);
+    AggregationUpdate u = AggregationUpdate.from(List.of(ctx -> new Document("$set", set)));
+    return mongo.updateFirst(q, u, Project.class).getMatchedCount() == 1;
+  }
+
+  @Override
+  public boolean replaceLineAt(String projectId, Long readVersion, CostLines lines, int index, Object expected,
+                               Object line, PriceSummary before, PriceSummary after) {
+    String f = lines.field();
+    Update u = new Update().set(f + "." + index, toDocument(line));
+    incSummary(u, before, after);
+    u.inc("version", 1).currentDate("updatedAt");
+    Query q = sameLine(unchanged(projectId, readVersion, before), f, index, expected);
+    return mongo.updateFirst(q, u, Project.class).getMatchedCount() == 1;
+  }
+
+  @Override
+  public Optional<Project> transition(String projectId, Set<ProjectStatus> from, ProjectStatus to,
+                                      ApprovalEntry entry) {
+    Query q = Query.query(Criteria.where("_id").is(projectId).and("status").in(from));
+    q.fields().include("status", "version", "updatedAt", "approvals.latest", "approvals.count");
+
+    Update u = new Update().set("approvals.latest", toDocument(entry));
+    if (to != null) u.set("status", to);
+    u.inc("approvals.count", 1).inc("version", 1).currentDate("updatedAt");
+
+    return Optional.ofNullable(mongo.findAndModify(q, u, FindAndModifyOptions.options().returnNew(true), Project.class));
+  }
+
+  @Override
+  public Optional<Project> patch(String projectId, Long expectedVersion, Update update) {
+    Criteria c = Criteria.where("_id").is(projectId);
+    if (expectedVersion != null) c.and("version").is(expectedVersion);
+    update.inc("version", 1).currentDate("updatedAt");
+    return Optional.ofNullable(mongo.findAndModify(Query.query(c), update,
+        FindAndModifyOptions.options().returnNew(true), Project.class));
+  }
+
+  @Override
+  public boolean deleteAtVersion(String projectId, long version) {
+    Query q = Query.query(Criteria.where("_id").is(projectId).and("version").is(version));
+    return mongo.remove(q, Project.class).getDeletedCount() > 0;
+  }
+
+  @Override
+  public Optional<ApprovalTracker> findApprovals(String projectId) {
+    Query q = Query.query(Criteria.where("_id").is(projectId));
+    q.fields().include("approvals");
+    return Optional.ofNullable(mongo.findOne(q, Project.class)).map(Project::getApprovals);
+  }
+
+  @Override
+  public void clearLegacyHistory(String projectId, ApprovalEntry last) {
+    if (last != null) {
+      mongo.updateFirst(Query.query(Criteria.where("_id").is(projectId).and("approvals.latest").exists(false)),
+          new Update().set("approvals.latest", toDocument(last)), Project.class);
+    }
+    mongo.updateFirst(Query.query(Criteria.where("_id").is(projectId)),
+        new Update().unset("approvals.history"), Project.class);
+  }
+
+  @Override
+  public Stream<String> streamIdsWithLegacyHistory() {
+    Query q = Query.query(Criteria.where("approvals.history.0").exists(true));
+    q.fields().include("_id");
+    return mongo.stream(q, Project.class).map(Project::getId);
+  }
+
+  @Override
+  public Optional<ProjectStatus> findStatus(String projectId) {
+    Query q = Query.query(Criteria.where("_id").is(projectId));
+    q.fields().include("status");
+    return Optional.ofNullable(mongo.findOne(q, Project.class)).map(Project::getStatus);
+  }
+
+  @Override
+  public Optional<Long> findVersion(String projectId) {
+    Query q = Query.query(Criteria.where("_id").is(projectId));
+    q.fields().include("version");
+    return Optional.ofNullable(mongo.findOne(q, Project.class)).map(Project::getVersion);
+  }
+
+  @Override
+  public Page<Project> find(ProjectQuery query, Pageable pageable) {
+    return findPage(query, pageable, null);
+  }
+
+  @Override
+  public Page<Project> find(ProjectQuery query, Pageable pageable, ProjectFields fields) {
+    return findPage(query, pageable, fields.isAll() ? null : fields.paths());
+  }
+
+  @Override
+  public Optional<Project> findWithFields(String projectId, ProjectFields fields) {
+    Query q = Query.query(Criteria.where("_id").is(projectId));
+    if (!fields.isAll()) q.fields().include(fields.paths());
+    return Optional.ofNullable(mongo.findOne(q, Project.class));
+  }
+
+  @Override
+  public Page<Project> findSummaries(ProjectQuery query, Pageable pageable) {
+    return findPage(query, pageable, SUMMARY_FIELDS);
+  }
+
+  @Override
+  public CursorPage<Project> findPage(ProjectQuery query, KeysetCursor after, int size, boolean withTotal,
+                                      boolean summaryOnly) {
+    return findPage(query, after, size, withTotal, summaryOnly ? SUMMARY_FIELDS : null);
+  }
+
+  @Override
+  public CursorPage<Project> findPage(ProjectQuery query, KeysetCursor after, int size, boolean withTotal,
+                                      ProjectFields fields) {
+    return findPage(query, after, size, withTotal, fields.isAll() ? null : fields.paths());
+  }
+
+  /** Keyset page reading only the include paths (null = whole documents). */
+  private CursorPage<Project> findPage(ProjectQuery query, KeysetCursor after, int size, boolean withTotal,
+                                       String[] include) {
+    if (size < 1) throw new IllegalArgumentException("size must be positive");
+    if (query.direction() != Sort.Direction.DESC) {
+      throw new IllegalArgumentException("Cursor paging is newest first only");
+    }
+    Recency order = query.order();
+    Criteria c = query.criteria();
+    if (after != null) seekAfter(c, order.field(), after);
+    Query q = Query.query(c).with(query.sort()).limit(size + 1);
+    // The next cursor is taken from the last row's sort field, so that is always read
+    if (include != null) q.fields().include(include).include(order.field());
+
+    List<Project> rows = mongo.find(q, Project.class);
+    String next = null;
+    if (rows.size() > size) {
+      rows = rows.subList(0, size);
+      Project last = rows.get(size - 1);
+      next = new KeysetCursor(order.of(last), last.getId()).encode();
+    }
+    Long total = withTotal ? mongo.count(Query.query(query.criteria()), Project.class) : null;
+    return new CursorPage<>(List.copyOf(rows), next, total);
+  }
+
+  @Override
+  public CursorPage<Project> search(String text, SearchCursor after, int size) {
+    if (size < 1) throw new IllegalArgumentException("size must be positive");
+    List<Document> stages = new ArrayList<>();
+    stages.add(new Document("$match", new Document("$text", new Document("$search", text))));
+    stages.add(new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+    if (after != null) {
+      // The score is a plain field after $addFields, so unlike in find() it can be filtered on
+      Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+      stages.add(new Document("$match", new Document("$or", List.of(
+          new Document("score", new Document("$lt", after.score())),
+          new Document("score", after.score()).append("_id", new Document("$lt", id))))));
+    }
+    stages.add(new Document("$sort", new Document("score", -1).append("_id", -1)));
+    stages.add(new Document("$limit", size + 1));
+    Document project = new Document("score", 1);
+    for (String f : SUMMARY_FIELDS) project.append(f, 1);
+    stages.add(new Document("$project", project));
+
+    Aggregation pipeline = Aggregation.newAggregation(stages.stream()
+        .<AggregationOperation>map(stage -> ctx -> stage).toList());
+    List<Document> rows = mongo.aggregate(pipeline, mongo.getCollectionName(Project.class), Document.class)
+        .getMappedResults();
+
+    String next = null;
+    if (rows.size() > size) {
+      rows = rows.subList(0, size);
+      Document last = rows.get(size - 1);
+      next = new SearchCursor(last.get("score", Number.class).doubleValue(), last.get("_id").toString()).encode();
+    }
+    List<Project> hits = rows.stream().map(d -> mongo.getConverter().read(Project.class, d)).toList();
+    return new CursorPage<>(hits, next, null);
+  }
+
+  @Override
+  public ProjectStats stats(ProjectQuery query) {
+    List<AggregationOperation> stages = new ArrayList<>();
+    // Mapped against Project like a find, so the $match is the same index range scan as a list
+    stages.add(Aggregation.match(query.criteria()));
+    Document keep = new Document("_id", 0).append("status", 1)
+        .append("details.department", 1).append("details.funder", 1)
+        .append("priceSummary.totalCost.currency", 1);
+    for (var amount : AMOUNTS) keep.append(amount.getKey(), 1);
+    stages.add(ctx -> new Document("$project", keep));
+
+    Document totals = new Document("_id", "$priceSummary.totalCost.currency").append("projects", new Document("$sum", 1));
+    for (var amount : AMOUNTS) totals.append(summaryField(amount.getKey()), new Document("$sum", "$" + amount.getKey()));
+    Document facets = new Document("byStatus", countBy("$status"))
+        .append("byDepartment", countBy("$details.department"))
+        .append("byFunder", countBy("$details.funder"))
+        .append("totals", List.of(
+            new Document("$match", new Document("priceSummary.totalCost.currency", new Document("$ne", null))),
+            new Document("$group", totals),
+            new Document("$sort", new Document("_id", 1))));
+    stages.add(ctx -> new Document("$facet", facets));
+
+    Document row = mongo.aggregate(Aggregation.newAggregation(Project.class, stages),
+        mongo.getCollectionName(Project.class), Document.class).getUniqueMappedResult();
+
+    ProjectStats stats = new ProjectStats();
+    stats.setByStatus(counts(row, "byStatus"));
+    stats.setByDepartment(counts(row, "byDepartment"));
+    stats.setByFunder(counts(row, "byFunder"));
+    stats.setProjects(stats.getByStatus().stream().mapToLong(ProjectStats.Count::getCount).sum());
+    stats.setTotals(facet(row, "totals").stream().map(ProjectRepositoryImpl::totals).toList());
+    return stats;
+  }
+
+  // ---------- Helpers ----------
+
+  /** Facet branch counting documents per value of field, most first. */
+  private static List<Document> countBy(String field) {
+    return List.of(
+        new Document("$group", new Document("_id", field).append("count", new Document("$sum", 1))),
+        new Document("$sort", new Document("count", -1).append("_id", 1)));
+  }
+
+  private static List<Document> facet(Document row, String name) {
+    return row == null ? List.of() : row.getList(name, Document.class, List.of());
+  }
+
+  private static List<ProjectStats.Count> counts(Document row, String name) {
+    return facet(row, name).stream()
+        .map(d -> new ProjectStats.Count(d.get("_id") == null ? null : d.get("_id").toString(),
+            d.get("count", Number.class).longValue()))
+        .toList();
+  }
+
+  private static ProjectStats.Totals totals(Document d) {
+    ProjectStats.Totals t = new ProjectStats.Totals();
+    t.setCurrency(d.getString("_id"));
+    t.setProjects(d.get("projects", Number.class).longValue());
+    t.setDirectStaffCost(decimal(d.get("directStaffCost")));
+    t.setDirectNonStaffCost(decimal(d.get("directNonStaffCost")));
+    t.setIndirectCost(decimal(d.get("indirectCost")));
+    t.setTotalCost(decimal(d.get("totalCost")));
+    t.setSponsorPrice(decimal(d.get("sponsorPrice")));
+    t.setGst(decimal(d.get("gst")));
+    t.setTotalPriceInclGst(decimal(d.get("totalPriceInclGst")));
+    return t;
+  }
+
+  /** "priceSummary.totalCost.amount" -> "totalCost" */
+  private static String summaryField(String amountPath) {
+    return amountPath.substring("priceSummary.".length(), amountPath.length() - ".amount".length());
+  }
+
+  /** $sum of Decimal128 amounts is a Decimal128; of no amounts at all, the int 0. */
+  private static BigDecimal decimal(Object v) {
+    if (v instanceof Decimal128 d) return d.bigDecimalValue();
+    if (v instanceof Number n) return new BigDecimal(n.toString());
+    return BigDecimal.ZERO;
+  }
+
+  /** Offset page reading only the include paths (null = whole documents). */
+  private Page<Project> findPage(ProjectQuery query, Pageable pageable, String[] include) {
+    Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), query.sort());
+    Query q = Query.query(query.criteria()).with(sorted);
+    if (include != null) q.fields().include(include);
+    List<Project> rows = mongo.find(q, Project.class);
+    // Count only when the page alone cannot tell the total
+    return PageableExecutionUtils.getPage(rows, sorted,
+        () -> mongo.count(Query.of(q).limit(-1).skip(-1), Project.class));
+  }
+
+  /**
+   * Narrow c to rows strictly after the cursor in (field desc, _id desc) order. Missing timestamps
+   * sort last in a descending scan, so they follow every dated row.
+   */
+  private static void seekAfter(Criteria c, String field, KeysetCursor after) {
+    if (after.at() == null) {
+      c.andOperator(Criteria.where(field).is(null), Criteria.where("_id").lt(after.id()));
+      return;
+    }
+    c.orOperator(
+        Criteria.where(field).lt(after.at()),
+        Criteria.where(field).is(after.at()).and("_id").lt(after.id()),
+        Criteria.where(field).is(null));
+  }
+
+  /**
+   * Match only while the project is at the version the caller read, so its details and summary are
+   * the ones the delta was priced with, and the summary is still at before's rate card version.
+   */
+  private static Query unchanged(String projectId, Long readVersion, PriceSummary before) {
+    return Query.query(Criteria.where("_id").is(projectId)
+        .and("version").is(readVersion)
+        .and("priceSummary.rateCardVersion").is(before.getRateCardVersion()));
+  }
+
+  /** Narrow to the stored line at index still being the one the caller read. */
+  private Query sameLine(Query q, String field, int index, Object expected) {
+    return q.addCriteria(Criteria.where(field + "." + index).is(toDocument(expected)));
+  }
+
+  private static void incSummary(Update u, PriceSummary before, PriceSummary after) {
+    for (var amount : AMOUNTS) {
+      BigDecimal delta = delta(amount.getValue(), before, after);
+      if (delta.signum() != 0) u.inc(amount.getKey(), new Decimal128(delta));
+    }
+  }
+
+  private static BigDecimal delta(Function<PriceSummary, Money> field, PriceSummary before, PriceSummary after) {
+    return amount(field.apply(after)).subtract(amount(field.apply(before)));
+  }
+
+  private static BigDecimal amount(Money m) {
+    return m == null || m.getAmount() == null ? BigDecimal.ZERO : m.getAmount();
+  }
+
+  /** Same document a full save would embed for this value (no type hint). */
+  private Document toDocument(Object value) {
+    return (Document) mongo.getConverter().convertToMongoType(value);
+  }
+}
@@ -0,0 +1,32 @@
+package com.itproject.rcpt.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last hit of a text search page: its textScore and id. Like {@link KeysetCursor},
+ * clients only ever see the opaque encoded form, and it is only meaningful for the same search text.
+ */
+public record SearchCursor(double score, String id) {
+
+  public SearchCursor {
+    if (id == null || id.isEmpty()) throw new IllegalArgumentException("Cursor needs an id");
+  }
+
+  public String encode() {
+    String raw = Double.toString(score) + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Null or blank means the first page. */
+  public static SearchCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) return null;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int sep = raw.indexOf(':');
+      return new SearchCursor(Double.parseDouble(raw.substring(0, sep)), raw.substring(sep + 1));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+}
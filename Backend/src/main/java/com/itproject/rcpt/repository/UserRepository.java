@@ -4,7 +4,7 @@ import com.itproject.rcpt.domain.User;
 import java.util.Optional;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
   Optional<User> findByEmail(String email);
   boolean existsByEmail(String email);
   Optional<User> findByFirebaseUid(String firebaseUid);
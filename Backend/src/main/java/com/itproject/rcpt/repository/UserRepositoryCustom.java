@@ -0,0 +1,14 @@
+package com.itproject.rcpt.repository;
+
+import com.itproject.rcpt.domain.User;
+import com.itproject.rcpt.dto.common.CursorPage;
+
+public interface UserRepositoryCustom {
+
+  /**
+   * Keyset page of users in _id order, starting after {@code after} (null = first page). Rides the
+   * _id index, so every page costs one range scan of size + 1 entries. The total is only counted
+   * when asked for.
+   */
+  CursorPage<User> findPage(KeysetCursor after, int size, boolean withTotal);
+}
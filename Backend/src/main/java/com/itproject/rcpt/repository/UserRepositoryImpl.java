@@ -0,0 +1,41 @@
+package com.itproject.rcpt.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.itproject.rcpt.domain.User;
+import com.itproject.rcpt.dto.common.CursorPage;
+
+/**
+ * MongoTemplate implementation of {@link UserRepositoryCustom}; picked up by Spring Data as a
+ * fragment of {@link UserRepository}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+  private final MongoTemplate mongo;
+
+  public UserRepositoryImpl(MongoTemplate mongo) {
+    this.mongo = mongo;
+  }
+
+  @Override
+  public CursorPage<User> findPage(KeysetCursor after, int size, boolean withTotal) {
+    if (size < 1) throw new IllegalArgumentException("size must be positive");
+    Query q = new Query();
+    if (after != null) q.addCriteria(Criteria.where("_id").gt(after.id()));
+    q.with(Sort.by(Sort.Direction.ASC, "_id")).limit(size + 1);
+
+    List<User> rows = mongo.find(q, User.class);
+    String next = null;
+    if (rows.size() > size) {
+      rows = rows.subList(0, size);
+      next = new KeysetCursor(null, rows.get(size - 1).getId()).encode();
+    }
+    Long total = withTotal ? mongo.count(new Query(), User.class) : null;
+    return new CursorPage<>(List.copyOf(rows), next, total);
+  }
+}
@@ -0,0 +1,223 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.ApprovalHistoryBucket;
+import com.itproject.rcpt.domain.ApprovalTracker;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.repository.ApprovalHistoryRepository;
+import com.itproject.rcpt.repository.KeysetCursor;
+import com.itproject.rcpt.repository.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Approval history of a project, stored outside the project in approval_history buckets of
+ * {@code rcpt.approvals.history.bucket-size} entries (see {@link ApprovalHistoryBucket}).
+ *
+ * Entries are numbered by the project's approvals.count, so entry n always lands in bucket
+ * (n - 1) / size and a page of history reads only the few buckets it needs, newest first.
+ *
+ * Projects saved before the move still embed their history. It is copied into buckets numbered
+ * below 0 (so it sorts before anything recorded since) the first time that project's history is
+ * read, and for every project in the background after startup.
+ *
+ * An action's entry is appended after its transition has committed. If that append failed, the
+ * entry is still the project's approvals.latest (numbered approvals.count), so a read that finds the
+ * newest entry missing appends it from there.
+ */
+@Service
+public class ApprovalHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApprovalHistoryService.class);
+
+    private final ProjectRepository projectRepository;
+    private final ApprovalHistoryRepository historyRepository;
+    private final ProjectCache projectCache;
+    private final int bucketSize;
+    private final boolean migrateOnStartup;
+
+    public ApprovalHistoryService(ProjectRepository projectRepository,
+                                  ApprovalHistoryRepository historyRepository,
+                                  ProjectCache projectCache,
+                                  @Value("${rcpt.approvals.history.bucket-size:50}") int bucketSize,
+                                  @Value("${rcpt.approvals.history.migrate-on-startup:true}") boolean migrateOnStartup) {
+        if (bucketSize < 1) throw new IllegalArgumentException("rcpt.approvals.history.bucket-size must be positive");
+        this.projectRepository = projectRepository;
+        this.historyRepository = historyRepository;
+        this.projectCache = projectCache;
+        this.bucketSize = bucketSize;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    /** Store an entry already numbered with its seq. */
+    public void append(String projectId, ApprovalEntry entry) {
+        historyRepository.append(projectId, bucketOf(entry.getSeq()), entry);
+    }
+
+    /**
+     * A page of the project's history, newest first. Pass the returned nextCursor back for the
+     * next (older) page.
+     */
+    public CursorPage<ApprovalEntry> page(String projectId, String cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be positive");
+        ApprovalTracker approvals = migrateIfNeeded(projectId);
+        long before = seqOf(KeysetCursor.decode(cursor));
+        long fromBucket = before == Long.MAX_VALUE ? Long.MAX_VALUE : bucketOf(before - 1);
+
+        // Only the newest bucket and the newest migrated one are normally short, so one read of this
+        // many holds size + 1 entries; keep reading older ones if a bucket is short of entries, e.g.
+        // when two appends in a row failed and only the newer one could be restored
+        int buckets = (size + bucketSize) / bucketSize + 2;
+        List<ApprovalEntry> out = new ArrayList<>(size + 1);
+        while (out.size() <= size) {
+            List<ApprovalHistoryBucket> batch = historyRepository.findByProjectIdAndBucketLessThanEqualOrderByBucketDesc(
+                    projectId, fromBucket, PageRequest.of(0, buckets));
+            for (ApprovalHistoryBucket b : batch) {
+                List<ApprovalEntry> entries = b.getEntries();
+                for (int i = entries.size() - 1; i >= 0 && out.size() <= size; i--) {
+                    if (entries.get(i).getSeq() < before) out.add(entries.get(i));
+                }
+            }
+            if (batch.size() < buckets) break;
+            fromBucket = batch.get(batch.size() - 1).getBucket() - 1;
+        }
+        if (before == Long.MAX_VALUE && isLatestMissing(approvals, out.isEmpty() ? null : out.get(0))) {
+            out.add(0, restoreLatest(projectId, approvals));
+        }
+
+        String next = null;
+        if (out.size() > size) {
+            out = out.subList(0, size);
+            ApprovalEntry last = out.get(size - 1);
+            next = new KeysetCursor(last.getAt(), Long.toString(last.getSeq())).encode();
+        }
+        return new CursorPage<>(List.copyOf(out), next, null);
+    }
+
+    /** The whole history, oldest first (for exports). */
+    public List<ApprovalEntry> all(String projectId) {
+        ApprovalTracker approvals = migrateIfNeeded(projectId);
+        List<ApprovalEntry> out = new ArrayList<>();
+        for (ApprovalHistoryBucket b : historyRepository.findByProjectIdOrderByBucketAsc(projectId)) {
+            out.addAll(b.getEntries());
+        }
+        if (isLatestMissing(approvals, out.isEmpty() ? null : out.get(out.size() - 1))) {
+            out.add(restoreLatest(projectId, approvals));
+        }
+        return out;
+    }
+
+    public void deleteAll(String projectId) {
+        historyRepository.deleteByProjectId(projectId);
+    }
+
+    // ---------- Migration of embedded history ----------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        if (!migrateOnStartup) return;
+        Thread t = new Thread(this::migrateAll, "approval-history-migration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void migrateAll() {
+        int migrated = 0;
+        try (Stream<String> ids = projectRepository.streamIdsWithLegacyHistory()) {
+            for (String id : (Iterable<String>) ids::iterator) {
+                projectRepository.findApprovals(id).ifPresent(t -> migrate(id, t));
+                migrated++;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Approval history migration stopped after {} projects; the rest move on first read", migrated, e);
+            return;
+        }
+        if (migrated > 0) logger.info("Moved the approval history of {} projects to approval_history", migrated);
+    }
+
+    private ApprovalTracker migrateIfNeeded(String projectId) {
+        ApprovalTracker approvals = projectRepository.findApprovals(projectId)
+                .orElseThrow(() -> new NoSuchElementException("Project not found: " + projectId));
+        migrate(projectId, approvals);
+        return approvals;
+    }
+
+    // ---------- Recovery of a failed append ----------
+
+    /** Whether the entry numbered approvals.count is newer than the newest one stored. */
+    private static boolean isLatestMissing(ApprovalTracker approvals, ApprovalEntry newest) {
+        if (approvals.getCount() < 1 || approvals.getLatest() == null) return false;
+        return newest == null || (newest.getSeq() != null && newest.getSeq() < approvals.getCount());
+    }
+
+    /** Append approvals.latest as entry approvals.count; a repeat of an append that did land is a no-op. */
+    private ApprovalEntry restoreLatest(String projectId, ApprovalTracker approvals) {
+        ApprovalEntry latest = approvals.getLatest();
+        latest.setSeq(approvals.getCount());
+        append(projectId, latest);
+        logger.info("Restored approval entry {} of project {} from approvals.latest", latest.getSeq(), projectId);
+        return latest;
+    }
+
+    /**
+     * Copy embedded history into buckets, numbering the m entries 1 - m .. 0, then drop it from the
+     * project. Buckets are written whole by id, so running this twice writes the same documents.
+     */
+    private void migrate(String projectId, ApprovalTracker approvals) {
+        if (!approvals.hasLegacyHistory()) return;
+        List<ApprovalEntry> legacy = approvals.getHistory();
+        int m = legacy.size();
+        Map<Long, ApprovalHistoryBucket> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < m; i++) {
+            ApprovalEntry e = legacy.get(i);
+            e.setSeq((long) i - m + 1);
+            long bucket = bucketOf(e.getSeq());
+            ApprovalHistoryBucket b = buckets.computeIfAbsent(bucket, n -> newBucket(projectId, n));
+            b.getEntries().add(e);
+            b.setCount(b.getEntries().size());
+            if (e.getAt() != null) {
+                if (b.getFirst() == null || e.getAt().isBefore(b.getFirst())) b.setFirst(e.getAt());
+                if (b.getLast() == null || e.getAt().isAfter(b.getLast())) b.setLast(e.getAt());
+            }
+        }
+        historyRepository.saveAll(buckets.values());
+        projectRepository.clearLegacyHistory(projectId, legacy.get(m - 1));
+        projectCache.evict(projectId);
+    }
+
+    private static ApprovalHistoryBucket newBucket(String projectId, long bucket) {
+        ApprovalHistoryBucket b = new ApprovalHistoryBucket();
+        b.setId(ApprovalHistoryBucket.idOf(projectId, bucket));
+        b.setProjectId(projectId);
+        b.setBucket(bucket);
+        return b;
+    }
+
+    // ---------- Helpers ----------
+
+    long bucketOf(long seq) {
+        return Math.floorDiv(seq - 1, bucketSize);
+    }
+
+    /** Entries before the cursor's seq; everything on the first page. */
+    private static long seqOf(KeysetCursor cursor) {
+        if (cursor == null) return Long.MAX_VALUE;
+        try {
+            return Long.parseLong(cursor.id());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -2,25 +2,42 @@ package com.itproject.rcpt.service;
 
 import com.itproject.rcpt.domain.ApprovalEntry;
 import com.itproject.rcpt.domain.Project;
-import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.enums.ApprovalAction;
 import com.itproject.rcpt.repository.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.NoSuchElementException;
 
 /**
  * ApprovalService handles transitions in project lifecycle states (Draft → Submitted → Approved)
- * and maintains a detailed audit trail (Approval History) with timestamps and comments.
+ * and maintains a detailed audit trail (Approval History) with timestamps and comments, kept by
+ * {@link ApprovalHistoryService} outside the project document.
+ *
+ * Allowed transitions are defined by {@link ApprovalAction}. Each action is a single conditional
+ * write: the status precondition is part of the update's filter, so when two reviewers act at
+ * once exactly one of them wins and the other gets a ConflictException.
  */
 @Service
 public class ApprovalService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ApprovalService.class);
+
     private final ProjectRepository projectRepository;
+    private final ApprovalHistoryService historyService;
+    private final ProjectCache projectCache;
+    private final CostRollupService rollups;
 
     @Autowired
-    public ApprovalService(ProjectRepository projectRepository) {
+    public ApprovalService(ProjectRepository projectRepository, ApprovalHistoryService historyService,
+                           ProjectCache projectCache, CostRollupService rollups) {
         this.projectRepository = projectRepository;
+        this.historyService = historyService;
+        this.projectCache = projectCache;
+        this.rollups = rollups;
     }
 
     /**
@@ -28,10 +45,7 @@ public class ApprovalService {
      * Moves status from DRAFT to SUBMITTED and records the action.
      */
     public Project submit(String projectId, String userId, String comment) {
-        Project project = findProject(projectId);
-        project.setStatus(ProjectStatus.SUBMITTED);
-        addHistory(project, "SUBMIT", userId, comment);
-        return projectRepository.save(project);
+        return apply(projectId, ApprovalAction.SUBMIT, userId, comment);
     }
 
     /**
@@ -39,21 +53,15 @@ public class ApprovalService {
      * Moves status from SUBMITTED to APPROVED and records the action.
      */
     public Project approve(String projectId, String userId, String comment) {
-        Project project = findProject(projectId);
-        project.setStatus(ProjectStatus.APPROVED);
-        addHistory(project, "APPROVE", userId, comment);
-        return projectRepository.save(project);
+        return apply(projectId, ApprovalAction.APPROVE, userId, comment);
     }
 
     /**
      * Reject a project.
-     * Moves status back to DRAFT so the owner can re-edit and resubmit.
+     * Moves status from SUBMITTED back to DRAFT so the owner can re-edit and resubmit.
      */
     public Project reject(String projectId, String userId, String comment) {
-        Project project = findProject(projectId);
-        project.setStatus(ProjectStatus.DRAFT);
-        addHistory(project, "REJECT", userId, comment);
-        return projectRepository.save(project);
+        return apply(projectId, ApprovalAction.REJECT, userId, comment);
     }
 
     /**
@@ -61,30 +69,40 @@ public class ApprovalService {
      * Useful for reviewers leaving notes before final decision.
      */
     public Project comment(String projectId, String userId, String comment) {
-        Project project = findProject(projectId);
-        addHistory(project, "COMMENT", userId, comment);
-        return projectRepository.save(project);
+        return apply(projectId, ApprovalAction.COMMENT, userId, comment);
     }
 
-    // Utility methods 
+    // Utility methods
 
     /**
-     * Fetch project or throw error if not found.
+     * Run the action and return the project's id, new status, version and the recorded entry
+     * (its latest approval). The entry is then appended to the project's history, numbered with the
+     * count the transition incremented. The transition has committed by then, so a failed append is
+     * only logged: the entry is also the project's approvals.latest, from which
+     * {@link ApprovalHistoryService} restores it on the next history read.
      */
-    private Project findProject(String projectId) {
-        return projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+    private Project apply(String projectId, ApprovalAction action, String userId, String comment) {
+        ApprovalEntry entry = new ApprovalEntry(action.name(), userId, comment, Instant.now());
+        Project project = projectRepository.transition(projectId, action.allowedFrom(), action.target(), entry)
+                .orElseThrow(() -> rejected(projectId, action));
+        projectCache.evict(projectId);
+        rollups.changed(projectId);
+        entry.setSeq(project.getApprovals().getCount());
+        try {
+            historyService.append(projectId, entry);
+        } catch (RuntimeException e) {
+            logger.warn("Could not append approval entry {} of project {}; it will be restored from approvals.latest",
+                    entry.getSeq(), projectId, e);
+        }
+        project.getApprovals().setLatest(entry);
+        return project;
     }
 
-    /**
-     * Append an approval history entry to the project record.
-     */
-    private void addHistory(Project project, String action, String userId, String comment) {
-        ApprovalEntry entry = new ApprovalEntry();
-        entry.setAction(action);
-        entry.setActorUserId(userId);
-        entry.setComment(comment);
-        entry.setAt(Instant.now());
-        project.getApprovals().getHistory().add(entry);
+    /** Why a transition did not match: the project is missing, or its status does not allow it. */
+    private RuntimeException rejected(String projectId, ApprovalAction action) {
+        return projectRepository.findStatus(projectId)
+                .<RuntimeException>map(status -> new ConflictException(
+                        "Cannot " + action.name().toLowerCase() + " a project in status " + status))
+                .orElseGet(() -> new NoSuchElementException("Project not found: " + projectId));
     }
 }
@@ -0,0 +1,12 @@
+package com.itproject.rcpt.service;
+
+/**
+ * The request is valid but conflicts with the resource's current state, e.g. approving a project
+ * that is not SUBMITTED or patching one that has moved past the expected version. Mapped to 409.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,166 @@
+package com.itproject.rcpt.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.value.LineContribution;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
+
+/**
+ * Single-line edits (append, delete and replace at an index) of one of a project's cost line lists,
+ * shared by {@link StaffCostService} and {@link NonStaffCostService}.
+ *
+ * The fast path is two round trips: {@code findForLineEdit} reads the project without its lines (or
+ * with only the line at the index), the change is priced against the stored summary, and one guarded
+ * update, guarded by the version that was read, writes the line and the summary delta. When the
+ * summary cannot take a delta, the rate card changed in between or the project was written since it
+ * was read (e.g. a patch of its currency or start date), the whole project is loaded, repriced and
+ * saved on top of that.
+ */
+final class CostLineEdits<L> {
+
+  /** Prices a one-line change into the project's summary; see {@link PricingService#applyStaffChange}. */
+  @FunctionalInterface
+  interface PriceChange<L> {
+    Project apply(Project project, L removed, L added);
+  }
+
+  private final ProjectRepository projectRepository;
+  private final PricingService pricingService;
+  private final ProjectCache projectCache;
+  private final CostRollupService rollups;
+  private final CostLines lines;
+  private final String label;
+  private final Function<Project, List<L>> getLines;
+  private final BiConsumer<Project, List<L>> setLines;
+  private final Function<L, LineContribution> contribution;
+  private final PriceChange<L> price;
+
+  CostLineEdits(ProjectRepository projectRepository, PricingService pricingService, ProjectCache projectCache,
+                CostRollupService rollups, CostLines lines, String label,
+                Function<Project, List<L>> getLines, BiConsumer<Project, List<L>> setLines,
+                Function<L, LineContribution> contribution, PriceChange<L> price) {
+    this.projectRepository = projectRepository;
+    this.pricingService = pricingService;
+    this.projectCache = projectCache;
+    this.rollups = rollups;
+    this.lines = lines;
+    this.label = label;
+    this.getLines = getLines;
+    this.setLines = setLines;
+    this.contribution = contribution;
+    this.price = price;
+  }
+
+  /** Append a line; returns it. */
+  L append(String projectId, L line) {
+    Project view = getLineEditViewOrThrow(projectId, null);
+    PriceSummary before = view.getPriceSummary();
+    if (pricingService.canApplyDelta(view, null, false)
+        && sameRates(before, price.apply(view, null, line))
+        && projectRepository.pushLine(projectId, view.getVersion(), lines, line, before, view.getPriceSummary())) {
+      written(projectId);
+      return line;
+    }
+
+    Project p = getProjectOrThrow(projectId);
+    List<L> list = getLines.apply(p);
+    if (list == null) {
+      list = new ArrayList<>();
+      setLines.accept(p, list);
+    }
+    list.add(line);
+    price.apply(p, null, line);
+    projectRepository.save(p);
+    return line;
+  }
+
+  /** Delete the line at index. */
+  void deleteAt(String projectId, int index) {
+    Project view = getLineEditViewOrThrow(projectId, index);
+    L current = getLines.apply(view).get(0);
+    PriceSummary before = view.getPriceSummary();
+    if (pricingService.canApplyDelta(view, contribution.apply(current), true)
+        && sameRates(before, price.apply(view, current, null))
+        && projectRepository.removeLineAt(projectId, view.getVersion(), lines, index, current,
+            before, view.getPriceSummary())) {
+      written(projectId);
+      return;
+    }
+
+    Project p = getProjectOrThrow(projectId);
+    List<L> list = storedLinesOrThrow(p, index);
+    L removed = list.remove(index);
+    price.apply(p, removed, null);
+    projectRepository.save(p);
+  }
+
+  /** Replace the line at index; returns the new line. */
+  L replaceAt(String projectId, int index, L line) {
+    Project view = getLineEditViewOrThrow(projectId, index);
+    L current = getLines.apply(view).get(0);
+    PriceSummary before = view.getPriceSummary();
+    if (pricingService.canApplyDelta(view, contribution.apply(current), true)
+        && sameRates(before, price.apply(view, current, line))
+        && projectRepository.replaceLineAt(projectId, view.getVersion(), lines, index, current, line,
+            before, view.getPriceSummary())) {
+      written(projectId);
+      return line;
+    }
+
+    Project p = getProjectOrThrow(projectId);
+    List<L> list = storedLinesOrThrow(p, index);
+    L removed = list.set(index, line);
+    price.apply(p, removed, line);
+    projectRepository.save(p);
+    return line;
+  }
+
+  /** A targeted update raises no save event, so the cache and rollups are told here. */
+  private void written(String projectId) {
+    projectCache.evict(projectId);
+    rollups.changed(projectId);
+  }
+
+  /** Project without its lines, or with only the line at index; validates the index. */
+  private Project getLineEditViewOrThrow(String id, Integer index) {
+    if (index != null && index < 0) {
+      throw invalidIndex(index);
+    }
+    Project view = projectRepository.findForLineEdit(id, lines, index)
+        .orElseThrow(() -> new RuntimeException("Project not found: " + id));
+    if (index != null && (getLines.apply(view) == null || getLines.apply(view).isEmpty())) {
+      throw invalidIndex(index);
+    }
+    return view;
+  }
+
+  private List<L> storedLinesOrThrow(Project p, int index) {
+    List<L> list = getLines.apply(p);
+    if (list == null || index < 0 || index >= list.size()) {
+      throw invalidIndex(index);
+    }
+    return list;
+  }
+
+  private IllegalArgumentException invalidIndex(int index) {
+    return new IllegalArgumentException("Invalid " + label + " index: " + index);
+  }
+
+  /** False if pricing had to reprice the view in full because the rate card changed meanwhile. */
+  private static boolean sameRates(PriceSummary before, Project priced) {
+    return Objects.equals(before.getRateCardVersion(), priced.getPriceSummary().getRateCardVersion());
+  }
+
+  private Project getProjectOrThrow(String id) {
+    return projectRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("Project not found: " + id));
+  }
+}
@@ -0,0 +1,729 @@
+package com.itproject.rcpt.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import jakarta.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.itproject.rcpt.domain.CostRollup;
+import com.itproject.rcpt.domain.CostRollup.Level;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.dto.rollup.RollupReconcileReport;
+import com.itproject.rcpt.jpa.entities.DepartmentAndFaculty;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardChangedEvent;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.pricing.ProjectsRepricedEvent;
+import com.itproject.rcpt.repository.CostRollupRepository;
+
+/**
+ * Maintains cost_rollups: project counts and summed price summaries per department, school and
+ * faculty of the department_and_faculty hierarchy, so finance totals never scan the projects.
+ *
+ * Write paths report a project with {@link #changed} after writing it (saves and deletes through
+ * {@link CostRollupTracking}). Reported ids are synced in batches on one background thread: each
+ * project's department, status and price summary is compared with what the rollups last counted
+ * for it (its document in cost_rollup_contributions), and only the difference is applied, as one
+ * $inc on its department, school and faculty. Several writes to a project between two syncs cost
+ * one sync.
+ *
+ * Reconciliation runs periodically and after a hierarchy change: it resyncs every project whose
+ * counted version is not its current one (a write that was never reported, or a sync that failed
+ * half way), then groups the projects' stored price summaries by department, status and currency
+ * and compares them with the contributions grouped the same way. Where they differ, however the
+ * contribution went wrong, every contribution of that department is rewritten from its project.
+ * Finally the contributions are recounted and any rollup that differs is rewritten.
+ *
+ * Contributions and rollups are only written by this thread, so at most one application instance
+ * should run with rcpt.rollups.enabled; writes made on the others are picked up by reconciliation.
+ */
+@Service
+public class CostRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostRollupService.class);
+
+    static final String CONTRIBUTIONS = "cost_rollup_contributions";
+
+    /** Status key of projects written before status was required. */
+    static final String NO_STATUS = "NONE";
+
+    private static final int MAX_REPORTED_IDS = 100;
+
+    /** Summed price summary fields, in {@link #toAmounts} order. */
+    private static final List<Map.Entry<String, Function<PriceSummary, Money>>> AMOUNTS = List.of(
+            Map.entry("directStaffCost", PriceSummary::getDirectStaffCost),
+            Map.entry("directNonStaffCost", PriceSummary::getDirectNonStaffCost),
+            Map.entry("indirectCost", PriceSummary::getIndirectCost),
+            Map.entry("totalCost", PriceSummary::getTotalCost),
+            Map.entry("sponsorPrice", PriceSummary::getSponsorPrice),
+            Map.entry("gst", PriceSummary::getGst),
+            Map.entry("totalPriceInclGst", PriceSummary::getTotalPriceInclGst));
+
+    private final MongoTemplate mongo;
+    private final CostRollupRepository rollups;
+    private final RateCardService rateCards;
+    private final boolean enabled;
+    private final long flushMillis;
+    private final long reconcileMillis;
+    private final int batchSize;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService worker;
+    private volatile RollupReconcileReport lastReconcile;
+
+    public CostRollupService(MongoTemplate mongo,
+                             CostRollupRepository rollups,
+                             RateCardService rateCards,
+                             @Value("${rcpt.rollups.enabled:true}") boolean enabled,
+                             @Value("${rcpt.rollups.flush-interval-ms:1000}") long flushMillis,
+                             @Value("${rcpt.rollups.reconcile-interval-ms:3600000}") long reconcileMillis,
+                             @Value("${rcpt.rollups.batch-size:500}") int batchSize) {
+        if (flushMillis < 1) throw new IllegalArgumentException("rcpt.rollups.flush-interval-ms must be positive");
+        if (batchSize < 1) throw new IllegalArgumentException("rcpt.rollups.batch-size must be positive");
+        this.mongo = mongo;
+        this.rollups = rollups;
+        this.rateCards = rateCards;
+        this.enabled = enabled;
+        this.flushMillis = flushMillis;
+        this.reconcileMillis = reconcileMillis;
+        this.batchSize = batchSize;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cost-rollups");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ---------- Reads ----------
+
+    /** One department (by name), school or faculty (by code): a lookup by _id. */
+    public Optional<CostRollup> get(Level level, String key) {
+        return rollups.findById(CostRollup.idOf(level, key));
+    }
+
+    /** The schools of a faculty or the departments of a school. */
+    public List<CostRollup> children(Level level, String key) {
+        return rollups.findByParentIdOrderByNameAsc(CostRollup.idOf(level, key));
+    }
+
+    public List<CostRollup> list(Level level) {
+        return rollups.findByLevelOrderByNameAsc(level);
+    }
+
+    // ---------- Change reports ----------
+
+    /** Call after writing the project; the rollups follow within rcpt.rollups.flush-interval-ms. */
+    public void changed(String projectId) {
+        if (enabled && projectId != null) dirty.add(projectId);
+    }
+
+    /** Call after writing these projects. */
+    public void changedAll(Collection<String> projectIds) {
+        if (enabled) dirty.addAll(projectIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground() {
+        if (!enabled) return;
+        worker.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        // The first run also builds the rollups of a database that has none yet
+        if (reconcileMillis > 0) {
+            worker.scheduleWithFixedDelay(this::reconcile, 0, reconcileMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** The repricing job wrote these projects in bulk, around the save events. */
+    @EventListener
+    public void onProjectsRepriced(ProjectsRepricedEvent event) {
+        changedAll(event.getProjectIds());
+    }
+
+    /** Departments may have moved between schools or faculties. */
+    @EventListener
+    public void onRateCardChanged(RateCardChangedEvent event) {
+        if (event.getTable() == LookupTable.DEPARTMENT_AND_FACULTY) reconcileNow();
+    }
+
+    /** Queue a reconciliation behind whatever the rollup thread is doing. */
+    public void reconcileNow() {
+        if (enabled) worker.execute(this::reconcile);
+    }
+
+    /** The current or most recent reconciliation. */
+    public RollupReconcileReport reconcileStatus() {
+        RollupReconcileReport r = lastReconcile;
+        if (r != null) return r;
+        RollupReconcileReport idle = new RollupReconcileReport();
+        idle.setState("IDLE");
+        return idle;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // ---------- Incremental sync ----------
+
+    /** Sync every project reported so far, a batch at a time; returns how many were synced. */
+    int flush() {
+        int synced = 0;
+        while (!dirty.isEmpty()) {
+            // Taken off before reading, so a write during the sync reports the project again
+            List<String> ids = new ArrayList<>(batchSize);
+            for (Iterator<String> it = dirty.iterator(); it.hasNext() && ids.size() < batchSize; ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            try {
+                sync(ids);
+            } catch (RuntimeException e) {
+                dirty.addAll(ids);
+                throw e;
+            }
+            synced += ids.size();
+        }
+        return synced;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Cost rollup sync failed; {} projects are retried on the next run", dirty.size(), e);
+        }
+    }
+
+    /**
+     * Record what each project now contributes and apply the differences to the rollups. The
+     * contributions are written first: if the rollup write then fails, the next reconciliation
+     * finds the rollups short of the recount and rewrites them.
+     */
+    void sync(List<String> ids) {
+        RateCard rates = rateCards.current();
+        Map<String, Contribution> now = current(Query.query(Criteria.where("_id").in(ids)));
+
+        Query countedIds = Query.query(Criteria.where("_id").in(ids.stream().map(CostRollupService::storedId).toList()));
+        Map<String, Contribution> counted = new HashMap<>();
+        for (Document d : mongo.find(countedIds, Document.class, CONTRIBUTIONS)) {
+            counted.put(d.get("_id").toString(), Contribution.read(d));
+        }
+
+        Tallies deltas = new Tallies(rates);
+        BulkOperations contributions = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CONTRIBUTIONS);
+        int written = 0;
+        for (String id : ids) {
+            Contribution before = counted.get(id);
+            Contribution after = now.get(id);
+            if (Objects.equals(before, after)) continue;
+            if (before != null) deltas.add(before.department(), before.status(), before.currency(), -1, negate(before.amounts()));
+            if (after != null) deltas.add(after.department(), after.status(), after.currency(), 1, after.amounts());
+            Query byId = Query.query(Criteria.where("_id").is(storedId(id)));
+            if (after == null) contributions.remove(byId);
+            else contributions.replaceOne(byId, after.toDocument(storedId(id)), FindAndReplaceOptions.options().upsert());
+            written++;
+        }
+        if (written == 0) return;
+        contributions.execute();
+        applyDeltas(deltas);
+    }
+
+    private void applyDeltas(Tallies deltas) {
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CostRollup.class);
+        int updates = 0;
+        for (Tally t : deltas.byId.values()) {
+            Update u = new Update();
+            if (t.projects != 0) u.inc("projects", t.projects);
+            t.statuses.forEach((status, n) -> {
+                if (n != 0) u.inc("statuses." + status, n);
+            });
+            t.totals.forEach((currency, sums) -> {
+                for (int i = 0; i < sums.length; i++) {
+                    if (sums[i].signum() != 0) u.inc("totals." + currency + "." + AMOUNTS.get(i).getKey(), new Decimal128(sums[i]));
+                }
+            });
+            if (!u.getUpdateObject().containsKey("$inc")) continue; // the changes cancelled out
+            u.set("level", t.node.level()).set("key", t.node.key()).set("name", t.node.name())
+                    .set("parentId", t.node.parentId()).currentDate("updatedAt");
+            ops.upsert(Query.query(Criteria.where("_id").is(t.node.id())), u);
+            updates++;
+        }
+        if (updates > 0) ops.execute();
+    }
+
+    // ---------- Reconciliation ----------
+
+    /**
+     * Resync projects that are behind, recount the projects and rewrite the contributions of every
+     * department the contributions miscount, then check every rollup against the contributions.
+     */
+    RollupReconcileReport reconcile() {
+        RollupReconcileReport r = new RollupReconcileReport();
+        r.setState("RUNNING");
+        r.setStartedAt(Instant.now());
+        lastReconcile = r;
+        try {
+            flush();
+            Set<String> behind = new HashSet<>(ids(aggregate(mongo.getCollectionName(Project.class), projectsBehind())));
+            behind.addAll(ids(aggregate(CONTRIBUTIONS, contributionsOfDeletedProjects())));
+            dirty.addAll(behind);
+            flush();
+            r.setProjectsResynced(behind.size());
+
+            // A contribution can be wrong at the project's own version; only the projects show it
+            Map<Group, Sums> projects = countProjects();
+            Map<Group, Sums> counted = countContributions();
+            Set<String> miscounted = miscountedDepartments(projects, counted);
+            if (!miscounted.isEmpty()) {
+                r.setContributionsRewritten(rewriteContributions(miscounted));
+                counted = countContributions();
+            }
+
+            Map<String, Tally> expected = tally(counted, rateCards.current()).byId;
+            Map<String, CostRollup> stored = new HashMap<>();
+            for (CostRollup c : rollups.findAll()) stored.put(c.getId(), c);
+            Set<String> all = new HashSet<>(expected.keySet());
+            all.addAll(stored.keySet());
+
+            List<String> repaired = new ArrayList<>();
+            for (String id : all) {
+                Tally want = expected.get(id);
+                CostRollup have = stored.get(id);
+                if (want == null) want = new Tally(new Node(have.getLevel(), have.getKey(), have.getName(), have.getParentId()));
+                if (have != null && want.matches(have)) continue;
+                rollups.save(want.toRollup());
+                repaired.add(id);
+            }
+            r.setBucketsChecked(all.size());
+            r.setBucketsRepaired(repaired.size());
+            r.setRepairedIds(repaired.stream().sorted().limit(MAX_REPORTED_IDS).toList());
+            r.setState("COMPLETED");
+            if (!repaired.isEmpty()) logger.warn("Cost rollups: rewrote {} that differed from the recount: {}", repaired.size(), r.getRepairedIds());
+            if (!miscounted.isEmpty()) {
+                logger.warn("Cost rollups: rewrote {} contributions in departments the projects disagreed with: {}",
+                        r.getContributionsRewritten(), miscounted);
+            }
+            if (!behind.isEmpty()) logger.info("Cost rollups: resynced {} projects that were behind", behind.size());
+        } catch (RuntimeException e) {
+            r.setState("FAILED");
+            r.setError(e.getMessage());
+            logger.error("Cost rollup reconciliation failed", e);
+        }
+        r.setFinishedAt(Instant.now());
+        return r;
+    }
+
+    /** Projects whose contribution is missing or was counted at another version. */
+    private static List<Document> projectsBehind() {
+        return List.of(
+                new Document("$project", new Document("version", 1)),
+                new Document("$lookup", new Document("from", CONTRIBUTIONS)
+                        .append("localField", "_id").append("foreignField", "_id")
+                        .append("pipeline", List.of(new Document("$project", new Document("version", 1))))
+                        .append("as", "counted")),
+                new Document("$match", new Document("$expr", new Document("$or", List.of(
+                        new Document("$eq", Arrays.asList(new Document("$size", "$counted"), 0)),
+                        new Document("$ne", Arrays.asList("$version", new Document("$first", "$counted.version"))))))),
+                new Document("$project", new Document("_id", 1)));
+    }
+
+    /** Contributions still counted for projects that no longer exist. */
+    private List<Document> contributionsOfDeletedProjects() {
+        return List.of(
+                new Document("$lookup", new Document("from", mongo.getCollectionName(Project.class))
+                        .append("localField", "_id").append("foreignField", "_id")
+                        .append("pipeline", List.of(new Document("$project", new Document("_id", 1))))
+                        .append("as", "project")),
+                new Document("$match", new Document("project", new Document("$size", 0))),
+                new Document("$project", new Document("_id", 1)));
+    }
+
+    /** Projects grouped by department, status and currency, from their stored price summaries. */
+    private Map<Group, Sums> countProjects() {
+        Document group = new Document("_id", new Document("department", "$details.department")
+                .append("status", new Document("$ifNull", Arrays.asList("$status", NO_STATUS)))
+                .append("currency", "$priceSummary.totalCost.currency"))
+                .append("projects", new Document("$sum", 1));
+        // $toDecimal reads an amount whether it was stored as a string or as a Decimal128
+        for (var amount : AMOUNTS) {
+            group.append(amount.getKey(), new Document("$sum",
+                    new Document("$toDecimal", "$priceSummary." + amount.getKey() + ".amount")));
+        }
+        return groups(aggregate(mongo.getCollectionName(Project.class), List.of(new Document("$group", group))));
+    }
+
+    /** The contributions grouped the same way. */
+    private Map<Group, Sums> countContributions() {
+        Document group = new Document("_id", new Document("department", "$department")
+                .append("status", "$status").append("currency", "$currency"))
+                .append("projects", new Document("$sum", 1));
+        for (var amount : AMOUNTS) group.append(amount.getKey(), new Document("$sum", "$amounts." + amount.getKey()));
+        return groups(aggregate(CONTRIBUTIONS, List.of(new Document("$group", group))));
+    }
+
+    private static Map<Group, Sums> groups(List<Document> rows) {
+        Map<Group, Sums> groups = new HashMap<>();
+        for (Document row : rows) {
+            Document key = row.get("_id", Document.class);
+            Group g = new Group(key.getString("department"), key.getString("status"), key.getString("currency"));
+            // Without a currency a project contributes no amounts, whatever else its summary holds
+            List<BigDecimal> sums = g.currency() == null ? List.of()
+                    : AMOUNTS.stream().map(a -> decimal(row.get(a.getKey()))).toList();
+            groups.merge(g, new Sums(row.get("projects", Number.class).longValue(), sums), Sums::plus);
+        }
+        return groups;
+    }
+
+    /** Departments where the contributions do not add up to the projects. */
+    private static Set<String> miscountedDepartments(Map<Group, Sums> projects, Map<Group, Sums> counted) {
+        Set<Group> all = new HashSet<>(projects.keySet());
+        all.addAll(counted.keySet());
+        Set<String> departments = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (Group g : all) {
+            Sums want = projects.getOrDefault(g, Sums.NONE);
+            if (!want.sameAs(counted.getOrDefault(g, Sums.NONE))) departments.add(g.department());
+        }
+        return departments;
+    }
+
+    /**
+     * Rewrite the contribution of every project in these departments, and of every project counted
+     * in one, from the project as stored now; returns how many were written. The rollups are not
+     * touched: the recount that follows repairs them.
+     */
+    private int rewriteContributions(Set<String> departments) {
+        List<String> inDepartments = new ArrayList<>(departments);
+        // $in with null also finds the projects without a department
+        Map<String, Contribution> now = current(Query.query(Criteria.where("details.department").in(inDepartments)));
+
+        Query countedThere = Query.query(Criteria.where("department").in(inDepartments));
+        countedThere.fields().include("_id");
+        List<String> moved = new ArrayList<>();
+        for (Document d : mongo.find(countedThere, Document.class, CONTRIBUTIONS)) {
+            String id = d.get("_id").toString();
+            if (!now.containsKey(id)) moved.add(id);
+        }
+        if (!moved.isEmpty()) now.putAll(current(Query.query(Criteria.where("_id").in(moved))));
+
+        BulkOperations contributions = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CONTRIBUTIONS);
+        int written = 0;
+        int pending = 0;
+        for (String id : union(now.keySet(), moved)) {
+            Contribution c = now.get(id);
+            Query byId = Query.query(Criteria.where("_id").is(storedId(id)));
+            if (c == null) contributions.remove(byId);
+            else contributions.replaceOne(byId, c.toDocument(storedId(id)), FindAndReplaceOptions.options().upsert());
+            written++;
+            if (++pending == batchSize) {
+                contributions.execute();
+                contributions = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CONTRIBUTIONS);
+                pending = 0;
+            }
+        }
+        if (pending > 0) contributions.execute();
+        return written;
+    }
+
+    /** What every rollup should hold, each group added to its department, school and faculty. */
+    private static Tallies tally(Map<Group, Sums> groups, RateCard rates) {
+        Tallies expected = new Tallies(rates);
+        groups.forEach((g, s) -> expected.add(g.department(), g.status(), g.currency(), s.projects(), s.amounts()));
+        return expected;
+    }
+
+    /** The status, department and price summary of the projects the query finds, by id. */
+    private Map<String, Contribution> current(Query query) {
+        query.fields().include("status", "details.department", "priceSummary", "version");
+        Map<String, Contribution> now = new HashMap<>();
+        for (Project p : mongo.find(query, Project.class)) now.put(p.getId(), Contribution.of(p));
+        return now;
+    }
+
+    private static Set<String> union(Collection<String> a, Collection<String> b) {
+        Set<String> all = new LinkedHashSet<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private List<Document> aggregate(String collection, List<Document> stages) {
+        Aggregation pipeline = Aggregation.newAggregation(stages.stream()
+                .<AggregationOperation>map(stage -> ctx -> stage).toList());
+        return mongo.aggregate(pipeline, collection, Document.class).getMappedResults();
+    }
+
+    private static List<String> ids(List<Document> rows) {
+        return rows.stream().map(d -> d.get("_id").toString()).toList();
+    }
+
+    // ---------- Hierarchy ----------
+
+    /** One rollup document: a department, school or faculty. */
+    record Node(Level level, String key, String name, String parentId) {
+        String id() { return CostRollup.idOf(level, key); }
+    }
+
+    /**
+     * The department and the school and faculty above it in the current hierarchy. A department
+     * the hierarchy does not know still gets its own rollup; a project without one is counted
+     * nowhere.
+     */
+    static List<Node> path(String department, RateCard rates) {
+        if (department == null || department.isBlank()) return List.of();
+        DepartmentAndFaculty h = rates.department(department);
+        String school = h == null ? null : firstNonBlank(h.getSchoolCode(), h.getSchool());
+        String faculty = h == null ? null : firstNonBlank(h.getFacultyCode(), h.getFaculty());
+        String facultyId = faculty == null ? null : CostRollup.idOf(Level.FACULTY, faculty);
+        String schoolId = school == null ? null : CostRollup.idOf(Level.SCHOOL, school);
+
+        List<Node> path = new ArrayList<>(3);
+        path.add(new Node(Level.DEPARTMENT, department, department, schoolId != null ? schoolId : facultyId));
+        if (school != null) path.add(new Node(Level.SCHOOL, school, firstNonBlank(h.getSchool(), school), facultyId));
+        if (faculty != null) path.add(new Node(Level.FACULTY, faculty, firstNonBlank(h.getFaculty(), faculty), null));
+        return path;
+    }
+
+    private static String firstNonBlank(String a, String b) {
+        if (a != null && !a.isBlank()) return a;
+        return b == null || b.isBlank() ? null : b;
+    }
+
+    // ---------- Counting ----------
+
+    /** What the rollups count for one project. */
+    record Contribution(Long version, String department, String status, String currency, List<BigDecimal> amounts) {
+
+        static Contribution of(Project p) {
+            PriceSummary s = p.getPriceSummary();
+            String currency = s == null || s.getTotalCost() == null ? null : s.getTotalCost().getCurrency();
+            List<BigDecimal> amounts = currency == null ? List.of()
+                    : AMOUNTS.stream().map(a -> amount(a.getValue().apply(s))).toList();
+            return new Contribution(p.getVersion(),
+                    p.getDetails() == null ? null : p.getDetails().getDepartment(),
+                    p.getStatus() == null ? NO_STATUS : p.getStatus().name(),
+                    currency, amounts);
+        }
+
+        static Contribution read(Document d) {
+            Document a = d.get("amounts", Document.class);
+            List<BigDecimal> amounts = a == null ? List.of()
+                    : AMOUNTS.stream().map(e -> decimal(a.get(e.getKey()))).toList();
+            Number version = d.get("version", Number.class);
+            return new Contribution(version == null ? null : version.longValue(), d.getString("department"),
+                    d.getString("status"), d.getString("currency"), amounts);
+        }
+
+        /** Null fields are left out, so a missing version compares equal in {@link #projectsBehind}. */
+        Document toDocument(Object id) {
+            Document d = new Document("_id", id);
+            if (version != null) d.append("version", version);
+            if (department != null) d.append("department", department);
+            d.append("status", status);
+            if (currency != null) {
+                d.append("currency", currency);
+                Document a = new Document();
+                for (int i = 0; i < AMOUNTS.size(); i++) a.append(AMOUNTS.get(i).getKey(), new Decimal128(amounts.get(i)));
+                d.append("amounts", a);
+            }
+            return d;
+        }
+    }
+
+    /** One group of a recount. */
+    record Group(String department, String status, String currency) { }
+
+    /** A group's project count and summed amounts, in {@link #AMOUNTS} order; none without a currency. */
+    record Sums(long projects, List<BigDecimal> amounts) {
+
+        static final Sums NONE = new Sums(0, List.of());
+
+        Sums plus(Sums other) {
+            if (amounts.isEmpty()) return new Sums(projects + other.projects, other.amounts);
+            if (other.amounts.isEmpty()) return new Sums(projects + other.projects, amounts);
+            List<BigDecimal> sum = new ArrayList<>(amounts.size());
+            for (int i = 0; i < amounts.size(); i++) sum.add(amounts.get(i).add(other.amounts.get(i)));
+            return new Sums(projects + other.projects, sum);
+        }
+
+        /** Same count and the same amounts, ignoring decimal scale; missing amounts count as zeros. */
+        boolean sameAs(Sums other) {
+            if (projects != other.projects) return false;
+            for (int i = 0; i < AMOUNTS.size(); i++) {
+                if (amountAt(i).compareTo(other.amountAt(i)) != 0) return false;
+            }
+            return true;
+        }
+
+        private BigDecimal amountAt(int i) {
+            return amounts.isEmpty() ? BigDecimal.ZERO : amounts.get(i);
+        }
+    }
+
+    /** Counts and sums per rollup node, each contribution added to its whole path. */
+    private static final class Tallies {
+        final RateCard rates;
+        final Map<String, Tally> byId = new LinkedHashMap<>();
+
+        Tallies(RateCard rates) {
+            this.rates = rates;
+        }
+
+        void add(String department, String status, String currency, long projects, List<BigDecimal> amounts) {
+            for (Node node : path(department, rates)) {
+                Tally t = byId.computeIfAbsent(node.id(), k -> new Tally(node));
+                t.projects += projects;
+                t.statuses.merge(status == null ? NO_STATUS : status, projects, Long::sum);
+                if (currency == null) continue;
+                BigDecimal[] sums = t.totals.computeIfAbsent(currency, k -> zeros());
+                for (int i = 0; i < sums.length; i++) sums[i] = sums[i].add(amounts.get(i));
+            }
+        }
+    }
+
+    private static final class Tally {
+        final Node node;
+        long projects;
+        final Map<String, Long> statuses = new TreeMap<>();
+        final Map<String, BigDecimal[]> totals = new TreeMap<>();
+
+        Tally(Node node) {
+            this.node = node;
+        }
+
+        /** Same place in the hierarchy and the same numbers, ignoring zero entries and decimal scale. */
+        boolean matches(CostRollup r) {
+            if (r.getLevel() != node.level() || !Objects.equals(r.getName(), node.name())
+                    || !Objects.equals(r.getParentId(), node.parentId()) || r.getProjects() != projects) {
+                return false;
+            }
+            if (!nonZero(statuses).equals(nonZero(r.getStatuses()))) return false;
+            Map<String, BigDecimal[]> stored = new TreeMap<>();
+            r.getTotals().forEach((currency, a) -> stored.put(currency, fromAmounts(a)));
+            return sameSums(totals, stored) && sameSums(stored, totals);
+        }
+
+        CostRollup toRollup() {
+            CostRollup r = new CostRollup();
+            r.setId(node.id());
+            r.setLevel(node.level());
+            r.setKey(node.key());
+            r.setName(node.name());
+            r.setParentId(node.parentId());
+            r.setProjects(projects);
+            r.setStatuses(new LinkedHashMap<>(nonZero(statuses)));
+            Map<String, CostRollup.Amounts> sums = new LinkedHashMap<>();
+            totals.forEach((currency, s) -> {
+                if (Arrays.stream(s).anyMatch(v -> v.signum() != 0)) sums.put(currency, toAmounts(s));
+            });
+            r.setTotals(sums);
+            r.setUpdatedAt(Instant.now());
+            return r;
+        }
+    }
+
+    private static Map<String, Long> nonZero(Map<String, Long> counts) {
+        Map<String, Long> kept = new TreeMap<>();
+        if (counts != null) counts.forEach((k, v) -> {
+            if (v != null && v != 0) kept.put(k, v);
+        });
+        return kept;
+    }
+
+    /** Every sum in a equals the one in b, a missing currency counting as zeros. */
+    private static boolean sameSums(Map<String, BigDecimal[]> a, Map<String, BigDecimal[]> b) {
+        for (Map.Entry<String, BigDecimal[]> e : a.entrySet()) {
+            BigDecimal[] other = b.getOrDefault(e.getKey(), zeros());
+            for (int i = 0; i < other.length; i++) {
+                if (e.getValue()[i].compareTo(other[i]) != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    private static BigDecimal[] zeros() {
+        BigDecimal[] z = new BigDecimal[AMOUNTS.size()];
+        Arrays.fill(z, BigDecimal.ZERO);
+        return z;
+    }
+
+    private static CostRollup.Amounts toAmounts(BigDecimal[] s) {
+        CostRollup.Amounts a = new CostRollup.Amounts();
+        a.setDirectStaffCost(s[0]);
+        a.setDirectNonStaffCost(s[1]);
+        a.setIndirectCost(s[2]);
+        a.setTotalCost(s[3]);
+        a.setSponsorPrice(s[4]);
+        a.setGst(s[5]);
+        a.setTotalPriceInclGst(s[6]);
+        return a;
+    }
+
+    private static BigDecimal[] fromAmounts(CostRollup.Amounts a) {
+        BigDecimal[] s = {
+                a.getDirectStaffCost(), a.getDirectNonStaffCost(), a.getIndirectCost(), a.getTotalCost(),
+                a.getSponsorPrice(), a.getGst(), a.getTotalPriceInclGst() };
+        for (int i = 0; i < s.length; i++) if (s[i] == null) s[i] = BigDecimal.ZERO;
+        return s;
+    }
+
+    private static List<BigDecimal> negate(List<BigDecimal> amounts) {
+        return amounts.stream().map(BigDecimal::negate).toList();
+    }
+
+    private static BigDecimal amount(Money m) {
+        return m == null || m.getAmount() == null ? BigDecimal.ZERO : m.getAmount();
+    }
+
+    /** $sum over Decimal128 values is a Decimal128; over none, the int 0. */
+    private static BigDecimal decimal(Object v) {
+        if (v instanceof Decimal128 d) return d.bigDecimalValue();
+        if (v instanceof Number n) return new BigDecimal(n.toString());
+        return BigDecimal.ZERO;
+    }
+
+    /** Contributions share the project's _id, stored the way Spring Data stores a String id. */
+    private static Object storedId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,37 @@
+package com.itproject.rcpt.service;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.itproject.rcpt.domain.Project;
+
+/**
+ * Reports repository saves and deletes of projects to the {@link CostRollupService}. Like
+ * {@link ProjectCacheInvalidation}, targeted updates raise no event and are reported by their callers.
+ */
+@Component
+public class CostRollupTracking extends AbstractMongoEventListener<Project> {
+
+    private final CostRollupService rollups;
+
+    public CostRollupTracking(CostRollupService rollups) {
+        this.rollups = rollups;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Project> event) {
+        rollups.changed(event.getSource().getId());
+    }
+
+    /** A delete by anything but a single id cannot say which projects went; recount instead. */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Project> event) {
+        Document query = event.getSource();
+        Object id = query.get("_id");
+        if (id != null && !(id instanceof Document)) rollups.changed(id.toString());
+        else rollups.reconcileNow();
+    }
+}
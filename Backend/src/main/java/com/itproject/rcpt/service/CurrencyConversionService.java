@@ -0,0 +1,71 @@
+package com.itproject.rcpt.service;
+
+import java.time.LocalDate;
+
+import org.springframework.stereotype.Service;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.domain.value.LineContribution;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.jpa.services.FxRateService;
+
+/**
+ * Converts every amount in a project into one target currency, using the FX rates of a single
+ * rate card snapshot for the whole pass. Results are for display and reporting; nothing is saved.
+ */
+@Service
+public class CurrencyConversionService {
+
+    private final RateCardService rateCards;
+
+    public CurrencyConversionService(RateCardService rateCards) {
+        this.rateCards = rateCards;
+    }
+
+    /**
+     * Convert the project in place with the rates effective on the given date.
+     * Each amount converts from its own currency, so lines in mixed currencies are handled.
+     */
+    public Project convert(Project project, String target, LocalDate on) {
+        RateCard card = rateCards.current();
+        String to = target.toUpperCase();
+
+        for (StaffCost s : project.getStaffCosts()) {
+            s.setUnitCost(FxRateService.convert(card, s.getUnitCost(), to, on));
+            s.setContribution(convert(card, s.getContribution(), to, on));
+        }
+        for (NonStaffCost n : project.getNonStaffCosts()) {
+            n.setUnitCost(FxRateService.convert(card, n.getUnitCost(), to, on));
+            n.setContribution(convert(card, n.getContribution(), to, on));
+        }
+
+        PriceSummary s = project.getPriceSummary();
+        if (s != null) {
+            s.setDirectStaffCost(money(card, s.getDirectStaffCost(), to, on));
+            s.setDirectNonStaffCost(money(card, s.getDirectNonStaffCost(), to, on));
+            s.setIndirectCost(money(card, s.getIndirectCost(), to, on));
+            s.setTotalCost(money(card, s.getTotalCost(), to, on));
+            s.setSponsorPrice(money(card, s.getSponsorPrice(), to, on));
+            s.setGst(money(card, s.getGst(), to, on));
+            s.setTotalPriceInclGst(money(card, s.getTotalPriceInclGst(), to, on));
+        }
+        if (project.getDetails() != null) project.getDetails().setCurrency(to);
+        return project;
+    }
+
+    private static LineContribution convert(RateCard card, LineContribution c, String to, LocalDate on) {
+        if (c == null) return null;
+        return new LineContribution(money(card, c.getDirectCost(), to, on),
+                money(card, c.getIndirectCost(), to, on),
+                money(card, c.getGst(), to, on));
+    }
+
+    private static Money money(RateCard card, Money m, String to, LocalDate on) {
+        return FxRateService.convert(card, m, to, on);
+    }
+}
@@ -0,0 +1,86 @@
+package com.itproject.rcpt.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one row at a time. Quoted fields may hold commas, doubled quotes and line
+ * breaks; CRLF and LF both end a row. Only the current row is held in memory.
+ */
+class ImportCsvReader {
+
+    private final Reader in;
+    private long line = 1;
+    private long rowStart;
+    private int pushedBack = -2;
+
+    /** in should be buffered; it is read one char at a time. */
+    ImportCsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Upload line the last row returned by {@link #next()} started on (1-based). */
+    long rowLine() {
+        return rowStart;
+    }
+
+    /** The next row's fields, or null at the end of the input. */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) return null;
+        rowStart = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field in the row starting on line " + rowStart);
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') unread(n);
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -10,22 +10,34 @@ import com.itproject.rcpt.domain.Project;
 import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostRequest;
 import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostResponse;
 import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingService;
 import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
 
 @Service
 public class NonStaffCostService {
 
   private final ProjectRepository projectRepository;
   private final ProjectMapper mapper;
+  private final PricingService pricingService;
+  private final ProjectCache projectCache;
+  private final CostLineEdits<NonStaffCost> lineEdits;
 
-  public NonStaffCostService(ProjectRepository projectRepository, ProjectMapper mapper) {
+  public NonStaffCostService(ProjectRepository projectRepository, ProjectMapper mapper, PricingService pricingService,
+                             ProjectCache projectCache, CostRollupService rollups) {
     this.projectRepository = projectRepository;
     this.mapper = mapper;
+    this.pricingService = pricingService;
+    this.projectCache = projectCache;
+    this.lineEdits = new CostLineEdits<>(projectRepository, pricingService, projectCache, rollups,
+        CostLines.NON_STAFF, "non-staff", Project::getNonStaffCosts, Project::setNonStaffCosts,
+        NonStaffCost::getContribution, pricingService::applyNonStaffChange);
   }
 
-  /** Get as DTOs. */
+  /** Get as DTOs, from the project cache. */
   public List<NonStaffCostResponse> list(String projectId) {
-    Project p = getProjectOrThrow(projectId);
+    Project p = projectCache.get(projectId)
+        .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
     List<NonStaffCost> src = p.getNonStaffCosts() == null ? List.of() : p.getNonStaffCosts();
     return mapper.toNonStaffResponseList(src);
   }
@@ -36,33 +48,27 @@ public class NonStaffCostService {
     List<NonStaffCost> newList = mapper.toNonStaffList(items);
     if (newList == null) newList = new ArrayList<>();
     p.setNonStaffCosts(newList);
+    pricingService.applyTo(p);
     projectRepository.save(p);
     return mapper.toNonStaffResponseList(p.getNonStaffCosts());
   }
 
-  /** Append a single item, return it as DTO. */
+  /**
+   * Append a single item, return it as DTO.
+   * Only the new line is sent, with an update that adjusts the stored summary; see {@link CostLineEdits}.
+   */
   public NonStaffCostResponse append(String projectId, NonStaffCostRequest item) {
-    Project p = getProjectOrThrow(projectId);
-    List<NonStaffCost> list = p.getNonStaffCosts();
-    if (list == null) {
-      list = new ArrayList<>();
-      p.setNonStaffCosts(list);
-    }
-    NonStaffCost entity = mapper.toNonStaff(item);
-    list.add(entity);
-    projectRepository.save(p);
-    return mapper.toNonStaffResponse(entity);
+    return mapper.toNonStaffResponse(lineEdits.append(projectId, mapper.toNonStaff(item)));
   }
 
-  /** Delete by index. */
+  /** Delete by index. Same path as {@link #append}. */
   public void deleteAt(String projectId, int index) {
-    Project p = getProjectOrThrow(projectId);
-    List<NonStaffCost> list = p.getNonStaffCosts();
-    if (list == null || index < 0 || index >= list.size()) {
-      throw new IllegalArgumentException("Invalid non-staff index: " + index);
-    }
-    list.remove(index);
-    projectRepository.save(p);
+    lineEdits.deleteAt(projectId, index);
+  }
+
+  /** Replace the item at an index, return the new item as DTO. Same path as {@link #append}. */
+  public NonStaffCostResponse replaceAt(String projectId, int index, NonStaffCostRequest item) {
+    return mapper.toNonStaffResponse(lineEdits.replaceAt(projectId, index, mapper.toNonStaff(item)));
   }
 
   private Project getProjectOrThrow(String id) {
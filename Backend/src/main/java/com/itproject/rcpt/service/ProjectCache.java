@@ -0,0 +1,256 @@
+package com.itproject.rcpt.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.project.ProjectCacheStats;
+import com.itproject.rcpt.jpa.ratecard.RateCardChangedEvent;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.pricing.ProjectsRepricedEvent;
+import com.itproject.rcpt.repository.ProjectRepository;
+
+/**
+ * Bounded LRU read-through cache of whole projects for the read paths (project GET, cost line
+ * lists, PDF export), so repeated reads of an unchanged project skip MongoDB.
+ *
+ * Each entry holds the project as read at one version, priced against the current rate card, and
+ * (once a GET asked for it) its ProjectResponse serialized to JSON, so a repeated GET also skips
+ * mapping and Jackson. Entries are found by project id: every write path evicts the id after
+ * writing (see {@link ProjectCacheInvalidation} for saves and deletes, the services for targeted
+ * updates), so the entry for an id is always its latest version. A read that raced a write is
+ * served but not kept. A rate card change drops everything, as it reprices every project.
+ *
+ * Cached projects are shared between readers and must not be modified; anything that changes a
+ * project, even without saving it, loads its own copy from the repository.
+ *
+ * Each entry also carries the strong ETag of its response, "id.version.rateCardVersion": the
+ * project version changes with every write, and the rate card version with every repricing of the
+ * served summary. {@link #etag(String)} answers conditional requests from the entry, or from a
+ * version-only read when the project is not cached, without loading the document.
+ *
+ * Invalidation is in-process: writes made by another application instance are not seen.
+ */
+@Component
+public class ProjectCache {
+
+    private final ProjectRepository projectRepository;
+    private final PricingCache pricingCache;
+    private final RateCardService rateCards;
+    private final ProjectMapper mapper;
+    private final ObjectMapper json;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder responseHits = new LongAdder();
+    private final LongAdder responseMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder versionReads = new LongAdder();
+
+    /** Bumped by every invalidation; a load only caches its result if this has not moved since. */
+    private final AtomicLong writes = new AtomicLong();
+
+    /** Access-ordered by project id, least recently used first. Guarded by itself. */
+    private final LinkedHashMap<String, Entry> entries;
+
+    public ProjectCache(ProjectRepository projectRepository,
+                        PricingCache pricingCache,
+                        RateCardService rateCards,
+                        ProjectMapper mapper,
+                        ObjectMapper json,
+                        @Value("${rcpt.projects.cache.max-entries:1000}") int maxEntries) {
+        if (maxEntries < 1) throw new IllegalArgumentException("rcpt.projects.cache.max-entries must be positive");
+        this.projectRepository = projectRepository;
+        this.pricingCache = pricingCache;
+        this.rateCards = rateCards;
+        this.mapper = mapper;
+        this.json = json;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= ProjectCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /** The project, priced against the current rate card. Shared: do not modify it. */
+    public Optional<Project> get(String id) {
+        return Optional.ofNullable(entry(id)).map(e -> e.project);
+    }
+
+    /** The project if it is cached at the current rate card; nothing is loaded. Shared: do not modify it. */
+    public Optional<Project> peek(String id) {
+        long rateCardVersion = rateCards.current().version();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached == null || cached.rateCardVersion != rateCardVersion) return Optional.empty();
+        hits.increment();
+        return Optional.of(cached.project);
+    }
+
+    /** The project's ProjectResponse as JSON, serialized at most once per version, and its ETag. */
+    public Optional<Response> responseJson(String id) {
+        Entry e = entry(id);
+        if (e == null) return Optional.empty();
+        byte[] body = e.json;
+        if (body != null) {
+            responseHits.increment();
+            return Optional.of(new Response(e.tag, body));
+        }
+        responseMisses.increment();
+        try {
+            body = json.writeValueAsBytes(mapper.toResponse(e.project));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize project " + id, ex);
+        }
+        e.json = body;
+        return Optional.of(new Response(e.tag, body));
+    }
+
+    /**
+     * The current ETag of the project's response, from its entry if cached, else from its stored
+     * version alone; empty if it does not exist. Nothing is loaded or cached.
+     */
+    public Optional<Tag> etag(String id) {
+        long rateCardVersion = rateCards.current().version();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached != null && cached.rateCardVersion == rateCardVersion) {
+            hits.increment();
+            return Optional.of(cached.tag);
+        }
+        versionReads.increment();
+        return projectRepository.findVersion(id).map(v -> Tag.of(id, v, rateCardVersion));
+    }
+
+    /** The ETag of a project as just read or written, priced against the current rate card. */
+    public Tag etag(Project project) {
+        return Tag.of(project.getId(), project.getVersion(), rateCards.current().version());
+    }
+
+    /** Call after writing the project. */
+    public void evict(String id) {
+        synchronized (entries) {
+            writes.incrementAndGet();
+            if (entries.remove(id) != null) invalidations.increment();
+        }
+    }
+
+    /** Call after writing these projects. */
+    public void evictAll(Collection<String> ids) {
+        synchronized (entries) {
+            writes.incrementAndGet();
+            for (String id : ids) {
+                if (entries.remove(id) != null) invalidations.increment();
+            }
+        }
+    }
+
+    /** The repricing job wrote these projects in bulk, around the save events. */
+    @EventListener
+    public void onProjectsRepriced(ProjectsRepricedEvent event) {
+        evictAll(event.getProjectIds());
+    }
+
+    /** Every entry was priced against the old rate card. */
+    @EventListener
+    public void onRateCardChanged(RateCardChangedEvent event) {
+        clear();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            writes.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public ProjectCacheStats stats() {
+        ProjectCacheStats s = new ProjectCacheStats();
+        synchronized (entries) {
+            s.setSize(entries.size());
+        }
+        long h = hits.sum();
+        long m = misses.sum();
+        s.setMaxEntries(maxEntries);
+        s.setHits(h);
+        s.setMisses(m);
+        s.setHitRate(h + m == 0 ? 0 : (double) h / (h + m));
+        s.setResponseHits(responseHits.sum());
+        s.setResponseMisses(responseMisses.sum());
+        s.setEvictions(evictions.sum());
+        s.setInvalidations(invalidations.sum());
+        s.setVersionReads(versionReads.sum());
+        return s;
+    }
+
+    // ---------- Entries ----------
+
+    private Entry entry(String id) {
+        long rateCardVersion = rateCards.current().version();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached != null && cached.rateCardVersion == rateCardVersion) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long seen = writes.get();
+        Project project = projectRepository.findById(id).orElse(null);
+        if (project == null) return null;
+        Entry loaded = new Entry(pricingCache.withCurrentPrice(project), rateCardVersion);
+        synchronized (entries) {
+            // A write since the read may have made it stale: serve it to this caller only
+            if (writes.get() == seen) entries.put(id, loaded);
+        }
+        return loaded;
+    }
+
+    /** Strong ETag of a project's response: the version it names and the tag value (unquoted). */
+    public record Tag(Long version, String value) {
+        static Tag of(String id, Long version, long rateCardVersion) {
+            return new Tag(version, id + "." + (version == null ? 0 : version) + "." + rateCardVersion);
+        }
+    }
+
+    /** A project's serialized response and its ETag. */
+    public record Response(Tag etag, byte[] json) { }
+
+    /** One project at the version it was read, and its response once serialized. */
+    private static final class Entry {
+        final Project project;
+        final long rateCardVersion;
+        final Tag tag;
+        volatile byte[] json;
+
+        Entry(Project project, long rateCardVersion) {
+            this.project = project;
+            this.rateCardVersion = rateCardVersion;
+            this.tag = Tag.of(project.getId(), project.getVersion(), rateCardVersion);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.itproject.rcpt.service;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.itproject.rcpt.domain.Project;
+
+/**
+ * Evicts a project from the {@link ProjectCache} after any repository save or delete of it.
+ * Targeted updates (MongoTemplate updates and bulk writes) raise no such event; their callers
+ * evict explicitly.
+ */
+@Component
+public class ProjectCacheInvalidation extends AbstractMongoEventListener<Project> {
+
+    private final ProjectCache cache;
+
+    public ProjectCacheInvalidation(ProjectCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Project> event) {
+        if (event.getSource().getId() != null) cache.evict(event.getSource().getId());
+    }
+
+    /** The source is the delete query, e.g. {_id: ...} for deleteById. */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Project> event) {
+        Document query = event.getSource();
+        Object id = query.get("_id");
+        if (id != null && !(id instanceof Document)) cache.evict(id.toString());
+        else cache.clear();
+    }
+}
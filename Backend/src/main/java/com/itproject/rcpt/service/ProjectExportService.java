@@ -5,9 +5,7 @@ import com.itproject.rcpt.domain.ProjectDetails;
 import com.itproject.rcpt.domain.StaffCost;
 import com.itproject.rcpt.domain.NonStaffCost;
 import com.itproject.rcpt.domain.PriceSummary;
-import com.itproject.rcpt.domain.ApprovalTracker;
 import com.itproject.rcpt.domain.ApprovalEntry;
-import com.itproject.rcpt.repository.ProjectRepository;
 
 import org.springframework.stereotype.Service;
 
@@ -20,6 +18,7 @@ import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -27,28 +26,52 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 
 @Service
 public class ProjectExportService {
 
-    private final ProjectRepository projectRepository;
+    /** Table rows laid out per chunk; only this many are held before being written. */
+    private static final int TABLE_CHUNK_ROWS = 200;
 
-    public ProjectExportService(ProjectRepository projectRepository) {
-        this.projectRepository = projectRepository;
+    private final ProjectCache projectCache;
+    private final ApprovalHistoryService approvalHistory;
+
+    public ProjectExportService(ProjectCache projectCache, ApprovalHistoryService approvalHistory) {
+        this.projectCache = projectCache;
+        this.approvalHistory = approvalHistory;
     }
 
     /**
-     * Export a project to PDF bytes. This implementation only calls getters that exist
-     * in your model classes (Project, ProjectDetails, StaffCost, NonStaffCost, PriceSummary,
-     * ApprovalTracker, ApprovalEntry).
+     * Export a project to PDF bytes, held in memory. Prefer {@link #writePdf}, which streams.
      */
     public byte[] exportProjectToPdf(String projectId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePdf(load(projectId), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * The project to export, priced against the current rate card. Load it before the response
+     * starts, so a missing project is still a 404.
+     */
+    public Project load(String projectId) {
+        // Shared cached copy, already priced against the current rate card; only read below
+        return projectCache.get(projectId)
+                .orElseThrow(() -> new NoSuchElementException("Project not found: " + projectId));
+    }
 
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4, 40, 40, 50, 50);
-            PdfWriter.getInstance(document, out);
+    /**
+     * Render the project to out as a PDF as it goes. PdfWriter writes each page once it is full,
+     * and the cost line and approval tables are added TABLE_CHUNK_ROWS rows at a time, so neither
+     * the document nor a whole table is held in memory however many lines there are.
+     * out is not closed.
+     */
+    public void writePdf(Project project, OutputStream out) {
+        Document document = new Document(PageSize.A4, 40, 40, 50, 50);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
             // Title
@@ -79,52 +102,44 @@ public class ProjectExportService {
 
             // Staff costs table (Role, Unit Cost, Units, In-Kind, Notes)
             document.add(new Paragraph("Staff Costs", new Font(Font.HELVETICA, 14, Font.BOLD)));
-            PdfPTable staffTable = new PdfPTable(5);
-            staffTable.setWidthPercentage(100);
-            staffTable.addCell("Role");
-            staffTable.addCell("Unit Cost");
-            staffTable.addCell("Units");
-            staffTable.addCell("In Kind");
-            staffTable.addCell("Notes");
+            PdfPTable staffTable = chunkedTable("Role", "Unit Cost", "Units", "In Kind", "Notes");
 
             List<StaffCost> staffCosts = project.getStaffCosts();
             if (staffCosts != null && !staffCosts.isEmpty()) {
+                int rows = 0;
                 for (StaffCost s : staffCosts) {
                     staffTable.addCell(safe(s.getRole()));
                     staffTable.addCell(safeMoney(s.getUnitCost()));
                     staffTable.addCell(s.getUnits() != null ? s.getUnits().toString() : "—");
                     staffTable.addCell(Boolean.toString(s.isInKind()));
                     staffTable.addCell(safe(s.getNotes()));
+                    flushIfFull(document, staffTable, ++rows);
                 }
             } else {
                 addEmptyRow(staffTable, 5);
             }
-            document.add(staffTable);
+            finish(document, staffTable);
             document.add(new Paragraph(" "));
 
             // Non-staff costs table (CategoryCode, ExpenseTypeCode, Description, Unit Cost, Units)
             document.add(new Paragraph("Non-Staff Costs", new Font(Font.HELVETICA, 14, Font.BOLD)));
-            PdfPTable nonStaffTable = new PdfPTable(5);
-            nonStaffTable.setWidthPercentage(100);
-            nonStaffTable.addCell("Category Code");
-            nonStaffTable.addCell("Expense Type Code");
-            nonStaffTable.addCell("Description");
-            nonStaffTable.addCell("Unit Cost");
-            nonStaffTable.addCell("Units");
+            PdfPTable nonStaffTable = chunkedTable("Category Code", "Expense Type Code", "Description", "Unit Cost", "Units");
 
             List<NonStaffCost> nonStaffCosts = project.getNonStaffCosts();
             if (nonStaffCosts != null && !nonStaffCosts.isEmpty()) {
+                int rows = 0;
                 for (NonStaffCost n : nonStaffCosts) {
                     nonStaffTable.addCell(safe(n.getCategoryCode()));
                     nonStaffTable.addCell(safe(n.getExpenseTypeCode()));
                     nonStaffTable.addCell(safe(n.getDescription()));
                     nonStaffTable.addCell(safeMoney(n.getUnitCost()));
                     nonStaffTable.addCell(n.getUnits() != null ? n.getUnits().toString() : "—");
+                    flushIfFull(document, nonStaffTable, ++rows);
                 }
             } else {
                 addEmptyRow(nonStaffTable, 5);
             }
-            document.add(nonStaffTable);
+            finish(document, nonStaffTable);
             document.add(new Paragraph(" "));
 
             // Price Summary: use Money.toString() (safe) for money values
@@ -141,30 +156,26 @@ public class ProjectExportService {
                 document.add(new Paragraph(" "));
             }
 
-            // Approvals: ApprovalTracker.getHistory() -> List<ApprovalEntry>
+            // Approvals: the full history from approval_history, oldest first
             document.add(new Paragraph("Approval History", new Font(Font.HELVETICA, 14, Font.BOLD)));
-            ApprovalTracker tracker = project.getApprovals();
-            if (tracker != null && tracker.getHistory() != null && !tracker.getHistory().isEmpty()) {
-                PdfPTable approvalsTable = new PdfPTable(4);
-                approvalsTable.setWidthPercentage(100);
-                approvalsTable.addCell("Action");
-                approvalsTable.addCell("Actor");
-                approvalsTable.addCell("Comment");
-                approvalsTable.addCell("Timestamp");
-
-                for (ApprovalEntry entry : tracker.getHistory()) {
+            List<ApprovalEntry> history = approvalHistory.all(project.getId());
+            if (!history.isEmpty()) {
+                PdfPTable approvalsTable = chunkedTable("Action", "Actor", "Comment", "Timestamp");
+
+                int rows = 0;
+                for (ApprovalEntry entry : history) {
                     approvalsTable.addCell(safe(entry.getAction()));
                     approvalsTable.addCell(safe(entry.getActorUserId()));
                     approvalsTable.addCell(safe(entry.getComment()));
                     approvalsTable.addCell(formatInstant(entry.getAt()));
+                    flushIfFull(document, approvalsTable, ++rows);
                 }
-                document.add(approvalsTable);
+                finish(document, approvalsTable);
             } else {
                 document.add(new Paragraph("No approval entries found."));
             }
 
             document.close();
-            return out.toByteArray();
 
         } catch (DocumentException e) {
             throw new RuntimeException("Failed to generate PDF document", e);
@@ -206,4 +217,25 @@ public class ProjectExportService {
     private void addEmptyRow(PdfPTable table, int columns) {
         for (int i = 0; i < columns; i++) table.addCell("—");
     }
+
+    /** Full-width table with a header row that repeats on each page, to be added in chunks. */
+    private static PdfPTable chunkedTable(String... headers) {
+        PdfPTable table = new PdfPTable(headers.length);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        for (String h : headers) table.addCell(h);
+        return table;
+    }
+
+    /** Every TABLE_CHUNK_ROWS rows, lay out the rows so far and let the table drop them. */
+    private static void flushIfFull(Document document, PdfPTable table, int rows) throws DocumentException {
+        if (rows % TABLE_CHUNK_ROWS == 0) document.add(table);
+    }
+
+    /** Add the remaining rows and close the table. */
+    private static void finish(Document document, PdfPTable table) throws DocumentException {
+        table.setComplete(true);
+        document.add(table);
+    }
 }
@@ -0,0 +1,689 @@
+package com.itproject.rcpt.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.dto.common.MoneyDto;
+import com.itproject.rcpt.dto.common.YearAllocationDto;
+import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostRequest;
+import com.itproject.rcpt.dto.project.ProjectCreateRequest;
+import com.itproject.rcpt.dto.project.ProjectDetailsDto;
+import com.itproject.rcpt.dto.project.ProjectImportRecord;
+import com.itproject.rcpt.dto.project.ProjectImportReport;
+import com.itproject.rcpt.dto.project.ProjectImportReport.RecordError;
+import com.itproject.rcpt.dto.staff.StaffCostRequest;
+import com.itproject.rcpt.enums.EmploymentType;
+import com.itproject.rcpt.enums.StaffCategory;
+import com.itproject.rcpt.jpa.entities.NonStaffCosts;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingService;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Bulk import of projects and cost lines from NDJSON or CSV.
+ *
+ * The upload is read one record at a time and never held whole. Each record is checked against
+ * the current rate card (departments, salary rate classifications, expense types); a record that
+ * fails is reported by line and skipped, the rest carry on. Every {@code rcpt.import.batch-size}
+ * records are written together:
+ * <ul>
+ *   <li>new projects, with whatever lines followed them in the same batch, are priced in memory
+ *   and inserted with one unordered bulk write;</li>
+ *   <li>lines for stored projects (by projectId, or by the ref of a project from an earlier batch)
+ *   are added with one $push per project, then those projects are read back, repriced and written
+ *   with a second bulk write guarded by version, as in {@link com.itproject.rcpt.pricing.RepricingJobService}.</li>
+ * </ul>
+ *
+ * NDJSON: one {@link ProjectImportRecord} per line, e.g.
+ * {"type":"PROJECT","ref":"p1","details":{"title":"..."}} then {"type":"STAFF","ref":"p1","staff":{...}}.
+ *
+ * CSV: a header row naming any of {@link #CSV_COLUMNS} in any order, then one record per row.
+ * years is a list of year:value pairs ("1:0.5;2:0.25"); for a staff row, units alone means year 1.
+ */
+@Service
+public class ProjectImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    static final List<String> CSV_COLUMNS = List.of(
+            "type", "ref", "projectId",
+            "title", "funder", "department", "currency", "referenceCode", "startDate", "endDate",
+            "role", "employmentType", "category", "timeBasis", "classification",
+            "categoryCode", "expenseTypeCode", "description", "unitCost", "unitCurrency",
+            "units", "years", "inKind", "notes");
+
+    /** Accepted staff time bases, lower case; PricingService prices anything else as FTE. */
+    private static final Set<String> TIME_BASES = Set.of("fte", "daily", "hourly", "stipend");
+
+    private final MongoTemplate mongo;
+    private final ProjectMapper mapper;
+    private final PricingService pricing;
+    private final RateCardService rateCards;
+    private final ProjectCache projectCache;
+    private final CostRollupService rollups;
+    private final ObjectReader recordReader;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProjectImportService(MongoTemplate mongo,
+                                ProjectMapper mapper,
+                                PricingService pricing,
+                                RateCardService rateCards,
+                                ProjectCache projectCache,
+                                CostRollupService rollups,
+                                ObjectMapper json,
+                                @Value("${rcpt.import.batch-size:1000}") int batchSize,
+                                @Value("${rcpt.import.max-errors:1000}") int maxErrors) {
+        if (batchSize < 1) throw new IllegalArgumentException("rcpt.import.batch-size must be positive");
+        this.mongo = mongo;
+        this.mapper = mapper;
+        this.pricing = pricing;
+        this.rateCards = rateCards;
+        this.projectCache = projectCache;
+        this.rollups = rollups;
+        this.recordReader = json.readerFor(ProjectImportRecord.class);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Import every record of the upload. New projects are owned by ownerUserId; without one, PROJECT
+     * records fail and only lines for stored projects can be imported.
+     *
+     * @throws IllegalArgumentException if a CSV header names an unknown column (nothing is imported)
+     */
+    public ProjectImportReport importRecords(InputStream in, Format format, String ownerUserId) {
+        Run run = new Run(rateCards.current(), ownerUserId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) readCsv(reader, run);
+            else readNdjson(reader, run);
+        } catch (IOException e) {
+            // Keep what was read so far; the report says where the upload broke off
+            run.error(run.line, null, "Upload could not be read past this point: " + e.getMessage());
+        }
+        flush(run);
+
+        ProjectImportReport report = run.toReport();
+        logger.info("Import finished: {} records, {} projects, {} staff and {} non-staff lines, {} failed, {} records/s",
+                report.getRecords(), report.getProjectsCreated(), report.getStaffLinesImported(),
+                report.getNonStaffLinesImported(), report.getFailed(), String.format("%.1f", report.getRecordsPerSecond()));
+        return report;
+    }
+
+    // ---------- Reading ----------
+
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            run.line++;
+            if (text.isBlank()) continue;
+            ProjectImportRecord record;
+            try {
+                record = recordReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                run.records++;
+                run.error(run.line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            accept(run, run.line, record);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+        ImportCsvReader csv = new ImportCsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        Map<String, Integer> columns = columns(header);
+
+        List<String> row;
+        while ((row = csv.next()) != null) {
+            run.line = csv.rowLine();
+            if (row.size() == 1 && row.get(0).isBlank()) continue;
+            ProjectImportRecord record;
+            try {
+                record = fromCsv(columns, row);
+            } catch (IllegalArgumentException e) {
+                run.records++;
+                run.error(run.line, cell(columns, row, "ref"), e.getMessage());
+                continue;
+            }
+            accept(run, run.line, record);
+        }
+    }
+
+    /** Header name (any case) to position. */
+    static Map<String, Integer> columns(List<String> header) {
+        Map<String, String> known = new HashMap<>();
+        for (String c : CSV_COLUMNS) known.put(c.toLowerCase(Locale.ROOT), c);
+        Map<String, Integer> out = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")) name = name.substring(1);
+            String column = known.get(name.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name + " (expected some of " + CSV_COLUMNS + ")");
+            }
+            out.put(column, i);
+        }
+        if (!out.containsKey("type")) throw new IllegalArgumentException("CSV header needs a type column");
+        return out;
+    }
+
+    static ProjectImportRecord fromCsv(Map<String, Integer> columns, List<String> row) {
+        ProjectImportRecord r = new ProjectImportRecord();
+        r.setType(type(cell(columns, row, "type")));
+        r.setRef(cell(columns, row, "ref"));
+        r.setProjectId(cell(columns, row, "projectId"));
+        List<YearAllocationDto> years = years(cell(columns, row, "years"));
+        Double units = number(columns, row, "units");
+
+        switch (r.getType()) {
+            case PROJECT -> {
+                ProjectDetailsDto d = new ProjectDetailsDto();
+                d.setTitle(cell(columns, row, "title"));
+                d.setFunder(cell(columns, row, "funder"));
+                d.setDepartment(cell(columns, row, "department"));
+                d.setCurrency(cell(columns, row, "currency"));
+                d.setReferenceCode(cell(columns, row, "referenceCode"));
+                d.setStartDate(date(columns, row, "startDate"));
+                d.setEndDate(date(columns, row, "endDate"));
+                r.setDetails(d);
+            }
+            case STAFF -> {
+                StaffCostRequest s = new StaffCostRequest();
+                s.setRoleName(cell(columns, row, "role"));
+                s.setEmploymentType(constant(EmploymentType.class, columns, row, "employmentType"));
+                s.setCategory(constant(StaffCategory.class, columns, row, "category"));
+                s.setTimeBasis(cell(columns, row, "timeBasis"));
+                s.setClassification(cell(columns, row, "classification"));
+                if (years == null && units != null) years = List.of(allocation(1, units));
+                s.setTime(years);
+                s.setInKind(flag(columns, row, "inKind"));
+                s.setNotes(cell(columns, row, "notes"));
+                r.setStaff(s);
+            }
+            case NON_STAFF -> {
+                NonStaffCostRequest n = new NonStaffCostRequest();
+                n.setCategoryCode(cell(columns, row, "categoryCode"));
+                n.setExpenseTypeCode(cell(columns, row, "expenseTypeCode"));
+                n.setDescription(cell(columns, row, "description"));
+                String amount = cell(columns, row, "unitCost");
+                if (amount != null) {
+                    MoneyDto m = new MoneyDto();
+                    m.setAmount(decimal(amount, "unitCost"));
+                    m.setCurrency(cell(columns, row, "unitCurrency"));
+                    n.setUnitCost(m);
+                }
+                n.setUnits(units);
+                n.setPerYearUnits(years);
+                n.setInKind(flag(columns, row, "inKind"));
+                n.setNotes(cell(columns, row, "notes"));
+                r.setNonStaff(n);
+            }
+        }
+        return r;
+    }
+
+    // ---------- Validation ----------
+
+    private void accept(Run run, long line, ProjectImportRecord r) {
+        run.records++;
+        try {
+            if (r.getType() == null) throw new IllegalArgumentException("type is required (PROJECT, STAFF or NON_STAFF)");
+            switch (r.getType()) {
+                case PROJECT -> run.addProject(line, r.getRef(), toProject(r, run));
+                case STAFF -> run.addStaff(line, target(r, run), toStaff(r.getStaff(), run.rates));
+                case NON_STAFF -> run.addNonStaff(line, target(r, run), toNonStaff(r.getNonStaff(), run.rates));
+            }
+        } catch (IllegalArgumentException e) {
+            run.error(line, r.getRef(), e.getMessage());
+        }
+        if (run.pending >= batchSize) flush(run);
+    }
+
+    private Project toProject(ProjectImportRecord r, Run run) {
+        if (run.ownerUserId == null) {
+            throw new IllegalArgumentException("ownerUserId missing (send X-User-Id header or ownerUserId query param)");
+        }
+        if (r.getRef() != null && run.refs.containsKey(r.getRef())) {
+            throw new IllegalArgumentException("Duplicate ref: " + r.getRef());
+        }
+        ProjectDetailsDto d = r.getDetails();
+        if (d == null || isBlank(d.getTitle())) throw new IllegalArgumentException("details.title is required");
+        if (!isBlank(d.getDepartment()) && run.rates.department(d.getDepartment()) == null) {
+            throw new IllegalArgumentException("Unknown department: " + d.getDepartment());
+        }
+        if (d.getStartDate() != null && d.getEndDate() != null && d.getEndDate().isBefore(d.getStartDate())) {
+            throw new IllegalArgumentException("details.endDate is before details.startDate");
+        }
+        ProjectCreateRequest req = new ProjectCreateRequest();
+        req.setDetails(d);
+        Project p = mapper.toEntity(req);
+        p.setId(new ObjectId().toHexString());
+        p.setOwnerUserId(run.ownerUserId);
+        return p;
+    }
+
+    /** Project id a cost line goes to. */
+    private static String target(ProjectImportRecord r, Run run) {
+        if (!isBlank(r.getProjectId())) return r.getProjectId().trim();
+        if (isBlank(r.getRef())) {
+            throw new IllegalArgumentException("A cost line needs a projectId or the ref of a PROJECT record above it");
+        }
+        String id = run.refs.get(r.getRef());
+        if (id == null) throw new IllegalArgumentException("Unknown ref: no project with ref " + r.getRef() + " was imported above");
+        return id;
+    }
+
+    private StaffCost toStaff(StaffCostRequest s, RateCard rates) {
+        if (s == null) throw new IllegalArgumentException("staff is required for a STAFF record");
+        String basis = s.getTimeBasis() == null ? "fte" : s.getTimeBasis().trim().toLowerCase(Locale.ROOT);
+        if (!TIME_BASES.contains(basis)) throw new IllegalArgumentException("Unknown timeBasis: " + s.getTimeBasis());
+        if (!basis.equals("stipend")) {
+            if (isBlank(s.getClassification())) throw new IllegalArgumentException("staff.classification is required");
+            if (rates.salaryRate(s.getClassification()) == null) {
+                throw new IllegalArgumentException("Unknown classification: " + s.getClassification());
+            }
+        }
+        if (s.getTime() == null || s.getTime().isEmpty()) throw new IllegalArgumentException("staff.time is required");
+        checkAllocations(s.getTime(), "staff.time");
+        return mapper.toStaffCost(s);
+    }
+
+    private NonStaffCost toNonStaff(NonStaffCostRequest n, RateCard rates) {
+        if (n == null) throw new IllegalArgumentException("nonStaff is required for a NON_STAFF record");
+        if (isBlank(n.getExpenseTypeCode())) throw new IllegalArgumentException("nonStaff.expenseTypeCode is required");
+        NonStaffCosts type = rates.nonStaffCost(n.getExpenseTypeCode());
+        if (type == null) throw new IllegalArgumentException("Unknown expenseTypeCode: " + n.getExpenseTypeCode());
+        if (isBlank(n.getCategoryCode())) {
+            n.setCategoryCode(type.getCostCategory());
+        } else if (!n.getCategoryCode().equals(type.getCostCategory())) {
+            throw new IllegalArgumentException("categoryCode " + n.getCategoryCode() + " does not match expense type "
+                    + n.getExpenseTypeCode() + " (" + type.getCostCategory() + ")");
+        }
+        if (n.getUnitCost() == null || n.getUnitCost().getAmount() == null) {
+            throw new IllegalArgumentException("nonStaff.unitCost.amount is required");
+        }
+        if (n.getUnitCost().getAmount().signum() < 0) throw new IllegalArgumentException("nonStaff.unitCost must not be negative");
+        boolean perYear = n.getPerYearUnits() != null && !n.getPerYearUnits().isEmpty();
+        if (!perYear && n.getUnits() == null) throw new IllegalArgumentException("nonStaff.units or nonStaff.perYearUnits is required");
+        if (n.getUnits() != null && !(n.getUnits() >= 0)) throw new IllegalArgumentException("nonStaff.units must not be negative");
+        if (perYear) checkAllocations(n.getPerYearUnits(), "nonStaff.perYearUnits");
+        return mapper.toNonStaff(n);
+    }
+
+    private static void checkAllocations(List<YearAllocationDto> years, String field) {
+        for (YearAllocationDto y : years) {
+            if (y == null || y.getYear() == null || y.getValue() == null) {
+                throw new IllegalArgumentException(field + " entries need a year and a value");
+            }
+            if (y.getYear() < 1 || y.getYear() > PricingService.MAX_YEARS) {
+                throw new IllegalArgumentException(field + " year must be between 1 and " + PricingService.MAX_YEARS + ": " + y.getYear());
+            }
+            if (!(y.getValue() >= 0) || y.getValue().isInfinite()) {
+                throw new IllegalArgumentException(field + " values must be finite and not negative");
+            }
+        }
+    }
+
+    // ---------- Writing ----------
+
+    private void flush(Run run) {
+        if (!run.created.isEmpty()) insertProjects(run);
+        if (!run.appended.isEmpty()) appendLines(run);
+        run.created.clear();
+        run.appended.clear();
+        run.pending = 0;
+    }
+
+    /** New projects of this batch, each priced with its lines, in one bulk insert. */
+    private void insertProjects(Run run) {
+        List<NewProject> batch = new ArrayList<>(run.created.values());
+        Instant now = Instant.now();
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class);
+        for (NewProject n : batch) {
+            Project p = n.project;
+            pricing.applyTo(p, run.rates);
+            // Ids are assigned up front, so set what auditing and the version field would on a first save
+            p.setCreatedAt(now);
+            p.setUpdatedAt(now);
+            p.setVersion(0L);
+            ops.insert(p);
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError err : e.getErrors()) {
+                NewProject n = batch.get(err.getIndex());
+                failed.add(err.getIndex());
+                run.refs.values().remove(n.project.getId());
+                run.error(n.line, n.ref, "Project not imported, nor its " + n.lines + " cost lines: " + err.getMessage());
+            }
+        }
+        List<String> inserted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (failed.contains(i)) continue;
+            Project p = batch.get(i).project;
+            inserted.add(p.getId());
+            run.projects++;
+            run.staffLines += p.getStaffCosts().size();
+            run.nonStaffLines += p.getNonStaffCosts().size();
+        }
+        rollups.changedAll(inserted);
+    }
+
+    /**
+     * Lines for stored projects: one $push per project, then reprice those projects.
+     *
+     * The push also drops the stored summary (it no longer covers the new lines), so anything that
+     * reads or edits the project before the reprice below prices it in full. The reprice is guarded
+     * by version; a project edited in between is skipped, since that edit already repriced it.
+     * A project whose push or reprice fails is reported against its source lines, as
+     * {@link #insertProjects} does, and the import goes on with the rest.
+     */
+    private void appendLines(Run run) {
+        List<String> pushed = new ArrayList<>(run.appended.keySet());
+        BulkOperations push = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class);
+        for (String id : pushed) {
+            NewLines lines = run.appended.get(id);
+            Update u = new Update();
+            if (!lines.staff.isEmpty()) u.push("staffCosts").each(documents(lines.staff).toArray());
+            if (!lines.nonStaff.isEmpty()) u.push("nonStaffCosts").each(documents(lines.nonStaff).toArray());
+            u.unset("priceSummary").inc("version", 1).currentDate("updatedAt");
+            push.updateOne(new Query(Criteria.where("_id").is(id)), u);
+        }
+        Set<String> notPushed = new HashSet<>();
+        try {
+            push.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError err : e.getErrors()) {
+                String id = pushed.get(err.getIndex());
+                notPushed.add(id);
+                for (long line : run.appended.get(id).sourceLines) {
+                    run.error(line, null, "Line not added to project " + id + ": " + err.getMessage());
+                }
+            }
+        }
+
+        List<String> withLines = pushed.stream().filter(id -> !notPushed.contains(id)).toList();
+        Query touched = new Query(Criteria.where("_id").in(withLines));
+        touched.fields().exclude("approvals");
+        List<Project> found = withLines.isEmpty() ? List.of() : mongo.find(touched, Project.class);
+
+        Set<String> foundIds = new HashSet<>();
+        BulkOperations reprice = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class);
+        for (Project p : found) {
+            foundIds.add(p.getId());
+            NewLines lines = run.appended.get(p.getId());
+            run.staffLines += lines.staff.size();
+            run.nonStaffLines += lines.nonStaff.size();
+            pricing.applyTo(p, run.rates);
+            Query sameVersion = new Query(Criteria.where("_id").is(p.getId()).and("version").is(p.getVersion()));
+            reprice.updateOne(sameVersion, new Update()
+                    .set("priceSummary", p.getPriceSummary())
+                    .set("staffCosts", p.getStaffCosts())
+                    .set("nonStaffCosts", p.getNonStaffCosts())
+                    .inc("version", 1));
+        }
+        if (!found.isEmpty()) {
+            try {
+                BulkWriteResult result = reprice.execute();
+                int skipped = found.size() - result.getMatchedCount();
+                if (skipped > 0) logger.debug("Import: {} projects changed before their reprice; left to that change", skipped);
+            } catch (BulkOperationException e) {
+                for (BulkWriteError err : e.getErrors()) {
+                    Project p = found.get(err.getIndex());
+                    for (long line : run.appended.get(p.getId()).sourceLines) {
+                        run.error(line, null, "Line added to project " + p.getId()
+                                + " but not repriced; it is priced in full on its next read: " + err.getMessage());
+                    }
+                }
+            }
+        }
+
+        projectCache.evictAll(run.appended.keySet());
+        rollups.changedAll(foundIds);
+
+        for (String id : withLines) {
+            if (foundIds.contains(id)) continue;
+            for (long line : run.appended.get(id).sourceLines) run.error(line, null, "Project not found: " + id);
+        }
+    }
+
+    private List<Object> documents(List<?> lines) {
+        List<Object> out = new ArrayList<>(lines.size());
+        for (Object line : lines) out.add((Document) mongo.getConverter().convertToMongoType(line));
+        return out;
+    }
+
+    // ---------- State of one import ----------
+
+    private static final class NewProject {
+        final long line;
+        final String ref;
+        final Project project;
+        int lines;
+
+        NewProject(long line, String ref, Project project) {
+            this.line = line;
+            this.ref = ref;
+            this.project = project;
+        }
+    }
+
+    private static final class NewLines {
+        final List<StaffCost> staff = new ArrayList<>();
+        final List<NonStaffCost> nonStaff = new ArrayList<>();
+        final List<Long> sourceLines = new ArrayList<>();
+    }
+
+    private final class Run {
+        final RateCard rates;
+        final String ownerUserId;
+        final long startedAt = System.nanoTime();
+
+        /** ref to project id, for every project of the upload so far (one entry per project). */
+        final Map<String, String> refs = new HashMap<>();
+        /** This batch: new projects by id, and lines for stored projects by project id. */
+        final Map<String, NewProject> created = new LinkedHashMap<>();
+        final Map<String, NewLines> appended = new LinkedHashMap<>();
+        int pending;
+
+        long line;
+        long records;
+        long projects;
+        long staffLines;
+        long nonStaffLines;
+        final List<RecordError> errors = new ArrayList<>();
+        boolean errorsTruncated;
+
+        Run(RateCard rates, String ownerUserId) {
+            this.rates = rates;
+            this.ownerUserId = isBlank(ownerUserId) ? null : ownerUserId.trim();
+        }
+
+        void addProject(long line, String ref, Project p) {
+            created.put(p.getId(), new NewProject(line, ref, p));
+            if (ref != null) refs.put(ref, p.getId());
+            pending++;
+        }
+
+        void addStaff(long line, String projectId, StaffCost s) {
+            NewProject n = created.get(projectId);
+            if (n != null) {
+                n.project.getStaffCosts().add(s);
+                n.lines++;
+            } else {
+                NewLines l = appended.computeIfAbsent(projectId, id -> new NewLines());
+                l.staff.add(s);
+                l.sourceLines.add(line);
+            }
+            pending++;
+        }
+
+        void addNonStaff(long line, String projectId, NonStaffCost c) {
+            NewProject n = created.get(projectId);
+            if (n != null) {
+                n.project.getNonStaffCosts().add(c);
+                n.lines++;
+            } else {
+                NewLines l = appended.computeIfAbsent(projectId, id -> new NewLines());
+                l.nonStaff.add(c);
+                l.sourceLines.add(line);
+            }
+            pending++;
+        }
+
+        void error(long line, String ref, String message) {
+            if (errors.size() < maxErrors) errors.add(new RecordError(line, ref, message));
+            else errorsTruncated = true;
+        }
+
+        ProjectImportReport toReport() {
+            long millis = (System.nanoTime() - startedAt) / 1_000_000;
+            ProjectImportReport r = new ProjectImportReport();
+            r.setRecords(records);
+            r.setProjectsCreated(projects);
+            r.setStaffLinesImported(staffLines);
+            r.setNonStaffLinesImported(nonStaffLines);
+            r.setFailed(records - projects - staffLines - nonStaffLines);
+            r.setErrors(errors);
+            r.setErrorsTruncated(errorsTruncated);
+            r.setElapsedMillis(millis);
+            r.setRecordsPerSecond(records * 1000.0 / Math.max(1, millis));
+            return r;
+        }
+    }
+
+    // ---------- CSV cells ----------
+
+    /** Trimmed cell, null when the column is absent or the cell blank. */
+    private static String cell(Map<String, Integer> columns, List<String> row, String column) {
+        Integer i = columns.get(column);
+        if (i == null || i >= row.size()) return null;
+        String v = row.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static ProjectImportRecord.Type type(String raw) {
+        if (raw == null) throw new IllegalArgumentException("type is required (PROJECT, STAFF or NON_STAFF)");
+        try {
+            return ProjectImportRecord.Type.valueOf(raw.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown type: " + raw + " (expected PROJECT, STAFF or NON_STAFF)");
+        }
+    }
+
+    private static <E extends Enum<E>> E constant(Class<E> type, Map<String, Integer> columns, List<String> row,
+                                                  String column) {
+        String raw = cell(columns, row, column);
+        if (raw == null) return null;
+        try {
+            return Enum.valueOf(type, raw.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + column + ": " + raw);
+        }
+    }
+
+    private static Double number(Map<String, Integer> columns, List<String> row, String column) {
+        String raw = cell(columns, row, column);
+        return raw == null ? null : decimal(raw, column).doubleValue();
+    }
+
+    private static BigDecimal decimal(String raw, String column) {
+        try {
+            return new BigDecimal(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + raw);
+        }
+    }
+
+    private static LocalDate date(Map<String, Integer> columns, List<String> row, String column) {
+        String raw = cell(columns, row, column);
+        if (raw == null) return null;
+        try {
+            return LocalDate.parse(raw);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + " is not an ISO date (yyyy-MM-dd): " + raw);
+        }
+    }
+
+    private static Boolean flag(Map<String, Integer> columns, List<String> row, String column) {
+        String raw = cell(columns, row, column);
+        if (raw == null) return null;
+        String v = raw.toLowerCase(Locale.ROOT);
+        if (v.equals("true") || v.equals("yes") || v.equals("1")) return true;
+        if (v.equals("false") || v.equals("no") || v.equals("0")) return false;
+        throw new IllegalArgumentException(column + " is not true or false: " + raw);
+    }
+
+    /** "1:0.5;2:0.25" as year allocations; null when blank. */
+    private static List<YearAllocationDto> years(String raw) {
+        if (raw == null) return null;
+        List<YearAllocationDto> out = new ArrayList<>();
+        for (String pair : raw.split(";")) {
+            if (pair.isBlank()) continue;
+            int sep = pair.indexOf(':');
+            if (sep < 0) throw new IllegalArgumentException("years must be year:value pairs separated by ';': " + raw);
+            try {
+                out.add(allocation(Integer.parseInt(pair.substring(0, sep).trim()),
+                        Double.parseDouble(pair.substring(sep + 1).trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("years must be year:value pairs separated by ';': " + raw);
+            }
+        }
+        return out;
+    }
+
+    private static YearAllocationDto allocation(int year, double value) {
+        YearAllocationDto y = new YearAllocationDto();
+        y.setYear(year);
+        y.setValue(value);
+        return y;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
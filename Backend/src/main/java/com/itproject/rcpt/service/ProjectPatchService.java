@@ -0,0 +1,403 @@
+package com.itproject.rcpt.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.dto.nonstaffcost.NonStaffCostRequest;
+import com.itproject.rcpt.dto.staff.StaffCostRequest;
+import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
+
+/**
+ * Partial project updates: an RFC 6902 JSON Patch or RFC 7386 merge patch over the same shape as
+ * PUT ({details, staff, nonStaff}), written as one version-guarded findAndModify that only touches
+ * what the patch changes.
+ *
+ * <ul>
+ *   <li>Details that do not affect the price (title, funder, department, referenceCode, endDate)
+ *   are $set / $unset straight from the patch, without reading the project first.</li>
+ *   <li>Cost lines, currency and startDate change the price, so the project is read, patched and
+ *   repriced in memory. The update carries the changed details and the new summary; appended lines
+ *   go in with $push and a single replaced line with $set of its index. Any other list edit, or a
+ *   reprice that changes every line (new rate card, currency or start year), sets the whole list.</li>
+ * </ul>
+ *
+ * The expected version is a JSON Patch "test" of /version, the "version" member of a merge
+ * patch, or the version named by the request's If-Match ETag. Without one, a details-only patch applies to whatever is stored; a repriced patch is
+ * still guarded by the version it read.
+ *
+ * Cost lines are patched whole (/staff/-, /staff/{i}, /nonStaff/{i}); paths inside a line, move,
+ * copy and a test of anything but /version are rejected.
+ */
+@Service
+public class ProjectPatchService {
+
+    public enum Format { JSON_PATCH, MERGE_PATCH }
+
+    private static final Set<String> DETAILS = Set.of(
+            "title", "funder", "department", "currency", "referenceCode", "startDate", "endDate");
+    private static final Set<String> REQUIRED_DETAILS = Set.of("title", "funder", "department", "currency");
+    private static final Set<String> PRICED_DETAILS = Set.of("currency", "startDate");
+
+    private final ProjectRepository projectRepository;
+    private final ProjectMapper mapper;
+    private final PricingService pricingService;
+    private final PricingCache pricingCache;
+    private final ProjectCache projectCache;
+    private final CostRollupService rollups;
+    private final ObjectMapper json;
+
+    public ProjectPatchService(ProjectRepository projectRepository,
+                               ProjectMapper mapper,
+                               PricingService pricingService,
+                               PricingCache pricingCache,
+                               ProjectCache projectCache,
+                               CostRollupService rollups,
+                               ObjectMapper json) {
+        this.projectRepository = projectRepository;
+        this.mapper = mapper;
+        this.pricingService = pricingService;
+        this.pricingCache = pricingCache;
+        this.projectCache = projectCache;
+        this.rollups = rollups;
+        this.json = json;
+    }
+
+    /** Apply the patch and return the project as written, priced against the current rate card. */
+    public Project patch(String id, JsonNode body, Format format) {
+        return patch(id, body, format, null);
+    }
+
+    /** Same, only while the project is at expectedVersion (e.g. from If-Match); null = no extra guard. */
+    public Project patch(String id, JsonNode body, Format format, Long expectedVersion) {
+        Patch patch = format == Format.JSON_PATCH ? parseJsonPatch(body) : parseMergePatch(body);
+        if (expectedVersion != null) {
+            if (patch.version != null && !patch.version.equals(expectedVersion)) throw stale(id, patch.version);
+            patch.version = expectedVersion;
+        }
+        Project written = patch.needsPricing() ? repriced(id, patch) : direct(id, patch);
+        projectCache.evict(id);
+        rollups.changed(id);
+        return pricingCache.withCurrentPrice(written);
+    }
+
+    // ---------- Writes ----------
+
+    /** Details only: one findAndModify, no read. */
+    private Project direct(String id, Patch patch) {
+        Update u = new Update();
+        setDetails(u, patch.details);
+        if (u.getUpdateObject().isEmpty()) {
+            // Nothing to change (e.g. only a version test): still check it, as the patch asked
+            return projectRepository.findById(id)
+                    .filter(p -> patch.version == null || patch.version.equals(p.getVersion()))
+                    .orElseThrow(() -> notPatched(id, patch.version));
+        }
+        return projectRepository.patch(id, patch.version, u).orElseThrow(() -> notPatched(id, patch.version));
+    }
+
+    /** Read, patch and reprice in memory, then write what changed, guarded by the version read. */
+    private Project repriced(String id, Patch patch) {
+        Project p = projectRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Project not found: " + id));
+        if (patch.version != null && !patch.version.equals(p.getVersion())) throw stale(id, patch.version);
+        Long readVersion = p.getVersion();
+        Long pricedAgainst = p.getPriceSummary() == null ? null : p.getPriceSummary().getRateCardVersion();
+
+        if (p.getDetails() == null) p.setDetails(new ProjectDetails());
+        patch.details.forEach((field, value) -> setDetail(p.getDetails(), field, value));
+        Map<CostLines, ListEdit> edits = new EnumMap<>(CostLines.class);
+        for (LineOp op : patch.lines) edits.computeIfAbsent(op.lines, k -> new ListEdit()).apply(op, lines(p, op.lines));
+
+        pricingService.applyTo(p);
+        // Every line's contribution changed, not just the patched ones
+        boolean allLinesRepriced = !Objects.equals(pricedAgainst, p.getPriceSummary().getRateCardVersion())
+                || patch.details.keySet().stream().anyMatch(PRICED_DETAILS::contains);
+
+        Update u = new Update();
+        setDetails(u, patch.details);
+        for (CostLines cl : CostLines.values()) {
+            ListEdit edit = edits.get(cl);
+            List<?> current = lines(p, cl);
+            if (allLinesRepriced || (edit != null && edit.rewrite)) {
+                u.set(cl.field(), current);
+            } else if (edit != null && !edit.appended.isEmpty()) {
+                u.push(cl.field()).each(edit.appended.toArray());
+            } else if (edit != null && edit.replaced != null) {
+                u.set(cl.field() + "." + edit.replaced, current.get(edit.replaced));
+            }
+        }
+        u.set("priceSummary", p.getPriceSummary());
+        return projectRepository.patch(id, readVersion, u).orElseThrow(() -> new ConflictException(
+                "Project " + id + " was changed while it was being patched; retry"));
+    }
+
+    private static void setDetails(Update u, Map<String, Object> details) {
+        details.forEach((field, value) -> {
+            if (value == null) u.unset("details." + field);
+            else u.set("details." + field, value);
+        });
+    }
+
+    private static void setDetail(ProjectDetails d, String field, Object value) {
+        switch (field) {
+            case "title" -> d.setTitle((String) value);
+            case "funder" -> d.setFunder((String) value);
+            case "department" -> d.setDepartment((String) value);
+            case "currency" -> d.setCurrency((String) value);
+            case "referenceCode" -> d.setReferenceCode((String) value);
+            case "startDate" -> d.setStartDate((LocalDate) value);
+            case "endDate" -> d.setEndDate((LocalDate) value);
+            default -> throw new IllegalArgumentException("Unknown details field: " + field);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> lines(Project p, CostLines lines) {
+        if (lines == CostLines.STAFF) {
+            if (p.getStaffCosts() == null) p.setStaffCosts(new ArrayList<>());
+            return (List<Object>) (List<?>) p.getStaffCosts();
+        }
+        if (p.getNonStaffCosts() == null) p.setNonStaffCosts(new ArrayList<>());
+        return (List<Object>) (List<?>) p.getNonStaffCosts();
+    }
+
+    private RuntimeException notPatched(String id, Long expected) {
+        if (!projectRepository.existsById(id)) return new NoSuchElementException("Project not found: " + id);
+        return stale(id, expected);
+    }
+
+    private static ConflictException stale(String id, Long expected) {
+        return new ConflictException("Project " + id + " is no longer at version " + expected);
+    }
+
+    // ---------- Parsing ----------
+
+    /** What a patch changes: detail values (null = remove), cost line edits and the expected version. */
+    private static final class Patch {
+        final Map<String, Object> details = new LinkedHashMap<>();
+        final List<LineOp> lines = new ArrayList<>();
+        Long version;
+
+        boolean needsPricing() {
+            return !lines.isEmpty() || details.keySet().stream().anyMatch(PRICED_DETAILS::contains);
+        }
+    }
+
+    private enum LineAction { APPEND, INSERT, REPLACE, REMOVE, SET_ALL }
+
+    /** index is the position for INSERT, REPLACE and REMOVE; values holds one line, or all for SET_ALL. */
+    private record LineOp(CostLines lines, LineAction action, int index, List<Object> values) { }
+
+    /** How one list was edited, to pick the smallest update that writes it. */
+    private static final class ListEdit {
+        final List<Object> appended = new ArrayList<>();
+        Integer replaced;
+        boolean rewrite;
+        int ops;
+
+        void apply(LineOp op, List<Object> list) {
+            ops++;
+            switch (op.action) {
+                case APPEND -> {
+                    list.add(op.values.get(0));
+                    appended.add(op.values.get(0));
+                }
+                case INSERT -> {
+                    if (op.index > list.size()) throw outOfRange(op);
+                    list.add(op.index, op.values.get(0));
+                    rewrite = true;
+                }
+                case REPLACE -> {
+                    if (op.index >= list.size()) throw outOfRange(op);
+                    list.set(op.index, op.values.get(0));
+                    replaced = op.index;
+                }
+                case REMOVE -> {
+                    if (op.index >= list.size()) throw outOfRange(op);
+                    list.remove(op.index);
+                    rewrite = true;
+                }
+                case SET_ALL -> {
+                    list.clear();
+                    list.addAll(op.values);
+                    rewrite = true;
+                }
+            }
+            // Appends alone are one $push, a single replace one $set; anything else rewrites the list
+            if (!rewrite && !(appended.size() == ops || (replaced != null && ops == 1))) rewrite = true;
+        }
+
+        private static IllegalArgumentException outOfRange(LineOp op) {
+            return new IllegalArgumentException("No " + op.lines.field() + " line at index " + op.index);
+        }
+    }
+
+    Patch parseJsonPatch(JsonNode body) {
+        if (body == null || !body.isArray()) throw new IllegalArgumentException("A JSON Patch must be an array of operations");
+        Patch patch = new Patch();
+        for (JsonNode op : body) {
+            String name = op.path("op").asText();
+            String path = op.path("path").asText(null);
+            if (path == null) throw new IllegalArgumentException("Patch operation without a path");
+            if (!Set.of("add", "replace", "remove", "test").contains(name)) {
+                throw new IllegalArgumentException("Unsupported patch operation: " + name);
+            }
+            boolean remove = name.equals("remove");
+            if (!remove && !op.has("value")) throw new IllegalArgumentException(name + " " + path + " needs a value");
+            JsonNode value = op.get("value");
+            List<String> p = pointer(path);
+
+            if (p.equals(List.of("version"))) {
+                if (!name.equals("test")) throw new IllegalArgumentException("version is read-only; test it instead");
+                patch.version = version(value);
+                continue;
+            }
+            if (name.equals("test")) throw new IllegalArgumentException("Only /version can be tested");
+
+            String top = p.isEmpty() ? "" : p.get(0);
+            if (top.equals("details")) {
+                if (p.size() == 1) {
+                    if (remove || !value.isObject()) throw new IllegalArgumentException("details must be an object");
+                    checkFields(value, DETAILS, "details");
+                    for (String field : DETAILS) patch.details.put(field, detail(field, value.get(field)));
+                } else if (p.size() == 2) {
+                    patch.details.put(p.get(1), detail(p.get(1), remove ? null : value));
+                } else {
+                    throw new IllegalArgumentException("Unknown path: " + path);
+                }
+                continue;
+            }
+            CostLines lines = costLines(top, path);
+            if (p.size() == 1) {
+                patch.lines.add(new LineOp(lines, LineAction.SET_ALL, 0,
+                        remove ? List.of() : lineList(lines, value)));
+            } else if (p.size() == 2 && p.get(1).equals("-") && name.equals("add")) {
+                patch.lines.add(new LineOp(lines, LineAction.APPEND, 0, List.of(line(lines, value))));
+            } else if (p.size() == 2) {
+                int index = index(p.get(1), path);
+                LineAction action = remove ? LineAction.REMOVE : name.equals("add") ? LineAction.INSERT : LineAction.REPLACE;
+                patch.lines.add(new LineOp(lines, action, index, remove ? List.of() : List.of(line(lines, value))));
+            } else {
+                throw new IllegalArgumentException("Cost lines are patched whole, not " + path);
+            }
+        }
+        return patch;
+    }
+
+    Patch parseMergePatch(JsonNode body) {
+        if (body == null || !body.isObject()) throw new IllegalArgumentException("A merge patch must be an object");
+        checkFields(body, Set.of("version", "details", "staff", "nonStaff"), "project");
+        Patch patch = new Patch();
+        if (body.has("version")) patch.version = version(body.get("version"));
+        JsonNode details = body.get("details");
+        if (details != null) {
+            if (!details.isObject()) throw new IllegalArgumentException("details must be an object");
+            checkFields(details, DETAILS, "details");
+            for (Iterator<Map.Entry<String, JsonNode>> it = details.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> e = it.next();
+                patch.details.put(e.getKey(), detail(e.getKey(), e.getValue()));
+            }
+        }
+        for (CostLines lines : CostLines.values()) {
+            String name = lines == CostLines.STAFF ? "staff" : "nonStaff";
+            if (!body.has(name)) continue;
+            JsonNode value = body.get(name);
+            // A merge patch replaces arrays whole; null removes every line
+            patch.lines.add(new LineOp(lines, LineAction.SET_ALL, 0, value.isNull() ? List.of() : lineList(lines, value)));
+        }
+        return patch;
+    }
+
+    /** The stored value of a details field; null removes it. */
+    private static Object detail(String field, JsonNode value) {
+        if (!DETAILS.contains(field)) throw new IllegalArgumentException("Unknown details field: " + field);
+        boolean missing = value == null || value.isNull() || (value.isTextual() && value.asText().isBlank());
+        if (missing) {
+            if (REQUIRED_DETAILS.contains(field)) throw new IllegalArgumentException("details." + field + " is required");
+            return null;
+        }
+        if (!value.isTextual()) throw new IllegalArgumentException("details." + field + " must be a string");
+        if (field.equals("startDate") || field.equals("endDate")) {
+            try {
+                return LocalDate.parse(value.asText());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("details." + field + " must be a date (yyyy-MM-dd)");
+            }
+        }
+        return value.asText().trim();
+    }
+
+    private List<Object> lineList(CostLines lines, JsonNode value) {
+        if (!value.isArray()) throw new IllegalArgumentException(lines.field() + " must be an array of lines");
+        List<Object> out = new ArrayList<>();
+        for (JsonNode v : value) out.add(line(lines, v));
+        return out;
+    }
+
+    /** One line, read as the same request DTO that PUT and the line endpoints take. */
+    private Object line(CostLines lines, JsonNode value) {
+        if (value == null || !value.isObject()) throw new IllegalArgumentException("A cost line must be an object");
+        return lines == CostLines.STAFF
+                ? mapper.toStaffCost(json.convertValue(value, StaffCostRequest.class))
+                : mapper.toNonStaff(json.convertValue(value, NonStaffCostRequest.class));
+    }
+
+    private static CostLines costLines(String name, String path) {
+        return switch (name) {
+            case "staff" -> CostLines.STAFF;
+            case "nonStaff" -> CostLines.NON_STAFF;
+            default -> throw new IllegalArgumentException("Unknown path: " + path);
+        };
+    }
+
+    private static void checkFields(JsonNode object, Set<String> known, String what) {
+        object.fieldNames().forEachRemaining(f -> {
+            if (!known.contains(f)) throw new IllegalArgumentException("Unknown " + what + " field: " + f);
+        });
+    }
+
+    private static Long version(JsonNode value) {
+        if (value == null || !value.canConvertToExactIntegral()) {
+            throw new IllegalArgumentException("version must be an integer");
+        }
+        return value.asLong();
+    }
+
+    private static int index(String segment, String path) {
+        try {
+            int i = Integer.parseInt(segment);
+            if (i >= 0) return i;
+        } catch (NumberFormatException ignored) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Not a line index in " + path);
+    }
+
+    /** RFC 6901 pointer segments, unescaped. */
+    private static List<String> pointer(String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') throw new IllegalArgumentException("Not a JSON pointer: " + path);
+        List<String> segments = new ArrayList<>();
+        for (String s : path.substring(1).split("/", -1)) segments.add(s.replace("~1", "/").replace("~0", "~"));
+        return segments;
+    }
+}
@@ -1,16 +1,30 @@
 package com.itproject.rcpt.service;
 
+import com.itproject.rcpt.domain.PriceSummary;
 import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.common.CursorPage;
 import com.itproject.rcpt.dto.project.ProjectCreateRequest;
+import com.itproject.rcpt.dto.project.ProjectFields;
+import com.itproject.rcpt.dto.project.ProjectListFilter;
+import com.itproject.rcpt.dto.project.ProjectStats;
 import com.itproject.rcpt.dto.project.ProjectUpdateRequest;
-import com.itproject.rcpt.enums.ProjectStatus;
 import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.KeysetCursor;
 import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.SearchCursor;
+import com.itproject.rcpt.repository.ProjectQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,62 +37,224 @@ public class ProjectService {
 
     private final ProjectRepository projectRepository;
     private final ProjectMapper mapper;
+    private final PricingService pricingService;
+    private final PricingCache pricingCache;
+    private final ApprovalHistoryService approvalHistoryService;
+    private final ProjectCache projectCache;
 
     @Autowired
-    public ProjectService(ProjectRepository projectRepository, ProjectMapper mapper) {
+    public ProjectService(ProjectRepository projectRepository, ProjectMapper mapper, PricingService pricingService,
+                          PricingCache pricingCache, ApprovalHistoryService approvalHistoryService,
+                          ProjectCache projectCache) {
         this.projectRepository = projectRepository;
         this.mapper = mapper;
+        this.pricingService = pricingService;
+        this.pricingCache = pricingCache;
+        this.approvalHistoryService = approvalHistoryService;
+        this.projectCache = projectCache;
     }
 
     /**
      * Create a new project document and save it to MongoDB.
      * The ownerUserId is injected by the controller (authenticated user).
+     * The price summary is computed before the first save.
      */
     public Project create(ProjectCreateRequest request, String ownerUserId) {
         Project project = mapper.toEntity(request);
         project.setOwnerUserId(ownerUserId);
+        pricingService.applyTo(project);
         return projectRepository.save(project);
     }
 
     /**
-     * Retrieve a single project by ID.
+     * Retrieve a single project by ID, priced against the current rate card.
+     * Served from the {@link ProjectCache}: the project is shared and must not be modified.
      */
     public Optional<Project> get(String id) {
-        return projectRepository.findById(id);
+        return projectCache.get(id);
+    }
+
+    /**
+     * Only the given response fields of a project. A cached project is used as is; otherwise just
+     * their stored paths are read, and the result is not cached. Shared: do not modify it.
+     */
+    public Optional<Project> get(String id, ProjectFields fields) {
+        if (fields.isAll()) return projectCache.get(id);
+        Optional<Project> cached = projectCache.peek(id);
+        if (cached.isPresent()) return cached;
+        return projectRepository.findWithFields(id, fields)
+                .map(p -> withCurrentSummaries(List.of(p), fields).get(0));
+    }
+
+    /**
+     * The project's ProjectResponse as JSON, as the GET endpoint returns it, with its ETag.
+     * Repeated calls for an unchanged project reuse the same bytes.
+     */
+    public Optional<ProjectCache.Response> getResponseJson(String id) {
+        return projectCache.responseJson(id);
+    }
+
+    /**
+     * The project's current ETag, as {@link #getResponseJson} would send it, for conditional
+     * requests. Answered from the cache or a version-only read; the project is not loaded.
+     */
+    public Optional<ProjectCache.Tag> etag(String id) {
+        return projectCache.etag(id);
+    }
+
+    /** The ETag of a project as just returned by a write. */
+    public ProjectCache.Tag etag(Project project) {
+        return projectCache.etag(project);
+    }
+
+    /**
+     * Same as {@link #get}, but a private copy read from MongoDB, for callers that change the
+     * project without saving it (e.g. currency conversion).
+     */
+    public Optional<Project> load(String id) {
+        return projectRepository.findById(id).map(pricingCache::withCurrentPrice);
     }
 
     /**
      * Retrieve a paginated list of projects.
-     * Supports filtering by owner (user-specific view) or by status.
+     * Owner, status, department, funder and created date filters combine; see {@link ProjectQuery}
+     * for which index serves each combination.
+     * Each project is priced against the current rate card. Only the stored paths of the given
+     * response fields are read.
+     */
+    public Page<Project> list(ProjectListFilter filter, int page, int size, ProjectFields fields) {
+        if (fields.isAll()) {
+            return projectRepository.find(query(filter), PageRequest.of(page, size))
+                    .map(pricingCache::withCurrentPrice);
+        }
+        Page<Project> rows = projectRepository.find(query(filter), PageRequest.of(page, size), fields);
+        withCurrentSummaries(rows.getContent(), fields);
+        return rows;
+    }
+
+    /**
+     * Lightweight list for dashboards: only card fields are read from MongoDB.
+     * Same filters as {@link #list}. Totals are the stored ones, which the repricing job
+     * keeps current after rate changes.
      */
-    public Page<Project> list(int page, int size, String ownerUserId, ProjectStatus status) {
-        if (status != null) {
-            return projectRepository.findByStatus(status, PageRequest.of(page, size));
+    public Page<Project> listSummaries(ProjectListFilter filter, int page, int size) {
+        return projectRepository.findSummaries(query(filter), PageRequest.of(page, size));
+    }
+
+    /**
+     * Cursor-paged list, newest first by creation or last update. Unlike page numbers, a deep page
+     * costs the same as the first one. Full projects are priced against the current rate card and
+     * read with just the given response fields; summary rows carry the stored totals, as in
+     * {@link #listSummaries}.
+     */
+    public CursorPage<Project> listAfter(ProjectListFilter filter, String cursor, int size, boolean withTotal,
+                                         boolean summaryOnly, ProjectFields fields) {
+        if (summaryOnly || fields.isAll()) {
+            CursorPage<Project> page = projectRepository.findPage(query(filter), KeysetCursor.decode(cursor), size,
+                    withTotal, summaryOnly);
+            return summaryOnly ? page : page.map(pricingCache::withCurrentPrice);
+        }
+        CursorPage<Project> page = projectRepository.findPage(query(filter), KeysetCursor.decode(cursor), size,
+                withTotal, fields);
+        withCurrentSummaries(page.getItems(), fields);
+        return page;
+    }
+
+    /**
+     * Rows read without their cost lines carry the stored summary. Where an open project's was
+     * priced against an older rate card (until the repricing job catches up) the whole project is
+     * read to reprice it, as a full read would; all such rows in one query.
+     */
+    private List<Project> withCurrentSummaries(List<Project> rows, ProjectFields fields) {
+        if (!fields.has(ProjectFields.Member.PRICE_SUMMARY)) return rows;
+        List<String> stale = rows.stream()
+                .filter(p -> !pricingCache.isCurrent(p))
+                .map(Project::getId)
+                .toList();
+        if (stale.isEmpty()) return rows;
+        Map<String, PriceSummary> current = new HashMap<>();
+        for (Project full : projectRepository.findAllById(stale)) {
+            current.put(full.getId(), pricingCache.summaryFor(full));
         }
-        if (ownerUserId != null) {
-            return projectRepository.findByOwnerUserId(ownerUserId, PageRequest.of(page, size));
+        for (Project p : rows) {
+            PriceSummary s = current.get(p.getId());
+            if (s != null) p.setPriceSummary(s);
         }
-        return projectRepository.findAll(PageRequest.of(page, size));
+        return rows;
+    }
+
+    /**
+     * Full-text search over title, funder, reference code and department, best match first.
+     * Rows carry the list card fields and stored totals, as in {@link #listSummaries}.
+     */
+    public CursorPage<Project> search(String text, String cursor, int size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text (q) must not be blank");
+        }
+        return projectRepository.search(text.trim(), SearchCursor.decode(cursor), size);
+    }
+
+    /**
+     * Dashboard counts per status, department and funder and summed stored totals, optionally
+     * for one owner and/or department. Totals are the stored ones, as in {@link #listSummaries}.
+     */
+    public ProjectStats stats(String ownerUserId, String department) {
+        return projectRepository.stats(ProjectQuery.all()
+                .owner(blankToNull(ownerUserId))
+                .department(blankToNull(department)));
+    }
+
+    /** Created dates are whole UTC days, so createdTo includes the whole of that day. */
+    static ProjectQuery query(ProjectListFilter f) {
+        Instant from = f.getCreatedFrom() == null ? null : f.getCreatedFrom().atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = f.getCreatedTo() == null ? null : f.getCreatedTo().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return ProjectQuery.all()
+                .owner(blankToNull(f.getOwnerUserId()))
+                .status(f.getStatus())
+                .department(blankToNull(f.getDepartment()))
+                .funder(blankToNull(f.getFunder()))
+                .createdBetween(from, to)
+                .orderBy(f.getOrder(), f.getDirection());
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
     }
 
     /**
      * Update an existing project with new data.
      * Only the fields provided in the update request are changed (partial update).
+     * The price summary is recomputed from the merged result.
+     * With an expected version (e.g. from If-Match; null = any), only while the project is still at
+     * it; the save itself is guarded by the version it loaded, so a write in between is a conflict
+     * rather than overwritten.
      */
-    public Project update(String id, ProjectUpdateRequest request) {
+    public Project update(String id, ProjectUpdateRequest request, Long expectedVersion) {
         Project existing = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new ConflictException("Project " + id + " is no longer at version " + expectedVersion);
+        }
         mapper.updateEntity(request, existing);
+        pricingService.applyTo(existing);
         return projectRepository.save(existing);
     }
 
     /**
      * Delete a project by ID.
+     * With an expected version (null = any), only while the project is still at it, in the same
+     * write; returns false, deleting nothing, when it has moved on.
      */
-    public void delete(String id) {
-        if (!projectRepository.existsById(id)) {
-            throw new RuntimeException("Project not found: " + id);
+    public boolean delete(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            if (!projectRepository.existsById(id)) {
+                throw new RuntimeException("Project not found: " + id);
+            }
+            projectRepository.deleteById(id);
+        } else if (!projectRepository.deleteAtVersion(id, expectedVersion)) {
+            return false;
         }
-        projectRepository.deleteById(id);
+        approvalHistoryService.deleteAll(id);
+        return true;
     }
 }
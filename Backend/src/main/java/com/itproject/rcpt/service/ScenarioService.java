@@ -0,0 +1,63 @@
+package com.itproject.rcpt.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.stereotype.Service;
+
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.price.ScenarioRequest;
+import com.itproject.rcpt.dto.price.ScenarioResponse;
+import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingOverrides;
+import com.itproject.rcpt.pricing.PricingService;
+
+@Service
+public class ScenarioService {
+
+    static final int MAX_SCENARIOS = 100;
+
+    private final ProjectCache projectCache;
+    private final PricingService pricingService;
+    private final ProjectMapper mapper;
+
+    public ScenarioService(ProjectCache projectCache, PricingService pricingService, ProjectMapper mapper) {
+        this.projectCache = projectCache;
+        this.pricingService = pricingService;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Price a stored project under each scenario without saving anything. Results are in request order.
+     */
+    public List<ScenarioResponse> evaluate(String projectId, List<ScenarioRequest> scenarios) {
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+        if (scenarios.size() > MAX_SCENARIOS) {
+            throw new IllegalArgumentException("At most " + MAX_SCENARIOS + " scenarios per request");
+        }
+        Project project = projectCache.get(projectId)
+                .orElseThrow(() -> new NoSuchElementException("Project not found: " + projectId));
+
+        List<PricingOverrides> overrides = new ArrayList<>(scenarios.size());
+        for (ScenarioRequest r : scenarios) {
+            if (r == null) throw new IllegalArgumentException("Scenario must not be null");
+            PricingOverrides o = new PricingOverrides();
+            o.setEbaMultiplier(r.getEbaMultiplier());
+            o.setPayrollTaxRate(r.getPayrollTaxRate());
+            o.setStaffTypes(r.getStaffTypes());
+            overrides.add(o);
+        }
+
+        List<PriceSummary> summaries = pricingService.priceScenarios(project, overrides);
+        List<ScenarioResponse> out = new ArrayList<>(summaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            String name = scenarios.get(i).getName() != null ? scenarios.get(i).getName() : "Scenario " + (i + 1);
+            out.add(new ScenarioResponse(name, mapper.toPriceSummaryResponse(summaries.get(i))));
+        }
+        return out;
+    }
+}
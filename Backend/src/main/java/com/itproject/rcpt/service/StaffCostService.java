@@ -10,22 +10,34 @@ import com.itproject.rcpt.domain.StaffCost;
 import com.itproject.rcpt.dto.staff.StaffCostRequest;
 import com.itproject.rcpt.dto.staff.StaffCostResponse;
 import com.itproject.rcpt.mapper.ProjectMapper;
+import com.itproject.rcpt.pricing.PricingService;
 import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
 
 @Service
 public class StaffCostService {
 
   private final ProjectRepository projectRepository;
   private final ProjectMapper mapper;
+  private final PricingService pricingService;
+  private final ProjectCache projectCache;
+  private final CostLineEdits<StaffCost> lineEdits;
 
-  public StaffCostService(ProjectRepository projectRepository, ProjectMapper mapper) {
+  public StaffCostService(ProjectRepository projectRepository, ProjectMapper mapper, PricingService pricingService,
+                          ProjectCache projectCache, CostRollupService rollups) {
     this.projectRepository = projectRepository;
     this.mapper = mapper;
+    this.pricingService = pricingService;
+    this.projectCache = projectCache;
+    this.lineEdits = new CostLineEdits<>(projectRepository, pricingService, projectCache, rollups,
+        CostLines.STAFF, "staff", Project::getStaffCosts, Project::setStaffCosts,
+        StaffCost::getContribution, pricingService::applyStaffChange);
   }
 
-  /** Get as DTOs. */
+  /** Get as DTOs, from the project cache. */
   public List<StaffCostResponse> list(String projectId) {
-    Project p = getProjectOrThrow(projectId);
+    Project p = projectCache.get(projectId)
+        .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
     List<StaffCost> src = p.getStaffCosts() == null ? List.of() : p.getStaffCosts();
     return mapper.toStaffCostResponseList(src);
   }
@@ -35,33 +47,27 @@ public class StaffCostService {
     Project p = getProjectOrThrow(projectId);
     List<StaffCost> newList = toStaffCostList(items);
     p.setStaffCosts(newList);
+    pricingService.applyTo(p);
     projectRepository.save(p);
     return mapper.toStaffCostResponseList(p.getStaffCosts());
   }
 
-  /** Append a single item, return it as DTO. */
+  /**
+   * Append a single item, return it as DTO.
+   * Only the new line is sent, with an update that adjusts the stored summary; see {@link CostLineEdits}.
+   */
   public StaffCostResponse append(String projectId, StaffCostRequest item) {
-    Project p = getProjectOrThrow(projectId);
-    List<StaffCost> list = p.getStaffCosts();
-    if (list == null) {
-      list = new ArrayList<>();
-      p.setStaffCosts(list);
-    }
-    StaffCost entity = mapper.toStaffCost(item);
-    list.add(entity);
-    projectRepository.save(p);
-    return mapper.toStaffCostResponse(entity);
+    return mapper.toStaffCostResponse(lineEdits.append(projectId, mapper.toStaffCost(item)));
   }
 
-  /** Delete by index. */
+  /** Delete by index. Same path as {@link #append}. */
   public void deleteAt(String projectId, int index) {
-    Project p = getProjectOrThrow(projectId);
-    List<StaffCost> list = p.getStaffCosts();
-    if (list == null || index < 0 || index >= list.size()) {
-      throw new IllegalArgumentException("Invalid staff index: " + index);
-    }
-    list.remove(index);
-    projectRepository.save(p);
+    lineEdits.deleteAt(projectId, index);
+  }
+
+  /** Replace the item at an index, return the new item as DTO. Same path as {@link #append}. */
+  public StaffCostResponse replaceAt(String projectId, int index, StaffCostRequest item) {
+    return mapper.toStaffCostResponse(lineEdits.replaceAt(projectId, index, mapper.toStaffCost(item)));
   }
 
   private Project getProjectOrThrow(String id) {
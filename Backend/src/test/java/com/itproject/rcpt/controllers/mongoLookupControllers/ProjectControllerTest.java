@@ -0,0 +1,117 @@
+package com.itproject.rcpt.controllers.mongoLookupControllers;
+
+import com.itproject.rcpt.advice.GlobalExceptionHandler;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import com.itproject.rcpt.service.ConflictException;
+import com.itproject.rcpt.service.CurrencyConversionService;
+import com.itproject.rcpt.service.ProjectCache;
+import com.itproject.rcpt.service.ProjectExportService;
+import com.itproject.rcpt.service.ProjectImportService;
+import com.itproject.rcpt.service.ProjectPatchService;
+import com.itproject.rcpt.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProjectControllerTest {
+
+    private ProjectService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(ProjectService.class);
+        ProjectController controller = new ProjectController(service, new ProjectMapperImpl(),
+                mock(ProjectExportService.class), mock(CurrencyConversionService.class),
+                mock(ProjectImportService.class), mock(ProjectPatchService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        when(service.etag("p1")).thenReturn(Optional.of(new ProjectCache.Tag(5L, "p1.5.1")));
+        when(service.etag(any(Project.class))).thenReturn(new ProjectCache.Tag(6L, "p1.6.1"));
+    }
+
+    @Test
+    void testPutWithStaleIfMatchIsPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "\"p1.4.1\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(service, never()).update(any(), any(), any());
+    }
+
+    @Test
+    void testPutPassesTheMatchedVersionOn() throws Exception {
+        when(service.update(eq("p1"), any(), eq(5L))).thenReturn(project());
+
+        mockMvc.perform(put("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "\"p1.5.1\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1.6.1\""));
+    }
+
+    @Test
+    void testPutChangedAfterTheCheckIsAConflict() throws Exception {
+        when(service.update(eq("p1"), any(), eq(5L))).thenThrow(new ConflictException("moved on"));
+
+        mockMvc.perform(put("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "\"p1.5.1\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testWildcardIfMatchNeedsAnExistingProjectButNoVersion() throws Exception {
+        when(service.update(eq("p1"), any(), isNull())).thenReturn(project());
+        when(service.etag("gone")).thenReturn(Optional.empty());
+
+        mockMvc.perform(put("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/projects/gone").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isPreconditionFailed());
+        verify(service, never()).delete(eq("gone"), any());
+    }
+
+    @Test
+    void testDeleteIsGuardedByTheMatchedVersion() throws Exception {
+        // Matched the ETag, then changed before the delete reached MongoDB
+        when(service.delete("p1", 5L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "\"p1.5.1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        when(service.delete("p1", 5L)).thenReturn(true);
+        mockMvc.perform(delete("/api/v1/projects/p1").header(HttpHeaders.IF_MATCH, "\"p1.5.1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testGetWithCurrentIfNoneMatchIsNotModified() throws Exception {
+        mockMvc.perform(get("/api/v1/projects/p1").header(HttpHeaders.IF_NONE_MATCH, "\"p1.5.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1.5.1\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/projects/p1").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        verify(service, never()).getResponseJson(any());
+    }
+
+    private static Project project() {
+        Project p = new Project();
+        p.setId("p1");
+        p.setVersion(6L);
+        return p;
+    }
+}
@@ -0,0 +1,105 @@
+package com.itproject.rcpt.controllers.postgresLookupControllers;
+
+import com.itproject.rcpt.jpa.entities.FxRate;
+import com.itproject.rcpt.jpa.services.FxRateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FxRateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FxRateService service;
+
+    @AfterEach
+    void cleanup() {
+        service.delete("USD", LocalDate.of(2025, 1, 1));
+        service.delete("USD", LocalDate.of(2026, 1, 1));
+        service.delete("EUR", LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void testGetHistoryOldestFirst() throws Exception {
+        service.save(rate("USD", LocalDate.of(2026, 1, 1), "1.60"));
+        service.save(rate("USD", LocalDate.of(2025, 1, 1), "1.50"));
+
+        mockMvc.perform(get("/api/fx-rates/USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].effectiveFrom", is("2025-01-01")))
+                .andExpect(jsonPath("$[1].effectiveFrom", is("2026-01-01")));
+    }
+
+    @Test
+    void testConvertUsesRateEffectiveOnDate() throws Exception {
+        service.save(rate("USD", LocalDate.of(2025, 1, 1), "1.50"));
+        service.save(rate("USD", LocalDate.of(2026, 1, 1), "1.60"));
+
+        mockMvc.perform(get("/api/fx-rates/convert?amount=100&from=USD&to=AUD&date=2025-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount", is(150.00)))
+                .andExpect(jsonPath("$.currency", is("AUD")));
+
+        mockMvc.perform(get("/api/fx-rates/convert?amount=100&from=USD&to=AUD&date=2026-06-30"))
+                .andExpect(jsonPath("$.amount", is(160.00)));
+    }
+
+    @Test
+    void testConvertCrossesThroughAud() throws Exception {
+        service.save(rate("USD", LocalDate.of(2025, 1, 1), "1.50"));
+        service.save(rate("EUR", LocalDate.of(2025, 1, 1), "1.60"));
+
+        // 100 USD = 150 AUD = 93.75 EUR
+        mockMvc.perform(get("/api/fx-rates/convert?amount=100&from=USD&to=EUR&date=2025-06-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount", is(93.75)));
+    }
+
+    @Test
+    void testConvertWithoutRateIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/fx-rates/convert?amount=1&from=XYZ&to=AUD&date=2025-06-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateViaPost() throws Exception {
+        String json = """
+                {"currency":"usd","effectiveFrom":"2025-01-01","audPerUnit":1.55}
+                """;
+        mockMvc.perform(post("/api/fx-rates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currency", is("USD")));
+
+        mockMvc.perform(get("/api/fx-rates"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    private static FxRate rate(String currency, LocalDate from, String audPerUnit) {
+        FxRate r = new FxRate();
+        r.setCurrency(currency);
+        r.setEffectiveFrom(from);
+        r.setAudPerUnit(new BigDecimal(audPerUnit));
+        return r;
+    }
+}
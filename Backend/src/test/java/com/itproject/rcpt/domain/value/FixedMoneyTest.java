@@ -0,0 +1,93 @@
+package com.itproject.rcpt.domain.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property checks against BigDecimal over seeded random inputs (the seed is fixed so failures reproduce).
+ */
+class FixedMoneyTest {
+
+    private static final int CASES = 20_000;
+
+    @Test
+    void testArithmeticMatchesBigDecimalToTheCent() {
+        Random rnd = new Random(22L);
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal a = randomAmount(rnd);
+            BigDecimal b = randomAmount(rnd);
+            FixedMoney fa = FixedMoney.of(a, "AUD");
+            FixedMoney fb = FixedMoney.of(b, "AUD");
+
+            assertCents(a.setScale(2, RoundingMode.HALF_EVEN), fa);
+            assertCents(fa.toBigDecimal().add(fb.toBigDecimal()), fa.plus(fb));
+            assertCents(fa.toBigDecimal().subtract(fb.toBigDecimal()), fa.minus(fb));
+            assertEquals(fa.toBigDecimal().compareTo(fb.toBigDecimal()), Integer.signum(fa.compareTo(fb)));
+        }
+    }
+
+    @Test
+    void testTimesRateMatchesBigDecimalHalfEven() {
+        Random rnd = new Random(7L);
+        for (int i = 0; i < CASES; i++) {
+            FixedMoney m = FixedMoney.of(randomAmount(rnd), "AUD");
+            long rateMicros = rnd.nextInt(3_000_000) - 500_000;   // -0.5 .. 2.5
+            BigDecimal expected = m.toBigDecimal()
+                    .multiply(BigDecimal.valueOf(rateMicros, 6))
+                    .setScale(2, RoundingMode.HALF_EVEN);
+            assertCents(expected, m.times(rateMicros));
+        }
+    }
+
+    @Test
+    void testMulDivMatchesBigDecimalBeyondSixtyFourBits() {
+        Random rnd = new Random(99L);
+        for (int i = 0; i < CASES; i++) {
+            long a = rnd.nextLong() >> rnd.nextInt(40);
+            long b = rnd.nextLong() >> (24 + rnd.nextInt(40));
+            long d = 1 + (rnd.nextLong() >>> (1 + rnd.nextInt(62)));
+            BigDecimal exact = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                    .divide(BigDecimal.valueOf(d), 0, RoundingMode.HALF_EVEN);
+            if (exact.toBigInteger().bitLength() > 63) continue;
+            assertEquals(exact.longValueExact(), FixedMoney.mulDiv(a, b, d), () -> a + " * " + b + " / " + d);
+        }
+    }
+
+    @Test
+    void testHalfEvenTies() {
+        assertEquals(2, FixedMoney.of(new BigDecimal("0.025"), "AUD").cents());
+        assertEquals(4, FixedMoney.of(new BigDecimal("0.035"), "AUD").cents());
+        assertEquals(-2, FixedMoney.of(new BigDecimal("-0.025"), "AUD").cents());
+    }
+
+    @Test
+    void testOverflowThrowsInsteadOfWrapping() {
+        FixedMoney max = FixedMoney.ofCents(Long.MAX_VALUE, "AUD");
+        assertThrows(ArithmeticException.class, () -> max.plus(FixedMoney.ofCents(1, "AUD")));
+        assertThrows(ArithmeticException.class, () -> FixedMoney.ofCents(Long.MIN_VALUE, "AUD").negate());
+        assertThrows(ArithmeticException.class, () -> max.times(2 * FixedMoney.RATE_SCALE));
+        assertThrows(ArithmeticException.class, () -> FixedMoney.of(new BigDecimal("1e30"), "AUD"));
+    }
+
+    @Test
+    void testRejectsMixedCurrencies() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FixedMoney.ofCents(1, "AUD").plus(FixedMoney.ofCents(1, "USD")));
+    }
+
+    /** Up to about 10^13 with 0-4 decimals, either sign. */
+    private static BigDecimal randomAmount(Random rnd) {
+        long unscaled = rnd.nextLong() % 100_000_000_000_000L;
+        return BigDecimal.valueOf(unscaled, rnd.nextInt(5));
+    }
+
+    private static void assertCents(BigDecimal expected, FixedMoney actual) {
+        assertEquals(0, expected.compareTo(actual.toBigDecimal()),
+                () -> "expected " + expected + " but was " + actual);
+    }
+}
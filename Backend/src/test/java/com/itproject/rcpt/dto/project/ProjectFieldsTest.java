@@ -0,0 +1,55 @@
+package com.itproject.rcpt.dto.project;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.dto.project.ProjectFields.Member;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProjectFieldsTest {
+
+    @Test
+    void testParamsSelectMembersAndTheirStoredPaths() {
+        assertSame(ProjectFields.ALL, ProjectFields.parse(null, null));
+
+        ProjectFields overview = ProjectFields.parse(null, "");
+        assertTrue(overview.has(Member.DETAILS));
+        assertTrue(overview.has(Member.STATUS));
+        assertFalse(overview.has(Member.STAFF));
+        assertFalse(overview.has(Member.PRICE_SUMMARY));
+
+        ProjectFields some = ProjectFields.parse("id, details", "priceSummary");
+        assertArrayEquals(new String[] { "details", "priceSummary", "status", "version" }, some.paths());
+        assertEquals("p1.3.1;details+priceSummary", some.tag("p1.3.1"));
+        assertEquals("p1.3.1", ProjectFields.ALL.tag("p1.3.1"));
+
+        assertSame(ProjectFields.ALL, ProjectFields.parse(null, "staff,nonStaff,priceSummary,latestApproval"));
+        assertThrows(IllegalArgumentException.class, () -> ProjectFields.parse("details,costs", null));
+    }
+
+    @Test
+    void testUnselectedMembersAreNeitherMappedNorSerialized() throws Exception {
+        Project p = mock(Project.class);
+        when(p.getId()).thenReturn("p1");
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Dark matter");
+        when(p.getDetails()).thenReturn(d);
+
+        ProjectResponse r = new ProjectMapperImpl().toResponse(p, ProjectFields.parse("details", null));
+
+        verify(p, never()).getStaffCosts();
+        verify(p, never()).getNonStaffCosts();
+        verify(p, never()).getApprovals();
+        JsonNode json = new ObjectMapper().findAndRegisterModules().valueToTree(r);
+        assertEquals(List.of("id", "details"), json.properties().stream().map(Map.Entry::getKey).toList());
+        assertEquals("Dark matter", json.get("details").get("title").asText());
+    }
+}
@@ -0,0 +1,85 @@
+package com.itproject.rcpt.jpa.ratecard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.jpa.entities.Region;
+import com.itproject.rcpt.jpa.repositories.DepartmentAndFacultyRepository;
+import com.itproject.rcpt.jpa.repositories.EBARepository;
+import com.itproject.rcpt.jpa.repositories.FxRateRepository;
+import com.itproject.rcpt.jpa.repositories.NonStaffCostsRepository;
+import com.itproject.rcpt.jpa.repositories.PayrollTaxRepository;
+import com.itproject.rcpt.jpa.repositories.RegionRepository;
+import com.itproject.rcpt.jpa.repositories.SalaryRateMultiplierRepository;
+import com.itproject.rcpt.jpa.repositories.SalaryRateRepository;
+import com.itproject.rcpt.jpa.repositories.StaffBenefitsRepository;
+import com.itproject.rcpt.jpa.repositories.StipendRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateCardServiceTest {
+
+    private RegionRepository regions;
+    private ApplicationEventPublisher events;
+
+    @BeforeEach
+    void setUp() {
+        regions = mock(RegionRepository.class);
+        events = mock(ApplicationEventPublisher.class);
+    }
+
+    @Test
+    void testVersionIsTheSameAcrossRestartsForTheSameRows() {
+        when(regions.findAll()).thenReturn(List.of(region("North", "N"), region("South", "S")));
+        long first = service().reloadAll().version();
+
+        // Postgres gives no order without ORDER BY
+        when(regions.findAll()).thenReturn(List.of(region("South", "S"), region("North", "N")));
+        assertEquals(first, service().reloadAll().version());
+    }
+
+    @Test
+    void testVersionChangesWithTheRows() {
+        when(regions.findAll()).thenReturn(List.of(region("North", "N")));
+        RateCardService rateCards = service();
+        long before = rateCards.reloadAll().version();
+
+        when(regions.findAll()).thenReturn(List.of(region("North", "NO")));
+        long after = rateCards.refresh(LookupTable.REGION).version();
+
+        assertNotEquals(before, after);
+        assertEquals(after, service().reloadAll().version());
+    }
+
+    @Test
+    void testReloadPublishesOnlyWhenTheVersionChanges() {
+        RateCardService rateCards = service();
+        rateCards.reloadAll();
+        rateCards.reloadAll();
+
+        ArgumentCaptor<RateCardChangedEvent> event = ArgumentCaptor.forClass(RateCardChangedEvent.class);
+        verify(events, times(1)).publishEvent(event.capture());
+        assertNull(event.getValue().getTable());
+        assertEquals(rateCards.current().version(), event.getValue().getVersion());
+    }
+
+    private RateCardService service() {
+        return new RateCardService(mock(DepartmentAndFacultyRepository.class), mock(EBARepository.class),
+                mock(FxRateRepository.class), mock(NonStaffCostsRepository.class), mock(PayrollTaxRepository.class),
+                regions, mock(SalaryRateRepository.class), mock(SalaryRateMultiplierRepository.class),
+                mock(StaffBenefitsRepository.class), mock(StipendRepository.class), events,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static Region region(String name, String code) {
+        Region r = new Region();
+        r.setName(name);
+        r.setRegionCode(code);
+        return r;
+    }
+}
@@ -0,0 +1,46 @@
+package com.itproject.rcpt.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostMatrixTest {
+
+    @Test
+    void testDivHalfEvenRoundsTiesToEven() {
+        assertEquals(2, FixedPoint.divHalfEven(25, 10));
+        assertEquals(4, FixedPoint.divHalfEven(35, 10));
+        assertEquals(-2, FixedPoint.divHalfEven(-25, 10));
+        assertEquals(3, FixedPoint.divHalfEven(26, 10));
+    }
+
+    @Test
+    void testMulFallsBackWhenProductOverflows() {
+        long big = 9_000_000_000_000L;
+        assertEquals(big * 3, FixedPoint.mul(big, 3 * FixedPoint.SCALE));
+    }
+
+    @Test
+    void testLoadedLineAppliesYearAndLineFactors() {
+        CostMatrix m = new CostMatrix(1, 1);
+        m.setYearFactors(0, FixedPoint.micros(new BigDecimal("1.03")), FixedPoint.micros(new BigDecimal("1.0585")));
+        m.setLoaded(0, FixedPoint.micros(new BigDecimal("1.3234")));
+        m.allocate(0, 1, FixedPoint.micros(new BigDecimal("100000")), FixedPoint.micros(0.5));
+        m.allocate(1, 1, FixedPoint.micros(new BigDecimal("1200.50")), FixedPoint.micros(1.0));
+        m.allocate(1, 1, FixedPoint.micros(new BigDecimal("1200.50")), FixedPoint.micros(1.0));
+
+        long[] direct = m.directCents();
+        assertEquals(7214217, direct[0]);   // 72142.17335 -> 72142.17
+        assertEquals(240100, direct[1]);    // non-staff lines ignore factors; same-year units accumulate
+        assertTrue(m.isStaff(0));
+        assertFalse(m.isStaff(1));
+    }
+
+    @Test
+    void testRejectsYearOutsideMatrix() {
+        CostMatrix m = new CostMatrix(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> m.allocate(0, 11, 1, 1));
+    }
+}
@@ -0,0 +1,139 @@
+package com.itproject.rcpt.pricing;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.dto.price.PricingCacheStats;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardChangedEvent;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PricingCacheTest {
+
+    private RateCardService rateCards;
+    private PricingService pricing;
+    private PricingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(RateCard.empty(1));
+        pricing = spy(new PricingService(rateCards, new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD"));
+        cache = new PricingCache(pricing, rateCards, 2);
+    }
+
+    @Test
+    void testIdenticalLinesArePricedOnce() {
+        PriceSummary first = cache.summaryFor(project("100.00", "Title A"));
+        // Different instance, title and amount scale; same pricing inputs
+        PriceSummary second = cache.summaryFor(project("100.0", "Title B"));
+
+        verify(pricing, times(1)).price(any(Project.class), any(RateCard.class));
+        assertEquals(0, first.getTotalCost().getAmount().compareTo(second.getTotalCost().getAmount()));
+        PricingCacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testChangedLineOrRateCardMisses() {
+        cache.summaryFor(project("100.00", "A"));
+        cache.summaryFor(project("100.01", "A"));
+        when(rateCards.current()).thenReturn(RateCard.empty(1).with(LookupTable.EBA, List.of(), 2));
+        cache.summaryFor(project("100.00", "A"));
+
+        verify(pricing, times(3)).price(any(Project.class), any(RateCard.class));
+        assertEquals(0, cache.stats().getHits());
+    }
+
+    @Test
+    void testStoredSummaryForCurrentRateCardIsUsedAsIs() {
+        Project p = project("100.00", "A");
+        pricing.applyTo(p);
+        PriceSummary stored = p.getPriceSummary();
+
+        assertSame(stored, cache.withCurrentPrice(p).getPriceSummary());
+        assertEquals(0, cache.stats().getMisses());
+    }
+
+    @Test
+    void testClosedProjectKeepsItsStoredSummary() {
+        Project p = project("100.00", "A");
+        pricing.applyTo(p);
+        PriceSummary stored = p.getPriceSummary();
+        when(rateCards.current()).thenReturn(RateCard.empty(1).with(LookupTable.EBA, List.of(), 2));
+
+        p.setStatus(ProjectStatus.APPROVED);
+        assertTrue(cache.isCurrent(p));
+        assertSame(stored, cache.summaryFor(p));
+        verify(pricing, never()).price(any(Project.class), any(RateCard.class));
+
+        p.setStatus(ProjectStatus.SUBMITTED);
+        assertFalse(cache.isCurrent(p));
+        assertNotSame(stored, cache.summaryFor(p));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        cache.summaryFor(project("1", "A"));
+        cache.summaryFor(project("2", "A"));
+        cache.summaryFor(project("1", "A"));     // 2 is now the eldest
+        cache.summaryFor(project("3", "A"));
+
+        PricingCacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        cache.summaryFor(project("1", "A"));
+        assertEquals(2, cache.stats().getHits());
+    }
+
+    @Test
+    void testCallersGetTheirOwnCopy() {
+        cache.summaryFor(project("100.00", "A"));
+        PriceSummary hit = cache.summaryFor(project("100.00", "A"));
+        hit.getTotalCost().setAmount(BigDecimal.ZERO);
+
+        PriceSummary again = cache.summaryFor(project("100.00", "A"));
+        assertNotEquals(0, again.getTotalCost().getAmount().signum());
+    }
+
+    @Test
+    void testRateCardChangeClearsCache() {
+        cache.summaryFor(project("100.00", "A"));
+        cache.onRateCardChanged(new RateCardChangedEvent(LookupTable.REGION, 2));
+
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    private static Project project(String unitCost, String title) {
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle(title);
+        d.setCurrency("AUD");
+        d.setStartDate(LocalDate.of(2026, 1, 1));
+
+        NonStaffCost travel = new NonStaffCost();
+        travel.setDescription(title);
+        travel.setUnitCost(new Money(new BigDecimal(unitCost), "AUD"));
+        travel.setPerYearUnits(List.of(new YearAllocation(1, 2.0), new YearAllocation(2, 1.0)));
+
+        Project p = new Project();
+        p.setDetails(d);
+        p.setNonStaffCosts(List.of(travel));
+        return p;
+    }
+}
@@ -0,0 +1,200 @@
+package com.itproject.rcpt.pricing;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.StaffCost;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.domain.value.YearAllocation;
+import com.itproject.rcpt.enums.EmploymentType;
+import com.itproject.rcpt.jpa.entities.EBA;
+import com.itproject.rcpt.jpa.entities.PayrollTax;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.entities.StaffBenefits;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PricingServiceTest {
+
+    private PricingService pricing;
+
+    @BeforeEach
+    void setUp() {
+        SalaryRate level = new SalaryRate();
+        level.setCode("LEVEL");
+        level.setFteRate(new BigDecimal("100000.00"));
+
+        StaffBenefits continuing = new StaffBenefits();
+        continuing.setStaffType("Continuing");
+        continuing.setSuperannuation(new BigDecimal("0.17"));
+        continuing.setLeaveLoading(new BigDecimal("0.0134"));
+        continuing.setWorkCover(new BigDecimal("0.005"));
+        continuing.setParentalLeave(new BigDecimal("0.01"));
+        continuing.setLongServiceLeave(new BigDecimal("0.005"));
+        continuing.setAnnualLeave(new BigDecimal("0.12"));
+
+        EBA eba2025 = new EBA();
+        eba2025.setYear(2025);
+        eba2025.setEbaMultiplier(new BigDecimal("1.00000"));
+        EBA eba2026 = new EBA();
+        eba2026.setYear(2026);
+        eba2026.setEbaMultiplier(new BigDecimal("1.03000"));
+
+        PayrollTax tax = new PayrollTax();
+        tax.setYear(2026);
+        tax.setRate(new BigDecimal("0.0585"));
+
+        RateCard card = RateCard.empty(1)
+                .with(LookupTable.SALARY_RATE, List.of(level), 1)
+                .with(LookupTable.STAFF_BENEFITS, List.of(continuing), 1)
+                .with(LookupTable.EBA, List.of(eba2025, eba2026), 1)
+                .with(LookupTable.PAYROLL_TAX, List.of(tax), 7);
+        RateCardService rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(card);
+
+        pricing = new PricingService(rateCards,
+                new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD");
+    }
+
+    @Test
+    void testPricesStaffAndNonStaffLines() {
+        PriceSummary s = pricing.price(sampleProject("AUD"));
+
+        assertMoney("216426.52", s.getDirectStaffCost());
+        assertMoney("5101.50", s.getDirectNonStaffCost());
+        assertMoney("66458.41", s.getIndirectCost());
+        assertMoney("287986.43", s.getTotalCost());
+        assertMoney("286036.43", s.getSponsorPrice());
+        assertMoney("28603.65", s.getGst());
+        assertMoney("314640.08", s.getTotalPriceInclGst());
+        assertEquals("AUD", s.getTotalCost().getCurrency());
+        assertEquals(7L, s.getRateCardVersion());
+    }
+
+    @Test
+    void testNoGstOutsideGstCurrency() {
+        PriceSummary s = pricing.price(sampleProject("USD"));
+
+        assertMoney("0.00", s.getGst());
+        assertMoney("286036.43", s.getTotalPriceInclGst());
+        assertEquals("USD", s.getGst().getCurrency());
+    }
+
+    @Test
+    void testEmptyProjectPricesToZero() {
+        Project p = new Project();
+        PriceSummary s = pricing.price(p);
+
+        assertMoney("0.00", s.getTotalCost());
+        assertEquals(PricingService.DEFAULT_CURRENCY, s.getTotalCost().getCurrency());
+    }
+
+    @Test
+    void testLineDeltasMatchFullReprice() {
+        Project p = sampleProject("AUD");
+        p.setStaffCosts(new ArrayList<>(p.getStaffCosts()));
+        p.setNonStaffCosts(new ArrayList<>(p.getNonStaffCosts()));
+        pricing.applyTo(p);
+
+        NonStaffCost extra = new NonStaffCost();
+        extra.setUnitCost(new Money(new BigDecimal("99.99"), "AUD"));
+        extra.setUnits(7.0);
+        p.getNonStaffCosts().add(extra);
+        pricing.applyNonStaffChange(p, null, extra);
+        assertSummaryEquals(pricing.price(p), p.getPriceSummary());
+
+        StaffCost removed = p.getStaffCosts().remove(0);
+        pricing.applyStaffChange(p, removed, null);
+        assertSummaryEquals(pricing.price(p), p.getPriceSummary());
+        assertMoney("0.00", p.getPriceSummary().getDirectStaffCost());
+    }
+
+    @Test
+    void testDeltaWithoutStoredContributionFallsBackToFullReprice() {
+        Project p = sampleProject("AUD");
+        p.setNonStaffCosts(new ArrayList<>(p.getNonStaffCosts()));
+        pricing.applyTo(p);
+
+        NonStaffCost removed = p.getNonStaffCosts().remove(0);
+        removed.setContribution(null);
+        pricing.applyNonStaffChange(p, removed, null);
+        assertSummaryEquals(pricing.price(p), p.getPriceSummary());
+    }
+
+    @Test
+    void testScenariosShareMatrixAndApplyOverrides() {
+        Project p = sampleProject("AUD");
+        PricingOverrides flatEba = new PricingOverrides();
+        flatEba.setEbaMultiplier(BigDecimal.ONE);
+
+        List<PriceSummary> results = pricing.priceScenarios(p, List.of(new PricingOverrides(), flatEba));
+
+        assertSummaryEquals(pricing.price(p), results.get(0));
+        // 70040.945 rounds half-even to 70040.94, plus 140081.89 for year 2
+        assertMoney("210122.83", results.get(1).getDirectStaffCost());
+        assertMoney("5101.50", results.get(1).getDirectNonStaffCost());
+    }
+
+    @Test
+    void testScenarioRejectsUnknownStaffType() {
+        PricingOverrides o = new PricingOverrides();
+        o.setStaffTypes(Map.of(0, "Nope"));
+        assertThrows(IllegalArgumentException.class, () -> pricing.priceScenarios(sampleProject("AUD"), List.of(o)));
+    }
+
+    private static Project sampleProject(String currency) {
+        ProjectDetails d = new ProjectDetails();
+        d.setCurrency(currency);
+        d.setStartDate(LocalDate.of(2026, 1, 1));
+
+        StaffCost staff = new StaffCost();
+        staff.setClassification("LEVEL");
+        staff.setTimeBasis("FTE");
+        staff.setEmploymentType(EmploymentType.CONTINUING);
+        // year 2 (2027) has no EBA or payroll tax row and falls back to 2026
+        staff.setPerYearUnits(List.of(new YearAllocation(1, 0.5), new YearAllocation(2, 1.0)));
+
+        NonStaffCost travel = new NonStaffCost();
+        travel.setUnitCost(new Money(new BigDecimal("1200.50"), currency));
+        travel.setPerYearUnits(List.of(new YearAllocation(1, 2.0), new YearAllocation(2, 1.0)));
+
+        NonStaffCost equipment = new NonStaffCost();
+        equipment.setUnitCost(new Money(new BigDecimal("500"), currency));
+        equipment.setUnits(3.0);
+        equipment.setInKind(true);
+
+        Project p = new Project();
+        p.setDetails(d);
+        p.setStaffCosts(List.of(staff));
+        p.setNonStaffCosts(List.of(travel, equipment));
+        return p;
+    }
+
+    private static void assertSummaryEquals(PriceSummary expected, PriceSummary actual) {
+        assertMoney(expected.getDirectStaffCost().getAmount().toPlainString(), actual.getDirectStaffCost());
+        assertMoney(expected.getDirectNonStaffCost().getAmount().toPlainString(), actual.getDirectNonStaffCost());
+        assertMoney(expected.getIndirectCost().getAmount().toPlainString(), actual.getIndirectCost());
+        assertMoney(expected.getSponsorPrice().getAmount().toPlainString(), actual.getSponsorPrice());
+        assertMoney(expected.getGst().getAmount().toPlainString(), actual.getGst());
+        assertMoney(expected.getTotalPriceInclGst().getAmount().toPlainString(), actual.getTotalPriceInclGst());
+    }
+
+    private static void assertMoney(String expected, Money actual) {
+        assertNotNull(actual);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.getAmount()),
+                () -> "expected " + expected + " but was " + actual.getAmount());
+    }
+}
@@ -0,0 +1,139 @@
+package com.itproject.rcpt.pricing;
+
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.dto.price.RepricingJobStatus;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RepricingJobServiceTest {
+
+    private MongoTemplate mongo;
+    private BulkOperations bulk;
+    private ApplicationEventPublisher events;
+    private RepricingJobService job;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Project.class)).thenReturn(bulk);
+
+        RateCardService rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(RateCard.empty(2));
+        PricingService pricing = mock(PricingService.class);
+        when(pricing.applyTo(any(Project.class), any(RateCard.class))).thenAnswer(inv -> inv.getArgument(0));
+        events = mock(ApplicationEventPublisher.class);
+        job = new RepricingJobService(mongo, pricing, rateCards, events, 1, 500, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    void testEachUpdateIsGuardedByTheVersionReadAndUnmatchedOnesCountAsConflicts() throws Exception {
+        when(mongo.stream(any(Query.class), eq(Project.class)))
+                .thenAnswer(inv -> Stream.of(project("p1", 4L), project("p2", 7L)));
+        // p2 was edited after it was read: its guarded update matches nothing
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(bulk.execute()).thenReturn(result);
+
+        assertTrue(job.start("EBA"));
+        RepricingJobStatus status = awaitStatus(s -> "COMPLETED".equals(s.getState()));
+
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).stream(stale.capture(), eq(Project.class));
+        Document filter = stale.getValue().getQueryObject();
+        assertEquals(new Document("$ne", 2L), filter.get("priceSummary.rateCardVersion"));
+
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(guards.capture(), updates.capture());
+        assertEquals(new Document("_id", "p1").append("version", 4L), guards.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("_id", "p2").append("version", 7L), guards.getAllValues().get(1).getQueryObject());
+        assertEquals(new Document("version", 1), updates.getValue().getUpdateObject().get("$inc"));
+        verify(bulk).execute();
+
+        assertEquals(2, status.getScanned());
+        assertEquals(1, status.getRepriced());
+        assertEquals(1, status.getConflicts());
+        assertEquals(0, status.getFailed());
+
+        ArgumentCaptor<ProjectsRepricedEvent> repriced = ArgumentCaptor.forClass(ProjectsRepricedEvent.class);
+        verify(events).publishEvent(repriced.capture());
+        assertEquals(List.of("p1", "p2"), repriced.getValue().getProjectIds());
+    }
+
+    @Test
+    void testChangesDuringARunAreCoalescedIntoOneFollowUpRun() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongo.stream(any(Query.class), eq(Project.class)))
+                .thenAnswer(inv -> {
+                    started.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return Stream.empty();
+                })
+                .thenAnswer(inv -> Stream.empty());
+
+        assertTrue(job.start("EBA"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(job.start("STIPEND"));
+        assertFalse(job.start("SALARY_RATE"));
+        assertTrue(job.status().isRerunPending());
+        release.countDown();
+
+        RepricingJobStatus status = awaitStatus(s -> "SALARY_RATE".equals(s.getTrigger()) && "COMPLETED".equals(s.getState()));
+        assertFalse(status.isRerunPending());
+        verify(mongo, times(2)).stream(any(Query.class), eq(Project.class));
+        verify(bulk, never()).execute();
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    private RepricingJobStatus awaitStatus(Predicate<RepricingJobStatus> done) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        RepricingJobStatus s = job.status();
+        while (!done.test(s)) {
+            assertTrue(System.nanoTime() < deadline, "repricing did not finish: " + s.getState());
+            Thread.sleep(10);
+            s = job.status();
+        }
+        return s;
+    }
+
+    private static Project project(String id, long version) {
+        Project p = new Project();
+        p.setId(id);
+        p.setVersion(version);
+        p.setStatus(ProjectStatus.DRAFT);
+        p.setPriceSummary(new PriceSummary());
+        return p;
+    }
+}
@@ -0,0 +1,125 @@
+package com.itproject.rcpt.repository;
+
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.Recency;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with explain that every filter combination {@link ProjectQuery} supports is answered from
+ * an index declared on {@link Project}, never a collection scan, and that createdAt order needs no
+ * in-memory sort. Needs a real server, so it only runs when RCPT_TEST_MONGO_URI is set, e.g.
+ * RCPT_TEST_MONGO_URI=mongodb://localhost:27017 mvn test -Dtest=ProjectQueryIndexTest
+ * It works in a throwaway database that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "RCPT_TEST_MONGO_URI", matches = ".+")
+class ProjectQueryIndexTest {
+
+    private static MongoClient client;
+    private static MongoTemplate mongo;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(System.getenv("RCPT_TEST_MONGO_URI"));
+        mongo = new MongoTemplate(client, "rcpt_explain_" + UUID.randomUUID().toString().replace("-", ""));
+
+        MongoMappingContext context = (MongoMappingContext) mongo.getConverter().getMappingContext();
+        new MongoPersistentEntityIndexResolver(context).resolveIndexFor(Project.class)
+                .forEach(mongo.indexOps(Project.class)::createIndex);
+
+        // Enough spread that the planner has real choices to make
+        List<Project> projects = new ArrayList<>();
+        Instant t = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < 200; i++) {
+            ProjectDetails d = new ProjectDetails();
+            d.setTitle("Project " + i);
+            d.setDepartment("dept-" + (i % 5));
+            d.setFunder("funder-" + (i % 7));
+            Project p = new Project();
+            p.setDetails(d);
+            p.setOwnerUserId("owner-" + (i % 11));
+            p.setStatus(ProjectStatus.values()[i % ProjectStatus.values().length]);
+            p.setCreatedAt(t.plus(i, ChronoUnit.HOURS));
+            p.setUpdatedAt(t.plus(400 - i, ChronoUnit.HOURS));
+            projects.add(p);
+        }
+        mongo.insertAll(projects);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (mongo != null) mongo.getDb().drop();
+        if (client != null) client.close();
+    }
+
+    @Test
+    void testEveryCombinationIsAnIndexScan() {
+        Instant from = Instant.parse("2026-01-02T00:00:00Z");
+        Instant to = Instant.parse("2026-01-05T00:00:00Z");
+        for (int mask = 0; mask < 32; mask++) {
+            for (Recency order : Recency.values()) {
+                for (Sort.Direction direction : Sort.Direction.values()) {
+                    ProjectQuery q = ProjectQuery.all().orderBy(order, direction);
+                    if ((mask & 1) != 0) q.owner("owner-3");
+                    if ((mask & 2) != 0) q.status(ProjectStatus.SUBMITTED);
+                    if ((mask & 4) != 0) q.department("dept-2");
+                    if ((mask & 8) != 0) q.funder("funder-4");
+                    if ((mask & 16) != 0) q.createdBetween(from, to);
+
+                    List<String> stages = winningStages(q);
+                    String label = "filters " + Integer.toBinaryString(mask) + " by " + order + " " + direction + ": " + stages;
+                    assertFalse(stages.contains("COLLSCAN"), label);
+                    assertTrue(stages.contains("IXSCAN"), label);
+                    if (order == Recency.CREATED) {
+                        assertFalse(stages.contains("SORT"), "in-memory sort for " + label);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> winningStages(ProjectQuery q) {
+        MongoPersistentEntity<?> entity = mongo.getConverter().getMappingContext().getRequiredPersistentEntity(Project.class);
+        QueryMapper mapper = new QueryMapper(mongo.getConverter());
+        Query query = Query.query(q.criteria()).with(q.sort()).limit(20);
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+
+        Document explain = mongo.getCollection("projects").find(filter).sort(sort).limit(20).explain();
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+        return stages;
+    }
+
+    /** Every "stage" in the plan tree; the nesting differs between server versions and engines. */
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document d) {
+            if (d.get("stage") instanceof String s) stages.add(s);
+            d.values().forEach(v -> collectStages(v, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(v -> collectStages(v, stages));
+        }
+    }
+}
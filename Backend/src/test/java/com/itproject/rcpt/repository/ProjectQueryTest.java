@@ -0,0 +1,53 @@
+package com.itproject.rcpt.repository;
+
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.Recency;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectQueryTest {
+
+    @Test
+    void testOwnerAndStatusCombine() {
+        Document filter = ProjectQuery.all().owner("u1").status(ProjectStatus.SUBMITTED).criteria().getCriteriaObject();
+
+        assertEquals(new Document("ownerUserId", "u1").append("status", ProjectStatus.SUBMITTED), filter);
+    }
+
+    @Test
+    void testLeadingFieldWithoutStatusMatchesEveryStatus() {
+        Document filter = ProjectQuery.all().department("Physics").criteria().getCriteriaObject();
+
+        Collection<?> in = filter.get("status", Document.class).get("$in", Collection.class);
+        assertTrue(in.containsAll(List.of(ProjectStatus.values())));
+        assertTrue(in.contains(null), "projects without a status still match");
+    }
+
+    @Test
+    void testDateRangeAndSort() {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-02-01T00:00:00Z");
+        ProjectQuery q = ProjectQuery.all().funder("ARC").createdBetween(from, to)
+                .orderBy(Recency.UPDATED, Sort.Direction.ASC);
+
+        Document range = q.criteria().getCriteriaObject().get("createdAt", Document.class);
+        assertEquals(new Document("$gte", from).append("$lt", to), range);
+        assertEquals(Sort.by(Sort.Direction.ASC, "updatedAt", "_id"), q.sort());
+        assertThrows(IllegalArgumentException.class, () -> ProjectQuery.all().createdBetween(to, from));
+    }
+
+    @Test
+    void testNoFiltersIsNewestFirst() {
+        ProjectQuery q = ProjectQuery.all();
+
+        assertTrue(q.criteria().getCriteriaObject().isEmpty());
+        assertEquals(Sort.by(Sort.Direction.DESC, "createdAt", "_id"), q.sort());
+    }
+}
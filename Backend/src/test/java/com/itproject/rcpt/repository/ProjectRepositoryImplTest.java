@@ -0,0 +1,317 @@
+package com.itproject.rcpt.repository;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.dto.project.ProjectFields;
+import com.itproject.rcpt.dto.project.ProjectStats;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.Recency;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProjectRepositoryImplTest {
+
+    private MongoTemplate mongo;
+    private ProjectRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        // Same conversions Spring Boot configures, so lines convert exactly as a save would write them
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongo = mock(MongoTemplate.class);
+        when(mongo.getConverter()).thenReturn(converter);
+        when(mongo.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Project.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        repository = new ProjectRepositoryImpl(mongo);
+    }
+
+    @Test
+    void testPushSendsOnlyTheLineAndSummaryDeltas() {
+        NonStaffCost line = line("120.00");
+        assertTrue(repository.pushLine("p1", 7L, CostLines.NON_STAFF, line, summary("100.00", 3), summary("220.00", 3)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongo).updateFirst(query.capture(), update.capture(), eq(Project.class));
+
+        assertEquals(new Document("_id", "p1").append("version", 7L).append("priceSummary.rateCardVersion", 3L),
+                query.getValue().getQueryObject());
+        Document u = ((Update) update.getValue()).getUpdateObject();
+        Document pushed = u.get("$push", Document.class).get("nonStaffCosts", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("120.00")),
+                pushed.get("unitCost", Document.class).get("amount"));
+        Document inc = u.get("$inc", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("120.00")), inc.get("priceSummary.totalCost.amount"));
+        assertEquals(1, inc.get("version"));
+        assertFalse(inc.containsKey("priceSummary.gst.amount"), "unchanged amounts are not sent");
+        assertFalse(u.containsKey("$set"), "nothing else in the document is rewritten");
+    }
+
+    @Test
+    void testReplaceIsGuardedByTheLineThatWasRead() {
+        repository.replaceLineAt("p1", 7L, CostLines.NON_STAFF, 2, line("10.00"), line("12.00"),
+                summary("100.00", 3), summary("102.00", 3));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongo).updateFirst(query.capture(), update.capture(), eq(Project.class));
+
+        Document expected = query.getValue().getQueryObject().get("nonStaffCosts.2", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("10.00")), expected.get("unitCost", Document.class).get("amount"));
+        Document set = ((Update) update.getValue()).getUpdateObject().get("$set", Document.class);
+        assertTrue(set.containsKey("nonStaffCosts.2"));
+    }
+
+    @Test
+    void testDeleteAtVersionMatchesIdAndVersion() {
+        when(mongo.remove(any(Query.class), eq(Project.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        assertFalse(repository.deleteAtVersion("p1", 5));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).remove(query.capture(), eq(Project.class));
+        assertEquals(new Document("_id", "p1").append("version", 5L), query.getValue().getQueryObject());
+    }
+
+    @Test
+    void testRemoveUsesOnePipelineUpdate() {
+        when(mongo.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Project.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(repository.removeLineAt("p1", 7L, CostLines.NON_STAFF, 0, line("10.00"),
+                summary("100.00", 3), summary("90.00", 3)));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongo).updateFirst(any(Query.class), update.capture(), eq(Project.class));
+        assertInstanceOf(AggregationUpdate.class, update.getValue());
+        List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(null);
+        assertEquals(1, pipeline.size());
+        Document set = pipeline.get(0).get("$set", Document.class);
+        assertTrue(set.containsKey("nonStaffCosts"));
+        assertTrue(set.containsKey("priceSummary.totalCost.amount"));
+    }
+
+    @Test
+    void testTransitionIsOneFindAndModifyWithStatusPrecondition() {
+        ApprovalEntry entry = new ApprovalEntry("APPROVE", "reviewer", "ok", Instant.parse("2026-03-01T00:00:00Z"));
+        repository.transition("p1", EnumSet.of(ProjectStatus.SUBMITTED), ProjectStatus.APPROVED, entry);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongo).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Project.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("p1", filter.get("_id"));
+        assertEquals(List.of(ProjectStatus.SUBMITTED), List.copyOf(filter.get("status", Document.class).get("$in", Collection.class)));
+        Document u = ((Update) update.getValue()).getUpdateObject();
+        assertEquals(ProjectStatus.APPROVED, u.get("$set", Document.class).get("status"));
+        assertEquals("APPROVE", u.get("$set", Document.class).get("approvals.latest", Document.class).get("action"));
+        assertEquals(1, u.get("$inc", Document.class).get("approvals.count"));
+        assertFalse(u.containsKey("$push"), "history is not embedded in the project");
+        assertFalse(query.getValue().getFieldsObject().isEmpty(), "only the changed fields come back");
+    }
+
+    @Test
+    void testSummariesReadOnlyCardFields() {
+        when(mongo.find(any(Query.class), eq(Project.class))).thenReturn(List.of(new Project()));
+
+        Page<Project> page = repository.findSummaries(
+                ProjectQuery.all().owner("owner-1").status(ProjectStatus.DRAFT), PageRequest.of(0, 10));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(query.capture(), eq(Project.class));
+        Document fields = query.getValue().getFieldsObject();
+        assertTrue(fields.containsKey("details.title"));
+        assertTrue(fields.containsKey("priceSummary.totalCost"));
+        assertFalse(fields.containsKey("staffCosts"));
+        assertFalse(fields.containsKey("approvals"));
+        assertEquals(new Document("createdAt", -1).append("_id", -1), query.getValue().getSortObject());
+        assertEquals(new Document("ownerUserId", "owner-1").append("status", ProjectStatus.DRAFT),
+                query.getValue().getQueryObject());
+        // A short first page already gives the total, so no count query is sent
+        assertEquals(1, page.getTotalElements());
+        verify(mongo, never()).count(any(Query.class), eq(Project.class));
+    }
+
+    @Test
+    void testKeysetPageSeeksPastCursorAndFetchesOneExtra() {
+        Instant at = Instant.parse("2026-03-01T10:00:00Z");
+        when(mongo.find(any(Query.class), eq(Project.class)))
+                .thenReturn(List.of(project("p3", at), project("p2", at), project("p1", at)));
+
+        CursorPage<Project> page = repository.findPage(
+                ProjectQuery.all().owner("owner-1").status(ProjectStatus.DRAFT), new KeysetCursor(at, "p4"), 2, false, false);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(query.capture(), eq(Project.class));
+        Query q = query.getValue();
+        assertEquals(3, q.getLimit());
+        assertEquals(0, q.getSkip(), "deep pages seek by key, never skip");
+        assertEquals(new Document("createdAt", -1).append("_id", -1), q.getSortObject());
+        Document filter = q.getQueryObject();
+        assertEquals("owner-1", filter.get("ownerUserId"));
+        assertEquals(3, filter.get("$or", List.class).size());
+
+        assertEquals(List.of("p3", "p2"), page.getItems().stream().map(Project::getId).toList());
+        assertEquals(new KeysetCursor(at, "p2"), KeysetCursor.decode(page.getNextCursor()));
+        assertNull(page.getTotal());
+        verify(mongo, never()).count(any(Query.class), eq(Project.class));
+    }
+
+    @Test
+    void testSparseKeysetPageReadsTheSelectedPathsAndTheCursorField() {
+        when(mongo.find(any(Query.class), eq(Project.class))).thenReturn(List.of(project("p1", Instant.EPOCH)));
+
+        repository.findPage(ProjectQuery.all().orderBy(Recency.UPDATED, null), null, 10, false,
+                ProjectFields.parse("details,status", null));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongo).find(query.capture(), eq(Project.class));
+        assertEquals(new Document("details", 1).append("status", 1).append("version", 1).append("updatedAt", 1),
+                query.getValue().getFieldsObject());
+    }
+
+    @Test
+    void testLastKeysetPageHasNoCursor() {
+        when(mongo.find(any(Query.class), eq(Project.class))).thenReturn(List.of(project("p1", Instant.EPOCH)));
+        when(mongo.count(any(Query.class), eq(Project.class))).thenReturn(1L);
+
+        CursorPage<Project> page = repository.findPage(
+                ProjectQuery.all().orderBy(Recency.UPDATED, null), null, 10, true, true);
+
+        assertNull(page.getNextCursor());
+        assertEquals(1L, page.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchRanksByTextScoreAndSeeksPastCursor() {
+        ObjectId a = new ObjectId();
+        ObjectId b = new ObjectId();
+        when(mongo.getCollectionName(Project.class)).thenReturn("projects");
+        when(mongo.aggregate(any(Aggregation.class), eq("projects"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", a).append("score", 1.5).append("details", new Document("title", "Climate")),
+                        new Document("_id", b).append("score", 0.75)), new Document()));
+
+        CursorPage<Project> page = repository.search("climate", new SearchCursor(2.0, new ObjectId().toHexString()), 1);
+
+        ArgumentCaptor<Aggregation> pipeline = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongo).aggregate(pipeline.capture(), eq("projects"), eq(Document.class));
+        List<Document> stages = pipeline.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals("climate", stages.get(0).get("$match", Document.class).get("$text", Document.class).get("$search"));
+        assertTrue(stages.get(2).get("$match", Document.class).containsKey("$or"), "later pages seek by score");
+        assertEquals(new Document("score", -1).append("_id", -1), stages.get(3).get("$sort"));
+        assertEquals(2, stages.get(4).get("$limit"));
+        assertFalse(stages.get(5).get("$project", Document.class).containsKey("staffCosts"));
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("Climate", page.getItems().get(0).getDetails().getTitle());
+        assertEquals(new SearchCursor(1.5, a.toHexString()), SearchCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testStatsIsOneFacetedAggregationBehindTheIndexedFilter() {
+        when(mongo.getCollectionName(Project.class)).thenReturn("projects");
+        when(mongo.aggregate(any(TypedAggregation.class), eq("projects"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document()
+                        .append("byStatus", List.of(
+                                new Document("_id", "DRAFT").append("count", 3),
+                                new Document("_id", "APPROVED").append("count", 1)))
+                        .append("byDepartment", List.of(new Document("_id", "Physics").append("count", 4)))
+                        .append("byFunder", List.of(new Document("_id", null).append("count", 4)))
+                        .append("totals", List.of(new Document("_id", "AUD").append("projects", 2)
+                                .append("totalCost", new Decimal128(new BigDecimal("1500.50")))
+                                .append("gst", 0)))), new Document()));
+
+        ProjectStats stats = repository.stats(ProjectQuery.all().department("Physics"));
+
+        ArgumentCaptor<TypedAggregation<?>> pipeline = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongo).aggregate(pipeline.capture(), eq("projects"), eq(Document.class));
+        assertEquals(Project.class, pipeline.getValue().getInputType());
+        List<Document> stages = pipeline.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(3, stages.size());
+        Document match = stages.get(0).get("$match", Document.class);
+        assertEquals("Physics", match.get("details.department"));
+        assertTrue(match.containsKey("status"), "status $in lets dept_status_created_idx serve the match");
+        assertFalse(stages.get(1).get("$project", Document.class).containsKey("staffCosts"));
+        assertEquals(List.of("byStatus", "byDepartment", "byFunder", "totals"),
+                List.copyOf(stages.get(2).get("$facet", Document.class).keySet()));
+
+        assertEquals(4, stats.getProjects());
+        assertEquals("DRAFT", stats.getByStatus().get(0).getKey());
+        assertNull(stats.getByFunder().get(0).getKey());
+        ProjectStats.Totals aud = stats.getTotals().get(0);
+        assertEquals(2, aud.getProjects());
+        assertEquals(new BigDecimal("1500.50"), aud.getTotalCost());
+        assertEquals(0, aud.getGst().signum());
+        assertEquals(0, aud.getSponsorPrice().signum());
+    }
+
+    private static Project project(String id, Instant createdAt) {
+        Project p = new Project();
+        p.setId(id);
+        p.setCreatedAt(createdAt);
+        return p;
+    }
+
+    private static NonStaffCost line(String unitCost) {
+        NonStaffCost n = new NonStaffCost();
+        n.setDescription("Travel");
+        n.setUnitCost(new Money(new BigDecimal(unitCost), "AUD"));
+        n.setUnits(1.0);
+        return n;
+    }
+
+    private static PriceSummary summary(String total, long rateCardVersion) {
+        PriceSummary s = new PriceSummary();
+        s.setTotalCost(new Money(new BigDecimal(total), "AUD"));
+        s.setGst(new Money(BigDecimal.ZERO, "AUD"));
+        s.setRateCardVersion(rateCardVersion);
+        return s;
+    }
+}
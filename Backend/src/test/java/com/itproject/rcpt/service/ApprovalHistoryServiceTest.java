@@ -0,0 +1,126 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.ApprovalHistoryBucket;
+import com.itproject.rcpt.domain.ApprovalTracker;
+import com.itproject.rcpt.dto.common.CursorPage;
+import com.itproject.rcpt.repository.ApprovalHistoryRepository;
+import com.itproject.rcpt.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ApprovalHistoryServiceTest {
+
+    private ProjectRepository projects;
+    private ApprovalHistoryRepository history;
+    private ApprovalHistoryService service;
+
+    /** In-memory approval_history for project p1, by bucket number. */
+    private final TreeMap<Long, ApprovalHistoryBucket> buckets = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        projects = mock(ProjectRepository.class);
+        history = mock(ApprovalHistoryRepository.class);
+        service = new ApprovalHistoryService(projects, history, mock(ProjectCache.class), 2, false);
+
+        when(projects.findApprovals("p1")).thenReturn(Optional.of(new ApprovalTracker()));
+        doAnswer(inv -> {
+            ApprovalEntry e = inv.getArgument(2);
+            ApprovalHistoryBucket b = buckets.computeIfAbsent(inv.getArgument(1), n -> new ApprovalHistoryBucket());
+            b.setBucket(inv.<Long>getArgument(1));
+            b.getEntries().add(e);
+            b.getEntries().sort(Comparator.comparing(ApprovalEntry::getSeq));
+            return null;
+        }).when(history).append(eq("p1"), anyLong(), any());
+        when(history.findByProjectIdAndBucketLessThanEqualOrderByBucketDesc(eq("p1"), anyLong(), any()))
+                .thenAnswer(inv -> {
+                    Pageable page = inv.getArgument(2);
+                    return buckets.headMap(inv.<Long>getArgument(1), true).descendingMap().values().stream()
+                            .limit(page.getPageSize()).toList();
+                });
+    }
+
+    @Test
+    void testPagesNewestFirstAcrossBuckets() {
+        for (long seq = 1; seq <= 5; seq++) service.append("p1", entry("C" + seq, seq));
+        assertEquals(List.of(0L, 1L, 2L), List.copyOf(buckets.keySet()), "two entries per bucket");
+
+        CursorPage<ApprovalEntry> first = service.page("p1", null, 3);
+        assertEquals(List.of("C5", "C4", "C3"), comments(first));
+
+        CursorPage<ApprovalEntry> second = service.page("p1", first.getNextCursor(), 3);
+        assertEquals(List.of("C2", "C1"), comments(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testEmbeddedHistoryMovesToBucketsBeforeNewEntries() {
+        ApprovalTracker legacy = new ApprovalTracker();
+        legacy.setHistory(new ArrayList<>(List.of(entry("old1", null), entry("old2", null), entry("old3", null))));
+        when(projects.findApprovals("p1")).thenReturn(Optional.of(legacy));
+        service.append("p1", entry("new1", 1L));
+
+        service.page("p1", null, 10);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<ApprovalHistoryBucket>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(history).saveAll(saved.capture());
+        List<ApprovalHistoryBucket> written = new ArrayList<>();
+        saved.getValue().forEach(written::add);
+        // Numbered -2, -1, 0: buckets -2 and -1, all before bucket 0 of new entries
+        assertEquals(List.of("p1:-2", "p1:-1"), written.stream().map(ApprovalHistoryBucket::getId).toList());
+        assertEquals(List.of(-2L), written.get(0).getEntries().stream().map(ApprovalEntry::getSeq).toList());
+        verify(projects).clearLegacyHistory(eq("p1"), argThat(e -> "old3".equals(e.getComment())));
+    }
+
+    @Test
+    void testEntryWhoseAppendFailedIsRestoredFromLatest() {
+        service.append("p1", entry("C1", 1L));
+        service.append("p1", entry("C2", 2L));
+        ApprovalTracker approvals = new ApprovalTracker();
+        approvals.setCount(3);
+        approvals.setLatest(entry("C3", null));
+        when(projects.findApprovals("p1")).thenReturn(Optional.of(approvals));
+
+        assertEquals(List.of("C3", "C2"), comments(service.page("p1", null, 2)));
+        verify(history).append(eq("p1"), eq(1L), argThat(e -> "C3".equals(e.getComment()) && e.getSeq() == 3L));
+
+        // Stored now, so the next read finds it like any other entry
+        when(history.findByProjectIdOrderByBucketAsc("p1")).thenAnswer(inv -> List.copyOf(buckets.values()));
+        assertEquals(List.of("C1", "C2", "C3"), service.all("p1").stream().map(ApprovalEntry::getComment).toList());
+        verify(history, times(3)).append(eq("p1"), anyLong(), any());
+    }
+
+    @Test
+    void testUnknownProjectIsNotFound() {
+        when(projects.findApprovals("nope")).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> service.page("nope", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.page("p1", "garbage!", 10));
+    }
+
+    private static ApprovalEntry entry(String comment, Long seq) {
+        ApprovalEntry e = new ApprovalEntry("COMMENT", "reviewer", comment, Instant.parse("2026-03-01T00:00:00Z"));
+        e.setSeq(seq);
+        return e;
+    }
+
+    private static List<String> comments(CursorPage<ApprovalEntry> page) {
+        return page.getItems().stream().map(ApprovalEntry::getComment).toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.ApprovalEntry;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ApprovalServiceTest {
+
+    private ProjectRepository repository;
+    private ApprovalHistoryService history;
+    private ApprovalService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProjectRepository.class);
+        history = mock(ApprovalHistoryService.class);
+        service = new ApprovalService(repository, history, mock(ProjectCache.class), mock(CostRollupService.class));
+    }
+
+    @Test
+    void testApproveOnlyMatchesSubmittedProjects() {
+        Project after = new Project();
+        after.setStatus(ProjectStatus.APPROVED);
+        after.getApprovals().setCount(3);
+        when(repository.transition(eq("p1"), any(), any(), any())).thenReturn(Optional.of(after));
+
+        assertSame(after, service.approve("p1", "reviewer", "ok"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Set<ProjectStatus>> from = ArgumentCaptor.forClass(Set.class);
+        ArgumentCaptor<ApprovalEntry> entry = ArgumentCaptor.forClass(ApprovalEntry.class);
+        verify(repository).transition(eq("p1"), from.capture(), eq(ProjectStatus.APPROVED), entry.capture());
+        assertEquals(EnumSet.of(ProjectStatus.SUBMITTED), from.getValue());
+        assertEquals("APPROVE", entry.getValue().getAction());
+        assertEquals("reviewer", entry.getValue().getActorUserId());
+        verify(repository, never()).save(any());
+        // Numbered with the count the transition returned, and stored outside the project
+        verify(history).append("p1", entry.getValue());
+        assertEquals(3L, entry.getValue().getSeq());
+    }
+
+    @Test
+    void testCommentKeepsStatus() {
+        when(repository.transition(eq("p1"), any(), isNull(), any())).thenReturn(Optional.of(new Project()));
+
+        service.comment("p1", "reviewer", "looks fine");
+
+        verify(repository).transition(eq("p1"), eq(EnumSet.allOf(ProjectStatus.class)), isNull(), any());
+    }
+
+    @Test
+    void testFailedHistoryAppendDoesNotFailTheCommittedTransition() {
+        Project after = new Project();
+        after.setStatus(ProjectStatus.SUBMITTED);
+        after.getApprovals().setCount(1);
+        when(repository.transition(eq("p1"), any(), any(), any())).thenReturn(Optional.of(after));
+        doThrow(new RuntimeException("timeout")).when(history).append(eq("p1"), any());
+
+        Project result = service.submit("p1", "owner", null);
+
+        assertEquals(ProjectStatus.SUBMITTED, result.getStatus());
+        assertEquals(1L, result.getApprovals().getLatest().getSeq());
+    }
+
+    @Test
+    void testDisallowedTransitionIsAConflict() {
+        when(repository.transition(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(repository.findStatus("p1")).thenReturn(Optional.of(ProjectStatus.DRAFT));
+
+        ConflictException ex = assertThrows(ConflictException.class,
+                () -> service.approve("p1", "reviewer", null));
+        assertTrue(ex.getMessage().contains("DRAFT"));
+    }
+
+    @Test
+    void testMissingProjectIsNotFound() {
+        when(repository.transition(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(repository.findStatus("nope")).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> service.submit("nope", "owner", null));
+    }
+}
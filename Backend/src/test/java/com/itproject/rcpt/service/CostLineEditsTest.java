@@ -0,0 +1,118 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.NonStaffCost;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.repository.ProjectRepositoryCustom.CostLines;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CostLineEditsTest {
+
+    private ProjectRepository repository;
+    private PricingService pricing;
+    private ProjectCache cache;
+    private CostRollupService rollups;
+    private CostLineEdits<NonStaffCost> edits;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProjectRepository.class);
+        pricing = mock(PricingService.class);
+        cache = mock(ProjectCache.class);
+        rollups = mock(CostRollupService.class);
+        when(pricing.canApplyDelta(any(), any(), anyBoolean())).thenReturn(true);
+        edits = new CostLineEdits<>(repository, pricing, cache, rollups, CostLines.NON_STAFF, "non-staff",
+                Project::getNonStaffCosts, Project::setNonStaffCosts, NonStaffCost::getContribution,
+                (p, removed, added) -> {
+                    p.setPriceSummary(summary(1L));
+                    return p;
+                });
+    }
+
+    @Test
+    void testAppendIsOneGuardedUpdateWhenTheSummaryTakesADelta() {
+        when(repository.findForLineEdit("p1", CostLines.NON_STAFF, null)).thenReturn(Optional.of(project()));
+        when(repository.pushLine(eq("p1"), eq(3L), eq(CostLines.NON_STAFF), any(), any(), any())).thenReturn(true);
+        NonStaffCost line = new NonStaffCost();
+
+        assertSame(line, edits.append("p1", line));
+
+        verify(repository).pushLine(eq("p1"), eq(3L), eq(CostLines.NON_STAFF), same(line), any(), any());
+        verify(repository, never()).save(any());
+        verify(cache).evict("p1");
+        verify(rollups).changed("p1");
+    }
+
+    @Test
+    void testReplaceFallsBackToAFullSaveWhenTheGuardMisses() {
+        NonStaffCost stored = new NonStaffCost();
+        Project view = project();
+        view.setNonStaffCosts(new ArrayList<>(List.of(stored)));
+        Project full = project();
+        full.setNonStaffCosts(new ArrayList<>(List.of(new NonStaffCost(), stored)));
+        when(repository.findForLineEdit("p1", CostLines.NON_STAFF, 1)).thenReturn(Optional.of(view));
+        when(repository.replaceLineAt(any(), any(), any(), anyInt(), any(), any(), any(), any())).thenReturn(false);
+        when(repository.findById("p1")).thenReturn(Optional.of(full));
+        NonStaffCost line = new NonStaffCost();
+
+        edits.replaceAt("p1", 1, line);
+
+        assertSame(line, full.getNonStaffCosts().get(1));
+        verify(repository).save(full);
+    }
+
+    @Test
+    void testDetailsChangedSinceTheReadFallBackToAFullReprice() {
+        // Read at version 3; a patch of the currency then moved the project to 4 at the same rate card
+        when(repository.findForLineEdit("p1", CostLines.NON_STAFF, null)).thenReturn(Optional.of(project()));
+        when(repository.pushLine(any(), any(), any(), any(), any(), any())).thenReturn(false);
+        Project patched = project();
+        patched.setVersion(4L);
+        patched.setNonStaffCosts(new ArrayList<>());
+        when(repository.findById("p1")).thenReturn(Optional.of(patched));
+        NonStaffCost line = new NonStaffCost();
+
+        edits.append("p1", line);
+
+        verify(repository).pushLine(eq("p1"), eq(3L), any(), any(), any(), any());
+        assertEquals(List.of(line), patched.getNonStaffCosts());
+        verify(repository).save(patched);
+        verify(cache, never()).evict(any());
+    }
+
+    @Test
+    void testMissingLineIsRejectedBeforeAnyWrite() {
+        when(repository.findForLineEdit("p1", CostLines.NON_STAFF, 4)).thenReturn(Optional.of(project()));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> edits.deleteAt("p1", 4));
+        assertEquals("Invalid non-staff index: 4", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> edits.deleteAt("p1", -1));
+        verify(repository, never()).removeLineAt(any(), any(), any(), anyInt(), any(), any(), any());
+        verify(repository, never()).save(any());
+    }
+
+    private static Project project() {
+        Project p = new Project();
+        p.setId("p1");
+        p.setVersion(3L);
+        p.setPriceSummary(summary(1L));
+        return p;
+    }
+
+    private static PriceSummary summary(Long rateCardVersion) {
+        PriceSummary s = new PriceSummary();
+        s.setRateCardVersion(rateCardVersion);
+        return s;
+    }
+}
@@ -0,0 +1,263 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.CostRollup;
+import com.itproject.rcpt.domain.CostRollup.Level;
+import com.itproject.rcpt.domain.PriceSummary;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.value.Money;
+import com.itproject.rcpt.dto.rollup.RollupReconcileReport;
+import com.itproject.rcpt.enums.ProjectStatus;
+import com.itproject.rcpt.jpa.entities.DepartmentAndFaculty;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.repository.CostRollupRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CostRollupServiceTest {
+
+    private MongoTemplate mongo;
+    private BulkOperations contributions;
+    private BulkOperations buckets;
+    private CostRollupRepository repository;
+    private CostRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = mock(MongoTemplate.class);
+        contributions = mock(BulkOperations.class);
+        buckets = mock(BulkOperations.class);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CostRollupService.CONTRIBUTIONS)).thenReturn(contributions);
+        when(mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, CostRollup.class)).thenReturn(buckets);
+        when(mongo.getCollectionName(Project.class)).thenReturn("projects");
+
+        RateCard card = RateCard.empty(1).with(LookupTable.DEPARTMENT_AND_FACULTY, List.of(
+                department("Physics", "PHYS", "School of Physics"),
+                department("Chemistry", "CHEM", "School of Chemistry")), 1);
+        RateCardService rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(card);
+        repository = mock(CostRollupRepository.class);
+        service = new CostRollupService(mongo, repository, rateCards, true, 1000, 0, 100);
+    }
+
+    @Test
+    void testNewProjectIsAddedToItsDepartmentSchoolAndFaculty() {
+        projects(project("p1", 1L, "Physics", ProjectStatus.DRAFT, "1000.00"));
+        counted();
+
+        service.changed("p1");
+        assertEquals(1, service.flush());
+
+        verify(contributions).replaceOne(any(Query.class), any(Document.class), any(FindAndReplaceOptions.class));
+        Map<String, Document> inc = increments();
+        assertEquals(List.of("DEPARTMENT:Physics", "SCHOOL:PHYS", "FACULTY:SCI"), List.copyOf(inc.keySet()));
+        Document faculty = inc.get("FACULTY:SCI");
+        assertEquals(1L, faculty.get("projects"));
+        assertEquals(1L, faculty.get("statuses.DRAFT"));
+        assertEquals(new Decimal128(new BigDecimal("1000.00")), faculty.get("totals.AUD.totalCost"));
+    }
+
+    @Test
+    void testMoveAndStatusChangeApplyOnlyTheDifference() {
+        projects(project("p1", 5L, "Chemistry", ProjectStatus.SUBMITTED, "1000.00"));
+        counted(contribution("p1", 4L, "Physics", "DRAFT", "1000.00"));
+
+        service.changed("p1");
+        service.flush();
+
+        Map<String, Document> inc = increments();
+        assertEquals(-1L, inc.get("DEPARTMENT:Physics").get("projects"));
+        assertEquals(1L, inc.get("SCHOOL:CHEM").get("projects"));
+        Document faculty = inc.get("FACULTY:SCI");
+        assertFalse(faculty.containsKey("projects"), "still one project in the faculty");
+        assertFalse(faculty.containsKey("totals.AUD.totalCost"), "same amounts");
+        assertEquals(-1L, faculty.get("statuses.DRAFT"));
+        assertEquals(1L, faculty.get("statuses.SUBMITTED"));
+    }
+
+    @Test
+    void testDeletedProjectIsTakenOutAndUnchangedOneSkipped() {
+        projects(project("p2", 2L, "Physics", ProjectStatus.DRAFT, "10.00"));
+        counted(contribution("p1", 4L, "Physics", "DRAFT", "250.00"),
+                contribution("p2", 2L, "Physics", "DRAFT", "10.00"));
+
+        service.changedAll(List.of("p1", "p2"));
+        service.flush();
+
+        verify(contributions, times(1)).remove(any(Query.class));
+        verify(contributions, never()).replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+        Document dept = increments().get("DEPARTMENT:Physics");
+        assertEquals(-1L, dept.get("projects"));
+        assertEquals(new Decimal128(new BigDecimal("-250.00")), dept.get("totals.AUD.totalCost"));
+    }
+
+    @Test
+    void testReconcileRewritesOnlyRollupsThatDifferFromTheRecount() {
+        Document recount = group("Physics", "DRAFT", 2, "300.00");
+        when(mongo.aggregate(any(Aggregation.class), eq("projects"), eq(Document.class)))
+                .thenReturn(results())
+                .thenReturn(results(recount));
+        when(mongo.aggregate(any(Aggregation.class), eq(CostRollupService.CONTRIBUTIONS), eq(Document.class)))
+                .thenReturn(results())
+                .thenReturn(results(recount));
+        CostRollup dept = rollup(Level.DEPARTMENT, "Physics", "Physics", "SCHOOL:PHYS", 2, "300");
+        CostRollup school = rollup(Level.SCHOOL, "PHYS", "School of Physics", "FACULTY:SCI", 1, "100.00");
+        when(repository.findAll()).thenReturn(List.of(dept, school));
+
+        RollupReconcileReport report = service.reconcile();
+
+        assertEquals("COMPLETED", report.getState());
+        assertEquals(3, report.getBucketsChecked());
+        assertEquals(List.of("FACULTY:SCI", "SCHOOL:PHYS"), report.getRepairedIds());
+        ArgumentCaptor<CostRollup> saved = ArgumentCaptor.forClass(CostRollup.class);
+        verify(repository, times(2)).save(saved.capture());
+        CostRollup fixed = saved.getAllValues().stream().filter(r -> r.getId().equals("SCHOOL:PHYS")).findFirst().orElseThrow();
+        assertEquals(2, fixed.getProjects());
+        assertEquals(0, new BigDecimal("300").compareTo(fixed.getTotals().get("AUD").getTotalCost()));
+        verify(contributions, never()).execute();
+    }
+
+    @Test
+    void testReconcileRewritesAContributionThatIsWrongAtTheProjectsVersion() {
+        // Counted at the project's current version, so nothing is behind, but with the wrong total
+        projects(project("p1", 3L, "Physics", ProjectStatus.DRAFT, "100.00"));
+        counted(contribution("p1", 3L, "Physics", "DRAFT", "999.00"));
+        when(mongo.aggregate(any(Aggregation.class), eq("projects"), eq(Document.class)))
+                .thenReturn(results())
+                .thenReturn(results(group("Physics", "DRAFT", 1, "100.00")));
+        when(mongo.aggregate(any(Aggregation.class), eq(CostRollupService.CONTRIBUTIONS), eq(Document.class)))
+                .thenReturn(results())
+                .thenReturn(results(group("Physics", "DRAFT", 1, "999.00")))
+                .thenReturn(results(group("Physics", "DRAFT", 1, "100.00")));
+        // The rollups agree with the corrupted contribution
+        when(repository.findAll()).thenReturn(List.of(
+                rollup(Level.DEPARTMENT, "Physics", "Physics", "SCHOOL:PHYS", 1, "999.00"),
+                rollup(Level.SCHOOL, "PHYS", "School of Physics", "FACULTY:SCI", 1, "999.00"),
+                rollup(Level.FACULTY, "SCI", "Science", null, 1, "999.00")));
+
+        RollupReconcileReport report = service.reconcile();
+
+        assertEquals("COMPLETED", report.getState());
+        assertEquals(0, report.getProjectsResynced());
+        assertEquals(1, report.getContributionsRewritten());
+        ArgumentCaptor<Document> rewritten = ArgumentCaptor.forClass(Document.class);
+        verify(contributions).replaceOne(any(Query.class), rewritten.capture(), any(FindAndReplaceOptions.class));
+        assertEquals(new Decimal128(new BigDecimal("100.00")),
+                rewritten.getValue().get("amounts", Document.class).get("totalCost"));
+        verify(contributions).execute();
+
+        assertEquals(List.of("DEPARTMENT:Physics", "FACULTY:SCI", "SCHOOL:PHYS"), report.getRepairedIds());
+        ArgumentCaptor<CostRollup> saved = ArgumentCaptor.forClass(CostRollup.class);
+        verify(repository, times(3)).save(saved.capture());
+        for (CostRollup fixed : saved.getAllValues()) {
+            assertEquals(0, new BigDecimal("100").compareTo(fixed.getTotals().get("AUD").getTotalCost()), fixed.getId());
+        }
+    }
+
+    /** $inc of each rollup upserted by the last flush, by rollup id. */
+    private Map<String, Document> increments() {
+        ArgumentCaptor<Query> ids = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(buckets, atLeastOnce()).upsert(ids.capture(), updates.capture());
+        Map<String, Document> inc = new LinkedHashMap<>();
+        for (int i = 0; i < ids.getAllValues().size(); i++) {
+            inc.put(ids.getAllValues().get(i).getQueryObject().getString("_id"),
+                    updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class));
+        }
+        return inc;
+    }
+
+    /** One row of a recount grouped by department, status and currency. */
+    private static Document group(String department, String status, int projects, String total) {
+        return new Document("_id", new Document("department", department).append("status", status)
+                .append("currency", "AUD")).append("projects", projects)
+                .append("totalCost", new Decimal128(new BigDecimal(total)));
+    }
+
+    private static AggregationResults<Document> results(Document... rows) {
+        return new AggregationResults<>(List.of(rows), new Document());
+    }
+
+    private void projects(Project... stored) {
+        when(mongo.find(any(Query.class), eq(Project.class))).thenReturn(List.of(stored));
+    }
+
+    private void counted(Document... stored) {
+        when(mongo.find(any(Query.class), eq(Document.class), eq(CostRollupService.CONTRIBUTIONS))).thenReturn(List.of(stored));
+    }
+
+    private static Project project(String id, long version, String department, ProjectStatus status, String total) {
+        Project p = new Project();
+        p.setId(id);
+        p.setVersion(version);
+        p.setStatus(status);
+        ProjectDetails d = new ProjectDetails();
+        d.setDepartment(department);
+        p.setDetails(d);
+        PriceSummary s = new PriceSummary();
+        s.setTotalCost(new Money(new BigDecimal(total), "AUD"));
+        p.setPriceSummary(s);
+        return p;
+    }
+
+    private static Document contribution(String id, long version, String department, String status, String total) {
+        Document amounts = new Document();
+        for (String f : List.of("directStaffCost", "directNonStaffCost", "indirectCost", "totalCost",
+                "sponsorPrice", "gst", "totalPriceInclGst")) {
+            amounts.append(f, new Decimal128(f.equals("totalCost") ? new BigDecimal(total) : BigDecimal.ZERO));
+        }
+        return new Document("_id", id).append("version", version).append("department", department)
+                .append("status", status).append("currency", "AUD").append("amounts", amounts);
+    }
+
+    private static CostRollup rollup(Level level, String key, String name, String parentId, long projects, String total) {
+        CostRollup r = new CostRollup();
+        r.setId(CostRollup.idOf(level, key));
+        r.setLevel(level);
+        r.setKey(key);
+        r.setName(name);
+        r.setParentId(parentId);
+        r.setProjects(projects);
+        Map<String, Long> statuses = new HashMap<>();
+        statuses.put("DRAFT", projects);
+        statuses.put("SUBMITTED", 0L);
+        r.setStatuses(statuses);
+        CostRollup.Amounts a = new CostRollup.Amounts();
+        a.setTotalCost(new BigDecimal(total));
+        r.setTotals(Map.of("AUD", a));
+        return r;
+    }
+
+    private static DepartmentAndFaculty department(String name, String schoolCode, String school) {
+        DepartmentAndFaculty d = new DepartmentAndFaculty();
+        d.setDepartment(name);
+        d.setSchoolCode(schoolCode);
+        d.setSchool(school);
+        d.setFacultyCode("SCI");
+        d.setFaculty("Science");
+        return d;
+    }
+}
@@ -0,0 +1,129 @@
+package com.itproject.rcpt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProjectCacheTest {
+
+    private ProjectRepository projects;
+    private RateCardService rateCards;
+    private ProjectCache cache;
+
+    @BeforeEach
+    void setUp() {
+        projects = mock(ProjectRepository.class);
+        rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(RateCard.empty(1));
+        PricingCache pricing = mock(PricingCache.class);
+        when(pricing.withCurrentPrice(any())).thenAnswer(inv -> inv.getArgument(0));
+        cache = new ProjectCache(projects, pricing, rateCards, new ProjectMapperImpl(),
+                new ObjectMapper().findAndRegisterModules(), 2);
+
+        when(projects.findById("p1")).thenAnswer(inv -> Optional.of(project("p1", 3L)));
+        when(projects.findById("p2")).thenAnswer(inv -> Optional.of(project("p2", 1L)));
+        when(projects.findById("p3")).thenAnswer(inv -> Optional.of(project("p3", 1L)));
+    }
+
+    @Test
+    void testRepeatedReadsSkipMongoAndSerializeOnce() {
+        Project first = cache.get("p1").orElseThrow();
+        byte[] json = cache.responseJson("p1").orElseThrow().json();
+
+        assertSame(first, cache.get("p1").orElseThrow());
+        assertSame(json, cache.responseJson("p1").orElseThrow().json());
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"title\":\"Project p1\""));
+        verify(projects, times(1)).findById("p1");
+        assertEquals(3, cache.stats().getHits());
+        assertEquals(1, cache.stats().getResponseHits());
+    }
+
+    @Test
+    void testETagComesFromTheEntryOrJustTheStoredVersion() {
+        when(projects.findVersion("p2")).thenReturn(Optional.of(1L));
+
+        cache.get("p1");
+        assertEquals(new ProjectCache.Tag(3L, "p1.3.1"), cache.etag("p1").orElseThrow());
+        assertEquals("p1.3.1", cache.responseJson("p1").orElseThrow().etag().value());
+        assertEquals(new ProjectCache.Tag(1L, "p2.1.1"), cache.etag("p2").orElseThrow(), "not loaded");
+        assertTrue(cache.etag("nope").isEmpty());
+        verify(projects, never()).findById("p2");
+        verify(projects, never()).findVersion("p1");
+        assertEquals(2, cache.stats().getVersionReads());
+
+        when(rateCards.current()).thenReturn(RateCard.empty(2));
+        when(projects.findVersion("p1")).thenReturn(Optional.of(3L));
+        assertEquals("p1.3.2", cache.etag("p1").orElseThrow().value(), "repriced response, new tag");
+    }
+
+    @Test
+    void testWritesAndRateChangesInvalidate() {
+        cache.get("p1");
+        cache.evict("p1");
+        cache.get("p1");
+        verify(projects, times(2)).findById("p1");
+        assertEquals(1, cache.stats().getInvalidations());
+
+        when(rateCards.current()).thenReturn(RateCard.empty(2));
+        cache.get("p1");
+        verify(projects, times(3)).findById("p1");
+    }
+
+    @Test
+    void testReadRacingAWriteIsNotKept() {
+        when(projects.findById("p1")).thenAnswer(inv -> {
+            Optional<Project> read = Optional.of(project("p1", 3L));
+            cache.evict("p1"); // saved meanwhile
+            return read;
+        }).thenAnswer(inv -> Optional.of(project("p1", 4L)));
+
+        assertEquals(3L, cache.get("p1").orElseThrow().getVersion(), "served to its caller");
+        assertEquals(4L, cache.get("p1").orElseThrow().getVersion(), "but read again next time");
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedAtCapacity() {
+        cache.get("p1");
+        cache.get("p2");
+        cache.get("p1");
+        cache.get("p3");
+
+        assertEquals(2, cache.stats().getSize());
+        assertEquals(1, cache.stats().getEvictions());
+        cache.get("p1");
+        cache.get("p2");
+        verify(projects, times(1)).findById("p1");
+        verify(projects, times(2)).findById("p2");
+    }
+
+    @Test
+    void testMissingProjectIsNotCached() {
+        assertTrue(cache.get("nope").isEmpty());
+        assertTrue(cache.responseJson("nope").isEmpty());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    private static Project project(String id, long version) {
+        Project p = new Project();
+        p.setId(id);
+        p.setVersion(version);
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Project " + id);
+        p.setDetails(d);
+        return p;
+    }
+}
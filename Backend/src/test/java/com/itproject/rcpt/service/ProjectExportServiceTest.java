@@ -0,0 +1,79 @@
+package com.itproject.rcpt.service;
+
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.domain.StaffCost;
+import com.lowagie.text.pdf.PdfReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProjectExportServiceTest {
+
+    private ProjectCache projectCache;
+    private ApprovalHistoryService approvalHistory;
+    private ProjectExportService service;
+
+    @BeforeEach
+    void setUp() {
+        projectCache = mock(ProjectCache.class);
+        approvalHistory = mock(ApprovalHistoryService.class);
+        service = new ProjectExportService(projectCache, approvalHistory);
+    }
+
+    @Test
+    void testLargeProjectIsWrittenPageByPageWithoutClosingTheStream() throws Exception {
+        Project project = project(1000);
+        AtomicInteger closed = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+        // The approval history is read after the cost tables: their pages are already out by then
+        AtomicInteger writtenBeforeHistory = new AtomicInteger();
+        when(approvalHistory.all("p1")).thenAnswer(inv -> {
+            writtenBeforeHistory.set(out.size());
+            return List.of();
+        });
+
+        service.writePdf(project, out);
+
+        assertTrue(writtenBeforeHistory.get() > out.size() / 2, "cost line pages written as they filled");
+        assertEquals(0, closed.get(), "the caller owns the stream");
+        PdfReader pdf = new PdfReader(out.toByteArray());
+        assertTrue(pdf.getNumberOfPages() > 10);
+        pdf.close();
+    }
+
+    @Test
+    void testMissingProjectFailsBeforeAnythingIsWritten() {
+        when(projectCache.get("nope")).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> service.load("nope"));
+    }
+
+    private static Project project(int staffLines) {
+        Project p = new Project();
+        p.setId("p1");
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Dark matter");
+        p.setDetails(d);
+        for (int i = 0; i < staffLines; i++) {
+            StaffCost s = new StaffCost();
+            s.setRole("Research Fellow " + i);
+            s.setUnits(0.5);
+            p.getStaffCosts().add(s);
+        }
+        return p;
+    }
+}
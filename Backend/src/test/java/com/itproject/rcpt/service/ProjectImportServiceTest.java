@@ -0,0 +1,212 @@
+package com.itproject.rcpt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.dto.project.ProjectImportReport;
+import com.itproject.rcpt.dto.project.ProjectImportReport.RecordError;
+import com.itproject.rcpt.jpa.entities.DepartmentAndFaculty;
+import com.itproject.rcpt.jpa.entities.NonStaffCosts;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import com.itproject.rcpt.pricing.PricingService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProjectImportServiceTest {
+
+    private MongoTemplate mongo;
+    private BulkOperations bulk;
+    private ProjectImportService service;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        mongo = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongo.getConverter()).thenReturn(converter);
+        when(mongo.bulkOps(any(BulkOperations.BulkMode.class), eq(Project.class))).thenReturn(bulk);
+        BulkWriteResult ok = mock(BulkWriteResult.class);
+        when(ok.getMatchedCount()).thenReturn(1);
+        when(bulk.execute()).thenReturn(ok);
+
+        SalaryRate level = new SalaryRate();
+        level.setCode("LEVEL");
+        level.setFteRate(new BigDecimal("100000.00"));
+        DepartmentAndFaculty physics = new DepartmentAndFaculty();
+        physics.setDepartment("Physics");
+        RateCard card = RateCard.empty(1)
+                .with(LookupTable.SALARY_RATE, List.of(level), 1)
+                .with(LookupTable.NON_STAFF_COSTS, List.of(new NonStaffCosts("Travel", "TRAVEL")), 1)
+                .with(LookupTable.DEPARTMENT_AND_FACULTY, List.of(physics), 1);
+        RateCardService rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(card);
+        PricingService pricing = new PricingService(rateCards, new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD");
+
+        service = new ProjectImportService(mongo, new ProjectMapperImpl(), pricing, rateCards, mock(ProjectCache.class),
+                mock(CostRollupService.class), new ObjectMapper().findAndRegisterModules(), 2, 100);
+    }
+
+    @Test
+    void testNdjsonImportsValidRecordsAndReportsTheRest() {
+        String upload = String.join("\n",
+                "{\"type\":\"PROJECT\",\"ref\":\"p1\",\"details\":{\"title\":\"Dark matter\",\"department\":\"Physics\"}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":1,\"value\":0.5}]}}",
+                "{\"type\":\"NON_STAFF\",\"ref\":\"p1\",\"nonStaff\":{\"expenseTypeCode\":\"Travel\",\"unitCost\":{\"amount\":100},\"units\":3}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"NOPE\",\"time\":[{\"year\":1,\"value\":1}]}}",
+                "{not json",
+                "",
+                "{\"type\":\"STAFF\",\"ref\":\"p9\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":1,\"value\":1}]}}");
+
+        // Records 1-2 fill the first batch; the non-staff line then goes to the stored project
+        List<Project> inserted = new ArrayList<>();
+        doAnswer(inv -> {
+            inserted.add(inv.getArgument(0));
+            return bulk;
+        }).when(bulk).insert(any(Project.class));
+        when(mongo.find(any(Query.class), eq(Project.class))).thenAnswer(inv -> List.of(stored(inserted.get(0).getId())));
+
+        ProjectImportReport report = service.importRecords(stream(upload), ProjectImportService.Format.NDJSON, "owner-1");
+
+        assertEquals(1, inserted.size());
+        Project p = inserted.get(0);
+        assertEquals("owner-1", p.getOwnerUserId());
+        assertEquals(1, p.getStaffCosts().size());
+        assertNotNull(p.getPriceSummary(), "priced before insert");
+        assertEquals(0L, p.getVersion());
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), updates.capture());
+        Document push = updates.getAllValues().get(0).getUpdateObject();
+        assertEquals(List.of("nonStaffCosts"), List.copyOf(push.get("$push", Document.class).keySet()));
+        assertTrue(push.get("$unset", Document.class).containsKey("priceSummary"));
+        assertNotNull(updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("priceSummary"),
+                "repriced after the push");
+
+        assertEquals(6, report.getRecords());
+        assertEquals(1, report.getProjectsCreated());
+        assertEquals(1, report.getStaffLinesImported());
+        assertEquals(1, report.getNonStaffLinesImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(4L, 5L, 7L), report.getErrors().stream().map(RecordError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().contains("Unknown classification"));
+        assertTrue(report.getErrors().get(2).getMessage().contains("Unknown ref"));
+    }
+
+    @Test
+    void testCsvRowsMapToTheSameRecords() {
+        String upload = String.join("\r\n",
+                "Type,ref,title,department,expenseTypeCode,unitCost,years,notes",
+                "PROJECT,a,Lab fit-out,Chemistry,,,,",
+                "PROJECT,b,\"Survey, stage 2\",Physics,,,,",
+                "NON_STAFF,b,,,Travel,250.00,1:2;2:3,\"two trips\nthen three\"",
+                "NON_STAFF,b,,,Travel,x,,");
+
+        ProjectImportReport report = service.importRecords(stream(upload), ProjectImportService.Format.CSV, "owner-1");
+
+        ArgumentCaptor<Project> inserted = ArgumentCaptor.forClass(Project.class);
+        verify(bulk).insert(inserted.capture());
+        Project p = inserted.getValue();
+        assertEquals("Survey, stage 2", p.getDetails().getTitle());
+        var line = p.getNonStaffCosts().get(0);
+        assertEquals("TRAVEL", line.getCategoryCode(), "category taken from the expense catalog");
+        assertEquals(2, line.getPerYearUnits().size());
+        assertEquals("two trips\nthen three", line.getNotes());
+
+        assertEquals(List.of(2L, 6L), report.getErrors().stream().map(RecordError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().contains("Unknown department"));
+        assertEquals(2, report.getFailed());
+    }
+
+    @Test
+    void testFailedPushIsReportedAgainstItsLinesAndTheImportGoesOn() {
+        String upload = String.join("\n",
+                "{\"type\":\"PROJECT\",\"ref\":\"p1\",\"details\":{\"title\":\"Dark matter\",\"department\":\"Physics\"}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":1,\"value\":0.5}]}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":1,\"value\":1}]}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":2,\"value\":1}]}}",
+                "{\"type\":\"STAFF\",\"ref\":\"p1\",\"staff\":{\"classification\":\"LEVEL\",\"time\":[{\"year\":3,\"value\":1}]}}");
+        List<Project> inserted = new ArrayList<>();
+        doAnswer(inv -> {
+            inserted.add(inv.getArgument(0));
+            return bulk;
+        }).when(bulk).insert(any(Project.class));
+        when(mongo.find(any(Query.class), eq(Project.class))).thenAnswer(inv -> List.of(stored(inserted.get(0).getId())));
+        BulkWriteResult ok = mock(BulkWriteResult.class);
+        when(ok.getMatchedCount()).thenReturn(1);
+        BulkOperationException timeout = new BulkOperationException("push failed", new MongoBulkWriteException(
+                ok, List.of(new BulkWriteError(50, "operation exceeded time limit", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of()));
+        // Insert, the first push (lines 3-4), then the second push (line 5) and its reprice
+        when(bulk.execute()).thenReturn(ok).thenThrow(timeout).thenReturn(ok);
+
+        ProjectImportReport report = service.importRecords(stream(upload), ProjectImportService.Format.NDJSON, "owner-1");
+
+        assertEquals(List.of(3L, 4L), report.getErrors().stream().map(RecordError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().contains("exceeded time limit"));
+        assertEquals(2, report.getStaffLinesImported());
+        assertEquals(2, report.getFailed());
+        verify(mongo, times(1)).find(any(Query.class), eq(Project.class));
+    }
+
+    @Test
+    void testUnknownCsvColumnRejectsTheUpload() {
+        assertThrows(IllegalArgumentException.class, () -> service.importRecords(
+                stream("type,colour\nPROJECT,red"), ProjectImportService.Format.CSV, "owner-1"));
+        verifyNoInteractions(bulk);
+    }
+
+    private static Project stored(String id) {
+        Project p = new Project();
+        p.setId(id);
+        p.setVersion(1L);
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Dark matter");
+        p.setDetails(d);
+        p.setStaffCosts(new ArrayList<>());
+        p.setNonStaffCosts(new ArrayList<>());
+        return p;
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.itproject.rcpt.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itproject.rcpt.domain.Project;
+import com.itproject.rcpt.domain.ProjectDetails;
+import com.itproject.rcpt.dto.staff.StaffCostRequest;
+import com.itproject.rcpt.jpa.entities.SalaryRate;
+import com.itproject.rcpt.jpa.ratecard.LookupTable;
+import com.itproject.rcpt.jpa.ratecard.RateCard;
+import com.itproject.rcpt.jpa.ratecard.RateCardService;
+import com.itproject.rcpt.mapper.ProjectMapperImpl;
+import com.itproject.rcpt.pricing.PricingCache;
+import com.itproject.rcpt.pricing.PricingService;
+import com.itproject.rcpt.repository.ProjectRepository;
+import com.itproject.rcpt.service.ProjectPatchService.Format;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProjectPatchServiceTest {
+
+    private static final String LINE = "{\"classification\":\"LEVEL\",\"time\":[{\"year\":1,\"value\":0.5}]}";
+
+    private final ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+    private ProjectRepository repository;
+    private PricingService pricing;
+    private ProjectPatchService service;
+
+    @BeforeEach
+    void setUp() {
+        SalaryRate level = new SalaryRate();
+        level.setCode("LEVEL");
+        level.setFteRate(new BigDecimal("100000.00"));
+        RateCard card = RateCard.empty(1).with(LookupTable.SALARY_RATE, List.of(level), 1);
+        RateCardService rateCards = mock(RateCardService.class);
+        when(rateCards.current()).thenReturn(card);
+        pricing = new PricingService(rateCards, new BigDecimal("0.30"), new BigDecimal("0.10"), "AUD");
+
+        PricingCache pricingCache = mock(PricingCache.class);
+        when(pricingCache.withCurrentPrice(any())).thenAnswer(inv -> inv.getArgument(0));
+        repository = mock(ProjectRepository.class);
+        when(repository.patch(anyString(), any(), any(Update.class))).thenAnswer(inv -> Optional.of(new Project()));
+        service = new ProjectPatchService(repository, new ProjectMapperImpl(), pricing, pricingCache,
+                mock(ProjectCache.class), mock(CostRollupService.class), json);
+    }
+
+    @Test
+    void testMergePatchOfDetailsWritesOnlyThoseFieldsWithoutAReadAtThatVersion() throws Exception {
+        service.patch("p1", json.readTree(
+                "{\"version\":4,\"details\":{\"title\":\"Dark matter II\",\"referenceCode\":null}}"), Format.MERGE_PATCH);
+
+        Document update = captureUpdate(4L);
+        assertEquals(new Document("details.title", "Dark matter II"), update.get("$set"));
+        assertTrue(update.get("$unset", Document.class).containsKey("details.referenceCode"));
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void testAppendedLineIsPushedAndRepricedAtTheVersionRead() throws Exception {
+        Project stored = stored(1);
+        when(repository.findById("p1")).thenReturn(Optional.of(stored));
+
+        service.patch("p1", json.readTree("[{\"op\":\"test\",\"path\":\"/version\",\"value\":7},"
+                + "{\"op\":\"add\",\"path\":\"/staff/-\",\"value\":" + LINE + "}]"), Format.JSON_PATCH);
+
+        Document update = captureUpdate(7L);
+        assertEquals(List.of("staffCosts"), List.copyOf(update.get("$push", Document.class).keySet()));
+        Document set = update.get("$set", Document.class);
+        assertEquals(List.of("priceSummary"), List.copyOf(set.keySet()), "untouched lines are not rewritten");
+    }
+
+    @Test
+    void testRemovingALineRewritesThatListOnly() throws Exception {
+        Project stored = stored(2);
+        when(repository.findById("p1")).thenReturn(Optional.of(stored));
+
+        service.patch("p1", json.readTree("[{\"op\":\"remove\",\"path\":\"/staff/0\"}]"), Format.JSON_PATCH);
+
+        Document set = captureUpdate(7L).get("$set", Document.class);
+        assertEquals(1, ((List<?>) set.get("staffCosts")).size());
+        assertFalse(set.containsKey("nonStaffCosts"));
+    }
+
+    @Test
+    void testRejectedPatches() throws Exception {
+        Project stored = stored(1);
+        when(repository.findById("p1")).thenReturn(Optional.of(stored));
+
+        assertThrows(ConflictException.class, () -> service.patch("p1", json.readTree(
+                "{\"version\":6,\"staff\":[]}"), Format.MERGE_PATCH));
+        assertThrows(IllegalArgumentException.class, () -> service.patch("p1", json.readTree(
+                "[{\"op\":\"remove\",\"path\":\"/details/title\"}]"), Format.JSON_PATCH));
+        assertThrows(IllegalArgumentException.class, () -> service.patch("p1", json.readTree(
+                "[{\"op\":\"replace\",\"path\":\"/staff/0/notes\",\"value\":\"x\"}]"), Format.JSON_PATCH));
+        assertThrows(IllegalArgumentException.class, () -> service.patch("p1", json.readTree(
+                "[{\"op\":\"move\",\"from\":\"/staff/0\",\"path\":\"/staff/1\"}]"), Format.JSON_PATCH));
+        assertThrows(IllegalArgumentException.class, () -> service.patch("p1", json.readTree(
+                "[{\"op\":\"replace\",\"path\":\"/staff/3\",\"value\":" + LINE + "}]"), Format.JSON_PATCH));
+        verify(repository, never()).patch(anyString(), any(), any(Update.class));
+    }
+
+    private Document captureUpdate(Long version) {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).patch(eq("p1"), eq(version), update.capture());
+        return update.getValue().getUpdateObject();
+    }
+
+    /** Version 7 with the given number of staff lines, priced against the current rate card. */
+    private Project stored(int staffLines) throws Exception {
+        Project p = new Project();
+        p.setId("p1");
+        p.setVersion(7L);
+        ProjectDetails d = new ProjectDetails();
+        d.setTitle("Dark matter");
+        p.setDetails(d);
+        JsonNode line = json.readTree(LINE);
+        for (int i = 0; i < staffLines; i++) {
+            p.getStaffCosts().add(new ProjectMapperImpl().toStaffCost(
+                    json.treeToValue(line, StaffCostRequest.class)));
+        }
+        return pricing.applyTo(p);
+    }
+}
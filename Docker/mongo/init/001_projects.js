@@ -35,7 +35,7 @@
 
   // Base indexes for UI queries
   print('[001] Ensuring base indexes');
-  rcpt.projects.createIndex({ ownerUserId: 1, status: 1, createdAt: -1 }, { name: 'owner_status_created_idx' });
+  rcpt.projects.createIndex({ ownerUserId: 1, status: 1, createdAt: -1, _id: -1 }, { name: 'owner_status_created_idx' });
   // Project List with recency sort
   rcpt.projects.createIndex({ 'approvals.email': 1, status: 1, updatedAt: -1 }, { name: 'approver_status_updated_idx' });
   // Approver inbox with recency sort
@@ -45,5 +45,5 @@
   );
 
   // Optional search helpers (uncomment if we want text searches, using key words)
-  // rcpt.projects.createIndex({ title: "text", scheme: "text", funder: "text" }, { name: "projects_text_idx" });
+  // rcpt.projects.createIndex({ "details.title": "text", "details.funder": "text", "details.referenceCode": "text", "details.department": "text" }, { name: "projects_text_idx" });
 })();
@@ -1,18 +1,31 @@
 db = db.getSiblingDB("rcpt");
 db.projects.createIndex({ ownerUserId: 1, status: 1, createdAt: -1 }); // Speeds up “My Projects” list views and sorts by most recent
 db.projects.createIndex({ "approvals.approverUserId": 1, status: 1 });   // Fast “Approver inbox”: show items awaiting for approver. increase queue process
-db.projects.createIndex({ title: "text", scheme: "text", funder: "text" }); // simple search bar for keywords of title/scheme/fund 
 
 // Ensures indexes exist for common FE queries (createIndex is idempotent).
 
 (function () {
     var rcpt = db.getSiblingDB("rcpt");
   
-    //Projects list (owner + status + createdAt + desc) and sorts by most recent
+    //Projects list (owner + status + createdAt + desc) and sorts by most recent; _id breaks ties for cursor paging
     rcpt.projects.createIndex(
-      { ownerUserId: 1, status: 1, createdAt: -1 },
+      { ownerUserId: 1, status: 1, createdAt: -1, _id: -1 },
       { name: "owner_status_created_idx" }
     );
+
+    // Department / funder / status-only list filters, same shape as owner_status_created_idx
+    rcpt.projects.createIndex(
+      { "details.department": 1, status: 1, createdAt: -1, _id: -1 },
+      { name: "dept_status_created_idx" }
+    );
+    rcpt.projects.createIndex(
+      { "details.funder": 1, status: 1, createdAt: -1, _id: -1 },
+      { name: "funder_status_created_idx" }
+    );
+    rcpt.projects.createIndex(
+      { status: 1, createdAt: -1, _id: -1 },
+      { name: "status_created_idx" }
+    );
   
     // Approver inbox show items awaiting for approver.
     rcpt.projects.createIndex(
@@ -26,9 +39,9 @@ db.projects.createIndex({ title: "text", scheme: "text", funder: "text" }); // s
       { name: "project_code_uq", unique: true, partialFilterExpression: { code: { $type: "string" } } }
     );
   
-    // Text search across main fields 
+    // Text search across main fields (they live under details); one text index per collection
     rcpt.projects.createIndex(
-      { title: "text", scheme: "text", funder: "text" },
+      { "details.title": "text", "details.funder": "text", "details.referenceCode": "text", "details.department": "text" },
       { name: "projects_text_idx" }
     );
   
@@ -37,8 +50,14 @@ db.projects.createIndex({ title: "text", scheme: "text", funder: "text" }); // s
     rcpt.projects.createIndex({ scheme_lc: 1 }, { name: "scheme_lc_idx" });
     rcpt.projects.createIndex({ funder_lc: 1 }, { name: "funder_lc_idx" });
   
+    // Approval history buckets, newest first per project
+    rcpt.approval_history.createIndex({ projectId: 1, bucket: -1 }, { name: "project_bucket_idx" });
+
+    // Cost rollups: nodes are read by _id; children by their parent
+    rcpt.cost_rollups.createIndex({ parentId: 1 }, { name: "parent_idx" });
+
     // Recency sorts
-    rcpt.projects.createIndex({ createdAt: -1 }, { name: "created_desc_idx" });
-    rcpt.projects.createIndex({ updatedAt: -1 }, { name: "updated_desc_idx" });
+    rcpt.projects.createIndex({ createdAt: -1, _id: -1 }, { name: "created_desc_idx" });
+    rcpt.projects.createIndex({ updatedAt: -1, _id: -1 }, { name: "updated_desc_idx" }); // _id breaks ties for cursor paging
   })();
   
\ No newline at end of file
@@ -139,7 +139,7 @@
     });
   
     // Re-ensure important indexes
-    rcpt.projects.createIndex({ ownerUserId: 1, status: 1, createdAt: -1 }, { name: 'owner_status_created_idx' });
+    rcpt.projects.createIndex({ ownerUserId: 1, status: 1, createdAt: -1, _id: -1 }, { name: 'owner_status_created_idx' });
     rcpt.projects.createIndex({ 'approvals.email': 1, status: 1, updatedAt: -1 }, { name: 'approver_status_updated_idx' });
     rcpt.projects.createIndex(
       { code: 1 },
@@ -0,0 +1,20 @@
+--------- Table ---------
+-- AUD value of one unit of each currency, effective from a date until the next row for that currency.
+-- AUD itself is implicit (always 1) and needs no row.
+CREATE TABLE IF NOT EXISTS fx_rate (
+    currency CHAR(3) NOT NULL,
+    effective_from DATE NOT NULL,
+    aud_per_unit DECIMAL(18,8) NOT NULL CHECK (aud_per_unit > 0),
+    PRIMARY KEY (currency, effective_from)
+);
+
+--------- Insert Values ---------
+-- Indicative starting values only; finance maintains the table via /api/fx-rates.
+INSERT INTO fx_rate (currency, effective_from, aud_per_unit) VALUES
+('USD', '2025-01-01', 1.55000000),
+('EUR', '2025-01-01', 1.68000000),
+('GBP', '2025-01-01', 1.98000000),
+('NZD', '2025-01-01', 0.91000000),
+('JPY', '2025-01-01', 0.01020000),
+('CNY', '2025-01-01', 0.21300000),
+('SGD', '2025-01-01', 1.15000000);